@@ -0,0 +1,30 @@
+@echo off
+echo  Pruebas de rendimiento de Dark Kitchen...
+
+REM Uso: bench.bat <Clase> [argumentos]   (por ejemplo: bench.bat OrderIngestBench 8 30)
+if "%~1"=="" (
+    echo  Indica la prueba a ejecutar, por ejemplo: bench.bat OrderIngestBench
+    pause
+    exit /b 1
+)
+
+REM Verificar si existe el conector MySQL
+if not exist lib\mysql-connector*.jar (
+    echo  Conector MySQL no encontrado en lib/
+    pause
+    exit /b 1
+)
+
+if not exist bench-classes mkdir bench-classes
+
+REM Compilar la aplicación y las pruebas juntas
+javac -encoding UTF-8 -d bench-classes -cp "lib/*" src/com/darkkitchen/dao/*.java src/com/darkkitchen/io/*.java src/com/darkkitchen/model/*.java src/com/darkkitchen/order/*.java src/com/darkkitchen/pricing/*.java src/com/darkkitchen/search/*.java bench/com/darkkitchen/dao/*.java bench/com/darkkitchen/bench/*.java
+if %ERRORLEVEL% NEQ 0 (
+    echo  Error en la compilación de las pruebas
+    pause
+    exit /b 1
+)
+
+set BENCH_CLASS=%~1
+shift
+java -Xms1g -Xmx1g -cp "bench-classes;lib/*" com.darkkitchen.bench.%BENCH_CLASS% %1 %2 %3 %4 %5 %6 %7 %8 %9
@@ -0,0 +1,96 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.dao.ChangeBus;
+import com.darkkitchen.dao.ChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de rendimiento de ChangeBus: varios hilos publican cambios de clientes elegidos
+ * al azar (como una importación o varias cajas editando a la vez) y un listener cuenta lo que le llega. Mide la latencia de publicar, cuántos
+ * cambios se combinan antes de avisar y cuántas consultas haría la tabla de clientes
+ * comparado con el camino anterior (refreshData por cada escritura: conteo y una página).
+ * No usa la base de datos.
+ *
+ * Uso: ChangeBusBench [hilos=4] [segundos=10] [filas=1000] [cambios por segundo por hilo=2000]
+ */
+public class ChangeBusBench {
+
+    // Consultas de refreshData: COUNT(*) y la página visible
+    private static final int QUERIES_PER_RELOAD = 2;
+    // Consultas por fila parchada en CustomerPanel: readById y countBefore
+    private static final int QUERIES_PER_PATCH = 2;
+    // Con más cambios por ráfaga CustomerPanel recarga la tabla
+    private static final int MAX_ROW_PATCHES = 50;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        int ratePerThread = args.length > 3 ? Integer.parseInt(args[3]) : 2_000;
+        long pauseNanos = 1_000_000_000L / Math.max(1, ratePerThread);
+
+        System.out.printf("Cambios: %d hilos, %d s, %d filas, %d cambios/s por hilo%n",
+            threads, seconds, rows, ratePerThread);
+
+        LongAdder deliveredEvents = new LongAdder();
+        LongAdder bursts = new LongAdder();
+        LongAdder patchQueries = new LongAdder();
+        ChangeBus bus = ChangeBus.getInstance();
+        bus.subscribe(ChangeEvent.Entity.CUSTOMER, events -> {
+            deliveredEvents.add(events.size());
+            bursts.increment();
+            patchQueries.add(events.size() > MAX_ROW_PATCHES ? QUERIES_PER_RELOAD : (long) events.size() * QUERIES_PER_PATCH);
+        });
+
+        List<Thread> workers = new ArrayList<>();
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        LongAdder published = new LongAdder();
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        for (int t = 0; t < threads; t++) {
+            LatencyRecorder recorder = new LatencyRecorder(1 << 16);
+            recorders.add(recorder);
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long next = System.nanoTime();
+                while (next < end) {
+                    int customerId = 1 + random.nextInt(rows);
+                    ChangeEvent.Type type = random.nextInt(20) == 0 ? ChangeEvent.Type.DELETE : ChangeEvent.Type.UPDATE;
+                    long start = System.nanoTime();
+                    bus.publish(ChangeEvent.Entity.CUSTOMER, type, customerId);
+                    recorder.record(System.nanoTime() - start);
+                    published.increment();
+                    next += pauseNanos;
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+            }, "bench-publisher-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // Esperar la última ráfaga
+        Thread.sleep(200);
+
+        LatencyRecorder total = new LatencyRecorder(1 << 16);
+        for (LatencyRecorder recorder : recorders) {
+            total.merge(recorder);
+        }
+        long before = published.sum() * QUERIES_PER_RELOAD;
+        System.out.printf("Publicar: p50 %.2f µs | p99 %.2f µs%n",
+            total.percentileMillis(50) * 1000, total.percentileMillis(99) * 1000);
+        System.out.printf("Publicados: %d | entregados: %d en %d ráfagas (%.1f%% combinados)%n",
+            published.sum(), deliveredEvents.sum(), bursts.sum(),
+            100.0 * (published.sum() - deliveredEvents.sum()) / Math.max(1, published.sum()));
+        System.out.printf("Consultas de la tabla: %d con refreshData por escritura | %d con parches (%.1fx menos)%n",
+            before, patchQueries.sum(), before / (double) Math.max(1, patchQueries.sum()));
+        System.out.println(bus.getStats());
+    }
+}
@@ -0,0 +1,349 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.dao.CustomerDAO;
+import com.darkkitchen.dao.DatabaseConnection;
+import com.darkkitchen.dao.DishDAO;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pruebas de rendimiento de la capa de datos contra una base MySQL/MariaDB local: préstamo de
+ * conexiones del pool, DishDAO.readAll/readById/searchByName, CustomerDAO.readAll/searchByName
+ * y la conversión de filas a Dish y Customer (mapDish y mapCustomer sobre un ResultSet ya
+ * leído, sin red). Cada prueba se calienta un segundo y luego se mide durante el tiempo
+ * indicado; se reportan operaciones por segundo, filas por segundo y percentiles.
+ *
+ * Los resultados se guardan como JSON en bench-results/ con la fecha y el commit, para
+ * comparar entre versiones con --compare. Con --seed se completan Customer y Dish hasta el
+ * número de filas pedido (SeedData; solo con una base local de pruebas). Con 1 000 000 de
+ * filas, readAll necesita más memoria que la de bench.bat (por ejemplo, java -Xmx4g).
+ *
+ * Uso: DaoBench [filas=10000] [segundos por prueba=5] [--seed] [--compare resultados.json]
+ * Termina con código 1 si alguna prueba falla (por ejemplo, el DAO no regresa filas).
+ */
+public class DaoBench {
+
+    private static final int MAPPING_ROWS = 100_000;
+    private static final long WARMUP_NANOS = 1_000_000_000L;
+    private static final Path RESULTS_DIR = Paths.get("bench-results");
+    private static final Pattern RESULT = Pattern.compile("\"name\": \"([^\"]+)\".*\"opsPerSecond\": ([0-9.]+)");
+    // Mismo límite que los paneles de búsqueda
+    private static final int SEARCH_LIMIT = 200;
+    private static final String[] DISH_TERMS = {"tacos", "pozole", "torta", "pollo", "pastor", "camarón", "queso", "birria"};
+
+    // Una operación medida; regresa las filas que procesó, o -1 si falló
+    private interface Operation {
+        int run() throws Exception;
+    }
+
+    private static final class Result {
+        final String name;
+        final long ops;
+        final long rows;
+        final double seconds;
+        final LatencyRecorder latency;
+
+        Result(String name, long ops, long rows, double seconds, LatencyRecorder latency) {
+            this.name = name;
+            this.ops = ops;
+            this.rows = rows;
+            this.seconds = seconds;
+            this.latency = latency;
+        }
+
+        double opsPerSecond() {
+            return ops / seconds;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = 10_000;
+        int seconds = 5;
+        boolean seed = false;
+        Path compare = null;
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--seed")) {
+                seed = true;
+            } else if (args[i].equals("--compare")) {
+                compare = Paths.get(args[++i]);
+            } else {
+                numbers.add(Integer.parseInt(args[i]));
+            }
+        }
+        if (numbers.size() > 0) {
+            rows = numbers.get(0);
+        }
+        if (numbers.size() > 1) {
+            seconds = numbers.get(1);
+        }
+
+        int customers;
+        int dishes;
+        int[] dishIds;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (seed) {
+                topUp(conn, rows);
+            }
+            customers = SeedData.intValue(conn, "SELECT COUNT(*) FROM Customer");
+            dishes = SeedData.intValue(conn, "SELECT COUNT(*) FROM Dish");
+            dishIds = new int[] {SeedData.intValue(conn, "SELECT MIN(dish_id) FROM Dish"),
+                SeedData.intValue(conn, "SELECT MAX(dish_id) FROM Dish")};
+        }
+        System.out.printf("Capa de datos: %d clientes, %d platillos, %d s por prueba%n", customers, dishes, seconds);
+        if (customers < rows * 0.9 || dishes < rows * 0.9) {
+            System.out.println("⚠️ La base tiene menos filas de las pedidas; usa --seed para completarlas");
+        }
+
+        DishDAO dishDAO = new DishDAO();
+        CustomerDAO customerDAO = new CustomerDAO();
+        long nanos = seconds * 1_000_000_000L;
+        List<Result> results = new ArrayList<>();
+        int failures = 0;
+
+        Map<String, Operation> suites = new LinkedHashMap<>();
+        suites.put("DatabaseConnection.getConnection", () -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                return conn.isClosed() ? -1 : 0;
+            }
+        });
+        suites.put("DatabaseConnection.getConnection+SELECT1", () -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT 1")) {
+                return rs.next() ? 1 : -1;
+            }
+        });
+        suites.put("DishDAO.readById", () -> {
+            int id = dishIds[0] + ThreadLocalRandom.current().nextInt(Math.max(1, dishIds[1] - dishIds[0] + 1));
+            return dishDAO.readById(id) != null ? 1 : 0;
+        });
+        suites.put("DishDAO.searchByName", () -> dishDAO.searchByName(pick(DISH_TERMS), SEARCH_LIMIT).size());
+        suites.put("DishDAO.readAll", () -> nonEmpty(dishDAO.readAll().size(), dishes));
+        suites.put("CustomerDAO.searchByName", () -> customerDAO.searchByName(
+            pick(ThreadLocalRandom.current().nextBoolean() ? SeedData.FIRST_NAMES : SeedData.LAST_NAMES),
+            SEARCH_LIMIT).size());
+        suites.put("CustomerDAO.readAll", () -> nonEmpty(customerDAO.readAll().size(), customers));
+
+        for (Map.Entry<String, Operation> suite : suites.entrySet()) {
+            Result result = measure(suite.getKey(), suite.getValue(), nanos);
+            failures += report(result, results);
+        }
+
+        // Conversión de filas: el ResultSet se lee una vez y se recorre de nuevo en cada operación
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            failures += mapping(conn, "DishDAO.mapDish", """
+                SELECT d.*, c.name as category_name
+                FROM Dish d
+                INNER JOIN Category c ON d.category_id = c.category_id
+                LIMIT ?""", rs -> DishDAO.mapDish(rs) != null, nanos, results);
+            failures += mapping(conn, "CustomerDAO.mapCustomer", "SELECT * FROM Customer LIMIT ?",
+                rs -> CustomerDAO.mapCustomer(rs) != null, nanos, results);
+        }
+        System.out.println("  " + DatabaseConnection.getInstance().getPoolStats());
+        DatabaseConnection.closeConnection();
+
+        Path saved = save(results, customers, dishes, seconds);
+        if (saved != null) {
+            System.out.println("💾 Resultados guardados en " + saved);
+        }
+        if (compare != null) {
+            compare(compare, results);
+        }
+
+        System.out.println(failures == 0 ? "✅ Pruebas completas" : "❌ " + failures + " pruebas fallaron");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Completa Customer y Dish hasta el número de filas pedido
+    private static void topUp(Connection conn, int rows) throws SQLException {
+        Random random = new Random(5);
+        int customers = rows - SeedData.intValue(conn, "SELECT COUNT(*) FROM Customer");
+        int dishes = rows - SeedData.intValue(conn, "SELECT COUNT(*) FROM Dish");
+        long start = System.nanoTime();
+        if (customers > 0) {
+            SeedData.insertCustomers(conn, customers, random);
+        }
+        if (dishes > 0) {
+            SeedData.insertDishes(conn, dishes, random);
+        }
+        if (customers > 0 || dishes > 0) {
+            SeedData.analyze(conn, "Customer, Dish");
+            System.out.printf("Agregados %d clientes y %d platillos en %.1f s%n",
+                Math.max(0, customers), Math.max(0, dishes), (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    private static Result measure(String name, Operation operation, long nanos) throws Exception {
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        do {
+            if (operation.run() < 0) {
+                return new Result(name, 0, -1, 1, new LatencyRecorder(16));
+            }
+        } while (System.nanoTime() < warmupEnd);
+
+        LatencyRecorder latency = new LatencyRecorder(100_000);
+        long ops = 0;
+        long rows = 0;
+        long start = System.nanoTime();
+        long end = start + nanos;
+        long now = start;
+        while (now < end || ops < 3) {
+            int processed = operation.run();
+            long after = System.nanoTime();
+            latency.record(after - now);
+            now = after;
+            if (processed < 0) {
+                return new Result(name, ops, -1, 1, latency);
+            }
+            ops++;
+            rows += processed;
+        }
+        return new Result(name, ops, rows, (now - start) / 1e9, latency);
+    }
+
+    private interface RowCheck {
+        boolean map(ResultSet rs) throws SQLException;
+    }
+
+    private static int mapping(Connection conn, String name, String sql, RowCheck mapper,
+                               long nanos, List<Result> results) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setInt(1, MAPPING_ROWS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                Result result = measure(name, () -> {
+                    rs.beforeFirst();
+                    int count = 0;
+                    while (rs.next()) {
+                        if (!mapper.map(rs)) {
+                            return -1;
+                        }
+                        count++;
+                    }
+                    return count;
+                }, nanos);
+                return report(result, results);
+            }
+        }
+    }
+
+    private static int report(Result result, List<Result> results) {
+        if (result.rows < 0) {
+            System.err.println("❌ " + result.name + " falló");
+            return 1;
+        }
+        results.add(result);
+        System.out.printf("  %-42s %10.1f ops/s %12.0f filas/s | %s%n", result.name, result.opsPerSecond(),
+            result.rows / result.seconds, result.latency.summary());
+        return 0;
+    }
+
+    private static String pick(String[] words) {
+        return words[ThreadLocalRandom.current().nextInt(words.length)];
+    }
+
+    // Los DAO regresan una lista vacía si hubo un error de SQL
+    private static int nonEmpty(int size, int expected) {
+        return size == 0 && expected > 0 ? -1 : size;
+    }
+
+    /**
+     * Guarda los resultados en bench-results/DaoBench-<fecha>-<commit>.json (un resultado por línea)
+     * @return Archivo guardado, o null si hubo error
+     */
+    private static Path save(List<Result> results, int customers, int dishes, int seconds) {
+        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        String commit = commit();
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"bench\": \"DaoBench\",\n");
+        json.append("  \"date\": \"").append(date).append("\",\n");
+        json.append("  \"commit\": \"").append(commit).append("\",\n");
+        json.append("  \"java\": \"").append(System.getProperty("java.version")).append("\",\n");
+        json.append("  \"customers\": ").append(customers).append(",\n");
+        json.append("  \"dishes\": ").append(dishes).append(",\n");
+        json.append("  \"secondsPerSuite\": ").append(seconds).append(",\n");
+        json.append("  \"results\": [\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result r = results.get(i);
+            json.append(String.format(Locale.ROOT,
+                "    {\"name\": \"%s\", \"ops\": %d, \"rows\": %d, \"opsPerSecond\": %.2f, \"rowsPerSecond\": %.2f, "
+                    + "\"p50Ms\": %.3f, \"p95Ms\": %.3f, \"p99Ms\": %.3f, \"maxMs\": %.3f}%s%n",
+                r.name, r.ops, r.rows, r.opsPerSecond(), r.rows / r.seconds,
+                r.latency.percentileMillis(50), r.latency.percentileMillis(95), r.latency.percentileMillis(99),
+                r.latency.percentileMillis(100), i < results.size() - 1 ? "," : ""));
+        }
+        json.append("  ]\n}\n");
+
+        try {
+            Files.createDirectories(RESULTS_DIR);
+            Path file = RESULTS_DIR.resolve("DaoBench-" + date + "-" + commit + ".json");
+            Files.writeString(file, json, StandardCharsets.UTF_8);
+            return file;
+        } catch (IOException e) {
+            System.err.println("❌ Error al guardar resultados: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // Commit actual según git, o "sin-commit" si git no está disponible
+    private static String commit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String out = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return git.waitFor() == 0 && out.matches("[0-9a-f]+") ? out : "sin-commit";
+        } catch (IOException e) {
+            return "sin-commit";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "sin-commit";
+        }
+    }
+
+    // Diferencia de operaciones por segundo contra un archivo de resultados anterior
+    private static void compare(Path previous, List<Result> results) {
+        Map<String, Double> before = new HashMap<>();
+        try {
+            for (String line : Files.readAllLines(previous, StandardCharsets.UTF_8)) {
+                Matcher m = RESULT.matcher(line);
+                if (m.find()) {
+                    before.put(m.group(1), Double.parseDouble(m.group(2)));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Error al leer " + previous + ": " + e.getMessage());
+            return;
+        }
+        System.out.println("Comparación con " + previous.getFileName() + ":");
+        for (Result r : results) {
+            Double old = before.get(r.name);
+            if (old == null || old == 0) {
+                System.out.printf("  %-42s sin resultado anterior%n", r.name);
+                continue;
+            }
+            double change = (r.opsPerSecond() - old) / old * 100;
+            System.out.printf("  %s %-40s %+7.1f%% (%.1f → %.1f ops/s)%n", change < -10 ? "⚠️" : "  ",
+                r.name, change, old, r.opsPerSecond());
+        }
+    }
+}
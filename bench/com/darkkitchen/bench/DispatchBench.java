@@ -0,0 +1,280 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.dao.BatchResult;
+import com.darkkitchen.dao.DriverDAO;
+import com.darkkitchen.dao.OrderDAO;
+import com.darkkitchen.model.Driver;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.order.DispatchService;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de DispatchService contra un canal de repartidores simulado (SimulatedDriverFeed).
+ * Primero mide la espera de los pedidos listos hasta tener repartidor con miles de
+ * repartidores moviéndose y pedidos que se entregan y liberan a su repartidor. Después,
+ * con las posiciones fijas, verifica cada asignación contra una búsqueda exhaustiva: el
+ * repartidor estaba libre, es de la plataforma del pedido y ningún otro libre llegaba
+ * antes a esa ubicación (aunque esté más cerca de otra). También verifica que un pedido de
+ * una ubicación encuentre al repartidor que está más cerca de una ubicación vecina.
+ * La base de datos se simula en memoria.
+ *
+ * Uso: DispatchBench [repartidores=5000] [pedidos por segundo=500] [segundos=5] [ms por viaje=0.5]
+ * Termina con código 1 si alguna asignación no es correcta.
+ */
+public class DispatchBench {
+
+    private static final int PLATFORMS = 5;
+    private static final double METERS_PER_DEGREE = 111_320;
+    // Ubicaciones de ejemplo de dark_kitchen.sql
+    private static final double[][] LOCATIONS = {
+        {19.432600, -99.133200}, {19.385000, -99.171000}, {20.673600, -103.405000},
+        {25.669400, -100.309900}, {19.433000, -99.195000}, {21.133000, -86.746000}
+    };
+
+    public static void main(String[] args) throws Exception {
+        int driverCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int ordersPerSecond = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        double roundTripMillis = args.length > 3 ? Double.parseDouble(args[3]) : 0.5;
+        long roundTripNanos = (long) (roundTripMillis * 1_000_000);
+
+        Map<Integer, double[]> points = new LinkedHashMap<>();
+        for (int i = 0; i < LOCATIONS.length; i++) {
+            points.put(i + 1, LOCATIONS[i]);
+        }
+        System.out.printf("Reparto: %d repartidores, %d plataformas, %d ubicaciones, %d pedidos/s, %d s, %.1f ms por viaje%n",
+            driverCount, PLATFORMS, points.size(), ordersPerSecond, seconds, roundTripMillis);
+
+        runLive(driverCount, ordersPerSecond, seconds, roundTripNanos, points);
+        boolean ok = verify(driverCount, points) & verifyNearbyLocations();
+        System.out.println(ok ? "✅ Asignaciones correctas" : "❌ Se encontraron asignaciones incorrectas");
+        System.exit(ok ? 0 : 1);
+    }
+
+    // Repartidores moviéndose, pedidos a ritmo constante y entregas de 1 a 3 segundos
+    private static void runLive(int driverCount, int ordersPerSecond, int seconds, long roundTripNanos,
+                                Map<Integer, double[]> points) throws Exception {
+        SimulatedDriverFeed feed = new SimulatedDriverFeed(driverCount, PLATFORMS, LOCATIONS, 8_000, 11);
+        FakeOrderDAO orderDAO = new FakeOrderDAO(roundTripNanos);
+        DispatchService dispatch = new DispatchService(new FakeDriverDAO(feed.getDrivers(), points), orderDAO);
+        dispatch.load();
+
+        LatencyRecorder waits = new LatencyRecorder(ordersPerSecond * seconds);
+        ScheduledExecutorService deliveries = Executors.newSingleThreadScheduledExecutor();
+        dispatch.addListener((orderId, driverId, waitNanos) -> {
+            waits.record(waitNanos);
+            long deliveryMillis = 1_000 + ThreadLocalRandom.current().nextInt(2_000);
+            deliveries.schedule(() -> dispatch.orderClosed(orderId), deliveryMillis, TimeUnit.MILLISECONDS);
+        });
+        feed.start(dispatch::driverPosition, 2_000);
+        Thread.sleep(500);
+
+        Random random = new Random(5);
+        int orderId = 0;
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        while (System.nanoTime() < end) {
+            long due = (System.nanoTime() - start) * ordersPerSecond / 1_000_000_000L;
+            while (orderId < due) {
+                Order order = new Order(1 + random.nextInt(PLATFORMS), 1 + random.nextInt(points.size()), 1, null);
+                order.setOrderId(++orderId);
+                dispatch.track(order);
+                dispatch.orderReady(order.getOrderId());
+            }
+            LockSupport.parkNanos(1_000_000);
+        }
+        Thread.sleep(500);
+        feed.stop();
+        deliveries.shutdownNow();
+        dispatch.shutdown();
+
+        System.out.printf("En vivo: %d pedidos, %d asignados en %d lotes%n", orderId, waits.getCount(), orderDAO.batches.sum());
+        System.out.println("  Espera hasta tener repartidor (incluye la ventana de " + DispatchService.BATCH_WINDOW_MS
+            + " ms): " + waits.summary());
+        System.out.println("  " + dispatch.getStats());
+    }
+
+    // Posiciones fijas: cada asignación se compara con la mejor posible entre los libres
+    private static boolean verify(int driverCount, Map<Integer, double[]> points) throws Exception {
+        SimulatedDriverFeed feed = new SimulatedDriverFeed(driverCount, PLATFORMS, LOCATIONS, 8_000, 17);
+        DispatchService dispatch = new DispatchService(new FakeDriverDAO(feed.getDrivers(), points), new FakeOrderDAO(0));
+        dispatch.load();
+        List<int[]> assignments = Collections.synchronizedList(new ArrayList<>());
+        dispatch.addListener((orderId, driverId, waitNanos) -> assignments.add(new int[] {orderId, driverId}));
+        feed.reportAll(dispatch::driverPosition);
+        Thread.sleep(300);
+
+        // Más pedidos que repartidores en algunas combinaciones de ubicación y plataforma
+        Random random = new Random(23);
+        int orders = driverCount * 3 / 4;
+        Map<Integer, int[]> orderInfo = new HashMap<>();
+        for (int id = 1; id <= orders; id++) {
+            Order order = new Order(1 + random.nextInt(PLATFORMS), 1 + random.nextInt(points.size()), 1, null);
+            order.setOrderId(id);
+            orderInfo.put(id, new int[] {order.getLocationId(), order.getPlatformId()});
+            dispatch.track(order);
+            dispatch.orderReady(id);
+        }
+        int seen = -1;
+        while (seen != assignments.size()) {
+            seen = assignments.size();
+            Thread.sleep(300);
+        }
+        dispatch.shutdown();
+
+        // Distancia de cada repartidor a cada ubicación (misma proyección que el índice)
+        List<Driver> drivers = feed.getDrivers();
+        double[][] meters = new double[points.size() + 1][driverCount + 1];
+        for (Driver driver : drivers) {
+            int id = driver.getDriverId();
+            for (Map.Entry<Integer, double[]> point : points.entrySet()) {
+                meters[point.getKey()][id] = distance(point.getValue(), feed.latitude(id), feed.longitude(id));
+            }
+        }
+
+        boolean[] busy = new boolean[driverCount + 1];
+        long errors = 0;
+        List<int[]> ordered;
+        synchronized (assignments) {
+            ordered = new ArrayList<>(assignments);
+        }
+        for (int[] assignment : ordered) {
+            int[] info = orderInfo.remove(assignment[0]);
+            Driver chosen = drivers.get(assignment[1] - 1);
+            double chosenCost = info == null ? Double.POSITIVE_INFINITY
+                : DispatchService.pickupSeconds(chosen, meters[info[0]][chosen.getDriverId()]);
+            double bestCost = bestFree(drivers, busy, meters, info);
+            if (info == null || busy[chosen.getDriverId()] || chosen.getPlatformId() != info[1]
+                    || chosenCost == Double.POSITIVE_INFINITY || chosenCost > bestCost * (1 + 1e-9)) {
+                if (++errors <= 10) {
+                    System.err.printf("❌ Pedido #%d: repartidor %d (%.1f s), el mejor libre llegaba en %.1f s%n",
+                        assignment[0], chosen.getDriverId(), chosenCost, bestCost);
+                }
+            }
+            busy[chosen.getDriverId()] = true;
+        }
+        // Los que se quedaron sin repartidor no tenían ninguno libre que sirviera
+        for (Map.Entry<Integer, int[]> entry : orderInfo.entrySet()) {
+            if (bestFree(drivers, busy, meters, entry.getValue()) != Double.POSITIVE_INFINITY) {
+                if (++errors <= 10) {
+                    System.err.println("❌ Pedido #" + entry.getKey() + " sin repartidor habiendo uno libre");
+                }
+            }
+        }
+        System.out.printf("Verificación: %d pedidos, %d asignados, %d sin repartidor disponible, %d errores%n",
+            orders, ordered.size(), orderInfo.size(), errors);
+        System.out.println("  " + dispatch.getStats());
+        return errors == 0;
+    }
+
+    private static double bestFree(List<Driver> drivers, boolean[] busy, double[][] meters, int[] info) {
+        double best = Double.POSITIVE_INFINITY;
+        if (info == null) {
+            return best;
+        }
+        for (Driver driver : drivers) {
+            int id = driver.getDriverId();
+            if (!busy[id] && driver.getPlatformId() == info[1]) {
+                best = Math.min(best, DispatchService.pickupSeconds(driver, meters[info[0]][id]));
+            }
+        }
+        return best;
+    }
+
+    // Dos ubicaciones a 2 km: el único repartidor está más cerca de la primera, pero el pedido
+    // de la segunda también debe encontrarlo (y el siguiente, ya sin repartidor libre, esperar)
+    private static boolean verifyNearbyLocations() throws Exception {
+        Map<Integer, double[]> points = new LinkedHashMap<>();
+        points.put(1, new double[] {19.432600, -99.133200});
+        points.put(2, new double[] {19.432600, -99.114200});
+        Driver driver = new Driver(1, 1, "Repartidor 1", Driver.VehicleType.MOTORCYCLE, new BigDecimal("4.8"), true);
+        DispatchService dispatch = new DispatchService(new FakeDriverDAO(List.of(driver), points), new FakeOrderDAO(0));
+        dispatch.load();
+        List<int[]> assignments = Collections.synchronizedList(new ArrayList<>());
+        dispatch.addListener((orderId, driverId, waitNanos) -> assignments.add(new int[] {orderId, driverId}));
+        // A 500 m de la ubicación 1 y 1.5 km de la 2
+        dispatch.driverPosition(1, 19.432600, -99.133200 + 500 / (METERS_PER_DEGREE * Math.cos(Math.toRadians(19.4326))));
+        Thread.sleep(300);
+
+        for (int id = 1; id <= 2; id++) {
+            Order order = new Order(1, 2, 1, null);
+            order.setOrderId(id);
+            dispatch.track(order);
+            dispatch.orderReady(id);
+        }
+        Thread.sleep(500);
+        dispatch.shutdown();
+
+        boolean ok = assignments.size() == 1 && assignments.get(0)[0] == 1 && assignments.get(0)[1] == 1;
+        System.out.println("Ubicaciones cercanas: " + assignments.size() + " asignaciones"
+            + (ok ? "" : " (se esperaba el pedido #1 con el repartidor 1)"));
+        return ok;
+    }
+
+    // Metros entre la ubicación y la posición (equirrectangular alrededor de la ubicación)
+    private static double distance(double[] origin, double lat, double lon) {
+        double dx = (lon - origin[1]) * METERS_PER_DEGREE * Math.cos(Math.toRadians(origin[0]));
+        double dy = (lat - origin[0]) * METERS_PER_DEGREE;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // Repartidores del canal simulado y coordenadas fijas de las ubicaciones
+    private static final class FakeDriverDAO extends DriverDAO {
+        final List<Driver> drivers;
+        final Map<Integer, double[]> points;
+
+        FakeDriverDAO(List<Driver> drivers, Map<Integer, double[]> points) {
+            this.drivers = drivers;
+            this.points = points;
+        }
+
+        @Override
+        public List<Driver> readActiveDrivers() {
+            return drivers;
+        }
+
+        @Override
+        public Map<Integer, double[]> readLocationPoints() {
+            return points;
+        }
+    }
+
+    // Cada lote de asignaciones cuesta un viaje
+    private static final class FakeOrderDAO extends OrderDAO {
+        final long roundTripNanos;
+        final LongAdder batches = new LongAdder();
+        final AtomicInteger rows = new AtomicInteger();
+
+        FakeOrderDAO(long roundTripNanos) {
+            this.roundTripNanos = roundTripNanos;
+        }
+
+        @Override
+        public List<Order> readUnassignedReady() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public BatchResult<int[]> assignDrivers(Collection<int[]> assignments) {
+            LockSupport.parkNanos(roundTripNanos);
+            batches.increment();
+            rows.addAndGet(assignments.size());
+            return new BatchResult<>();
+        }
+    }
+}
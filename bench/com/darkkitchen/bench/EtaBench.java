@@ -0,0 +1,260 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.dao.BatchResult;
+import com.darkkitchen.dao.OrderDAO;
+import com.darkkitchen.model.Dish;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.model.OrderStatus;
+import com.darkkitchen.order.EtaService;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de EtaService con cocinas simuladas en tiempo simulado: varias ubicaciones con
+ * estaciones que preparan pedidos en orden de llegada, platillos que en realidad tardan más
+ * o menos que su preparation_time, traslados distintos por ubicación y horas pico en las
+ * que la cola crece. Compara la hora estimada al aceptar cada pedido contra la entrega real,
+ * para EtaService y para los 45 minutos fijos del trigger anterior. Después mide una pasada
+ * sobre miles de pedidos abiertos. La base de datos se simula en memoria.
+ *
+ * Uso: EtaBench [ubicaciones=3] [días=14] [estaciones=4] [pedidos abiertos=5000]
+ * Termina con código 1 si EtaService no estima mejor que los 45 minutos fijos.
+ */
+public class EtaBench {
+
+    private static final long MINUTE = 60_000;
+    private static final int DISHES = 40;
+    private static final int WARMUP_DAYS = 3;
+    private static final int DAY_MINUTES = 12 * 60;
+
+    public static void main(String[] args) throws Exception {
+        int locations = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 14;
+        int stations = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int openOrders = args.length > 3 ? Integer.parseInt(args[3]) : 5_000;
+        System.out.printf("Tiempos de entrega: %d ubicaciones, %d días (%d de entrenamiento), %d estaciones por cocina%n",
+            locations, days, WARMUP_DAYS, stations);
+
+        boolean better = simulate(locations, days, stations);
+        measurePass(openOrders, stations);
+        System.out.println(better ? "✅ EtaService estima mejor que los 45 minutos fijos"
+            : "❌ EtaService no estima mejor que los 45 minutos fijos");
+        System.exit(better ? 0 : 1);
+    }
+
+    // Menú: preparation_time de 5 a 30 minutos; lo real es ese tiempo por un factor de 0.7 a 1.6
+    private static Dish[] menu(Random random, double[] factor) {
+        Dish[] dishes = new Dish[DISHES + 1];
+        for (int id = 1; id <= DISHES; id++) {
+            Dish dish = new Dish();
+            dish.setDishId(id);
+            dish.setName("Platillo " + id);
+            dish.setPreparationTime(5 + random.nextInt(26));
+            dishes[id] = dish;
+            factor[id] = 0.7 + random.nextDouble() * 0.9;
+        }
+        return dishes;
+    }
+
+    private static boolean simulate(int locations, int days, int stations) {
+        Random random = new Random(42);
+        double[] factor = new double[DISHES + 1];
+        Dish[] dishes = menu(random, factor);
+        double[] deliveryMean = new double[locations + 1];
+        for (int l = 1; l <= locations; l++) {
+            deliveryMean[l] = 10 + random.nextInt(16);
+        }
+
+        long[] now = {1_700_000_000_000L};
+        FakeOrderDAO dao = new FakeOrderDAO();
+        EtaService eta = new EtaService(id -> id > 0 && id <= DISHES ? dishes[id] : null, dao, stations, () -> now[0]);
+
+        // Eventos: {minuto, tipo, pedido}; tipo 0 = llega, 1 = listo, 2 = entregado
+        PriorityQueue<double[]> events = new PriorityQueue<>((a, b) -> a[0] != b[0]
+            ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]));
+        int capacity = locations * days * DAY_MINUTES / 2;
+        int[] locationOf = new int[capacity];
+        double[] prepOf = new double[capacity];
+        double[] placedAt = new double[capacity];
+        long[] predicted = new long[capacity];
+        int orders = 0;
+
+        // Llegadas: 0.06 pedidos por minuto y por cocina, 0.25 en dos horas pico al día
+        for (int day = 0; day < days; day++) {
+            for (int l = 1; l <= locations; l++) {
+                double t = day * 1440.0;
+                double end = t + DAY_MINUTES;
+                while (orders < capacity) {
+                    double minuteOfDay = t - day * 1440.0;
+                    boolean peak = (minuteOfDay >= 120 && minuteOfDay < 180) || (minuteOfDay >= 480 && minuteOfDay < 540);
+                    t += -Math.log(1 - random.nextDouble()) / (peak ? 0.25 : 0.06);
+                    if (t >= end) {
+                        break;
+                    }
+                    locationOf[orders] = l;
+                    placedAt[orders] = t;
+                    events.add(new double[] {t, 0, orders});
+                    orders++;
+                }
+            }
+        }
+
+        List<ArrayDeque<Integer>> queues = new ArrayList<>(locations + 1);
+        int[] busy = new int[locations + 1];
+        for (int l = 0; l <= locations; l++) {
+            queues.add(new ArrayDeque<>());
+        }
+        Order[] created = new Order[orders];
+        double[] etaError = new double[orders];
+        double[] fixedError = new double[orders];
+        int measured = 0;
+        long lateEta = 0;
+        long lateFixed = 0;
+        double warmupEnd = WARMUP_DAYS * 1440.0;
+
+        while (!events.isEmpty()) {
+            double[] event = events.poll();
+            now[0] = 1_700_000_000_000L + Math.round(event[0] * MINUTE);
+            int i = (int) event[2];
+            int l = locationOf[i];
+            switch ((int) event[1]) {
+                case 0 -> {
+                    Order order = new Order(1, l, 1, null);
+                    order.setOrderId(i + 1);
+                    order.setStatus(OrderStatus.ACCEPTED);
+                    order.setOrderDatetime(new Timestamp(now[0]));
+                    int items = 1 + random.nextInt(4);
+                    double prep = 0;
+                    for (int k = 0; k < items; k++) {
+                        int dishId = 1 + random.nextInt(DISHES);
+                        order.addItem(dishId, 1, null);
+                        double real = dishes[dishId].getPreparationTime() * factor[dishId]
+                            * Math.exp(0.2 * random.nextGaussian());
+                        prep = Math.max(prep, real);
+                    }
+                    prepOf[i] = prep;
+                    created[i] = order;
+                    eta.track(order);
+                    eta.recompute();
+                    predicted[i] = eta.estimatedMillis(order.getOrderId());
+                    queues.get(l).add(i);
+                    startNext(eta, events, queues.get(l), busy, l, stations, prepOf, event[0]);
+                }
+                case 1 -> {
+                    eta.statusChanged(i + 1, OrderStatus.READY);
+                    busy[l]--;
+                    double delivery = deliveryMean[l] * Math.exp(0.3 * random.nextGaussian());
+                    events.add(new double[] {event[0] + delivery, 2, i});
+                    startNext(eta, events, queues.get(l), busy, l, stations, prepOf, event[0]);
+                    eta.recompute();
+                }
+                default -> {
+                    eta.statusChanged(i + 1, OrderStatus.DELIVERED);
+                    if (placedAt[i] >= warmupEnd) {
+                        long placed = created[i].getOrderDatetime().getTime();
+                        etaError[measured] = (now[0] - predicted[i]) / (double) MINUTE;
+                        fixedError[measured] = (now[0] - placed - 45 * MINUTE) / (double) MINUTE;
+                        lateEta += etaError[measured] > 0 ? 1 : 0;
+                        lateFixed += fixedError[measured] > 0 ? 1 : 0;
+                        measured++;
+                    }
+                }
+            }
+        }
+        eta.shutdown();
+
+        double etaMae = meanAbs(etaError, measured);
+        double fixedMae = meanAbs(fixedError, measured);
+        System.out.printf("Simulación: %d pedidos, %d medidos después del entrenamiento%n", orders, measured);
+        System.out.printf("  EtaService: error absoluto prom %.1f min, p90 %.1f min, %.1f%% entregados tarde%n",
+            etaMae, percentileAbs(etaError, measured, 0.9), 100.0 * lateEta / Math.max(1, measured));
+        System.out.printf("  45 min fijos: error absoluto prom %.1f min, p90 %.1f min, %.1f%% entregados tarde%n",
+            fixedMae, percentileAbs(fixedError, measured, 0.9), 100.0 * lateFixed / Math.max(1, measured));
+        System.out.println("  " + eta.getStats() + " | " + dao.rows.sum() + " filas en " + dao.batches.sum() + " lotes");
+        return measured > 0 && etaMae < fixedMae;
+    }
+
+    // Una estación libre toma el siguiente pedido de su cocina
+    private static void startNext(EtaService eta, PriorityQueue<double[]> events, ArrayDeque<Integer> queue,
+                                  int[] busy, int l, int stations, double[] prepOf, double minute) {
+        while (busy[l] < stations && !queue.isEmpty()) {
+            int next = queue.poll();
+            busy[l]++;
+            eta.statusChanged(next + 1, OrderStatus.PREPARING);
+            events.add(new double[] {minute + prepOf[next], 1, next});
+        }
+    }
+
+    // Pasada sobre muchos pedidos abiertos; el reloj avanza 2 minutos para que todas las horas cambien
+    private static void measurePass(int openOrders, int stations) {
+        Random random = new Random(7);
+        Dish[] dishes = menu(random, new double[DISHES + 1]);
+        long[] now = {1_700_000_000_000L};
+        FakeOrderDAO dao = new FakeOrderDAO();
+        EtaService eta = new EtaService(id -> id > 0 && id <= DISHES ? dishes[id] : null, dao, stations, () -> now[0]);
+        OrderStatus[] statuses = {OrderStatus.ACCEPTED, OrderStatus.ACCEPTED, OrderStatus.PREPARING, OrderStatus.READY};
+        for (int id = 1; id <= openOrders; id++) {
+            Order order = new Order(1, 1 + random.nextInt(20), 1, null);
+            order.setOrderId(id);
+            order.setStatus(statuses[random.nextInt(statuses.length)]);
+            order.setOrderDatetime(new Timestamp(now[0] - random.nextInt(60) * MINUTE));
+            for (int k = 1 + random.nextInt(4); k > 0; k--) {
+                order.addItem(1 + random.nextInt(DISHES), 1, null);
+            }
+            eta.track(order);
+        }
+        eta.recompute();
+
+        int rounds = 50;
+        long written = 0;
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            now[0] += 2 * MINUTE;
+            written += eta.recompute();
+        }
+        long nanos = System.nanoTime() - start;
+        eta.shutdown();
+        System.out.printf("Pasada con %d pedidos abiertos en 20 cocinas: %.2f ms prom (incluye preparar el lote), %d horas por pasada%n",
+            openOrders, nanos / (double) rounds / 1_000_000.0, written / rounds);
+    }
+
+    private static double meanAbs(double[] errors, int count) {
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += Math.abs(errors[i]);
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    private static double percentileAbs(double[] errors, int count, double p) {
+        if (count == 0) {
+            return 0;
+        }
+        double[] abs = new double[count];
+        for (int i = 0; i < count; i++) {
+            abs[i] = Math.abs(errors[i]);
+        }
+        Arrays.sort(abs);
+        return abs[(int) Math.min(count - 1, Math.round(p * (count - 1)))];
+    }
+
+    // Cuenta las horas guardadas
+    private static final class FakeOrderDAO extends OrderDAO {
+        final LongAdder rows = new LongAdder();
+        final LongAdder batches = new LongAdder();
+
+        @Override
+        public BatchResult<long[]> updateEstimatedTimes(Collection<long[]> estimates) {
+            batches.increment();
+            rows.add(estimates.size());
+            return new BatchResult<>();
+        }
+    }
+}
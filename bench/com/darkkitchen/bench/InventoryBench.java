@@ -0,0 +1,263 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.dao.BatchResult;
+import com.darkkitchen.dao.DishDAO;
+import com.darkkitchen.dao.RecipeDAO;
+import com.darkkitchen.model.Ingredient;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.model.OrderItem;
+import com.darkkitchen.model.RecipeItem;
+import com.darkkitchen.order.InventoryService;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de rendimiento de InventoryService: varios hilos aceptan pedidos al mismo tiempo y
+ * cada uno descuenta los ingredientes de su receta. Se compara contra el camino directo: un
+ * UPDATE por ingrediente con la fila bloqueada durante el viaje, así que los pedidos que usan
+ * un ingrediente popular se forman uno detrás de otro. La base de datos se simula en memoria.
+ * Al final verifica que la existencia guardada coincida con lo consumido y que los platillos
+ * del ingrediente que se agota queden marcados como agotados.
+ *
+ * Uso: InventoryBench [hilos=8] [segundos=5] [ms por viaje=0.5] [platillos=300] [ingredientes=120]
+ * Termina con código 1 si algo no coincide.
+ */
+public class InventoryBench {
+
+    // Existencia inicial de los ingredientes normales y del que se agota (en milésimas)
+    private static final long LARGE_STOCK = 1_000_000_000_000L;
+    private static final long SCARCE_STOCK = 2_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        double roundTripMillis = args.length > 2 ? Double.parseDouble(args[2]) : 0.5;
+        int dishCount = args.length > 3 ? Integer.parseInt(args[3]) : 300;
+        int ingredientCount = args.length > 4 ? Integer.parseInt(args[4]) : 120;
+        long roundTripNanos = (long) (roundTripMillis * 1_000_000);
+
+        // Recetas de 3 a 8 ingredientes; la mitad de los renglones usa uno de los 5 populares
+        Random random = new Random(5);
+        List<RecipeItem> recipes = new ArrayList<>();
+        Map<Integer, long[][]> lines = new HashMap<>();
+        for (int dish = 1; dish <= dishCount; dish++) {
+            Map<Integer, Long> recipe = new HashMap<>();
+            int count = 3 + random.nextInt(6);
+            while (recipe.size() < count) {
+                int ingredient = random.nextBoolean() ? 1 + random.nextInt(5) : 1 + random.nextInt(ingredientCount);
+                recipe.put(ingredient, 50L + random.nextInt(500));
+            }
+            long[][] dishLines = new long[recipe.size()][];
+            int i = 0;
+            for (Map.Entry<Integer, Long> entry : recipe.entrySet()) {
+                recipes.add(new RecipeItem(dish, entry.getKey(), BigDecimal.valueOf(entry.getValue(), 3), false));
+                dishLines[i++] = new long[] {entry.getKey(), entry.getValue()};
+            }
+            lines.put(dish, dishLines);
+        }
+        // El último ingrediente es escaso: sus platillos se agotan durante la prueba
+        int scarce = ingredientCount;
+
+        System.out.printf("Inventario: %d platillos, %d ingredientes, %d renglones, %d hilos, %d s, %.1f ms por viaje%n",
+            dishCount, ingredientCount, recipes.size(), threads, seconds, roundTripMillis);
+
+        // Camino directo: un UPDATE por renglón con la fila bloqueada durante el viaje
+        Object[] rowLocks = new Object[ingredientCount + 1];
+        for (int i = 0; i <= ingredientCount; i++) {
+            rowLocks[i] = new Object();
+        }
+        AtomicLongArray directStock = new AtomicLongArray(ingredientCount + 1);
+        long[] directResult = run(threads, seconds, dishCount, order -> {
+            for (OrderItem item : order.getItems()) {
+                for (long[] line : lines.get(item.getDishId())) {
+                    synchronized (rowLocks[(int) line[0]]) {
+                        LockSupport.parkNanos(roundTripNanos);
+                        directStock.addAndGet((int) line[0], -line[1] * item.getQuantity());
+                    }
+                }
+            }
+        });
+        System.out.printf("UPDATE por ingrediente:   %10.0f pedidos/s%n", directResult[0] / (double) seconds);
+
+        // InventoryService con la base de datos simulada
+        FakeRecipeDAO recipeDAO = new FakeRecipeDAO(ingredientCount, recipes, roundTripNanos);
+        recipeDAO.stock.set(scarce, SCARCE_STOCK);
+        FakeDishDAO dishDAO = new FakeDishDAO();
+        InventoryService inventory = new InventoryService(recipeDAO, dishDAO);
+        inventory.load();
+        LongAdder lowEvents = new LongAdder();
+        inventory.addListener((ingredientId, available, exhausted) -> lowEvents.increment());
+
+        long[] expected = new long[ingredientCount + 1];
+        Object expectedLock = new Object();
+        long[] serviceResult = run(threads, seconds, dishCount, order -> {
+            inventory.consume(order);
+            // Lo que debería quedar descontado, para la verificación (fuera de la medición real)
+            long[] consumed = new long[ingredientCount + 1];
+            for (OrderItem item : order.getItems()) {
+                for (long[] line : lines.get(item.getDishId())) {
+                    consumed[(int) line[0]] += line[1] * item.getQuantity();
+                }
+            }
+            synchronized (expectedLock) {
+                for (int i = 1; i <= ingredientCount; i++) {
+                    expected[i] += consumed[i];
+                }
+            }
+        });
+        inventory.shutdown();
+        // Espera a que el ejecutor marque los platillos agotados
+        Thread.sleep(500);
+        System.out.printf("InventoryService:         %10.0f pedidos/s (%d lotes a la base de datos)%n",
+            serviceResult[0] / (double) seconds, recipeDAO.batches.sum());
+        System.out.println("  " + inventory.getStats());
+
+        long mismatches = 0;
+        for (int i = 1; i <= ingredientCount; i++) {
+            long initial = i == scarce ? SCARCE_STOCK : LARGE_STOCK;
+            if (recipeDAO.stock.get(i) != initial - expected[i]) {
+                mismatches++;
+                if (mismatches <= 10) {
+                    System.err.printf("❌ Ingrediente %d: guardado %d, esperado %d%n",
+                        i, recipeDAO.stock.get(i), initial - expected[i]);
+                }
+            }
+        }
+        long scarceDishes = 0;
+        long missingDisabled = 0;
+        for (RecipeItem item : recipes) {
+            if (item.getIngredientId() == scarce) {
+                scarceDishes++;
+                if (!dishDAO.unavailable.contains(item.getDishId())) {
+                    missingDisabled++;
+                }
+            }
+        }
+        System.out.printf("Ingrediente escaso: %d platillos, %d marcados agotados, %d avisos%n",
+            scarceDishes, dishDAO.unavailable.size(), lowEvents.sum());
+        System.out.printf("Aceleración: %.1fx%n", serviceResult[0] / (double) Math.max(1, directResult[0]));
+
+        boolean ok = mismatches == 0 && missingDisabled == 0;
+        System.out.println(ok ? "✅ Existencias y disponibilidad correctas" : "❌ Se encontraron diferencias");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private interface Acceptor {
+        void accept(Order order);
+    }
+
+    // Pedidos de 1 a 4 platillos desde varios hilos durante el tiempo indicado
+    private static long[] run(int threads, int seconds, int dishCount, Acceptor acceptor) throws InterruptedException {
+        LongAdder orders = new LongAdder();
+        AtomicInteger nextOrderId = new AtomicInteger(1);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Order order = new Order(1, 1, 1, null);
+                    order.setOrderId(nextOrderId.getAndIncrement());
+                    int items = 1 + random.nextInt(4);
+                    for (int i = 0; i < items; i++) {
+                        order.getItems().add(new OrderItem(1 + random.nextInt(dishCount), 1 + random.nextInt(3), null));
+                    }
+                    acceptor.accept(order);
+                    orders.increment();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return new long[] {orders.sum()};
+    }
+
+    // Ingredientes, recetas y existencias en memoria; cada lote cuesta un viaje
+    private static final class FakeRecipeDAO extends RecipeDAO {
+        final AtomicLongArray stock;
+        final List<RecipeItem> recipes;
+        final long roundTripNanos;
+        final LongAdder batches = new LongAdder();
+
+        FakeRecipeDAO(int ingredientCount, List<RecipeItem> recipes, long roundTripNanos) {
+            this.stock = new AtomicLongArray(ingredientCount + 1);
+            this.recipes = recipes;
+            this.roundTripNanos = roundTripNanos;
+            for (int i = 1; i <= ingredientCount; i++) {
+                stock.set(i, LARGE_STOCK);
+            }
+        }
+
+        @Override
+        public List<Ingredient> readIngredients() {
+            List<Ingredient> ingredients = new ArrayList<>();
+            for (int i = 1; i < stock.length(); i++) {
+                Ingredient ingredient = new Ingredient(i, "Ingrediente " + i, "g", BigDecimal.ONE, null, true);
+                ingredient.setStockQuantity(BigDecimal.valueOf(stock.get(i), 3));
+                ingredient.setReorderLevel(BigDecimal.valueOf(SCARCE_STOCK / 2, 3));
+                ingredients.add(ingredient);
+            }
+            return ingredients;
+        }
+
+        @Override
+        public List<RecipeItem> readRecipeItems() {
+            return recipes;
+        }
+
+        @Override
+        public Map<Integer, BigDecimal> readStock(Collection<Integer> ingredientIds) {
+            LockSupport.parkNanos(roundTripNanos);
+            Map<Integer, BigDecimal> values = new HashMap<>();
+            for (int id : ingredientIds) {
+                values.put(id, BigDecimal.valueOf(stock.get(id), 3));
+            }
+            return values;
+        }
+
+        @Override
+        public BatchResult<long[]> consumeStock(Collection<long[]> consumptions) {
+            LockSupport.parkNanos(roundTripNanos);
+            for (long[] consumption : consumptions) {
+                stock.addAndGet((int) consumption[0], -consumption[1]);
+            }
+            batches.increment();
+            return new BatchResult<>();
+        }
+    }
+
+    // Registra los platillos marcados agotados
+    private static final class FakeDishDAO extends DishDAO {
+        final Set<Integer> unavailable = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public int setOutOfStock(Collection<Integer> dishIds, boolean outOfStock) {
+            if (outOfStock) {
+                unavailable.addAll(dishIds);
+            } else {
+                unavailable.removeAll(dishIds);
+            }
+            return dishIds.size();
+        }
+
+        @Override
+        public List<Integer> readOutOfStockIds() {
+            return new ArrayList<>(unavailable);
+        }
+    }
+}
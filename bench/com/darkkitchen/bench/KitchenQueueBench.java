@@ -0,0 +1,145 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.model.Dish;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.order.KitchenQueue;
+import com.darkkitchen.order.KitchenTicket;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de rendimiento de KitchenQueue: varios hilos cambian al mismo tiempo la hora
+ * prometida de pedidos abiertos, inician el siguiente renglón, terminan los que iniciaron
+ * y agregan pedidos nuevos para mantener la cantidad de pedidos en pantalla. Mide la
+ * latencia de reordenar un pedido y de cada cambio de estado, con un listener que simula
+ * la pantalla.
+ * No usa la base de datos.
+ *
+ * Uso: KitchenQueueBench [pedidos abiertos=300] [hilos=8] [segundos=10]
+ */
+public class KitchenQueueBench {
+
+    private static final int DISHES = 200;
+
+    public static void main(String[] args) throws Exception {
+        int openOrders = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        KitchenQueue queue = new KitchenQueue(KitchenQueueBench::dish, KitchenQueue.DEFAULT_DELIVERY_MINUTES);
+        LongAdder notifications = new LongAdder();
+        queue.addListener((ticket, removed) -> notifications.increment());
+
+        AtomicInteger nextOrderId = new AtomicInteger(1);
+        for (int i = 0; i < openOrders; i++) {
+            queue.enqueue(randomOrder(nextOrderId.getAndIncrement()));
+        }
+        System.out.printf("Cocina: %d pedidos abiertos (%d renglones), %d hilos, %d s%n",
+            queue.getOrderCount(), queue.getWaitingCount(), threads, seconds);
+
+        AtomicLong operations = new AtomicLong();
+        LatencyRecorder[] reprioritize = new LatencyRecorder[threads];
+        LatencyRecorder[] transitions = new LatencyRecorder[threads];
+        List<Thread> workers = new ArrayList<>();
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        // El primer segundo es calentamiento y no se mide
+        long measureFrom = System.nanoTime() + 1_000_000_000L;
+
+        for (int t = 0; t < threads; t++) {
+            LatencyRecorder reprioritizeRecorder = new LatencyRecorder(1 << 20);
+            LatencyRecorder transitionRecorder = new LatencyRecorder(1 << 20);
+            reprioritize[t] = reprioritizeRecorder;
+            transitions[t] = transitionRecorder;
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                // Renglones que este hilo empezó y todavía no termina
+                ArrayDeque<Long> cooking = new ArrayDeque<>();
+                while (System.nanoTime() < end) {
+                    int op = random.nextInt(10);
+                    if (op < 6) {
+                        int orderId = nextOrderId.get() - 1 - random.nextInt(openOrders * 2);
+                        long promised = System.currentTimeMillis() + random.nextInt(20, 90) * 60_000L;
+                        long start = System.nanoTime();
+                        queue.reprioritize(orderId, promised);
+                        record(reprioritizeRecorder, start, measureFrom);
+                    } else if (op < 8 || cooking.isEmpty()) {
+                        long start = System.nanoTime();
+                        KitchenTicket next = queue.next();
+                        if (next != null && queue.start(next.getTicketId())) {
+                            record(transitionRecorder, start, measureFrom);
+                            cooking.add(next.getTicketId());
+                        }
+                    } else {
+                        long ticketId = cooking.poll();
+                        long start = System.nanoTime();
+                        queue.complete(ticketId);
+                        record(transitionRecorder, start, measureFrom);
+                    }
+                    // Un pedido nuevo por cada pedido que sale, aproximadamente
+                    if (queue.getOrderCount() < openOrders) {
+                        queue.enqueue(randomOrder(nextOrderId.getAndIncrement()));
+                    }
+                    operations.incrementAndGet();
+                }
+            }, "bench-kitchen-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        LatencyRecorder allReprioritize = new LatencyRecorder(1 << 20);
+        LatencyRecorder allTransitions = new LatencyRecorder(1 << 20);
+        for (int t = 0; t < threads; t++) {
+            allReprioritize.merge(reprioritize[t]);
+            allTransitions.merge(transitions[t]);
+        }
+
+        System.out.printf("Operaciones: %d (%.0f/s) | avisos a la pantalla: %d%n",
+            operations.get(), operations.get() / (double) seconds, notifications.sum());
+        System.out.println("Reordenar pedido:     " + micros(allReprioritize));
+        System.out.println("Iniciar / terminar:   " + micros(allTransitions));
+        System.out.printf("Al final: %d pedidos abiertos, %d renglones en espera%n",
+            queue.getOrderCount(), queue.getWaitingCount());
+    }
+
+    private static void record(LatencyRecorder recorder, long start, long measureFrom) {
+        if (start >= measureFrom) {
+            recorder.record(System.nanoTime() - start);
+        }
+    }
+
+    private static String micros(LatencyRecorder recorder) {
+        return String.format("p50 %.1f µs | p99 %.1f µs | p99.9 %.1f µs | máx %.1f µs (%d muestras)",
+            recorder.percentileMillis(50) * 1000, recorder.percentileMillis(99) * 1000,
+            recorder.percentileMillis(99.9) * 1000, recorder.percentileMillis(100) * 1000, recorder.getCount());
+    }
+
+    private static Order randomOrder(int orderId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Order order = new Order(1, 1, 1, null);
+        int items = 1 + random.nextInt(5);
+        for (int i = 0; i < items; i++) {
+            order.addItem(1 + random.nextInt(DISHES), 1 + random.nextInt(3), null);
+        }
+        order.setOrderId(orderId);
+        order.setEstimatedDeliveryTime(new Timestamp(System.currentTimeMillis() + random.nextInt(20, 90) * 60_000L));
+        return order;
+    }
+
+    // Menú sintético: preparación de 5 a 40 minutos según el ID
+    private static Dish dish(int dishId) {
+        Dish dish = new Dish();
+        dish.setDishId(dishId);
+        dish.setName("Platillo " + dishId);
+        dish.setPreparationTime(5 + dishId % 36);
+        return dish;
+    }
+}
@@ -0,0 +1,55 @@
+package com.darkkitchen.bench;
+
+import java.util.Arrays;
+
+/**
+ * Guarda latencias (en nanosegundos) de un hilo para calcular percentiles al final.
+ * Cada hilo usa su propio recorder; se combinan con merge() cuando termina la prueba.
+ */
+public class LatencyRecorder {
+
+    private long[] samples;
+    private int count;
+
+    public LatencyRecorder(int initialCapacity) {
+        samples = new long[Math.max(16, initialCapacity)];
+    }
+
+    public void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.samples[i]);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Percentil en milisegundos (p entre 0 y 100)
+     */
+    public double percentileMillis(double p) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.min(count - 1, Math.ceil(p / 100.0 * count) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * Resumen p50/p95/p99/máx
+     */
+    public String summary() {
+        return String.format("p50 %.2f ms | p95 %.2f ms | p99 %.2f ms | máx %.2f ms",
+            percentileMillis(50), percentileMillis(95), percentileMillis(99), percentileMillis(100));
+    }
+}
@@ -0,0 +1,131 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.dao.DatabaseConnection;
+import com.darkkitchen.dao.MenuCache;
+import com.darkkitchen.dao.ReferenceCache;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.model.Payment;
+import com.darkkitchen.order.OrderResult;
+import com.darkkitchen.order.OrderService;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga del alta de pedidos: varios hilos envían pedidos aleatorios (con IDs
+ * reales de la base de datos) a OrderService durante un tiempo fijo y se mide el
+ * rendimiento y la latencia hasta la confirmación.
+ *
+ * Uso: OrderIngestBench [hilos=8] [segundos=30] [artículos por pedido=3] [pedidos en vuelo por hilo=64]
+ * Requiere la base de datos dark_kitchen con datos de ejemplo. Escribe pedidos reales.
+ */
+public class OrderIngestBench {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int itemsPerOrder = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int inFlight = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+
+        int[] platforms = ids("SELECT platform_id FROM Platform WHERE active = 1");
+        int[] locations = ids("SELECT location_id FROM Location WHERE active = 1");
+        int[] customers = ids("SELECT customer_id FROM Customer WHERE active = 1 LIMIT 100000");
+        int[] dishes = ids("SELECT dish_id FROM Dish WHERE active = 1");
+        if (platforms.length == 0 || locations.length == 0 || customers.length == 0 || dishes.length == 0) {
+            System.err.println("❌ Faltan datos de ejemplo (plataformas, ubicaciones, clientes o platillos)");
+            return;
+        }
+
+        OrderService service = OrderService.getInstance();
+        // Calentamiento: carga las cachés y compila la ruta de validación
+        MenuCache.getInstance().getAllDishes();
+        ReferenceCache.getInstance().isActiveCustomer(customers[0]);
+        List<Order> warmup = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            warmup.add(randomOrder(platforms, locations, customers, dishes, itemsPerOrder));
+        }
+        service.placeAll(warmup);
+
+        System.out.printf("Pedidos: %d hilos, %d s, %d artículos por pedido, %d en vuelo por hilo%n",
+            threads, seconds, itemsPerOrder, inFlight);
+
+        AtomicLong ok = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        LatencyRecorder[] recorders = new LatencyRecorder[threads];
+        Thread[] workers = new Thread[threads];
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long start = System.nanoTime();
+
+        for (int t = 0; t < threads; t++) {
+            LatencyRecorder recorder = new LatencyRecorder(100_000);
+            recorders[t] = recorder;
+            workers[t] = new Thread(() -> {
+                List<CompletableFuture<OrderResult>> window = new ArrayList<>(inFlight);
+                long[] sent = new long[inFlight];
+                while (System.nanoTime() < deadline) {
+                    // Ventana de pedidos en vuelo, como varias terminales por hilo
+                    for (int i = 0; i < inFlight; i++) {
+                        sent[i] = System.nanoTime();
+                        window.add(service.submit(randomOrder(platforms, locations, customers, dishes, itemsPerOrder)));
+                    }
+                    for (int i = 0; i < inFlight; i++) {
+                        OrderResult result = window.get(i).join();
+                        recorder.record(System.nanoTime() - sent[i]);
+                        (result.isSuccess() ? ok : rejected).incrementAndGet();
+                    }
+                    window.clear();
+                }
+            }, "bench-orders-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        LatencyRecorder all = new LatencyRecorder(1_000);
+        for (LatencyRecorder recorder : recorders) {
+            all.merge(recorder);
+        }
+        System.out.printf("✅ %d pedidos guardados, %d rechazados en %.1f s → %.0f pedidos/s%n",
+            ok.get(), rejected.get(), elapsed, ok.get() / elapsed);
+        System.out.println("Latencia hasta confirmación: " + all.summary());
+        System.out.println(service.getStats());
+        System.out.println(ReferenceCache.getInstance().getStats());
+
+        service.shutdown();
+        DatabaseConnection.closeConnection();
+    }
+
+    private static Order randomOrder(int[] platforms, int[] locations, int[] customers, int[] dishes, int items) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Order order = new Order(pick(platforms, random), pick(locations, random), pick(customers, random), null);
+        for (int i = 0; i < items; i++) {
+            order.addItem(pick(dishes, random), 1 + random.nextInt(3), null);
+        }
+        order.setPayment(new Payment(Payment.Method.CREDIT_CARD, "BENCH" + random.nextInt(1_000_000_000), null));
+        return order;
+    }
+
+    private static int pick(int[] ids, ThreadLocalRandom random) {
+        return ids[random.nextInt(ids.length)];
+    }
+
+    private static int[] ids(String sql) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            List<Integer> ids = new ArrayList<>();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+            return ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.dao.BatchResult;
+import com.darkkitchen.model.OrderStatus;
+import com.darkkitchen.order.OrderStateMachine;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de rendimiento de OrderStateMachine: varios hilos cambian al mismo tiempo el
+ * estado de pedidos abiertos elegidos al azar (muchos cambios son inválidos, como
+ * reabrir un pedido cancelado) y se reemplaza cada pedido cerrado por uno nuevo.
+ * La base de datos se simula con una espera fija por viaje, para comparar contra el
+ * camino anterior: un viaje (UpdateOrderStatus) por cada cambio, válido o no.
+ * No usa la base de datos.
+ *
+ * Uso: OrderStateBench [pedidos abiertos=10000] [hilos=8] [segundos=10] [ms por viaje=2]
+ */
+public class OrderStateBench {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    public static void main(String[] args) throws Exception {
+        int openOrders = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        double roundTripMillis = args.length > 3 ? Double.parseDouble(args[3]) : 2.0;
+        long roundTripNanos = (long) (roundTripMillis * 1_000_000);
+
+        System.out.printf("Estados: %d pedidos abiertos, %d hilos, %d s por prueba, %.1f ms por viaje%n",
+            openOrders, threads, seconds, roundTripMillis);
+
+        // Camino anterior: cada cambio espera su viaje; el procedimiento valida en el servidor
+        Result before = runRoundTrips(openOrders, threads, seconds, roundTripNanos);
+        System.out.println("UpdateOrderStatus por cambio:   " + before);
+
+        // Camino nuevo: validación en memoria y un viaje por lote
+        LongAdder rowsWritten = new LongAdder();
+        LongAdder batches = new LongAdder();
+        OrderStateMachine machine = new OrderStateMachine(orders -> {
+            LockSupport.parkNanos(roundTripNanos);
+            rowsWritten.add(orders.size());
+            batches.increment();
+            return new BatchResult<>();
+        });
+        LongAdder notifications = new LongAdder();
+        machine.addListener((orderId, from, to, version) -> notifications.increment());
+        Result after = runStateMachine(machine, openOrders, threads, seconds);
+        machine.shutdown();
+        System.out.println("OrderStateMachine:              " + after);
+        System.out.printf("  Escrituras: %d filas en %d lotes (prom %.1f) | %d cambios aplicados | avisos: %d%n",
+            rowsWritten.sum(), batches.sum(), batches.sum() == 0 ? 0.0 : rowsWritten.sum() / (double) batches.sum(),
+            after.applied, notifications.sum());
+        System.out.println("  " + machine.getStats());
+        System.out.printf("Cambios por segundo: %.1fx%n", after.perSecond() / before.perSecond());
+    }
+
+    // Simula el procedimiento: un viaje por cambio y validación contra el estado guardado
+    private static Result runRoundTrips(int openOrders, int threads, int seconds, long roundTripNanos)
+            throws InterruptedException {
+        ConcurrentHashMap<Integer, OrderStatus> stored = new ConcurrentHashMap<>();
+        AtomicInteger nextOrderId = new AtomicInteger(1);
+        for (int i = 0; i < openOrders; i++) {
+            stored.put(nextOrderId.getAndIncrement(), OrderStatus.CREATED);
+        }
+        return run(threads, seconds, (random, result) -> {
+            int orderId = nextOrderId.get() - 1 - random.nextInt(openOrders);
+            OrderStatus to = STATUSES[random.nextInt(STATUSES.length)];
+            long start = System.nanoTime();
+            LockSupport.parkNanos(roundTripNanos);
+            boolean[] ok = new boolean[1];
+            stored.computeIfPresent(orderId, (id, current) -> {
+                ok[0] = current.canTransitionTo(to);
+                return ok[0] ? to : current;
+            });
+            result.record(start, ok[0]);
+            if (ok[0] && to.isFinal() && stored.remove(orderId) != null) {
+                stored.put(nextOrderId.getAndIncrement(), OrderStatus.CREATED);
+            }
+        });
+    }
+
+    private static Result runStateMachine(OrderStateMachine machine, int openOrders, int threads, int seconds)
+            throws InterruptedException {
+        AtomicInteger nextOrderId = new AtomicInteger(1);
+        for (int i = 0; i < openOrders; i++) {
+            machine.track(nextOrderId.getAndIncrement(), OrderStatus.CREATED);
+        }
+        return run(threads, seconds, (random, result) -> {
+            int orderId = nextOrderId.get() - 1 - random.nextInt(openOrders);
+            OrderStatus to = STATUSES[random.nextInt(STATUSES.length)];
+            long start = System.nanoTime();
+            boolean ok = machine.transition(orderId, to) == OrderStateMachine.Result.APPLIED;
+            result.record(start, ok);
+            if (ok && to.isFinal()) {
+                machine.track(nextOrderId.getAndIncrement(), OrderStatus.CREATED);
+            }
+        });
+    }
+
+    private interface Step {
+        void run(ThreadLocalRandom random, Result result);
+    }
+
+    private static Result run(int threads, int seconds, Step step) throws InterruptedException {
+        Result total = new Result(seconds);
+        List<Thread> workers = new ArrayList<>();
+        List<Result> partials = new ArrayList<>();
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        // El primer segundo es calentamiento y no se mide la latencia
+        long measureFrom = System.nanoTime() + 1_000_000_000L;
+
+        for (int t = 0; t < threads; t++) {
+            Result partial = new Result(seconds);
+            partial.measureFrom = measureFrom;
+            partials.add(partial);
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    step.run(random, partial);
+                }
+            }, "bench-state-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (Result partial : partials) {
+            total.merge(partial);
+        }
+        return total;
+    }
+
+    // Conteos y latencias de un hilo (o de todos al final)
+    private static final class Result {
+        final int seconds;
+        final LatencyRecorder applyLatency = new LatencyRecorder(1 << 20);
+        final LatencyRecorder rejectLatency = new LatencyRecorder(1 << 20);
+        long applied;
+        long rejected;
+        long measureFrom;
+
+        Result(int seconds) {
+            this.seconds = seconds;
+        }
+
+        void record(long start, boolean ok) {
+            if (ok) {
+                applied++;
+            } else {
+                rejected++;
+            }
+            // Una muestra de cada 16 para no llenar la memoria con cientos de millones de cambios
+            if (start >= measureFrom && ((applied + rejected) & 15) == 0) {
+                (ok ? applyLatency : rejectLatency).record(System.nanoTime() - start);
+            }
+        }
+
+        void merge(Result other) {
+            applied += other.applied;
+            rejected += other.rejected;
+            applyLatency.merge(other.applyLatency);
+            rejectLatency.merge(other.rejectLatency);
+        }
+
+        double perSecond() {
+            return (applied + rejected) / (double) seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f cambios/s (%d aplicados, %d rechazados) | aplicar p50 %.1f µs p99 %.1f µs"
+                    + " | rechazar p50 %.1f µs p99 %.1f µs",
+                perSecond(), applied, rejected,
+                applyLatency.percentileMillis(50) * 1000, applyLatency.percentileMillis(99) * 1000,
+                rejectLatency.percentileMillis(50) * 1000, rejectLatency.percentileMillis(99) * 1000);
+        }
+    }
+}
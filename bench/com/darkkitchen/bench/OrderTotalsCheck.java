@@ -0,0 +1,113 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.dao.DatabaseConnection;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.order.OrderTotalsRecompute;
+import com.darkkitchen.pricing.Money;
+import com.darkkitchen.pricing.OrderTotals;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * Prueba de regresión de los totales de pedidos sin el trigger tr_order_item_after_insert.
+ * Para pedidos aleatorios compara el cálculo del trigger (DECIMAL, repetido con cada artículo
+ * insertado) contra OrderTotals (centavos, una vez por pedido) y cuenta las escrituras de cada
+ * camino. Con --db además verifica los totales guardados en la base de datos.
+ *
+ * Uso: OrderTotalsCheck [pedidos=1000000] [--db]
+ * Termina con código 1 si encuentra diferencias.
+ */
+public class OrderTotalsCheck {
+
+    private static final BigDecimal TRIGGER_TAX_RATE = new BigDecimal("0.16");
+    private static final BigDecimal DELIVERY_FEE = new BigDecimal("25.00");
+
+    public static void main(String[] args) {
+        int orders = 1_000_000;
+        boolean db = false;
+        for (String arg : args) {
+            if (arg.equals("--db")) {
+                db = true;
+            } else {
+                orders = Integer.parseInt(arg);
+            }
+        }
+
+        Random random = new Random(42);
+        long mismatches = 0;
+        long triggerWrites = 0;
+        long triggerRowsScanned = 0;
+        long triggerOrderUpdates = 0;
+        long newWrites = 0;
+
+        for (int n = 0; n < orders; n++) {
+            int items = 1 + random.nextInt(20);
+            Order order = new Order(1, 1, 1, null);
+            BigDecimal triggerSubtotal = null;
+            BigDecimal triggerTax = null;
+            BigDecimal triggerTotal = null;
+
+            // Camino anterior: INSERT del pedido y, por cada artículo, INSERT + SUM de todos los artículos + UPDATE del pedido
+            triggerWrites++;
+            for (int i = 0; i < items; i++) {
+                order.addItem(1 + random.nextInt(500), 1 + random.nextInt(10), null);
+                order.getItems().get(i).setUnitPrice(BigDecimal.valueOf(1 + random.nextInt(99_999), 2));
+
+                triggerWrites += 2;
+                triggerOrderUpdates++;
+                triggerRowsScanned += i + 1;
+                triggerSubtotal = BigDecimal.ZERO;
+                for (int k = 0; k <= i; k++) {
+                    triggerSubtotal = triggerSubtotal.add(order.getItems().get(k).getSubtotal());
+                }
+                triggerTax = triggerSubtotal.multiply(TRIGGER_TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+                triggerTotal = triggerSubtotal.add(triggerTax).add(DELIVERY_FEE);
+            }
+
+            // Camino nuevo: totales calculados una vez, un INSERT del pedido y un lote de artículos
+            OrderTotals.apply(order);
+            newWrites += 1 + items;
+
+            if (order.getSubtotal().compareTo(triggerSubtotal) != 0
+                    || order.getTaxAmount().compareTo(triggerTax) != 0
+                    || order.getTotalAmount().compareTo(triggerTotal) != 0) {
+                mismatches++;
+                if (mismatches <= 10) {
+                    System.err.printf("❌ Diferencia: trigger %s/%s/%s, nuevo %s/%s/%s%n",
+                        triggerSubtotal, triggerTax, triggerTotal,
+                        order.getSubtotal(), order.getTaxAmount(), order.getTotalAmount());
+                }
+            }
+        }
+
+        // Redondeo de Money.percent contra BigDecimal con tasas que sí producen medios centavos
+        long roundingMismatches = 0;
+        for (int n = 0; n < 1_000_000; n++) {
+            long cents = random.nextInt(10_000_000);
+            long basisPoints = random.nextInt(5_000);
+            BigDecimal expected = BigDecimal.valueOf(cents, 2).multiply(BigDecimal.valueOf(basisPoints, 4))
+                .setScale(2, RoundingMode.HALF_UP);
+            if (Money.toCents(expected) != Money.percent(cents, basisPoints)) {
+                roundingMismatches++;
+            }
+        }
+
+        System.out.printf("Pedidos comparados: %d | diferencias: %d | diferencias de redondeo: %d%n",
+            orders, mismatches, roundingMismatches);
+        System.out.printf("Filas escritas con trigger: %d (artículos releídos: %d) | sin trigger: %d (%.1fx menos)%n",
+            triggerWrites, triggerRowsScanned, newWrites, triggerWrites / (double) newWrites);
+        System.out.printf("Reescrituras de la fila del pedido: %d con trigger | 0 sin trigger%n", triggerOrderUpdates);
+
+        long dbMismatches = 0;
+        if (db) {
+            dbMismatches = new OrderTotalsRecompute().verify(System.out::println);
+            DatabaseConnection.closeConnection();
+            System.out.println("Pedidos con diferencias en la base de datos: " + dbMismatches);
+        }
+
+        boolean ok = mismatches == 0 && roundingMismatches == 0 && dbMismatches == 0;
+        System.out.println(ok ? "✅ Totales idénticos" : "❌ Se encontraron diferencias");
+        System.exit(ok ? 0 : 1);
+    }
+}
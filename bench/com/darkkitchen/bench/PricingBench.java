@@ -0,0 +1,235 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.model.Promotion;
+import com.darkkitchen.pricing.Money;
+import com.darkkitchen.pricing.PricingEngine;
+import com.darkkitchen.pricing.PricingTables;
+import com.darkkitchen.pricing.Quote;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Prueba de rendimiento de PricingEngine contra el mismo cálculo con BigDecimal y mapas
+ * (como quedaría usando Dish.getPrice() directamente). Cotiza canastas aleatorias con
+ * reglas por ubicación y plataforma y los cuatro tipos de promoción; compara los totales
+ * de ambos caminos y mide tiempo y memoria asignada por canasta. No usa la base de datos.
+ *
+ * Uso: PricingBench [canastas=200000] [rondas=10] [platillos=2000]
+ * Termina con código 1 si los totales no coinciden.
+ */
+public class PricingBench {
+
+    private static final int LOCATIONS = 20;
+    private static final int PLATFORMS = 8;
+    private static final int MAX_ITEMS = 12;
+
+    public static void main(String[] args) {
+        int baskets = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int dishCount = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+
+        Random random = new Random(7);
+        PricingTables.Builder builder = PricingTables.builder();
+        Baseline baseline = new Baseline();
+
+        for (int id = 1; id <= dishCount; id++) {
+            long cents = 1_000 + random.nextInt(49_000);
+            builder.dishPrice(id, cents);
+            baseline.prices.put(id, Money.toDecimal(cents));
+        }
+        addRule(builder, baseline, 0, 0, 1_600, 2_500);
+        for (int i = 0; i < LOCATIONS / 2; i++) {
+            int location = 1 + random.nextInt(LOCATIONS);
+            int platform = random.nextBoolean() ? 0 : 1 + random.nextInt(PLATFORMS);
+            addRule(builder, baseline, location, platform, 800 + random.nextInt(1_000), 1_500 + random.nextInt(2_000));
+        }
+        addRule(builder, baseline, 0, 3, 1_600, 2_000);
+
+        long today = LocalDate.now().toEpochDay();
+        Promotion.Type[] types = Promotion.Type.values();
+        int promotions = 20;
+        for (int id = 1; id <= promotions; id++) {
+            Promotion.Type type = types[id % types.length];
+            long value = type == Promotion.Type.FIXED_AMOUNT ? 5_000 : 500 + random.nextInt(4_500);
+            builder.promotion(id, "PROMO" + id, type, value, today - 30, today + 30, Long.MAX_VALUE);
+            baseline.promotionTypes.put(id, type);
+            baseline.promotionValues.put(id, Money.toDecimal(value));
+        }
+
+        // Canastas: ubicación, plataforma, promoción y hasta MAX_ITEMS renglones
+        int[] location = new int[baskets];
+        int[] platform = new int[baskets];
+        int[] promotion = new int[baskets];
+        int[] itemCount = new int[baskets];
+        int[][] dishIds = new int[baskets][];
+        int[][] quantities = new int[baskets][];
+        for (int b = 0; b < baskets; b++) {
+            location[b] = 1 + random.nextInt(LOCATIONS);
+            platform[b] = 1 + random.nextInt(PLATFORMS);
+            promotion[b] = random.nextInt(3) == 0 ? 1 + random.nextInt(promotions) : 0;
+            itemCount[b] = 1 + random.nextInt(MAX_ITEMS);
+            dishIds[b] = new int[itemCount[b]];
+            quantities[b] = new int[itemCount[b]];
+            for (int i = 0; i < itemCount[b]; i++) {
+                dishIds[b][i] = 1 + random.nextInt(dishCount);
+                quantities[b][i] = 1 + random.nextInt(10);
+            }
+        }
+
+        PricingEngine engine = new PricingEngine(builder.build());
+        Quote quote = new Quote();
+
+        // Verificación: ambos caminos deben dar exactamente los mismos montos
+        long mismatches = 0;
+        for (int b = 0; b < baskets; b++) {
+            engine.price(location[b], platform[b], dishIds[b], quantities[b], itemCount[b], promotion[b], quote);
+            BigDecimal[] expected = baseline.price(location[b], platform[b], dishIds[b], quantities[b],
+                itemCount[b], promotion[b]);
+            if (Money.toCents(expected[0]) != quote.getDiscount() || Money.toCents(expected[1]) != quote.getTax()
+                    || Money.toCents(expected[2]) != quote.getTotal()) {
+                mismatches++;
+                if (mismatches <= 10) {
+                    System.err.printf("❌ Canasta %d: BigDecimal %s/%s/%s, motor %s%n",
+                        b, expected[0], expected[1], expected[2], quote);
+                }
+            }
+        }
+
+        System.out.printf("Precios: %d canastas, %d rondas, %d platillos, %d promociones%n",
+            baskets, rounds, dishCount, promotions);
+
+        long sink = 0;
+        double[] engineResult = null;
+        double[] baselineResult = null;
+        // Primera mitad de rondas como calentamiento; se reporta la mejor ronda de cada camino
+        for (int round = 0; round < rounds; round++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            for (int b = 0; b < baskets; b++) {
+                engine.price(location[b], platform[b], dishIds[b], quantities[b], itemCount[b], promotion[b], quote);
+                sink += quote.getTotal();
+            }
+            double[] engineRound = perBasket(start, bytes, baskets);
+
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            for (int b = 0; b < baskets; b++) {
+                sink += baseline.price(location[b], platform[b], dishIds[b], quantities[b],
+                    itemCount[b], promotion[b])[2].unscaledValue().longValue();
+            }
+            double[] baselineRound = perBasket(start, bytes, baskets);
+
+            if (round >= rounds / 2) {
+                engineResult = best(engineResult, engineRound);
+                baselineResult = best(baselineResult, baselineRound);
+            }
+        }
+
+        System.out.printf("PricingEngine (centavos): %8.1f ns/canasta | %8.1f bytes/canasta%n",
+            engineResult[0], engineResult[1]);
+        System.out.printf("BigDecimal (referencia):  %8.1f ns/canasta | %8.1f bytes/canasta%n",
+            baselineResult[0], baselineResult[1]);
+        System.out.printf("Aceleración: %.1fx (suma de control %d)%n", baselineResult[0] / engineResult[0], sink);
+        System.out.println("Canastas con diferencias: " + mismatches);
+
+        System.out.println(mismatches == 0 ? "✅ Montos idénticos" : "❌ Se encontraron diferencias");
+        System.exit(mismatches == 0 ? 0 : 1);
+    }
+
+    private static void addRule(PricingTables.Builder builder, Baseline baseline, int location, int platform,
+                                long taxBasisPoints, long feeCents) {
+        builder.rule(location, platform, taxBasisPoints, feeCents);
+        baseline.rules.put(Baseline.key(location, platform),
+            new BigDecimal[] {BigDecimal.valueOf(taxBasisPoints, 2), Money.toDecimal(feeCents)});
+    }
+
+    private static double[] perBasket(long startNanos, long startBytes, int baskets) {
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = allocatedBytes() - startBytes;
+        return new double[] {nanos / (double) baskets, bytes / (double) baskets};
+    }
+
+    private static double[] best(double[] current, double[] round) {
+        return current == null || round[0] < current[0] ? round : current;
+    }
+
+    // Bytes asignados por el hilo actual (-1 si la JVM no lo soporta)
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean) {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Mismo cálculo que PricingEngine con BigDecimal, mapas y búsqueda de la regla en cada canasta
+     */
+    private static final class Baseline {
+
+        private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+        final Map<Integer, BigDecimal> prices = new HashMap<>();
+        final Map<Long, BigDecimal[]> rules = new HashMap<>();
+        final Map<Integer, Promotion.Type> promotionTypes = new HashMap<>();
+        final Map<Integer, BigDecimal> promotionValues = new HashMap<>();
+
+        static long key(int location, int platform) {
+            return ((long) location << 32) | platform;
+        }
+
+        // {descuento, impuesto, total}
+        BigDecimal[] price(int location, int platform, int[] dishIds, int[] quantities, int count, int promotionId) {
+            BigDecimal subtotal = BigDecimal.ZERO;
+            BigDecimal secondUnits = BigDecimal.ZERO;
+            for (int i = 0; i < count; i++) {
+                BigDecimal unit = prices.get(dishIds[i]);
+                subtotal = subtotal.add(unit.multiply(BigDecimal.valueOf(quantities[i])));
+                secondUnits = secondUnits.add(unit.multiply(BigDecimal.valueOf(quantities[i] / 2)));
+            }
+
+            BigDecimal[] rule = rules.get(key(location, platform));
+            if (rule == null) {
+                rule = rules.get(key(location, 0));
+            }
+            if (rule == null) {
+                rule = rules.get(key(0, platform));
+            }
+            if (rule == null) {
+                rule = rules.get(key(0, 0));
+            }
+            BigDecimal fee = rule[1];
+
+            BigDecimal itemsDiscount = BigDecimal.ZERO;
+            BigDecimal discount = BigDecimal.ZERO;
+            Promotion.Type type = promotionId != 0 ? promotionTypes.get(promotionId) : null;
+            if (type != null) {
+                BigDecimal value = promotionValues.get(promotionId);
+                switch (type) {
+                    case PERCENTAGE:
+                        itemsDiscount = subtotal.multiply(value).divide(HUNDRED).setScale(2, RoundingMode.HALF_UP);
+                        break;
+                    case FIXED_AMOUNT:
+                        itemsDiscount = value.min(subtotal);
+                        break;
+                    case BOGO:
+                        itemsDiscount = secondUnits.multiply(value).divide(HUNDRED).setScale(2, RoundingMode.HALF_UP);
+                        break;
+                    case FREE_DELIVERY:
+                        discount = fee;
+                        fee = BigDecimal.ZERO;
+                        break;
+                }
+                discount = discount.add(itemsDiscount);
+            }
+
+            BigDecimal taxable = subtotal.subtract(itemsDiscount);
+            BigDecimal tax = taxable.multiply(rule[0]).divide(HUNDRED).setScale(2, RoundingMode.HALF_UP);
+            return new BigDecimal[] {discount, tax, taxable.add(tax).add(fee)};
+        }
+    }
+}
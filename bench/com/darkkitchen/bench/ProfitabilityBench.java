@@ -0,0 +1,156 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.model.RecipeItem;
+import com.darkkitchen.pricing.ProfitabilityEngine;
+import com.darkkitchen.pricing.RecipeGraph;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Prueba de rendimiento de ProfitabilityEngine contra el cálculo por platillo con BigDecimal
+ * (lo que hace CalculateDishProfitability: sumar cantidad × costo de cada renglón). Mide el
+ * menú completo por ambos caminos y el recálculo después de cambiar el costo de un solo
+ * ingrediente; compara los márgenes de ambos caminos. No usa la base de datos.
+ *
+ * Uso: ProfitabilityBench [platillos=5000] [ingredientes=2000] [renglones=12] [rondas=10]
+ * Termina con código 1 si los márgenes no coinciden.
+ */
+public class ProfitabilityBench {
+
+    public static void main(String[] args) {
+        int dishCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int ingredientCount = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int linesPerDish = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        Random random = new Random(11);
+        long[] costCents = new long[ingredientCount + 1];
+        Map<Integer, BigDecimal> costs = new HashMap<>();
+        for (int id = 1; id <= ingredientCount; id++) {
+            costCents[id] = 1 + random.nextInt(2_000);
+            costs.put(id, BigDecimal.valueOf(costCents[id], 2));
+        }
+
+        // Recetas con ingredientes populares (los primeros IDs) y el resto al azar
+        long[] priceCents = new long[dishCount + 1];
+        Map<Integer, List<RecipeItem>> recipes = new HashMap<>();
+        List<RecipeItem> items = new ArrayList<>();
+        for (int dish = 1; dish <= dishCount; dish++) {
+            priceCents[dish] = 5_000 + random.nextInt(45_000);
+            List<RecipeItem> recipe = new ArrayList<>();
+            int lines = 1 + random.nextInt(linesPerDish * 2 - 1);
+            for (int line = 0; line < lines; line++) {
+                int ingredient = random.nextInt(4) == 0
+                    ? 1 + random.nextInt(Math.min(20, ingredientCount))
+                    : 1 + random.nextInt(ingredientCount);
+                RecipeItem item = new RecipeItem(dish, ingredient,
+                    BigDecimal.valueOf(1 + random.nextInt(5_000), 3), false);
+                recipe.add(item);
+                items.add(item);
+            }
+            recipes.put(dish, recipe);
+        }
+
+        long start = System.nanoTime();
+        RecipeGraph graph = RecipeGraph.from(items);
+        double buildMillis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("Rentabilidad: %d platillos, %d ingredientes, %d renglones (grafo en %.1f ms)%n",
+            dishCount, ingredientCount, graph.lineCount(), buildMillis);
+
+        // Verificación: mismos márgenes por ambos caminos
+        ProfitabilityEngine engine = new ProfitabilityEngine(graph, costCents, priceCents);
+        long mismatches = compare(engine, recipes, costs, priceCents, dishCount);
+
+        // Cambio de costo de un ingrediente popular y uno cualquiera, de ida y vuelta
+        int[] changedIngredients = {1, 1 + random.nextInt(ingredientCount)};
+        double engineFull = Double.MAX_VALUE;
+        double baselineFull = Double.MAX_VALUE;
+        double engineIncremental = Double.MAX_VALUE;
+        double baselineIncremental = Double.MAX_VALUE;
+        long affected = 0;
+        long sink = 0;
+        for (int round = 0; round < rounds; round++) {
+            start = System.nanoTime();
+            ProfitabilityEngine full = new ProfitabilityEngine(graph, costCents, priceCents);
+            for (int dish = 1; dish <= dishCount; dish++) {
+                sink += full.marginBasisPoints(dish);
+            }
+            double engineRound = (System.nanoTime() - start) / 1e6;
+
+            start = System.nanoTime();
+            for (int dish = 1; dish <= dishCount; dish++) {
+                sink += baselineMargin(recipes.get(dish), costs, priceCents[dish]);
+            }
+            double baselineRound = (System.nanoTime() - start) / 1e6;
+
+            // Incremental: el motor recalcula los platillos del ingrediente; sin él, todo el menú
+            int ingredient = changedIngredients[round % changedIngredients.length];
+            long newCost = costCents[ingredient] + 1 + random.nextInt(100);
+            start = System.nanoTime();
+            int[] dishes = engine.setIngredientCost(ingredient, newCost);
+            double incrementalRound = (System.nanoTime() - start) / 1e6;
+            affected += dishes.length;
+
+            costs.put(ingredient, BigDecimal.valueOf(newCost, 2));
+            start = System.nanoTime();
+            for (int dish = 1; dish <= dishCount; dish++) {
+                sink += baselineMargin(recipes.get(dish), costs, priceCents[dish]);
+            }
+            double baselineIncrementalRound = (System.nanoTime() - start) / 1e6;
+            costCents[ingredient] = newCost;
+
+            if (round >= rounds / 2) {
+                engineFull = Math.min(engineFull, engineRound);
+                baselineFull = Math.min(baselineFull, baselineRound);
+                engineIncremental = Math.min(engineIncremental, incrementalRound);
+                baselineIncremental = Math.min(baselineIncremental, baselineIncrementalRound);
+            }
+        }
+        mismatches += compare(engine, recipes, costs, priceCents, dishCount);
+
+        System.out.printf("Menú completo, motor (paralelo):    %8.2f ms%n", engineFull);
+        System.out.printf("Menú completo, BigDecimal:          %8.2f ms (%.1fx)%n",
+            baselineFull, baselineFull / engineFull);
+        System.out.printf("Un ingrediente, motor (%4.0f plat.): %8.3f ms%n",
+            affected / (double) rounds, engineIncremental);
+        System.out.printf("Un ingrediente, BigDecimal (todo):  %8.2f ms (%.0fx)%n",
+            baselineIncremental, baselineIncremental / engineIncremental);
+        System.out.println(engine.getStats() + " | suma de control " + sink);
+        System.out.println("Platillos con diferencias: " + mismatches);
+
+        System.out.println(mismatches == 0 ? "✅ Márgenes idénticos" : "❌ Se encontraron diferencias");
+        System.exit(mismatches == 0 ? 0 : 1);
+    }
+
+    private static long compare(ProfitabilityEngine engine, Map<Integer, List<RecipeItem>> recipes,
+                                Map<Integer, BigDecimal> costs, long[] priceCents, int dishCount) {
+        long mismatches = 0;
+        for (int dish = 1; dish <= dishCount; dish++) {
+            int expected = baselineMargin(recipes.get(dish), costs, priceCents[dish]);
+            int actual = engine.marginBasisPoints(dish);
+            if (expected != actual) {
+                mismatches++;
+                if (mismatches <= 10) {
+                    System.err.printf("❌ Platillo %d: BigDecimal %d, motor %d%n", dish, expected, actual);
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    // Margen en centésimas de porcentaje con BigDecimal, renglón por renglón
+    private static int baselineMargin(List<RecipeItem> recipe, Map<Integer, BigDecimal> costs, long priceCents) {
+        BigDecimal cost = BigDecimal.ZERO;
+        for (RecipeItem item : recipe) {
+            cost = cost.add(item.getQuantity().multiply(costs.get(item.getIngredientId())));
+        }
+        BigDecimal price = BigDecimal.valueOf(priceCents, 2);
+        return price.subtract(cost).movePointRight(4).divide(price, 0, RoundingMode.HALF_UP).intValueExact();
+    }
+}
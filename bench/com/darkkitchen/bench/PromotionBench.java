@@ -0,0 +1,253 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.dao.PricingDAO;
+import com.darkkitchen.model.Promotion;
+import com.darkkitchen.pricing.PricingTables;
+import com.darkkitchen.pricing.PromotionQuota;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de rendimiento del canje de promociones. Varios hilos en varias terminales canjean
+ * el mismo código popular; se compara sumar used_count con la fila bloqueada en cada canje
+ * contra PromotionQuota (bloques de usos apartados por terminal). Verifica que nunca se
+ * canjee más que usage_limit y que, con más demanda que usos, se canjee exactamente el
+ * límite. También mide la búsqueda de códigos inexistentes con el filtro de PricingTables
+ * contra recortar, pasar a mayúsculas y buscar en el mapa. La base de datos se simula en memoria.
+ *
+ * Uso: PromotionBench [terminales=4] [hilos por terminal=4] [segundos=3] [ms por viaje=0.5] [límite=20000]
+ * Termina con código 1 si algo no coincide.
+ */
+public class PromotionBench {
+
+    private static final int PROMOTION_ID = 1;
+
+    public static void main(String[] args) throws Exception {
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int threadsPerNode = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        double roundTripMillis = args.length > 3 ? Double.parseDouble(args[3]) : 0.5;
+        int usageLimit = args.length > 4 ? Integer.parseInt(args[4]) : 20_000;
+        long roundTripNanos = (long) (roundTripMillis * 1_000_000);
+
+        System.out.printf("Canje: %d terminales x %d hilos, %d s, %.1f ms por viaje%n",
+            nodes, threadsPerNode, seconds, roundTripMillis);
+
+        // Camino directo: un UPDATE con la fila de la promoción bloqueada por canje
+        Object row = new Object();
+        long[] directUsed = new long[1];
+        long directCount = runFor(nodes * threadsPerNode, seconds, () -> {
+            synchronized (row) {
+                LockSupport.parkNanos(roundTripNanos);
+                directUsed[0]++;
+            }
+            return true;
+        });
+        System.out.printf("UPDATE por canje:   %10.0f canjes/s%n", directCount / (double) seconds);
+
+        // PromotionQuota sin límite; al final se devuelve lo apartado sin usar
+        FakePricingDAO dao = new FakePricingDAO(roundTripNanos, Long.MAX_VALUE);
+        PromotionQuota[] quotas = quotas(dao, nodes);
+        long quotaCount = runFor(nodes * threadsPerNode, seconds, () -> {
+            PromotionQuota quota = quotas[(int) (Thread.currentThread().getId() % nodes)];
+            if (!quota.reserve(PROMOTION_ID)) {
+                return false;
+            }
+            // 1 de cada 100 pedidos no se guarda y regresa su uso
+            if (ThreadLocalRandom.current().nextInt(100) == 0) {
+                quota.release(PROMOTION_ID);
+                return false;
+            }
+            return true;
+        });
+        for (PromotionQuota quota : quotas) {
+            quota.releaseAll();
+        }
+        System.out.printf("PromotionQuota:     %10.0f canjes/s (%d transacciones)%n",
+            quotaCount / (double) seconds, dao.transactions.sum());
+        System.out.println("  " + quotas[0].getStats());
+        boolean unlimitedOk = dao.used == quotaCount;
+        System.out.printf("used_count al cerrar: %d, canjes: %d%n", dao.used, quotaCount);
+        System.out.printf("Aceleración: %.1fx%n", quotaCount / (double) Math.max(1, directCount));
+
+        // Con límite: cada hilo canjea hasta que ya no quedan usos
+        FakePricingDAO limited = new FakePricingDAO(roundTripNanos, usageLimit);
+        PromotionQuota[] limitedQuotas = quotas(limited, nodes);
+        LongAdder redeemed = new LongAdder();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < nodes * threadsPerNode; t++) {
+            PromotionQuota quota = limitedQuotas[t % nodes];
+            Thread worker = new Thread(() -> {
+                while (quota.reserve(PROMOTION_ID)) {
+                    redeemed.increment();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        int leftover = 0;
+        for (PromotionQuota quota : limitedQuotas) {
+            leftover += quota.releaseAll();
+        }
+        boolean limitOk = redeemed.sum() == usageLimit && limited.used == usageLimit && leftover == 0;
+        System.out.printf("Límite %d: %d canjes, used_count %d, %d usos sin devolver, %d transacciones%n",
+            usageLimit, redeemed.sum(), limited.used, leftover, limited.transactions.sum());
+
+        boolean codesOk = lookups();
+
+        boolean ok = unlimitedOk && limitOk && codesOk;
+        System.out.println(ok ? "✅ Canjes y búsquedas correctos" : "❌ Se encontraron diferencias");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static PromotionQuota[] quotas(PricingDAO dao, int nodes) {
+        PromotionQuota[] quotas = new PromotionQuota[nodes];
+        for (int i = 0; i < nodes; i++) {
+            quotas[i] = new PromotionQuota(dao, PromotionQuota.DEFAULT_BLOCK_SIZE);
+        }
+        return quotas;
+    }
+
+    private interface Redemption {
+        boolean redeem();
+    }
+
+    // Canjes desde varios hilos durante el tiempo indicado
+    private static long runFor(int threads, int seconds, Redemption redemption) throws InterruptedException {
+        LongAdder count = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    if (redemption.redeem()) {
+                        count.increment();
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return count.sum();
+    }
+
+    // Búsqueda de códigos: la mayoría inexistentes, algunos válidos con espacios y minúsculas
+    private static boolean lookups() {
+        int promotions = 500;
+        int lookups = 1_000_000;
+        long today = LocalDate.now().toEpochDay();
+        PricingTables.Builder builder = PricingTables.builder();
+        Map<String, Integer> map = new HashMap<>();
+        for (int id = 1; id <= promotions; id++) {
+            String code = "PROMO" + id;
+            builder.promotion(id, code, Promotion.Type.PERCENTAGE, 1_000, today - 1, today + 1, Long.MAX_VALUE);
+            map.put(code, id);
+        }
+        PricingTables tables = builder.build();
+
+        Random random = new Random(3);
+        String[] codes = new String[lookups];
+        int[] expected = new int[lookups];
+        for (int i = 0; i < lookups; i++) {
+            if (random.nextInt(10) == 0) {
+                expected[i] = 1 + random.nextInt(promotions);
+                codes[i] = " promo" + expected[i] + " ";
+            } else {
+                codes[i] = "X" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36).toLowerCase();
+            }
+        }
+
+        long mismatches = 0;
+        double[] filtered = null;
+        double[] plain = null;
+        long sink = 0;
+        for (int round = 0; round < 6; round++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                int id = tables.findPromotionId(codes[i]);
+                if (id != expected[i]) {
+                    mismatches++;
+                }
+            }
+            filtered = best(filtered, perLookup(start, bytes, lookups));
+
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                Integer id = map.get(codes[i].trim().toUpperCase());
+                sink += id != null ? id : 0;
+            }
+            plain = best(plain, perLookup(start, bytes, lookups));
+        }
+        System.out.printf("Búsqueda de códigos (90%% inexistentes, %d promociones):%n", promotions);
+        System.out.printf("  con filtro:   %6.1f ns, %6.1f bytes por búsqueda%n", filtered[0], filtered[1]);
+        System.out.printf("  mapa directo: %6.1f ns, %6.1f bytes por búsqueda (%d)%n", plain[0], plain[1], sink % 10);
+        if (mismatches > 0) {
+            System.err.println("❌ Búsquedas con resultado distinto: " + mismatches);
+        }
+        return mismatches == 0;
+    }
+
+    private static double[] perLookup(long startNanos, long startBytes, int lookups) {
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = allocatedBytes() - startBytes;
+        return new double[] {nanos / (double) lookups, bytes / (double) lookups};
+    }
+
+    private static double[] best(double[] current, double[] round) {
+        return current == null || round[0] < current[0] ? round : current;
+    }
+
+    // Bytes asignados por el hilo actual (-1 si la JVM no lo soporta)
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean) {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    // Fila de la promoción en memoria; cada transacción la bloquea durante un viaje
+    private static final class FakePricingDAO extends PricingDAO {
+        final long roundTripNanos;
+        final long usageLimit;
+        final LongAdder transactions = new LongAdder();
+        long used;
+
+        FakePricingDAO(long roundTripNanos, long usageLimit) {
+            this.roundTripNanos = roundTripNanos;
+            this.usageLimit = usageLimit;
+        }
+
+        @Override
+        public synchronized int reserveUses(int promotionId, int wanted) {
+            LockSupport.parkNanos(roundTripNanos);
+            transactions.increment();
+            long remaining = usageLimit - used;
+            int granted = usageLimit == Long.MAX_VALUE ? wanted : (int) Math.max(0, Math.min(wanted, (remaining + 3) / 4));
+            used += granted;
+            return granted;
+        }
+
+        @Override
+        public synchronized boolean returnUses(int promotionId, int count) {
+            LockSupport.parkNanos(roundTripNanos);
+            used -= Math.min(used, count);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.dao.DaoSql;
+import com.darkkitchen.dao.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Revisión de los planes de las consultas de los DAO y de los procedimientos: ejecuta
+ * EXPLAIN FORMAT=JSON sobre cada una (con valores de ejemplo leídos de la base de datos) y
+ * falla si alguna recorre una tabla o un índice completo de más del umbral de filas. Las
+ * lecturas completas a propósito (cachés, menú, listados) se muestran pero no fallan.
+ * Los INSERT de una fila no se revisan. Las consultas de los DAO se toman de sus constantes
+ * (DaoSql), así que se revisa lo que de verdad ejecutan; solo las de los procedimientos y
+ * reportes de dark_kitchen.sql se copian aquí.
+ *
+ * Con --seed agrega datos sintéticos (SeedData: clientes, platillos, pedidos con artículos
+ * y pagos) para que el optimizador vea tamaños reales; solo con una base local de pruebas.
+ *
+ * Uso: QueryPlanAudit [filas máximas=1000] [--seed clientes]
+ * Termina con código 1 si alguna consulta recorre más filas de las permitidas.
+ */
+public class QueryPlanAudit {
+
+    private static final int DEFAULT_MAX_ROWS = 1_000;
+    private static final Pattern FIELD = Pattern.compile(
+        "\"(table_name|access_type|key|rows_examined_per_scan)\"\\s*:\\s*(\"[^\"]*\"|\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        int maxRows = DEFAULT_MAX_ROWS;
+        int seed = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--seed")) {
+                seed = Integer.parseInt(args[++i]);
+            } else {
+                maxRows = Integer.parseInt(args[i]);
+            }
+        }
+
+        int failures = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (seed > 0) {
+                seed(conn, seed);
+            }
+            System.out.printf("Planes de consulta: fallan los recorridos completos de más de %d filas%n", maxRows);
+            for (Query query : queries(new Samples(conn))) {
+                failures += audit(conn, query, maxRows) ? 0 : 1;
+            }
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+
+        System.out.println(failures == 0 ? "✅ Ninguna consulta recorre tablas completas"
+            : "❌ " + failures + " consultas recorren tablas completas");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Una consulta con sus parámetros de ejemplo
+    private static final class Query {
+        final String name;
+        final String sql;
+        final boolean fullRead;
+        final Object[] params;
+
+        Query(String name, boolean fullRead, String sql, Object... params) {
+            this.name = name;
+            this.fullRead = fullRead;
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+
+    // IDs y nombres existentes para los parámetros (0 si la tabla está vacía)
+    private static final class Samples {
+        final int customerId;
+        final String customerName;
+        final int dishId;
+        final int categoryId;
+        final int orderId;
+        final int promotionId;
+        final int driverId;
+        final int ingredientId;
+
+        Samples(Connection conn) throws SQLException {
+            customerId = SeedData.intValue(conn, "SELECT MIN(customer_id) FROM Customer");
+            customerName = SeedData.stringValue(conn, "SELECT full_name FROM Customer WHERE customer_id = " + customerId);
+            dishId = SeedData.intValue(conn, "SELECT MIN(dish_id) FROM Dish");
+            categoryId = SeedData.intValue(conn, "SELECT MIN(category_id) FROM Category");
+            orderId = SeedData.intValue(conn, "SELECT MIN(order_id) FROM `Order`");
+            promotionId = SeedData.intValue(conn, "SELECT MIN(promotion_id) FROM Promotion");
+            driverId = SeedData.intValue(conn, "SELECT MIN(driver_id) FROM Delivery_Driver");
+            ingredientId = SeedData.intValue(conn, "SELECT MIN(ingredient_id) FROM Ingredient");
+        }
+    }
+
+    private static List<Query> queries(Samples s) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp monthAgo = new Timestamp(now.getTime() - 30L * 24 * 3_600_000);
+        String name = s.customerName == null ? "" : s.customerName;
+        int lastOrder = s.orderId + 999;
+        List<Query> q = new ArrayList<>();
+
+        // CustomerDAO y ReferenceCache
+        q.add(new Query("CustomerDAO.readAll", true, DaoSql.CUSTOMER_READ_ALL));
+        q.add(new Query("CustomerDAO.readPage (primera)", false, DaoSql.CUSTOMER_READ_FIRST_PAGE, 50));
+        q.add(new Query("CustomerDAO.readPage (siguiente)", false, DaoSql.CUSTOMER_READ_NEXT_PAGE,
+            name, name, s.customerId, 50));
+        q.add(new Query("CustomerDAO.readPageAt", false, DaoSql.CUSTOMER_READ_PAGE_AT, 50, 0));
+        q.add(new Query("CustomerDAO.countAll", true, DaoSql.CUSTOMER_COUNT_ALL));
+        q.add(new Query("CustomerDAO.countBefore", false, DaoSql.CUSTOMER_COUNT_BEFORE, name, name, s.customerId));
+        q.add(new Query("CustomerDAO.streamAll", true, DaoSql.CUSTOMER_STREAM_ALL));
+        q.add(new Query("CustomerDAO.readById", false, DaoSql.CUSTOMER_READ_BY_ID, s.customerId));
+        q.add(new Query("CustomerDAO.update", false, DaoSql.CUSTOMER_UPDATE, name, null, "", 1, s.customerId));
+        q.add(new Query("CustomerDAO.delete", false, DaoSql.CUSTOMER_DELETE, s.customerId));
+        q.add(new Query("CustomerDAO.search (texto completo)", false, DaoSql.CUSTOMER_SEARCH,
+            "+mar*", "+mar*", 50, 0));
+        // Términos de una letra: recorre idx_customer_full_name en orden hasta juntar el límite
+        q.add(new Query("CustomerDAO.search (una letra)", true, DaoSql.CUSTOMER_SEARCH_LIKE, "%m%", 50, 0));
+        q.add(new Query("CustomerDAO.recomputeLoyalty", false, DaoSql.CUSTOMER_RECOMPUTE_LOYALTY,
+            s.customerId, s.customerId + 99, s.customerId, s.customerId + 99));
+        q.add(new Query("ReferenceCache.customers", true, DaoSql.REFERENCE_CUSTOMERS));
+        q.add(new Query("ReferenceCache.locations", true, DaoSql.REFERENCE_LOCATIONS));
+        q.add(new Query("ReferenceCache.platforms", true, DaoSql.REFERENCE_PLATFORMS));
+        q.add(new Query("ReferenceCache.customerExists", false, DaoSql.REFERENCE_CUSTOMER_EXISTS, s.customerId));
+
+        // DishDAO y CategoryDAO: el menú completo se ordena por el nombre de la categoría
+        q.add(new Query("DishDAO.readAll", true, DaoSql.DISH_READ_ALL));
+        q.add(new Query("DishDAO.readPage (primera)", true, DaoSql.DISH_READ_FIRST_PAGE, 50));
+        q.add(new Query("DishDAO.readPage (siguiente)", true, DaoSql.DISH_READ_NEXT_PAGE,
+            "", "", "", "", s.dishId, 50));
+        q.add(new Query("DishDAO.readPageAt", true, DaoSql.DISH_READ_PAGE_AT, 50, 0));
+        q.add(new Query("DishDAO.countAll", true, DaoSql.DISH_COUNT_ALL));
+        q.add(new Query("DishDAO.streamAll", true, DaoSql.DISH_STREAM_ALL));
+        q.add(new Query("DishDAO.readById", false, DaoSql.DISH_READ_BY_ID, s.dishId));
+        q.add(new Query("DishDAO.readByCategory", false, DaoSql.DISH_READ_BY_CATEGORY, s.categoryId));
+        q.add(new Query("DishDAO.update", false, DaoSql.DISH_UPDATE, 1, s.categoryId, "", null, 0, 15, 1, s.dishId));
+        q.add(new Query("DishDAO.delete", false, DaoSql.DISH_DELETE, s.dishId));
+        q.add(new Query("DishDAO.setOutOfStock (bloqueo)", false, DaoSql.dishLockOutOfStock(2),
+            1, s.dishId, s.dishId + 1));
+        q.add(new Query("DishDAO.setOutOfStock", false, DaoSql.DISH_UPDATE_OUT_OF_STOCK, 1, s.dishId));
+        q.add(new Query("DishDAO.readOutOfStockIds", true, DaoSql.DISH_READ_OUT_OF_STOCK));
+        q.add(new Query("DishDAO.search (texto completo)", false, DaoSql.DISH_SEARCH, "+tac*", "+tac*", 50, 0));
+        q.add(new Query("DishDAO.search (una letra)", true, DaoSql.DISH_SEARCH_LIKE, "%t%", 50, 0));
+        q.add(new Query("CategoryDAO.readAll", true, DaoSql.CATEGORY_READ_ALL));
+        q.add(new Query("CategoryDAO.readById", false, DaoSql.CATEGORY_READ_BY_ID, s.categoryId));
+        q.add(new Query("CategoryDAO.update", false, DaoSql.CATEGORY_UPDATE, "", null, 1, s.categoryId));
+        q.add(new Query("CategoryDAO.delete", false, DaoSql.CATEGORY_DELETE, s.categoryId));
+
+        // OrderDAO
+        Object[] range = {s.orderId, lastOrder, s.orderId, lastOrder, s.orderId, lastOrder};
+        q.add(new Query("OrderDAO.recomputeTotals", false, DaoSql.ORDER_RECOMPUTE_TOTALS, range));
+        q.add(new Query("OrderDAO.countTotalMismatches", false, DaoSql.ORDER_COUNT_TOTAL_MISMATCHES, range));
+        q.add(new Query("OrderDAO.readById", false, DaoSql.ORDER_READ_BY_ID, s.orderId));
+        q.add(new Query("OrderDAO.readOpenOrders (pedidos)", false, DaoSql.ORDER_READ_OPEN_ORDERS));
+        q.add(new Query("OrderDAO.readOpenOrders (artículos)", false, DaoSql.ORDER_READ_OPEN_ITEMS));
+        q.add(new Query("OrderDAO.readDeliveredSince (pedidos)", false, DaoSql.ORDER_READ_DELIVERED_ORDERS, monthAgo));
+        q.add(new Query("OrderDAO.readDeliveredSince (artículos)", false, DaoSql.ORDER_READ_DELIVERED_ITEMS, monthAgo));
+        q.add(new Query("OrderDAO.updateEstimatedTimes", false, DaoSql.ORDER_UPDATE_ESTIMATED_TIME, now, s.orderId));
+        q.add(new Query("OrderDAO.updateStatus", false, DaoSql.ORDER_UPDATE_STATUS, "ACCEPTED", s.orderId));
+        q.add(new Query("OrderDAO.updateStatusAll", false, DaoSql.ORDER_UPDATE_STATUS_ALL,
+            "DELIVERED", "DELIVERED", s.orderId));
+        q.add(new Query("OrderDAO.readReadyUnassigned", false, DaoSql.ORDER_READ_READY_UNASSIGNED));
+        q.add(new Query("OrderDAO.assignDriver", false, DaoSql.ORDER_ASSIGN_DRIVER, s.driverId, s.orderId));
+        q.add(new Query("OrderDAO.readItems", false, DaoSql.ORDER_READ_ITEMS, s.orderId));
+        q.add(new Query("OrderDAO.readPayment", false, DaoSql.ORDER_READ_PAYMENT, s.orderId));
+        q.add(new Query("OrderDAO.addCustomerOrders", false, DaoSql.ORDER_ADD_CUSTOMER_ORDERS, 1, s.customerId));
+        q.add(new Query("OrderDAO.addPromotionUses", false, DaoSql.ORDER_ADD_PROMOTION_USES, 1, s.promotionId, 1));
+
+        // PricingDAO, RecipeDAO, DriverDAO y ChangeLogDAO
+        q.add(new Query("PricingDAO.readRules", true, DaoSql.PRICING_READ_RULES));
+        q.add(new Query("PricingDAO.readPromotions", true, DaoSql.PRICING_READ_PROMOTIONS));
+        q.add(new Query("PricingDAO.reserveUses (bloqueo)", false, DaoSql.PRICING_LOCK_PROMOTION, s.promotionId));
+        q.add(new Query("PricingDAO.reserveUses", false, DaoSql.PRICING_ADD_USES, 1, s.promotionId));
+        q.add(new Query("PricingDAO.releaseUses", false, DaoSql.PRICING_RELEASE_USES, 1, s.promotionId));
+        q.add(new Query("RecipeDAO.readIngredients", true, DaoSql.RECIPE_READ_INGREDIENTS));
+        q.add(new Query("RecipeDAO.readRecipeItems", true, DaoSql.RECIPE_READ_RECIPES));
+        q.add(new Query("RecipeDAO.readStock", false, DaoSql.recipeReadColumn("stock_quantity", 2),
+            s.ingredientId, s.ingredientId + 1));
+        q.add(new Query("RecipeDAO.deplete", false, DaoSql.RECIPE_DEPLETE, 1, s.ingredientId));
+        q.add(new Query("RecipeDAO.restock", false, DaoSql.RECIPE_RESTOCK, 1, s.ingredientId));
+        q.add(new Query("RecipeDAO.updateCost", false, DaoSql.RECIPE_UPDATE_COST, 1, s.ingredientId));
+        q.add(new Query("DriverDAO.readActiveDrivers", true, DaoSql.DRIVER_READ_ACTIVE));
+        q.add(new Query("DriverDAO.readLocationPoints", true, DaoSql.DRIVER_READ_LOCATIONS));
+        q.add(new Query("DriverDAO.readPositions", false, DaoSql.DRIVER_READ_POSITIONS, s.driverId, monthAgo, now));
+        q.add(new Query("DriverDAO.readLastPosition", false, DaoSql.DRIVER_READ_LAST_POSITION, s.driverId));
+        q.add(new Query("ChangeLogDAO.readMaxId", false, DaoSql.CHANGE_LOG_READ_MAX_ID));
+        q.add(new Query("ChangeLogDAO.readSince", false, DaoSql.changeLogReadSince(2), 0, 1, 2, 500));
+        q.add(new Query("ChangeLogDAO.purgeOlderThan", false, DaoSql.CHANGE_LOG_PURGE, 24));
+
+        // Procedimientos, funciones y triggers
+        q.add(new Query("ProcesarNuevoPedido: precio del platillo", false,
+            "SELECT price FROM Dish WHERE dish_id = ? AND active = 1", s.dishId));
+        q.add(new Query("ProcesarNuevoPedido: regla de precio", false, """
+            SELECT tax_rate, delivery_fee FROM Pricing_Rule
+            WHERE active = 1 AND location_id IN (?, 0) AND platform_id IN (?, 0)
+            ORDER BY location_id <> 0 DESC, platform_id <> 0 DESC
+            LIMIT 1""", 1, 1));
+        q.add(new Query("ActualizarEstadoPedido: pedido", false,
+            "SELECT status, customer_id FROM `Order` WHERE order_id = ?", s.orderId));
+        q.add(new Query("ActualizarEstadoPedido: entregas del repartidor", false,
+            "UPDATE Delivery_Driver SET total_deliveries = total_deliveries + 1 WHERE driver_id = ?", s.driverId));
+        q.add(new Query("CalcularRentabilidadPlatillo: costo de la receta", false, """
+            SELECT COALESCE(SUM(r.quantity * i.cost_per_unit), 0)
+            FROM Recipe r
+            INNER JOIN Ingredient i ON r.ingredient_id = i.ingredient_id
+            WHERE r.dish_id = ?""", s.dishId));
+        q.add(new Query("Reporte: pedidos desde una fecha", false, """
+            SELECT o.order_id, o.order_datetime, o.status, o.total_amount
+            FROM `Order` o
+            WHERE o.order_datetime >= ?
+            ORDER BY o.order_datetime DESC""", now));
+        return q;
+    }
+
+    /**
+     * Revisa el plan de una consulta
+     * @return false si recorre una tabla o un índice completo de más de maxRows filas
+     */
+    private static boolean audit(Connection conn, Query query, int maxRows) {
+        String plan;
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN FORMAT=JSON " + query.sql)) {
+            for (int i = 0; i < query.params.length; i++) {
+                stmt.setObject(i + 1, query.params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                plan = rs.getString(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error al revisar " + query.name + ": " + e.getMessage());
+            return false;
+        }
+
+        // Cada tabla del plan: nombre, acceso, índice y filas por recorrido
+        StringBuilder summary = new StringBuilder();
+        boolean ok = true;
+        String table = null;
+        String access = null;
+        String key = null;
+        Matcher m = FIELD.matcher(plan);
+        while (m.find()) {
+            String value = m.group(2).replace("\"", "");
+            switch (m.group(1)) {
+                case "table_name" -> {
+                    table = value;
+                    access = null;
+                    key = null;
+                }
+                case "access_type" -> access = value;
+                case "key" -> key = value;
+                default -> {
+                    long rows = Long.parseLong(value);
+                    boolean fullScan = "ALL".equals(access) || "index".equals(access);
+                    if (fullScan && rows > maxRows && !query.fullRead) {
+                        ok = false;
+                    }
+                    if (summary.length() > 0) {
+                        summary.append(", ");
+                    }
+                    summary.append(table).append(' ').append(access)
+                        .append(key == null ? "" : " " + key).append(' ').append(rows);
+                }
+            }
+        }
+        String mark = !ok ? "❌" : query.fullRead ? "📖" : "✅";
+        System.out.printf("%s %s: %s%n", mark, query.name, summary.length() == 0 ? "sin tablas que recorrer" : summary);
+        return ok;
+    }
+
+    /**
+     * Agrega clientes, platillos (uno por cada diez clientes) y pedidos (uno por cliente)
+     * y actualiza las estadísticas de las tablas
+     */
+    private static void seed(Connection conn, int customers) throws SQLException {
+        int dishes = Math.max(100, customers / 10);
+        System.out.printf("Agregando %d clientes, %d platillos y %d pedidos...%n", customers, dishes, customers);
+        Random random = new Random(11);
+        long start = System.nanoTime();
+        int firstCustomer = SeedData.insertCustomers(conn, customers, random);
+        int firstDish = SeedData.insertDishes(conn, dishes, random);
+        SeedData.insertOrders(conn, customers, firstCustomer, customers, firstDish, dishes, random);
+        SeedData.analyze(conn, "Customer, Dish, `Order`, Order_Item, Payment");
+        System.out.printf("  Datos agregados en %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+}
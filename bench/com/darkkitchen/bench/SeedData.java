@@ -0,0 +1,170 @@
+package com.darkkitchen.bench;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Random;
+
+/**
+ * Datos sintéticos para las pruebas que usan la base de datos: clientes y platillos con
+ * nombres armados de listas de palabras (para que las búsquedas encuentren algo) y pedidos
+ * con artículos y pagos. Se insertan en lotes de 1000 filas, cada uno en su transacción.
+ * Escribe en la base configurada en DatabaseConnection: solo para una base local de pruebas.
+ */
+final class SeedData {
+
+    static final String[] FIRST_NAMES = {"María", "José", "Juan", "Guadalupe", "Fernanda", "Luis", "Ana", "Carlos",
+        "Sofía", "Miguel", "Valeria", "Jorge", "Daniela", "Ricardo", "Mariana", "Alejandro"};
+    static final String[] LAST_NAMES = {"Hernández", "García", "Martínez", "López", "González", "Pérez", "Rodríguez",
+        "Sánchez", "Ramírez", "Cruz", "Flores", "Gómez", "Morales", "Vázquez", "Reyes", "Jiménez"};
+    static final String[] DISHES = {"Tacos", "Quesadilla", "Torta", "Enchiladas", "Pozole", "Sopa", "Ensalada",
+        "Hamburguesa", "Pizza", "Burrito", "Tostadas", "Chilaquiles"};
+    static final String[] FILLINGS = {"de pollo", "de res", "al pastor", "de camarón", "de chorizo", "de queso",
+        "de hongos", "de cochinita", "vegetariana", "de birria"};
+    static final String[] STYLES = {"", " picante", " especial", " de la casa", " doble", " sin gluten"};
+
+    private static final int CHUNK = 1_000;
+
+    private SeedData() {
+    }
+
+    /**
+     * Agrega clientes activos
+     * @return ID del primer cliente agregado
+     */
+    static int insertCustomers(Connection conn, int count, Random random) throws SQLException {
+        int first = intValue(conn, "SELECT COALESCE(MAX(customer_id), 0) FROM Customer") + 1;
+        insertRows(conn, "INSERT INTO Customer (full_name, email, phone) VALUES (?, ?, ?)", count, (stmt, i) -> {
+            String name = pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random) + " " + pick(LAST_NAMES, random);
+            stmt.setString(1, name);
+            stmt.setString(2, "cliente" + (first + i) + "@ejemplo.com");
+            stmt.setString(3, String.format("55%08d", first + i));
+        });
+        return first;
+    }
+
+    /**
+     * Agrega platillos de la primera marca en las categorías existentes (uno de cada diez inactivo)
+     * @return ID del primer platillo agregado
+     */
+    static int insertDishes(Connection conn, int count, Random random) throws SQLException {
+        int brandId = intValue(conn, "SELECT MIN(brand_id) FROM Brand");
+        int categoryId = intValue(conn, "SELECT MIN(category_id) FROM Category");
+        int categories = intValue(conn, "SELECT COUNT(*) FROM Category");
+        if (brandId == 0 || categoryId == 0) {
+            throw new SQLException("faltan marcas o categorías de ejemplo");
+        }
+        int first = intValue(conn, "SELECT COALESCE(MAX(dish_id), 0) FROM Dish") + 1;
+        insertRows(conn, "INSERT INTO Dish (brand_id, category_id, name, description, price, preparation_time, active) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)", count, (stmt, i) -> {
+            String name = pick(DISHES, random) + " " + pick(FILLINGS, random) + pick(STYLES, random);
+            stmt.setInt(1, brandId);
+            stmt.setInt(2, categoryId + random.nextInt(categories));
+            stmt.setString(3, name);
+            stmt.setString(4, name + " preparado al momento");
+            stmt.setInt(5, 50 + random.nextInt(300));
+            stmt.setInt(6, 5 + random.nextInt(26));
+            stmt.setInt(7, random.nextInt(10) == 0 ? 0 : 1);
+        });
+        return first;
+    }
+
+    /**
+     * Agrega pedidos del último año (90 % entregados, 5 % cancelados y 5 % abiertos) de los
+     * clientes y platillos indicados, con dos artículos y un pago cada uno
+     */
+    static void insertOrders(Connection conn, int count, int firstCustomer, int customers,
+                             int firstDish, int dishes, Random random) throws SQLException {
+        int platformId = intValue(conn, "SELECT MIN(platform_id) FROM Platform");
+        int locationId = intValue(conn, "SELECT MIN(location_id) FROM Location");
+        if (platformId == 0 || locationId == 0) {
+            throw new SQLException("faltan plataformas o ubicaciones de ejemplo");
+        }
+        String[] open = {"CREATED", "ACCEPTED", "PREPARING", "READY"};
+        long now = System.currentTimeMillis();
+        int firstOrder = intValue(conn, "SELECT COALESCE(MAX(order_id), 0) FROM `Order`") + 1;
+        insertRows(conn, "INSERT INTO `Order` (platform_id, location_id, customer_id, order_datetime, status, "
+            + "subtotal, tax_amount, delivery_fee, total_amount, actual_delivery_time, ready_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", count, (stmt, i) -> {
+            long placed = now - (long) (random.nextDouble() * 365 * 24 * 3_600_000L);
+            int roll = random.nextInt(20);
+            String status = roll < 18 ? "DELIVERED" : roll == 18 ? "CANCELLED" : open[random.nextInt(open.length)];
+            boolean delivered = status.equals("DELIVERED");
+            stmt.setInt(1, platformId);
+            stmt.setInt(2, locationId);
+            stmt.setInt(3, firstCustomer + random.nextInt(customers));
+            stmt.setTimestamp(4, new Timestamp(placed));
+            stmt.setString(5, status);
+            stmt.setInt(6, 200);
+            stmt.setInt(7, 32);
+            stmt.setInt(8, 25);
+            stmt.setInt(9, 257);
+            stmt.setTimestamp(10, delivered ? new Timestamp(placed + 45 * 60_000) : null);
+            stmt.setTimestamp(11, delivered ? new Timestamp(placed + 25 * 60_000) : null);
+        });
+        insertRows(conn, "INSERT INTO Order_Item (order_id, dish_id, quantity, unit_price) VALUES (?, ?, ?, ?)",
+            count * 2, (stmt, i) -> {
+            stmt.setInt(1, firstOrder + i / 2);
+            stmt.setInt(2, firstDish + random.nextInt(dishes));
+            stmt.setInt(3, 1);
+            stmt.setInt(4, 100);
+        });
+        insertRows(conn, "INSERT INTO Payment (order_id, method, amount, reference, status) "
+            + "VALUES (?, 'CASH', 257, ?, 'COMPLETED')", count, (stmt, i) -> {
+            stmt.setInt(1, firstOrder + i);
+            stmt.setString(2, "SEED" + (firstOrder + i));
+        });
+    }
+
+    /**
+     * Actualiza las estadísticas de las tablas para que el optimizador vea los tamaños nuevos
+     */
+    static void analyze(Connection conn, String tables) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE TABLE " + tables);
+        }
+    }
+
+    static int intValue(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    static String stringValue(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    static String pick(String[] words, Random random) {
+        return words[random.nextInt(words.length)];
+    }
+
+    private interface RowBinder {
+        void bind(PreparedStatement stmt, int index) throws SQLException;
+    }
+
+    private static void insertRows(Connection conn, String sql, int count, RowBinder binder) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                binder.bind(stmt, i);
+                stmt.addBatch();
+                if ((i + 1) % CHUNK == 0 || i == count - 1) {
+                    stmt.executeBatch();
+                    conn.commit();
+                }
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
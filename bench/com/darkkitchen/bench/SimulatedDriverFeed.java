@@ -0,0 +1,112 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.model.Driver;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Canal de repartidores simulado: repartidores de varias plataformas repartidos alrededor
+ * de las ubicaciones que se mueven al azar y reportan su posición cada cierto tiempo,
+ * como llegarían del GPS de sus teléfonos. No usa la base de datos.
+ */
+public class SimulatedDriverFeed {
+
+    private static final double METERS_PER_DEGREE = 111_320;
+    private static final Driver.VehicleType[] VEHICLES = {
+        Driver.VehicleType.MOTORCYCLE, Driver.VehicleType.MOTORCYCLE, Driver.VehicleType.MOTORCYCLE,
+        Driver.VehicleType.BICYCLE, Driver.VehicleType.BICYCLE, Driver.VehicleType.CAR, Driver.VehicleType.WALKING
+    };
+
+    /**
+     * Recibe cada posición reportada
+     */
+    public interface Sink {
+        void position(int driverId, double latitude, double longitude);
+    }
+
+    private final List<Driver> drivers = new ArrayList<>();
+    private final double[] lat;
+    private final double[] lon;
+    private final Random random;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param locations {latitud, longitud} de cada ubicación
+     * @param spreadMeters Distancia máxima inicial de cada repartidor a su ubicación
+     */
+    public SimulatedDriverFeed(int driverCount, int platforms, double[][] locations, double spreadMeters, long seed) {
+        random = new Random(seed);
+        lat = new double[driverCount + 1];
+        lon = new double[driverCount + 1];
+        for (int id = 1; id <= driverCount; id++) {
+            Driver.VehicleType vehicle = VEHICLES[random.nextInt(VEHICLES.length)];
+            BigDecimal rating = BigDecimal.valueOf(350 + random.nextInt(151), 2);
+            drivers.add(new Driver(id, 1 + random.nextInt(platforms), "Repartidor " + id, vehicle, rating, true));
+
+            double[] location = locations[random.nextInt(locations.length)];
+            double distance = spreadMeters * Math.sqrt(random.nextDouble());
+            double angle = random.nextDouble() * 2 * Math.PI;
+            lat[id] = location[0] + distance * Math.sin(angle) / METERS_PER_DEGREE;
+            lon[id] = location[1] + distance * Math.cos(angle)
+                / (METERS_PER_DEGREE * Math.cos(Math.toRadians(location[0])));
+        }
+    }
+
+    public List<Driver> getDrivers() {
+        return drivers;
+    }
+
+    public double latitude(int driverId) {
+        return lat[driverId];
+    }
+
+    public double longitude(int driverId) {
+        return lon[driverId];
+    }
+
+    /**
+     * Reporta una vez la posición de todos los repartidores
+     */
+    public void reportAll(Sink sink) {
+        for (int id = 1; id < lat.length; id++) {
+            sink.position(id, lat[id], lon[id]);
+        }
+    }
+
+    /**
+     * Inicia un hilo que mueve a cada repartidor hasta 30 m y reporta su posición cada intervalo
+     */
+    public void start(Sink sink, long intervalMillis) {
+        running = true;
+        thread = new Thread(() -> {
+            int drivers = lat.length - 1;
+            // Se reparte el intervalo en pasos de 10 ms para no mandar todo de golpe
+            int steps = (int) Math.max(1, intervalMillis / 10);
+            int perStep = Math.max(1, drivers / steps);
+            int next = 1;
+            while (running) {
+                for (int i = 0; i < perStep; i++) {
+                    int id = next;
+                    next = next == drivers ? 1 : next + 1;
+                    lat[id] += (random.nextDouble() - 0.5) * 60 / METERS_PER_DEGREE;
+                    lon[id] += (random.nextDouble() - 0.5) * 60 / METERS_PER_DEGREE;
+                    sink.position(id, lat[id], lon[id]);
+                }
+                LockSupport.parkNanos(10_000_000);
+            }
+        }, "simulated-driver-feed");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.dao.BatchResult;
+import com.darkkitchen.dao.DriverDAO;
+import com.darkkitchen.model.DriverPosition;
+import com.darkkitchen.order.TelemetryService;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de TelemetryService: lee millones de posiciones en el formato del socket desde
+ * memoria mientras varios hilos consultan recorridos y últimas posiciones. Cada repartidor
+ * recorre un círculo conocido, así que cualquier punto leído se puede comparar con el
+ * esperado (un punto mezclado entre dos escrituras se detecta). Incluye líneas mal
+ * formadas y posiciones desordenadas que deben descartarse. Al final verifica la última
+ * posición y el recorrido en memoria de cada repartidor. La base de datos se simula en memoria.
+ *
+ * Uso: TelemetryBench [repartidores=5000] [posiciones=3000000] [hilos de consulta=2]
+ * Termina con código 1 si algo no coincide.
+ */
+public class TelemetryBench {
+
+    private static final long START_MILLIS = 1_700_000_000_000L;
+    private static final int CAPACITY = 128;
+    private static final int STALE_EVERY = 997;
+    private static final int MALFORMED_EVERY = 10_007;
+
+    public static void main(String[] args) throws Exception {
+        int drivers = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int pings = args.length > 1 ? Integer.parseInt(args[1]) : 3_000_000;
+        int readerCount = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        System.out.printf("Posiciones: %d repartidores, %d posiciones, %d hilos de consulta%n", drivers, pings, readerCount);
+
+        // Centro de cada repartidor alrededor de la Ciudad de México
+        Random random = new Random(3);
+        int[] baseLat = new int[drivers + 1];
+        int[] baseLon = new int[drivers + 1];
+        for (int id = 1; id <= drivers; id++) {
+            baseLat[id] = 19_432_600 + random.nextInt(200_000) - 100_000;
+            baseLon[id] = -99_133_200 + random.nextInt(200_000) - 100_000;
+        }
+
+        // Un reporte por segundo de cada repartidor, más líneas basura y reportes atrasados
+        ByteArrayOutputStream out = new ByteArrayOutputStream(pings * 40);
+        StringBuilder line = new StringBuilder(64);
+        int stale = 0;
+        int malformed = 0;
+        int firstRound = 0;         // bytes de la primera vuelta, que crea el recorrido de cada repartidor
+        for (int i = 0; i < pings; i++) {
+            if (i == drivers) {
+                firstRound = out.size();
+            }
+            int id = 1 + i % drivers;
+            int step = i / drivers;
+            if (i % MALFORMED_EVERY == MALFORMED_EVERY - 1) {
+                write(out, line.append(id).append(",abc,19.4,-99.1\n"));
+                malformed++;
+            }
+            if (step > 5 && i % STALE_EVERY == STALE_EVERY - 1) {
+                appendPing(line, id, step - 5, baseLat, baseLon);
+                write(out, line);
+                stale++;
+            }
+            appendPing(line, id, step, baseLat, baseLon);
+            write(out, line);
+        }
+        byte[] feed = out.toByteArray();
+        System.out.printf("  Flujo de %.1f MB (%d mal formadas, %d atrasadas)%n", feed.length / 1e6, malformed, stale);
+
+        FakeDriverDAO dao = new FakeDriverDAO();
+        TelemetryService telemetry = new TelemetryService(dao);
+        LongAdder forwarded = new LongAdder();
+        telemetry.addListener((driverId, latitude, longitude) -> forwarded.increment());
+
+        // Consultas concurrentes mientras se leen las posiciones
+        LongAdder queries = new LongAdder();
+        LongAdder readErrors = new LongAdder();
+        LatencyRecorder[] trackLatency = new LatencyRecorder[readerCount];
+        Thread[] readers = new Thread[readerCount];
+        AtomicBoolean done = new AtomicBoolean();
+        for (int r = 0; r < readerCount; r++) {
+            LatencyRecorder latency = new LatencyRecorder(100_000);
+            trackLatency[r] = latency;
+            readers[r] = new Thread(() -> {
+                long[] lastSeen = new long[drivers + 1];
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (!done.get()) {
+                    int id = 1 + rnd.nextInt(drivers);
+                    long start = System.nanoTime();
+                    List<DriverPosition> track = telemetry.trackSince(id, START_MILLIS);
+                    latency.record(System.nanoTime() - start);
+                    DriverPosition last = telemetry.lastPosition(id);
+                    queries.add(2);
+                    if (!validTrack(track, id, baseLat, baseLon)
+                            || (last != null && (!matches(last, baseLat, baseLon) || last.getTimeMillis() < lastSeen[id]))) {
+                        readErrors.increment();
+                    }
+                    if (last != null) {
+                        lastSeen[id] = last.getTimeMillis();
+                    }
+                }
+            }, "telemetry-reader-" + r);
+            readers[r].start();
+        }
+
+        long start = System.nanoTime();
+        long accepted = telemetry.ingest(new ByteArrayInputStream(feed, 0, firstRound));
+        long bytes = allocatedBytes();
+        long steady = System.nanoTime();
+        accepted += telemetry.ingest(new ByteArrayInputStream(feed, firstRound, feed.length - firstRound));
+        long end = System.nanoTime();
+        bytes = allocatedBytes() - bytes;
+        done.set(true);
+        LatencyRecorder latency = new LatencyRecorder(100_000);
+        for (int r = 0; r < readerCount; r++) {
+            readers[r].join();
+            latency.merge(trackLatency[r]);
+        }
+        telemetry.shutdown();
+
+        System.out.printf("  Lectura: %.0f posiciones/s; después de la primera vuelta %.0f posiciones/s y %.2f bytes"
+            + " asignados por posición (la muestra guardada)%n",
+            pings / ((end - start) / 1e9), (pings - drivers) / ((end - steady) / 1e9), bytes / (double) (pings - drivers));
+        System.out.printf("  Consultas concurrentes: %d, %d inconsistentes; recorrido completo: %s%n",
+            queries.sum(), readErrors.sum(), latency.summary());
+        System.out.printf("  Guardadas: %d filas en %d lotes (%.1f%% de las posiciones); al reparto: %d%n",
+            dao.rows.sum(), dao.batches.sum(), 100.0 * dao.rows.sum() / pings, forwarded.sum());
+        System.out.println("  " + telemetry.getStats());
+
+        // Estado final de cada repartidor
+        long errors = readErrors.sum();
+        if (accepted != pings) {
+            errors++;
+            System.err.println("❌ Se aceptaron " + accepted + " posiciones de " + pings);
+        }
+        int lastStep = (pings - 1) / drivers;
+        for (int id = 1; id <= drivers; id++) {
+            int steps = id <= pings - lastStep * drivers ? lastStep + 1 : lastStep;
+            if (steps == 0) {
+                continue;
+            }
+            DriverPosition last = telemetry.lastPosition(id);
+            List<DriverPosition> full = telemetry.trackSince(id, START_MILLIS);
+            int expected = Math.min(steps, CAPACITY - 1);
+            // Desde un punto intermedio: el anterior a since confirma el recorrido y no se devuelve
+            long since = timeOf(id, steps - expected / 2);
+            List<DriverPosition> recent = telemetry.trackSince(id, since);
+            if (last == null || last.getTimeMillis() != timeOf(id, steps - 1) || !matches(last, baseLat, baseLon)
+                    || full.size() != expected || !validTrack(full, id, baseLat, baseLon)
+                    || recent.size() != expected / 2 || !validTrack(recent, id, baseLat, baseLon)
+                    || (!recent.isEmpty() && recent.get(0).getTimeMillis() != since)) {
+                if (++errors <= 10) {
+                    System.err.printf("❌ Repartidor %d: última %s, recorrido %d de %d, desde el punto intermedio %d de %d%n",
+                        id, last, full.size(), expected, recent.size(), expected / 2);
+                }
+            }
+        }
+        System.out.println(errors == 0 ? "✅ Recorridos correctos" : "❌ " + errors + " errores");
+        System.exit(errors == 0 ? 0 : 1);
+    }
+
+    // Recorrido en orden, sin huecos y con cada punto en su lugar del círculo
+    private static boolean validTrack(List<DriverPosition> track, int id, int[] baseLat, int[] baseLon) {
+        if (track.size() > CAPACITY - 1) {
+            return false;
+        }
+        for (int i = 0; i < track.size(); i++) {
+            DriverPosition position = track.get(i);
+            if (position.getDriverId() != id || !matches(position, baseLat, baseLon)
+                    || (i > 0 && position.getTimeMillis() != track.get(i - 1).getTimeMillis() + 1_000)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(DriverPosition position, int[] baseLat, int[] baseLon) {
+        int id = position.getDriverId();
+        int step = (int) ((position.getTimeMillis() - START_MILLIS - id % 1_000) / 1_000);
+        return Math.round(position.getLatitude() * 1e6) == latOf(id, step, baseLat)
+            && Math.round(position.getLongitude() * 1e6) == lonOf(id, step, baseLon);
+    }
+
+    // Reporte número step del repartidor: un segundo entre reportes, unos 5 m por segundo
+    private static long timeOf(int id, int step) {
+        return START_MILLIS + step * 1_000L + id % 1_000;
+    }
+
+    private static int latOf(int id, int step, int[] baseLat) {
+        return baseLat[id] + (int) Math.round(1_000 * Math.sin(step * 0.05 + id));
+    }
+
+    private static int lonOf(int id, int step, int[] baseLon) {
+        return baseLon[id] + (int) Math.round(1_000 * Math.cos(step * 0.05 + id));
+    }
+
+    private static void appendPing(StringBuilder line, int id, int step, int[] baseLat, int[] baseLon) {
+        line.append(id).append(',').append(timeOf(id, step)).append(',');
+        appendDegrees(line, latOf(id, step, baseLat));
+        line.append(',');
+        appendDegrees(line, lonOf(id, step, baseLon));
+        line.append('\n');
+    }
+
+    // Millonésimas de grado como decimal con 6 cifras
+    private static void appendDegrees(StringBuilder line, int microDegrees) {
+        if (microDegrees < 0) {
+            line.append('-');
+            microDegrees = -microDegrees;
+        }
+        line.append(microDegrees / 1_000_000).append('.');
+        String fraction = Integer.toString(microDegrees % 1_000_000);
+        for (int i = fraction.length(); i < 6; i++) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+
+    private static void write(ByteArrayOutputStream out, StringBuilder line) {
+        byte[] bytes = line.toString().getBytes(StandardCharsets.US_ASCII);
+        out.write(bytes, 0, bytes.length);
+        line.setLength(0);
+    }
+
+    // Bytes asignados por el hilo actual (-1 si la JVM no lo soporta)
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean) {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    // Cuenta la muestra guardada; no hay posiciones anteriores guardadas
+    private static final class FakeDriverDAO extends DriverDAO {
+        final LongAdder rows = new LongAdder();
+        final LongAdder batches = new LongAdder();
+
+        @Override
+        public BatchResult<DriverPosition> insertPositions(Collection<DriverPosition> positions) {
+            batches.increment();
+            rows.add(positions.size());
+            return new BatchResult<>();
+        }
+
+        @Override
+        public List<DriverPosition> readPositions(int driverId, long fromMillis, long toMillis) {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public DriverPosition readLastPosition(int driverId) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.darkkitchen.bench;
+
+import com.darkkitchen.dao.CustomerDAO;
+import com.darkkitchen.dao.DatabaseConnection;
+import com.darkkitchen.dao.DishDAO;
+import com.darkkitchen.io.DataTransfer;
+import com.darkkitchen.io.TransferReport;
+import com.darkkitchen.model.Customer;
+import com.darkkitchen.model.Dish;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Prueba de ida y vuelta de Importar / Exportar contra una base MySQL/MariaDB local.
+ * Crea un platillo y dos clientes de prueba (uno inactivo), exporta platillos (CSV) y
+ * clientes (JSON), importa cada archivo dos veces y verifica que el número de filas no
+ * cambie y que los inactivos sigan inactivos. Al final borra las filas de prueba.
+ *
+ * Uso: TransferCheck
+ * Termina con código 1 si encuentra diferencias.
+ */
+public class TransferCheck {
+
+    public static void main(String[] args) throws IOException, SQLException {
+        String marker = "TransferCheck " + System.currentTimeMillis();
+        DishDAO dishDAO = new DishDAO();
+        CustomerDAO customerDAO = new CustomerDAO();
+        DataTransfer transfer = new DataTransfer();
+        Path dir = Files.createTempDirectory("dk-transfer");
+        int failures = 0;
+
+        Dish dish = new Dish(categoryId(), marker, "Platillo de prueba", new BigDecimal("99.00"), 10, false, false);
+        Customer active = new Customer(marker + " activo", "activo." + System.nanoTime() + "@prueba.com", "5500000001", null);
+        Customer inactive = new Customer(marker + " inactivo", "inactivo." + System.nanoTime() + "@prueba.com", "5500000002", null);
+        inactive.setActive(false);
+        if (dishDAO.createAll(List.of(dish)).hasFailures()
+                || customerDAO.createAll(List.of(active, inactive)).hasFailures()) {
+            System.err.println("❌ No se pudieron crear las filas de prueba");
+            System.exit(1);
+        }
+
+        try {
+            // createAll guarda active
+            Customer stored = customerDAO.readById(inactive.getCustomerId());
+            if (stored == null || stored.isActive()) {
+                System.err.println("❌ createAll no guardó el cliente inactivo como inactivo");
+                failures++;
+            }
+
+            int dishes = count("SELECT COUNT(*) FROM Dish");
+            int customers = count("SELECT COUNT(*) FROM Customer");
+            Path dishFile = dir.resolve("platillos.csv");
+            Path customerFile = dir.resolve("clientes.json");
+            failures += check("Exportar platillos", transfer.exportDishes(dishFile).run());
+            failures += check("Exportar clientes", transfer.exportCustomers(customerFile).run());
+
+            for (int round = 1; round <= 2; round++) {
+                failures += check("Importar platillos (" + round + ")",
+                    transfer.importDishes(dishFile).setResume(false).run());
+                failures += check("Importar clientes (" + round + ")",
+                    transfer.importCustomers(customerFile).setResume(false).run());
+            }
+
+            int dishesAfter = count("SELECT COUNT(*) FROM Dish");
+            int customersAfter = count("SELECT COUNT(*) FROM Customer");
+            System.out.printf("Platillos: %d antes, %d después | Clientes: %d antes, %d después%n",
+                dishes, dishesAfter, customers, customersAfter);
+            if (dishesAfter != dishes || customersAfter != customers) {
+                System.err.println("❌ La importación duplicó filas");
+                failures++;
+            }
+            stored = customerDAO.readById(inactive.getCustomerId());
+            if (stored == null || stored.isActive()) {
+                System.err.println("❌ La importación reactivó al cliente inactivo");
+                failures++;
+            }
+            Dish storedDish = dishDAO.readById(dish.getDishId());
+            if (storedDish == null || !marker.equals(storedDish.getName())) {
+                System.err.println("❌ El platillo importado no conservó su ID");
+                failures++;
+            }
+        } finally {
+            execute("DELETE FROM Dish WHERE dish_id = ?", dish.getDishId());
+            execute("DELETE FROM Customer WHERE customer_id IN (?, ?)", active.getCustomerId(), inactive.getCustomerId());
+        }
+
+        if (failures > 0) {
+            System.err.println("❌ " + failures + " verificaciones fallaron");
+            System.exit(1);
+        }
+        System.out.println("✅ Exportar e importar conserva filas y estado");
+    }
+
+    private static int check(String step, TransferReport report) {
+        System.out.println(step + ": " + report);
+        if (!report.isCompleted()) {
+            System.err.println("❌ " + step + " no terminó");
+            return 1;
+        }
+        if (report.getRejected() > 0) {
+            // Filas que ya estaban en la base sin cumplir las reglas del formulario
+            System.out.println("⚠️ " + step + ": " + report.getRejected() + " registros rechazados");
+        }
+        return 0;
+    }
+
+    private static int categoryId() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return SeedData.intValue(conn, "SELECT MIN(category_id) FROM Category");
+        }
+    }
+
+    private static int count(String sql) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return SeedData.intValue(conn, sql);
+        }
+    }
+
+    private static void execute(String sql, int... ids) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.length; i++) {
+                stmt.setInt(i + 1, ids[i]);
+            }
+            stmt.executeUpdate();
+        }
+    }
+}
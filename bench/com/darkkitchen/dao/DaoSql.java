@@ -0,0 +1,98 @@
+package com.darkkitchen.dao;
+
+/**
+ * Las consultas de los DAO (constantes del paquete) para QueryPlanAudit: se revisa el mismo
+ * texto que ejecutan los DAO, sin copiarlo. Solo se compila con los bench.
+ */
+public final class DaoSql {
+
+    private DaoSql() {
+    }
+
+    // CustomerDAO y ReferenceCache
+    public static final String CUSTOMER_READ_ALL = CustomerDAO.READ_ALL;
+    public static final String CUSTOMER_READ_FIRST_PAGE = CustomerDAO.READ_FIRST_PAGE;
+    public static final String CUSTOMER_READ_NEXT_PAGE = CustomerDAO.READ_NEXT_PAGE;
+    public static final String CUSTOMER_READ_PAGE_AT = CustomerDAO.READ_PAGE_AT;
+    public static final String CUSTOMER_COUNT_ALL = CustomerDAO.COUNT_ALL;
+    public static final String CUSTOMER_COUNT_BEFORE = CustomerDAO.COUNT_BEFORE;
+    public static final String CUSTOMER_STREAM_ALL = CustomerDAO.STREAM_ALL;
+    public static final String CUSTOMER_READ_BY_ID = CustomerDAO.READ_BY_ID;
+    public static final String CUSTOMER_UPDATE = CustomerDAO.UPDATE;
+    public static final String CUSTOMER_DELETE = CustomerDAO.DELETE;
+    public static final String CUSTOMER_SEARCH = CustomerDAO.SEARCH;
+    public static final String CUSTOMER_SEARCH_LIKE = CustomerDAO.SEARCH_LIKE;
+    public static final String CUSTOMER_RECOMPUTE_LOYALTY = CustomerDAO.RECOMPUTE_LOYALTY;
+    public static final String REFERENCE_CUSTOMERS = ReferenceCache.READ_CUSTOMERS;
+    public static final String REFERENCE_LOCATIONS = ReferenceCache.READ_LOCATIONS;
+    public static final String REFERENCE_PLATFORMS = ReferenceCache.READ_PLATFORMS;
+    public static final String REFERENCE_CUSTOMER_EXISTS = ReferenceCache.CUSTOMER_EXISTS;
+
+    // DishDAO y CategoryDAO
+    public static final String DISH_READ_ALL = DishDAO.READ_ALL;
+    public static final String DISH_READ_FIRST_PAGE = DishDAO.READ_FIRST_PAGE;
+    public static final String DISH_READ_NEXT_PAGE = DishDAO.READ_NEXT_PAGE;
+    public static final String DISH_READ_PAGE_AT = DishDAO.READ_PAGE_AT;
+    public static final String DISH_COUNT_ALL = DishDAO.COUNT_ALL;
+    public static final String DISH_STREAM_ALL = DishDAO.STREAM_ALL;
+    public static final String DISH_READ_BY_ID = DishDAO.READ_BY_ID;
+    public static final String DISH_READ_BY_CATEGORY = DishDAO.READ_BY_CATEGORY;
+    public static final String DISH_UPDATE = DishDAO.UPDATE;
+    public static final String DISH_DELETE = DishDAO.DELETE;
+    public static final String DISH_UPDATE_OUT_OF_STOCK = DishDAO.UPDATE_OUT_OF_STOCK;
+    public static final String DISH_READ_OUT_OF_STOCK = DishDAO.READ_OUT_OF_STOCK;
+    public static final String DISH_SEARCH = DishDAO.SEARCH;
+    public static final String DISH_SEARCH_LIKE = DishDAO.SEARCH_LIKE;
+    public static final String CATEGORY_READ_ALL = CategoryDAO.READ_ALL;
+    public static final String CATEGORY_READ_BY_ID = CategoryDAO.READ_BY_ID;
+    public static final String CATEGORY_UPDATE = CategoryDAO.UPDATE;
+    public static final String CATEGORY_DELETE = CategoryDAO.DELETE;
+
+    // OrderDAO
+    public static final String ORDER_RECOMPUTE_TOTALS = OrderDAO.RECOMPUTE_TOTALS;
+    public static final String ORDER_COUNT_TOTAL_MISMATCHES = OrderDAO.COUNT_TOTAL_MISMATCHES;
+    public static final String ORDER_READ_BY_ID = OrderDAO.READ_BY_ID;
+    public static final String ORDER_READ_OPEN_ORDERS = OrderDAO.READ_OPEN_ORDERS;
+    public static final String ORDER_READ_OPEN_ITEMS = OrderDAO.READ_OPEN_ITEMS;
+    public static final String ORDER_READ_DELIVERED_ORDERS = OrderDAO.READ_DELIVERED_ORDERS;
+    public static final String ORDER_READ_DELIVERED_ITEMS = OrderDAO.READ_DELIVERED_ITEMS;
+    public static final String ORDER_UPDATE_ESTIMATED_TIME = OrderDAO.UPDATE_ESTIMATED_TIME;
+    public static final String ORDER_UPDATE_STATUS = OrderDAO.UPDATE_STATUS;
+    public static final String ORDER_UPDATE_STATUS_ALL = OrderDAO.UPDATE_STATUS_ALL;
+    public static final String ORDER_READ_READY_UNASSIGNED = OrderDAO.READ_READY_UNASSIGNED;
+    public static final String ORDER_ASSIGN_DRIVER = OrderDAO.ASSIGN_DRIVER;
+    public static final String ORDER_READ_ITEMS = OrderDAO.READ_ITEMS;
+    public static final String ORDER_READ_PAYMENT = OrderDAO.READ_PAYMENT;
+    public static final String ORDER_ADD_CUSTOMER_ORDERS = OrderDAO.ADD_CUSTOMER_ORDERS;
+    public static final String ORDER_ADD_PROMOTION_USES = OrderDAO.ADD_PROMOTION_USES;
+
+    // PricingDAO, RecipeDAO, DriverDAO y ChangeLogDAO
+    public static final String PRICING_READ_RULES = PricingDAO.READ_RULES;
+    public static final String PRICING_READ_PROMOTIONS = PricingDAO.READ_PROMOTIONS;
+    public static final String PRICING_LOCK_PROMOTION = PricingDAO.LOCK_PROMOTION;
+    public static final String PRICING_ADD_USES = PricingDAO.ADD_USES;
+    public static final String PRICING_RELEASE_USES = PricingDAO.RELEASE_USES;
+    public static final String RECIPE_READ_INGREDIENTS = RecipeDAO.READ_INGREDIENTS;
+    public static final String RECIPE_READ_RECIPES = RecipeDAO.READ_RECIPES;
+    public static final String RECIPE_DEPLETE = RecipeDAO.DEPLETE;
+    public static final String RECIPE_RESTOCK = RecipeDAO.RESTOCK;
+    public static final String RECIPE_UPDATE_COST = RecipeDAO.UPDATE_COST;
+    public static final String DRIVER_READ_ACTIVE = DriverDAO.READ_ACTIVE;
+    public static final String DRIVER_READ_LOCATIONS = DriverDAO.READ_LOCATIONS;
+    public static final String DRIVER_READ_POSITIONS = DriverDAO.READ_POSITIONS;
+    public static final String DRIVER_READ_LAST_POSITION = DriverDAO.READ_LAST_POSITION;
+    public static final String CHANGE_LOG_READ_MAX_ID = ChangeLogDAO.READ_MAX_ID;
+    public static final String CHANGE_LOG_PURGE = ChangeLogDAO.PURGE;
+
+    public static String dishLockOutOfStock(int count) {
+        return DishDAO.lockOutOfStockSql(count);
+    }
+
+    public static String recipeReadColumn(String column, int count) {
+        return RecipeDAO.readColumnSql(column, count);
+    }
+
+    public static String changeLogReadSince(int gapCount) {
+        return ChangeLogDAO.readSinceSql(gapCount);
+    }
+}
@@ -7,7 +7,7 @@ if not exist classes mkdir classes
 echo Compilando sin dependencias externas...
 
 REM Compilar solo con classpath básico
-javac -d classes src/com/darkkitchen/Main.java src/com/darkkitchen/dao/*.java src/com/darkkitchen/model/*.java src/com/darkkitchen/ui/*.java
+javac -d classes src/com/darkkitchen/Main.java src/com/darkkitchen/dao/*.java src/com/darkkitchen/io/*.java src/com/darkkitchen/model/*.java src/com/darkkitchen/order/*.java src/com/darkkitchen/pricing/*.java src/com/darkkitchen/search/*.java src/com/darkkitchen/ui/*.java
 
 if %ERRORLEVEL% EQU 0 (
     echo  Compilación básica exitosa
@@ -24,6 +24,8 @@ CREATE TABLE `Location` (
   `name` VARCHAR(80) NOT NULL COMMENT 'Nombre de la ubicación/sucursal',
   `city` VARCHAR(80) NOT NULL COMMENT 'Ciudad donde se sitúa la ubicación',
   `address` VARCHAR(180) NOT NULL COMMENT 'Dirección física completa',
+  `latitude` DECIMAL(9,6) DEFAULT NULL COMMENT 'Latitud del punto de recolección (asignación de repartidores)',
+  `longitude` DECIMAL(9,6) DEFAULT NULL COMMENT 'Longitud del punto de recolección',
   `active` TINYINT(1) NOT NULL DEFAULT 1 COMMENT 'Estado de ubicación (1=activa, 0=inactiva)',
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT 'Fecha y hora de creación del registro',
   PRIMARY KEY(`location_id`)
@@ -52,13 +54,18 @@ CREATE TABLE `Category` (
 -- Tabla: Customer - Almacena información de clientes
 CREATE TABLE `Customer` (
   `customer_id` INT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'Clave primaria para identificación de cliente',
-  `full_name` VARCHAR(100) NOT NULL COMMENT 'Nombre completo del cliente',
+  `full_name` VARCHAR(100) COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT 'Nombre completo del cliente (comparación sin acentos)',
   `email` VARCHAR(120) COMMENT 'Dirección de correo electrónico del cliente',
   `phone` VARCHAR(20) NOT NULL COMMENT 'Número de teléfono del cliente',
   `registration_date` DATE DEFAULT (CURRENT_DATE) COMMENT 'Fecha de registro del cliente',
   `total_orders` INT UNSIGNED DEFAULT 0 COMMENT 'Número total de pedidos realizados',
+  `delivered_orders` INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Pedidos entregados (los mantiene tr_order_status_after_update)',
+  `total_spent` DECIMAL(12,2) NOT NULL DEFAULT 0.00 COMMENT 'Total gastado en pedidos entregados',
+  `loyalty_tier` ENUM('NEW', 'BRONZE', 'SILVER', 'GOLD', 'PLATINUM') NOT NULL DEFAULT 'NEW' COMMENT 'Nivel de lealtad (LoyaltyTierFor)',
   `active` TINYINT(1) NOT NULL DEFAULT 1 COMMENT 'Estado del cliente (1=activo, 0=inactivo)',
-  PRIMARY KEY(`customer_id`)
+  PRIMARY KEY(`customer_id`),
+  INDEX `idx_customer_full_name` (`full_name`, `customer_id`) COMMENT 'Páginas por llave (full_name, customer_id) y búsqueda por prefijo',
+  FULLTEXT INDEX `ft_customer_full_name` (`full_name`) WITH PARSER ngram COMMENT 'Búsqueda de texto completo por nombre'
 ) COMMENT='Almacena información de clientes y estadísticas de pedidos';
 
 -- Tabla: Dish - Almacena información de platillos/artículos del menú
@@ -66,13 +73,17 @@ CREATE TABLE `Dish` (
   `dish_id` INT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'Clave primaria para identificación de platillo',
   `brand_id` INT UNSIGNED NOT NULL COMMENT 'Clave foránea que referencia tabla Brand',
   `category_id` INT UNSIGNED NOT NULL COMMENT 'Clave foránea que referencia tabla Category',
-  `name` VARCHAR(100) NOT NULL COMMENT 'Nombre del platillo',
+  `name` VARCHAR(100) COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT 'Nombre del platillo (comparación sin acentos)',
   `price` DECIMAL(10,2) NOT NULL COMMENT 'Precio del platillo en moneda local',
   `description` TEXT COMMENT 'Descripción detallada del platillo',
   `preparation_time` INT UNSIGNED DEFAULT 15 COMMENT 'Tiempo promedio de preparación en minutos',
   `active` TINYINT(1) NOT NULL DEFAULT 1 COMMENT 'Estado de disponibilidad del platillo',
+  `out_of_stock` TINYINT(1) NOT NULL DEFAULT 0 COMMENT 'Agotado por falta de ingredientes (lo marca y lo quita el inventario)',
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT 'Fecha y hora de creación del registro',
   PRIMARY KEY(`dish_id`),
+  INDEX `idx_dish_name` (`name`) COMMENT 'Búsqueda por prefijo del nombre',
+  INDEX `idx_dish_category_active_name` (`category_id`, `active`, `name`) COMMENT 'Platillos activos de una categoría por nombre; también sirve a la clave foránea',
+  FULLTEXT INDEX `ft_dish_name` (`name`) WITH PARSER ngram COMMENT 'Búsqueda de texto completo por nombre',
   FOREIGN KEY(`brand_id`) REFERENCES `Brand`(`brand_id`) ON DELETE CASCADE ON UPDATE CASCADE,
   FOREIGN KEY(`category_id`) REFERENCES `Category`(`category_id`) ON DELETE RESTRICT ON UPDATE CASCADE
 ) COMMENT='Almacena platillos/artículos del menú con precios y disponibilidad';
@@ -85,6 +96,8 @@ CREATE TABLE `Ingredient` (
   `cost_per_unit` DECIMAL(8,2) DEFAULT 0.00 COMMENT 'Costo por unidad de medida',
   `supplier` VARCHAR(100) COMMENT 'Nombre del proveedor principal',
   `active` TINYINT(1) NOT NULL DEFAULT 1 COMMENT 'Estado de disponibilidad del ingrediente',
+  `stock_quantity` DECIMAL(12,3) DEFAULT NULL COMMENT 'Existencia en la unidad del ingrediente (NULL = sin control)',
+  `reorder_level` DECIMAL(12,3) NOT NULL DEFAULT 0.000 COMMENT 'Existencia a la que se avisa para resurtir',
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT 'Fecha y hora de creación del registro',
   PRIMARY KEY(`ingredient_id`)
 ) COMMENT='Almacena información de ingredientes para gestión de recetas y costos';
@@ -118,6 +131,20 @@ CREATE TABLE `Promotion` (
   PRIMARY KEY(`promotion_id`)
 ) COMMENT='Almacena campañas promocionales, descuentos y ofertas especiales';
 
+-- Tabla: Pricing_Rule - Tasa de impuesto y tarifa de envío por ubicación y plataforma
+-- Un ID en 0 aplica a todas. Gana la regla más específica: ubicación y plataforma,
+-- luego solo ubicación, luego solo plataforma y al final la regla general (0, 0).
+CREATE TABLE `Pricing_Rule` (
+  `pricing_rule_id` INT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'Clave primaria para identificación de regla',
+  `location_id` INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Ubicación a la que aplica (0 = todas)',
+  `platform_id` INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Plataforma a la que aplica (0 = todas)',
+  `tax_rate` DECIMAL(5,2) NOT NULL DEFAULT 16.00 COMMENT 'Porcentaje de impuesto',
+  `delivery_fee` DECIMAL(10,2) NOT NULL DEFAULT 25.00 COMMENT 'Tarifa de envío',
+  `active` TINYINT(1) NOT NULL DEFAULT 1 COMMENT 'Estado de la regla',
+  PRIMARY KEY(`pricing_rule_id`),
+  UNIQUE KEY `uk_pricing_rule` (`location_id`, `platform_id`)
+) COMMENT='Almacena tasas de impuesto y tarifas de envío por ubicación y plataforma';
+
 -- Tabla: Delivery_Driver - Almacena información de repartidores
 CREATE TABLE `Delivery_Driver` (
   `driver_id` INT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'Clave primaria para identificación de repartidor',
@@ -134,6 +161,16 @@ CREATE TABLE `Delivery_Driver` (
   FOREIGN KEY(`platform_id`) REFERENCES `Platform`(`platform_id`) ON DELETE RESTRICT ON UPDATE CASCADE
 ) COMMENT='Almacena información de repartidores y métricas de rendimiento';
 
+-- Tabla: Driver_Position - Muestra de las posiciones GPS de los repartidores
+CREATE TABLE `Driver_Position` (
+  `driver_id` INT UNSIGNED NOT NULL COMMENT 'Clave foránea que referencia tabla Delivery_Driver',
+  `recorded_at` DATETIME(3) NOT NULL COMMENT 'Fecha y hora del reporte del GPS',
+  `latitude` DECIMAL(9,6) NOT NULL COMMENT 'Latitud reportada',
+  `longitude` DECIMAL(9,6) NOT NULL COMMENT 'Longitud reportada',
+  PRIMARY KEY(`driver_id`, `recorded_at`),
+  FOREIGN KEY(`driver_id`) REFERENCES `Delivery_Driver`(`driver_id`) ON DELETE CASCADE ON UPDATE CASCADE
+) COMMENT='Posiciones de repartidores guardadas cada 30 segundos o 100 metros; el recorrido completo reciente vive en memoria';
+
 -- Tabla: Order - Tabla principal de pedidos que almacena información de pedidos
 CREATE TABLE `Order` (
   `order_id` INT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'Clave primaria para identificación de pedido',
@@ -145,12 +182,18 @@ CREATE TABLE `Order` (
   `status` ENUM('CREATED', 'ACCEPTED', 'PREPARING', 'READY', 'PICKED_UP', 'DELIVERED', 'CANCELLED') NOT NULL DEFAULT 'CREATED' COMMENT 'Estado actual del pedido',
   `subtotal` DECIMAL(10,2) DEFAULT 0.00 COMMENT 'Subtotal del pedido antes de descuentos',
   `tax_amount` DECIMAL(10,2) DEFAULT 0.00 COMMENT 'Monto de impuestos aplicado',
+  `tax_rate` DECIMAL(7,4) DEFAULT NULL COMMENT 'Porcentaje de impuesto con el que se cobró el pedido',
   `delivery_fee` DECIMAL(10,2) DEFAULT 0.00 COMMENT 'Tarifa de entrega cobrada',
   `total_amount` DECIMAL(10,2) DEFAULT 0.00 COMMENT 'Monto total final',
   `estimated_delivery_time` DATETIME COMMENT 'Tiempo estimado de entrega',
   `actual_delivery_time` DATETIME COMMENT 'Tiempo real de entrega',
+  `preparing_at` DATETIME DEFAULT NULL COMMENT 'Hora en que empezó la preparación (la pone tr_order_status_before_update)',
+  `ready_at` DATETIME DEFAULT NULL COMMENT 'Hora en que quedó listo para recogerse',
   `special_instructions` TEXT COMMENT 'Instrucciones especiales del cliente',
   PRIMARY KEY(`order_id`),
+  INDEX `idx_order_customer_status` (`customer_id`, `status`, `total_amount`) COMMENT 'Historial y estadísticas de lealtad por cliente',
+  INDEX `idx_order_status_delivered` (`status`, `actual_delivery_time`) COMMENT 'Historial de tiempos de entrega (EtaService)',
+  INDEX `idx_order_datetime` (`order_datetime`) COMMENT 'Reportes por rango de fechas',
   FOREIGN KEY(`platform_id`) REFERENCES `Platform`(`platform_id`) ON DELETE RESTRICT ON UPDATE CASCADE,
   FOREIGN KEY(`location_id`) REFERENCES `Location`(`location_id`) ON DELETE RESTRICT ON UPDATE CASCADE,
   FOREIGN KEY(`customer_id`) REFERENCES `Customer`(`customer_id`) ON DELETE RESTRICT ON UPDATE CASCADE,
@@ -200,6 +243,19 @@ CREate TABLE `Payment` (
   FOREIGN KEY(`order_id`) REFERENCES `Order`(`order_id`) ON DELETE RESTRICT ON UPDATE CASCADE
 ) COMMENT='Almacena información de pagos y detalles de transacciones para pedidos';
 
+-- Tabla: Change_Log - Cambios en Customer, Dish, Category e Ingredient (los escriben los triggers)
+-- Cada terminal lee los cambios con ID mayor al último que vio para actualizar solo las
+-- filas afectadas. Las filas de más de 24 horas se borran desde la aplicación.
+CREATE TABLE `Change_Log` (
+  `change_id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'Clave primaria; orden de los cambios',
+  `entity` ENUM('CUSTOMER', 'DISH', 'CATEGORY', 'INGREDIENT') NOT NULL COMMENT 'Tabla modificada',
+  `entity_id` INT UNSIGNED NOT NULL COMMENT 'ID de la fila modificada',
+  `change_type` ENUM('INSERT', 'UPDATE', 'DELETE') NOT NULL COMMENT 'Tipo de cambio',
+  `changed_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT 'Fecha y hora del cambio',
+  PRIMARY KEY(`change_id`),
+  KEY `idx_change_log_changed_at` (`changed_at`)
+) COMMENT='Registro de cambios para actualizar las pantallas de otras terminales';
+
 -- =====================================================
 -- SECCIÓN DE INSERCIÓN DE DATOS
 -- =====================================================
@@ -224,24 +280,24 @@ INSERT INTO Customer (full_name, email, phone, total_orders) VALUES
 ('Oliver Martínez', 'oliver.martinez@email.com', '5557890123', 5);
 
 -- Insertar ingredientes de ejemplo con información de costos
-INSERT INTO Ingredient (name, unit, cost_per_unit, supplier) VALUES
-('Arroz Basmati', 'kg', 3.50, 'Distribuidora de Alimentos Globales'),
-('Carne de Res Premium', 'kg', 25.00, 'Carnicería Local'),
-('Tortillas de Maíz', 'pz', 0.25, 'Distribuidores de Comida Mexicana'),
-('Queso Mozzarella', 'g', 0.08, 'Lácteos Frescos SA'),
-('Lechuga Orgánica', 'g', 0.02, 'Granjas Valle Verde'),
-('Tomates Frescos', 'kg', 4.00, 'Directo de la Granja'),
-('Aceite de Oliva', 'ml', 0.05, 'Importaciones Mediterráneas'),
-('Frijoles Negros', 'kg', 2.80, 'Especialistas en Legumbres');
+INSERT INTO Ingredient (name, unit, cost_per_unit, supplier, stock_quantity, reorder_level) VALUES
+('Arroz Basmati', 'kg', 3.50, 'Distribuidora de Alimentos Globales', 25.000, 5.000),
+('Carne de Res Premium', 'kg', 25.00, 'Carnicería Local', 40.000, 8.000),
+('Tortillas de Maíz', 'pz', 0.25, 'Distribuidores de Comida Mexicana', 600.000, 120.000),
+('Queso Mozzarella', 'g', 0.08, 'Lácteos Frescos SA', 10000.000, 2000.000),
+('Lechuga Orgánica', 'g', 0.02, 'Granjas Valle Verde', 8000.000, 1500.000),
+('Tomates Frescos', 'kg', 4.00, 'Directo de la Granja', 20.000, 4.000),
+('Aceite de Oliva', 'ml', 0.05, 'Importaciones Mediterráneas', 5000.000, 1000.000),
+('Frijoles Negros', 'kg', 2.80, 'Especialistas en Legumbres', 15.000, 3.000);
 
 -- Insertar ubicaciones de ejemplo en diferentes ciudades
-INSERT INTO Location (name, city, address) VALUES
-('Cocina Centro', 'Ciudad de México', 'Avenida Reforma 123, Centro Histórico'),
-('Hub Sur', 'Ciudad de México', 'Insurgentes Sur 456, Colonia del Valle'),
-('Sucursal Norte', 'Guadalajara', 'Avenida Patria 789, Zona Minerva'),
-('Cocina Oriental', 'Monterrey', 'Constitución 222, Centro'),
-('Punto Poniente', 'Ciudad de México', 'Polanco 321, Distrito Polanco'),
-('Cocina Costera', 'Cancún', 'Boulevard Kukulcán 555, Zona Hotelera');
+INSERT INTO Location (name, city, address, latitude, longitude) VALUES
+('Cocina Centro', 'Ciudad de México', 'Avenida Reforma 123, Centro Histórico', 19.432600, -99.133200),
+('Hub Sur', 'Ciudad de México', 'Insurgentes Sur 456, Colonia del Valle', 19.385000, -99.171000),
+('Sucursal Norte', 'Guadalajara', 'Avenida Patria 789, Zona Minerva', 20.673600, -103.405000),
+('Cocina Oriental', 'Monterrey', 'Constitución 222, Centro', 25.669400, -100.309900),
+('Punto Poniente', 'Ciudad de México', 'Polanco 321, Distrito Polanco', 19.433000, -99.195000),
+('Cocina Costera', 'Cancún', 'Boulevard Kukulcán 555, Zona Hotelera', 21.133000, -86.746000);
 
 -- Insertar marcas de ejemplo con conceptos de fusión únicos
 INSERT INTO Brand (name, fusion_cuisine) VALUES
@@ -281,6 +337,13 @@ INSERT INTO Promotion (type, value, code, description, valid_from, valid_until,
 ('PERCENTAGE', 15.00, 'ESTUDIANTE15', 'Descuento estudiantil con credencial válida', '2025-09-01', '2025-12-30', 500),
 ('BOGO', 50.00, 'COMPRAUNO', 'Compra uno y lleva el segundo al 50% de descuento', '2025-08-25', '2025-10-25', 150);
 
+-- Insertar reglas de precios (la regla 0, 0 es la general)
+INSERT INTO Pricing_Rule (location_id, platform_id, tax_rate, delivery_fee) VALUES
+(0, 0, 16.00, 25.00),
+(6, 0, 16.00, 35.00),
+(0, 3, 16.00, 20.00),
+(4, 2, 16.00, 30.00);
+
 -- Insertar información de recetas (relaciones platillo-ingrediente)
 INSERT INTO Recipe (dish_id, ingredient_id, quantity, notes) VALUES
 (1, 1, 0.200, 'Preparación de arroz grado sushi requerida'),
@@ -348,14 +411,14 @@ INSERT INTO Delivery_Driver (platform_id, full_name, external_id, phone, vehicle
 (2, 'Miguel Ángel', 'RP012345', '5557777777', 'MOTORCYCLE', 4.7, 267);
 
 -- Insertar pedidos de ejemplo con seguimiento completo
-INSERT INTO `Order` (platform_id, location_id, customer_id, driver_id, order_datetime, status, subtotal, tax_amount, delivery_fee, total_amount, estimated_delivery_time, special_instructions) VALUES
-(1, 1, 1, 1, '2025-10-01 12:00:00', 'DELIVERED', 291.00, 46.56, 25.00, 362.56, '2025-10-01 12:45:00', 'Tocar timbre, dejar en la puerta'),
-(2, 2, 2, 2, '2025-10-01 12:15:00', 'DELIVERED', 185.00, 29.60, 20.00, 234.60, '2025-10-01 13:00:00', 'Llamar al llegar'),
-(3, 3, 3, 3, '2025-10-01 12:30:00', 'DELIVERED', 380.00, 60.80, 30.00, 470.80, '2025-10-01 13:15:00', 'Entrega sin contacto'),
-(4, 4, 4, 4, '2025-10-01 12:45:00', 'PREPARING', 165.00, 26.40, 25.00, 216.40, '2025-10-01 13:30:00', 'Salsa extra aparte'),
-(5, 5, 5, 5, '2025-10-01 13:00:00', 'ACCEPTED', 240.00, 38.40, 20.00, 298.40, '2025-10-01 13:45:00', 'Sin ingredientes picantes'),
-(6, 1, 6, 6, '2025-10-01 13:15:00', 'CREATED', 140.00, 22.40, 25.00, 187.40, '2025-10-01 14:00:00', 'Alérgico a nueces'),
-(7, 2, 7, 7, '2025-10-01 13:30:00', 'READY', 195.00, 31.20, 20.00, 246.20, '2025-10-01 14:15:00', 'Nivel de picante medio');
+INSERT INTO `Order` (platform_id, location_id, customer_id, driver_id, order_datetime, status, subtotal, tax_amount, tax_rate, delivery_fee, total_amount, estimated_delivery_time, special_instructions) VALUES
+(1, 1, 1, 1, '2025-10-01 12:00:00', 'DELIVERED', 291.00, 46.56, 16.00, 25.00, 362.56, '2025-10-01 12:45:00', 'Tocar timbre, dejar en la puerta'),
+(2, 2, 2, 2, '2025-10-01 12:15:00', 'DELIVERED', 185.00, 29.60, 16.00, 20.00, 234.60, '2025-10-01 13:00:00', 'Llamar al llegar'),
+(3, 3, 3, 3, '2025-10-01 12:30:00', 'DELIVERED', 380.00, 60.80, 16.00, 30.00, 470.80, '2025-10-01 13:15:00', 'Entrega sin contacto'),
+(4, 4, 4, 4, '2025-10-01 12:45:00', 'PREPARING', 165.00, 26.40, 16.00, 25.00, 216.40, '2025-10-01 13:30:00', 'Salsa extra aparte'),
+(5, 5, 5, 5, '2025-10-01 13:00:00', 'ACCEPTED', 240.00, 38.40, 16.00, 20.00, 298.40, '2025-10-01 13:45:00', 'Sin ingredientes picantes'),
+(6, 1, 6, 6, '2025-10-01 13:15:00', 'CREATED', 140.00, 22.40, 16.00, 25.00, 187.40, '2025-10-01 14:00:00', 'Alérgico a nueces'),
+(7, 2, 7, 7, '2025-10-01 13:30:00', 'READY', 195.00, 31.20, 16.00, 20.00, 246.20, '2025-10-01 14:15:00', 'Nivel de picante medio');
 
 -- Insertar elementos de pedidos con información detallada
 INSERT INTO Order_Item (order_id, dish_id, quantity, unit_price, special_requests) VALUES
@@ -540,6 +603,7 @@ BEGIN
     DECLARE v_subtotal DECIMAL(10,2);
     DECLARE v_monto_impuesto DECIMAL(10,2);
     DECLARE v_tarifa_entrega DECIMAL(10,2);
+    DECLARE v_tasa_impuesto DECIMAL(5,2);
     DECLARE v_monto_total DECIMAL(10,2);
     DECLARE v_contador_errores INT DEFAULT 0;
     
@@ -604,19 +668,28 @@ BEGIN
         ROLLBACK;
     ELSE
         -- Calcular montos
+        -- Tasa y tarifa de la regla más específica de Pricing_Rule (16% y 25.00 si no hay)
+        SELECT tax_rate, delivery_fee INTO v_tasa_impuesto, v_tarifa_entrega
+        FROM Pricing_Rule
+        WHERE active = 1
+          AND location_id IN (p_id_ubicacion, 0)
+          AND platform_id IN (p_id_plataforma, 0)
+        ORDER BY location_id <> 0 DESC, platform_id <> 0 DESC
+        LIMIT 1;
+
         SET v_subtotal = v_precio_platillo * p_cantidad;
-        SET v_monto_impuesto = v_subtotal * 0.16; -- 16% de impuestos
-        SET v_tarifa_entrega = 25.00; -- Tarifa estándar de entrega
+        SET v_monto_impuesto = ROUND(v_subtotal * COALESCE(v_tasa_impuesto, 16.00) / 100, 2);
+        SET v_tarifa_entrega = COALESCE(v_tarifa_entrega, 25.00);
         SET v_monto_total = v_subtotal + v_monto_impuesto + v_tarifa_entrega;
         
         -- Crear el pedido
         INSERT INTO `Order` (
             platform_id, location_id, customer_id, 
-            subtotal, tax_amount, delivery_fee, total_amount, 
+            subtotal, tax_amount, tax_rate, delivery_fee, total_amount, 
             special_instructions
         ) VALUES (
             p_id_plataforma, p_id_ubicacion, p_id_cliente,
-            v_subtotal, v_monto_impuesto, v_tarifa_entrega, v_monto_total,
+            v_subtotal, v_monto_impuesto, COALESCE(v_tasa_impuesto, 16.00), v_tarifa_entrega, v_monto_total,
             p_instrucciones_especiales
         );
         
@@ -714,41 +787,41 @@ DELIMITER ;
 
 DELIMITER //
 
--- Function 1: Calculate customer loyalty level based on order history
+-- Function 1: Nivel de lealtad a partir de pedidos entregados y total gastado (sin consultas)
+CREATE FUNCTION LoyaltyTierFor(p_delivered_orders INT UNSIGNED, p_total_spent DECIMAL(12,2))
+RETURNS VARCHAR(20)
+NO SQL
+DETERMINISTIC
+BEGIN
+    IF p_delivered_orders >= 50 AND p_total_spent >= 5000 THEN
+        RETURN 'PLATINUM';
+    ELSEIF p_delivered_orders >= 25 AND p_total_spent >= 2500 THEN
+        RETURN 'GOLD';
+    ELSEIF p_delivered_orders >= 10 AND p_total_spent >= 1000 THEN
+        RETURN 'SILVER';
+    ELSEIF p_delivered_orders >= 3 AND p_total_spent >= 300 THEN
+        RETURN 'BRONZE';
+    END IF;
+    RETURN 'NEW';
+END //
+
+-- Function 1b: Nivel de lealtad de un cliente. Antes sumaba todo su historial de pedidos en
+-- cada llamada; ahora lee Customer.loyalty_tier, que el trigger de Order mantiene al
+-- entregar cada pedido (ver migracion_niveles_lealtad.sql)
 CREATE FUNCTION GetCustomerLoyaltyLevel(p_customer_id INT UNSIGNED)
 RETURNS VARCHAR(20)
 READS SQL DATA
 DETERMINISTIC
 BEGIN
-    DECLARE v_total_orders INT DEFAULT 0;
-    DECLARE v_total_spent DECIMAL(10,2) DEFAULT 0.00;
     DECLARE v_loyalty_level VARCHAR(20) DEFAULT 'NEW';
     
     -- Exception handling
     DECLARE EXIT HANDLER FOR SQLEXCEPTION
     RETURN 'ERROR';
     
-    -- Get customer statistics
-    SELECT 
-        COUNT(order_id),
-        COALESCE(SUM(total_amount), 0)
-    INTO v_total_orders, v_total_spent
-    FROM `Order`
-    WHERE customer_id = p_customer_id 
-        AND status IN ('DELIVERED', 'COMPLETED');
-    
-    -- Determine loyalty level
-    IF v_total_orders >= 50 AND v_total_spent >= 5000 THEN
-        SET v_loyalty_level = 'PLATINUM';
-    ELSEIF v_total_orders >= 25 AND v_total_spent >= 2500 THEN
-        SET v_loyalty_level = 'GOLD';
-    ELSEIF v_total_orders >= 10 AND v_total_spent >= 1000 THEN
-        SET v_loyalty_level = 'SILVER';
-    ELSEIF v_total_orders >= 3 AND v_total_spent >= 300 THEN
-        SET v_loyalty_level = 'BRONZE';
-    ELSE
-        SET v_loyalty_level = 'NEW';
-    END IF;
+    SELECT loyalty_tier INTO v_loyalty_level
+    FROM Customer
+    WHERE customer_id = p_customer_id;
     
     RETURN v_loyalty_level;
 END //
@@ -803,60 +876,34 @@ DELIMITER ;
 
 DELIMITER //
 
--- Trigger 1: After INSERT on Order_Item - Update order totals automatically
-CREATE TRIGGER tr_order_item_after_insert
-AFTER INSERT ON Order_Item
+-- Los totales del pedido (subtotal, impuesto y total) ya no se recalculan con un trigger por
+-- artículo: tr_order_item_after_insert volvía a sumar todo Order_Item y reescribía la fila del
+-- pedido con cada inserción (O(N²) para N artículos). Ahora se calculan una sola vez por pedido
+-- en OrderService (y en ProcesarNuevoPedido); los pedidos históricos se corrigen desde
+-- Base de Datos → Recalcular totales de pedidos. Ver migracion_totales_pedidos.sql.
+
+-- Trigger 1: Before UPDATE on Order status - Hora de cada etapa para medir tiempos de
+-- preparación y traslado. La hora estimada de entrega ya no se fija aquí (45 y 30 minutos
+-- con un UPDATE a la misma tabla, que MySQL rechaza con el error 1442): la calcula
+-- EtaService con la carga de la cocina y los tiempos medidos. Ver migracion_tiempos_entrega.sql.
+CREATE TRIGGER tr_order_status_before_update
+BEFORE UPDATE ON `Order`
 FOR EACH ROW
 BEGIN
-    DECLARE v_subtotal DECIMAL(10,2);
-    DECLARE v_tax_amount DECIMAL(10,2);
-    DECLARE v_delivery_fee DECIMAL(10,2);
-    DECLARE v_total_amount DECIMAL(10,2);
-    
-    -- Calculate new subtotal for the order
-    SELECT SUM(quantity * unit_price) INTO v_subtotal
-    FROM Order_Item
-    WHERE order_id = NEW.order_id;
-    
-    -- Get current delivery fee
-    SELECT delivery_fee INTO v_delivery_fee
-    FROM `Order`
-    WHERE order_id = NEW.order_id;
-    
-    -- Calculate tax (16%)
-    SET v_tax_amount = v_subtotal * 0.16;
-    
-    -- Calculate total
-    SET v_total_amount = v_subtotal + v_tax_amount + COALESCE(v_delivery_fee, 25.00);
+    IF NEW.status = 'PREPARING' AND OLD.status <> 'PREPARING' THEN
+        SET NEW.preparing_at = NOW();
+    END IF;
     
-    -- Update order totals
-    UPDATE `Order`
-    SET subtotal = v_subtotal,
-        tax_amount = v_tax_amount,
-        total_amount = v_total_amount
-    WHERE order_id = NEW.order_id;
+    IF NEW.status = 'READY' AND OLD.status <> 'READY' THEN
+        SET NEW.ready_at = NOW();
+    END IF;
 END //
 
--- Trigger 2: After UPDATE on Order status - Log status changes and update timestamps
+-- Trigger 2: After UPDATE on Order status - Entregas del repartidor y lealtad del cliente
 CREATE TRIGGER tr_order_status_after_update
 AFTER UPDATE ON `Order`
 FOR EACH ROW
 BEGIN
-    -- Log the status change (you could create an order_status_log table for this)
-    -- For now, we'll update estimated delivery time based on status
-    
-    IF NEW.status = 'ACCEPTED' AND OLD.status = 'CREATED' THEN
-        UPDATE `Order`
-        SET estimated_delivery_time = DATE_ADD(NOW(), INTERVAL 45 MINUTE)
-        WHERE order_id = NEW.order_id;
-    END IF;
-    
-    IF NEW.status = 'PREPARING' AND OLD.status = 'ACCEPTED' THEN
-        UPDATE `Order`
-        SET estimated_delivery_time = DATE_ADD(NOW(), INTERVAL 30 MINUTE)
-        WHERE order_id = NEW.order_id;
-    END IF;
-    
     IF NEW.status = 'DELIVERED' AND OLD.status != 'DELIVERED' THEN
         -- Update delivery driver's total deliveries count
         IF NEW.driver_id IS NOT NULL THEN
@@ -865,15 +912,107 @@ BEGIN
             WHERE driver_id = NEW.driver_id;
         END IF;
         
-        -- Update customer's total orders
+        -- Estadísticas de lealtad sumando solo este pedido. En un UPDATE de una tabla las
+        -- asignaciones se evalúan en orden: el nivel ya ve los valores nuevos.
         UPDATE Customer
-        SET total_orders = total_orders + 1
+        SET total_orders = total_orders + 1,
+            delivered_orders = delivered_orders + 1,
+            total_spent = total_spent + COALESCE(NEW.total_amount, 0),
+            loyalty_tier = LoyaltyTierFor(delivered_orders, total_spent)
         WHERE customer_id = NEW.customer_id;
     END IF;
 END //
 
+-- Triggers 3 a 11: registran en Change_Log cada cambio de Customer, Dish y Category para
+-- que las demás terminales actualicen sus tablas (ChangeBus en la aplicación)
+CREATE TRIGGER tr_customer_after_insert
+AFTER INSERT ON Customer
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('CUSTOMER', NEW.customer_id, 'INSERT');
+END //
+
+CREATE TRIGGER tr_customer_after_update
+AFTER UPDATE ON Customer
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('CUSTOMER', NEW.customer_id, 'UPDATE');
+END //
+
+CREATE TRIGGER tr_customer_after_delete
+AFTER DELETE ON Customer
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('CUSTOMER', OLD.customer_id, 'DELETE');
+END //
+
+CREATE TRIGGER tr_dish_after_insert
+AFTER INSERT ON Dish
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('DISH', NEW.dish_id, 'INSERT');
+END //
+
+CREATE TRIGGER tr_dish_after_update
+AFTER UPDATE ON Dish
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('DISH', NEW.dish_id, 'UPDATE');
+END //
+
+CREATE TRIGGER tr_dish_after_delete
+AFTER DELETE ON Dish
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('DISH', OLD.dish_id, 'DELETE');
+END //
+
+CREATE TRIGGER tr_category_after_insert
+AFTER INSERT ON Category
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('CATEGORY', NEW.category_id, 'INSERT');
+END //
+
+CREATE TRIGGER tr_category_after_update
+AFTER UPDATE ON Category
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('CATEGORY', NEW.category_id, 'UPDATE');
+END //
+
+CREATE TRIGGER tr_category_after_delete
+AFTER DELETE ON Category
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('CATEGORY', OLD.category_id, 'DELETE');
+END //
+
+-- Trigger 12: los cambios de costo de ingredientes recalculan los márgenes de los platillos
+-- que los usan en las demás terminales (ProfitabilityEngine)
+CREATE TRIGGER tr_ingredient_after_update
+AFTER UPDATE ON Ingredient
+FOR EACH ROW
+BEGIN
+    IF NOT (NEW.cost_per_unit <=> OLD.cost_per_unit) THEN
+        INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('INGREDIENT', NEW.ingredient_id, 'UPDATE');
+    END IF;
+END //
+
 DELIMITER ;
 
+-- Estadísticas de lealtad de los pedidos de ejemplo (se insertaron antes que el trigger)
+UPDATE Customer c
+LEFT JOIN (
+    SELECT customer_id, COUNT(*) AS delivered, SUM(total_amount) AS spent
+    FROM `Order`
+    WHERE status = 'DELIVERED'
+    GROUP BY customer_id
+) s ON s.customer_id = c.customer_id
+SET c.delivered_orders = COALESCE(s.delivered, 0),
+    c.total_spent = COALESCE(s.spent, 0),
+    c.loyalty_tier = LoyaltyTierFor(COALESCE(s.delivered, 0), COALESCE(s.spent, 0));
+
 -- =====================================================
 -- SAMPLE FUNCTION AND PROCEDURE CALLS
 -- =====================================================
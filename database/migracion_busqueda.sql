@@ -0,0 +1,66 @@
+-- =====================================================
+-- MIGRACIÓN: BÚSQUEDA DE CLIENTES Y PLATILLOS
+-- =====================================================
+-- CustomerDAO.search y DishDAO.search usan MATCH ... AGAINST sobre índices FULLTEXT con
+-- parser ngram y comparan sin acentos (utf8mb4_0900_ai_ci); los términos de una letra
+-- recorren idx_dish_name / idx_customer_full_name (migracion_paginacion.sql) en orden de nombre.
+-- Sin los índices FULLTEXT la aplicación cae a LIKE '%...%' sobre toda la tabla.
+-- Cada cambio se aplica solo si falta (las bases creadas con dark_kitchen.sql ya los tienen).
+-- Requiere MySQL 8.0 o posterior (parser ngram e intercalación utf8mb4_0900_ai_ci).
+
+USE dark_kitchen;
+
+DELIMITER //
+
+DROP PROCEDURE IF EXISTS PrepararBusqueda //
+
+CREATE PROCEDURE PrepararBusqueda()
+BEGIN
+    -- Intercalación sin acentos ni mayúsculas, igual que TextNormalizer
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_schema = DATABASE() AND table_name = 'Customer' AND column_name = 'full_name'
+          AND collation_name <> 'utf8mb4_0900_ai_ci'
+    ) THEN
+        ALTER TABLE `Customer`
+          MODIFY `full_name` VARCHAR(100) COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT 'Nombre completo del cliente (comparación sin acentos)';
+    END IF;
+
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_schema = DATABASE() AND table_name = 'Dish' AND column_name = 'name'
+          AND collation_name <> 'utf8mb4_0900_ai_ci'
+    ) THEN
+        ALTER TABLE `Dish`
+          MODIFY `name` VARCHAR(100) COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT 'Nombre del platillo (comparación sin acentos)';
+    END IF;
+
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'Dish' AND index_name = 'idx_dish_name'
+    ) THEN
+        ALTER TABLE `Dish`
+          ADD INDEX `idx_dish_name` (`name`) COMMENT 'Búsqueda por prefijo del nombre';
+    END IF;
+
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'Customer' AND index_name = 'ft_customer_full_name'
+    ) THEN
+        ALTER TABLE `Customer`
+          ADD FULLTEXT INDEX `ft_customer_full_name` (`full_name`) WITH PARSER ngram COMMENT 'Búsqueda de texto completo por nombre';
+    END IF;
+
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'Dish' AND index_name = 'ft_dish_name'
+    ) THEN
+        ALTER TABLE `Dish`
+          ADD FULLTEXT INDEX `ft_dish_name` (`name`) WITH PARSER ngram COMMENT 'Búsqueda de texto completo por nombre';
+    END IF;
+END //
+
+DELIMITER ;
+
+CALL PrepararBusqueda();
+DROP PROCEDURE PrepararBusqueda;
@@ -0,0 +1,26 @@
+-- =====================================================
+-- MIGRACIÓN: ÍNDICES SECUNDARIOS
+-- =====================================================
+-- Índices revisados contra las consultas de los DAO y de los procedimientos con
+-- EXPLAIN FORMAT=JSON (bench.bat QueryPlanAudit). Solo se agregan los que usa alguna
+-- consulta; cada índice de más cuesta en cada INSERT y en cada cambio de estado.
+--
+-- Ya cubiertos y sin cambios:
+--   Order(customer_id, status)        idx_order_customer_status
+--   Order(status, ...)                idx_order_status_delivered (pedidos abiertos, listos y entregados)
+--   Order_Item(order_id), (dish_id)   índices de las claves foráneas
+--   Payment(order_id)                 índice de la clave foránea; la lectura es por pedido en orden de payment_id
+-- Customer.email y Customer.phone no tienen índice: ninguna consulta filtra por ellos.
+
+USE dark_kitchen;
+
+-- readByCategory: WHERE category_id = ? AND active = TRUE ORDER BY name, sin ordenar en memoria.
+-- Empieza con category_id, así que InnoDB lo usa para la clave foránea y quita el índice automático.
+ALTER TABLE `Dish`
+  ADD INDEX `idx_dish_category_active_name` (`category_id`, `active`, `name`) COMMENT 'Platillos activos de una categoría por nombre; también sirve a la clave foránea';
+
+-- Reportes de pedidos por rango de fechas (WHERE order_datetime >= ? ORDER BY order_datetime)
+ALTER TABLE `Order`
+  ADD INDEX `idx_order_datetime` (`order_datetime`) COMMENT 'Reportes por rango de fechas';
+
+ANALYZE TABLE `Customer`, `Dish`, `Order`, `Order_Item`, `Payment`;
@@ -0,0 +1,19 @@
+-- =====================================================
+-- MIGRACIÓN: EXISTENCIAS DE INGREDIENTES
+-- =====================================================
+-- La aplicación descuenta los ingredientes de la receta de cada pedido aceptado
+-- (InventoryService) y guarda los consumos por lotes. Al llegar al punto de reorden avisa,
+-- y marca agotados (out_of_stock) los platillos que ya no alcanzan para una porción;
+-- active sigue siendo solo la baja lógica.
+-- Los ingredientes existentes quedan sin control (stock_quantity NULL) hasta capturar su
+-- existencia, por ejemplo:
+--   UPDATE Ingredient SET stock_quantity = 25.000, reorder_level = 5.000 WHERE ingredient_id = 1;
+
+USE dark_kitchen;
+
+ALTER TABLE Ingredient
+  ADD COLUMN `stock_quantity` DECIMAL(12,3) DEFAULT NULL COMMENT 'Existencia en la unidad del ingrediente (NULL = sin control)' AFTER `active`,
+  ADD COLUMN `reorder_level` DECIMAL(12,3) NOT NULL DEFAULT 0.000 COMMENT 'Existencia a la que se avisa para resurtir' AFTER `stock_quantity`;
+
+ALTER TABLE Dish
+  ADD COLUMN `out_of_stock` TINYINT(1) NOT NULL DEFAULT 0 COMMENT 'Agotado por falta de ingredientes (lo marca y lo quita el inventario)' AFTER `active`;
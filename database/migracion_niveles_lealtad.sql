@@ -0,0 +1,105 @@
+-- =====================================================
+-- MIGRACIÓN: NIVELES DE LEALTAD INCREMENTALES
+-- =====================================================
+-- GetCustomerLoyaltyLevel sumaba todo el historial de pedidos del cliente en cada llamada.
+-- Ahora Customer guarda pedidos entregados, total gastado y nivel; el trigger de Order los
+-- actualiza al entregar cada pedido y la función solo lee la fila del cliente.
+-- Para bases grandes, el llenado inicial de abajo puede reemplazarse por
+-- Base de Datos → Recalcular niveles de lealtad en la aplicación (por rangos, en paralelo).
+
+USE dark_kitchen;
+
+ALTER TABLE Customer
+  ADD COLUMN `delivered_orders` INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Pedidos entregados (los mantiene tr_order_status_after_update)' AFTER `total_orders`,
+  ADD COLUMN `total_spent` DECIMAL(12,2) NOT NULL DEFAULT 0.00 COMMENT 'Total gastado en pedidos entregados' AFTER `delivered_orders`,
+  ADD COLUMN `loyalty_tier` ENUM('NEW', 'BRONZE', 'SILVER', 'GOLD', 'PLATINUM') NOT NULL DEFAULT 'NEW' COMMENT 'Nivel de lealtad (LoyaltyTierFor)' AFTER `total_spent`;
+
+-- Agrupar los pedidos de un cliente sin leer la tabla completa
+CREATE INDEX `idx_order_customer_status` ON `Order` (`customer_id`, `status`, `total_amount`)
+  COMMENT 'Historial y estadísticas de lealtad por cliente';
+
+DELIMITER //
+
+DROP FUNCTION IF EXISTS LoyaltyTierFor //
+DROP FUNCTION IF EXISTS GetCustomerLoyaltyLevel //
+DROP TRIGGER IF EXISTS tr_order_status_after_update //
+
+-- Function 1: Nivel de lealtad a partir de pedidos entregados y total gastado (sin consultas)
+CREATE FUNCTION LoyaltyTierFor(p_delivered_orders INT UNSIGNED, p_total_spent DECIMAL(12,2))
+RETURNS VARCHAR(20)
+NO SQL
+DETERMINISTIC
+BEGIN
+    IF p_delivered_orders >= 50 AND p_total_spent >= 5000 THEN
+        RETURN 'PLATINUM';
+    ELSEIF p_delivered_orders >= 25 AND p_total_spent >= 2500 THEN
+        RETURN 'GOLD';
+    ELSEIF p_delivered_orders >= 10 AND p_total_spent >= 1000 THEN
+        RETURN 'SILVER';
+    ELSEIF p_delivered_orders >= 3 AND p_total_spent >= 300 THEN
+        RETURN 'BRONZE';
+    END IF;
+    RETURN 'NEW';
+END //
+
+-- Function 1b: Nivel de lealtad de un cliente. Antes sumaba todo su historial de pedidos en
+-- cada llamada; ahora lee Customer.loyalty_tier, que el trigger de Order mantiene al
+-- entregar cada pedido (ver migracion_niveles_lealtad.sql)
+CREATE FUNCTION GetCustomerLoyaltyLevel(p_customer_id INT UNSIGNED)
+RETURNS VARCHAR(20)
+READS SQL DATA
+DETERMINISTIC
+BEGIN
+    DECLARE v_loyalty_level VARCHAR(20) DEFAULT 'NEW';
+    
+    -- Exception handling
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    RETURN 'ERROR';
+    
+    SELECT loyalty_tier INTO v_loyalty_level
+    FROM Customer
+    WHERE customer_id = p_customer_id;
+    
+    RETURN v_loyalty_level;
+END //
+
+-- Trigger 2: After UPDATE on Order status - Entregas del repartidor y lealtad del cliente.
+-- Sin el UPDATE a `Order` de la hora estimada al aceptar y al preparar: MySQL rechaza que un
+-- trigger modifique su propia tabla (error 1442) y la hora la calcula EtaService.
+CREATE TRIGGER tr_order_status_after_update
+AFTER UPDATE ON `Order`
+FOR EACH ROW
+BEGIN
+    IF NEW.status = 'DELIVERED' AND OLD.status != 'DELIVERED' THEN
+        -- Update delivery driver's total deliveries count
+        IF NEW.driver_id IS NOT NULL THEN
+            UPDATE Delivery_Driver
+            SET total_deliveries = total_deliveries + 1
+            WHERE driver_id = NEW.driver_id;
+        END IF;
+        
+        -- Estadísticas de lealtad sumando solo este pedido. En un UPDATE de una tabla las
+        -- asignaciones se evalúan en orden: el nivel ya ve los valores nuevos.
+        UPDATE Customer
+        SET total_orders = total_orders + 1,
+            delivered_orders = delivered_orders + 1,
+            total_spent = total_spent + COALESCE(NEW.total_amount, 0),
+            loyalty_tier = LoyaltyTierFor(delivered_orders, total_spent)
+        WHERE customer_id = NEW.customer_id;
+    END IF;
+END //
+
+DELIMITER ;
+
+-- Llenado inicial con los pedidos ya entregados
+UPDATE Customer c
+LEFT JOIN (
+    SELECT customer_id, COUNT(*) AS delivered, SUM(total_amount) AS spent
+    FROM `Order`
+    WHERE status = 'DELIVERED'
+    GROUP BY customer_id
+) s ON s.customer_id = c.customer_id
+SET c.delivered_orders = COALESCE(s.delivered, 0),
+    c.total_spent = COALESCE(s.spent, 0),
+    c.loyalty_tier = LoyaltyTierFor(COALESCE(s.delivered, 0), COALESCE(s.spent, 0));
+
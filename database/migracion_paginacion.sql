@@ -0,0 +1,29 @@
+-- =====================================================
+-- MIGRACIÓN: PAGINACIÓN DE CLIENTES
+-- =====================================================
+-- CustomerDAO.readPage pagina por llave sobre (full_name, customer_id) y countBefore
+-- cuenta los clientes anteriores a esa llave. Sin un índice con esas dos columnas cada
+-- página recorre toda la tabla y la ordena. El índice se crea solo si no existe (las bases
+-- creadas con dark_kitchen.sql ya lo tienen).
+
+USE dark_kitchen;
+
+DELIMITER //
+
+DROP PROCEDURE IF EXISTS CrearIndicePaginacion //
+
+CREATE PROCEDURE CrearIndicePaginacion()
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'Customer' AND index_name = 'idx_customer_full_name'
+    ) THEN
+        ALTER TABLE `Customer`
+          ADD INDEX `idx_customer_full_name` (`full_name`, `customer_id`) COMMENT 'Páginas por llave (full_name, customer_id) y búsqueda por prefijo';
+    END IF;
+END //
+
+DELIMITER ;
+
+CALL CrearIndicePaginacion();
+DROP PROCEDURE CrearIndicePaginacion;
@@ -0,0 +1,98 @@
+-- =====================================================
+-- MIGRACIÓN: REGISTRO DE CAMBIOS PARA OTRAS TERMINALES
+-- =====================================================
+-- Agrega Change_Log y sus triggers a una base de datos existente. Con esto cada terminal
+-- se entera de las altas, cambios y bajas de clientes, platillos y categorías hechos en
+-- otras terminales y actualiza solo esas filas, en lugar de recargar todo con F5.
+
+USE dark_kitchen;
+
+-- Tabla: Change_Log - Cambios en Customer, Dish y Category (los escriben los triggers)
+-- Cada terminal lee los cambios con ID mayor al último que vio para actualizar solo las
+-- filas afectadas. Las filas de más de 24 horas se borran desde la aplicación.
+CREATE TABLE IF NOT EXISTS `Change_Log` (
+  `change_id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'Clave primaria; orden de los cambios',
+  `entity` ENUM('CUSTOMER', 'DISH', 'CATEGORY') NOT NULL COMMENT 'Tabla modificada',
+  `entity_id` INT UNSIGNED NOT NULL COMMENT 'ID de la fila modificada',
+  `change_type` ENUM('INSERT', 'UPDATE', 'DELETE') NOT NULL COMMENT 'Tipo de cambio',
+  `changed_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT 'Fecha y hora del cambio',
+  PRIMARY KEY(`change_id`),
+  KEY `idx_change_log_changed_at` (`changed_at`)
+) COMMENT='Registro de cambios para actualizar las pantallas de otras terminales';
+
+DELIMITER //
+
+DROP TRIGGER IF EXISTS tr_customer_after_insert //
+DROP TRIGGER IF EXISTS tr_customer_after_update //
+DROP TRIGGER IF EXISTS tr_customer_after_delete //
+DROP TRIGGER IF EXISTS tr_dish_after_insert //
+DROP TRIGGER IF EXISTS tr_dish_after_update //
+DROP TRIGGER IF EXISTS tr_dish_after_delete //
+DROP TRIGGER IF EXISTS tr_category_after_insert //
+DROP TRIGGER IF EXISTS tr_category_after_update //
+DROP TRIGGER IF EXISTS tr_category_after_delete //
+
+CREATE TRIGGER tr_customer_after_insert
+AFTER INSERT ON Customer
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('CUSTOMER', NEW.customer_id, 'INSERT');
+END //
+
+CREATE TRIGGER tr_customer_after_update
+AFTER UPDATE ON Customer
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('CUSTOMER', NEW.customer_id, 'UPDATE');
+END //
+
+CREATE TRIGGER tr_customer_after_delete
+AFTER DELETE ON Customer
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('CUSTOMER', OLD.customer_id, 'DELETE');
+END //
+
+CREATE TRIGGER tr_dish_after_insert
+AFTER INSERT ON Dish
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('DISH', NEW.dish_id, 'INSERT');
+END //
+
+CREATE TRIGGER tr_dish_after_update
+AFTER UPDATE ON Dish
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('DISH', NEW.dish_id, 'UPDATE');
+END //
+
+CREATE TRIGGER tr_dish_after_delete
+AFTER DELETE ON Dish
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('DISH', OLD.dish_id, 'DELETE');
+END //
+
+CREATE TRIGGER tr_category_after_insert
+AFTER INSERT ON Category
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('CATEGORY', NEW.category_id, 'INSERT');
+END //
+
+CREATE TRIGGER tr_category_after_update
+AFTER UPDATE ON Category
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('CATEGORY', NEW.category_id, 'UPDATE');
+END //
+
+CREATE TRIGGER tr_category_after_delete
+AFTER DELETE ON Category
+FOR EACH ROW
+BEGIN
+    INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('CATEGORY', OLD.category_id, 'DELETE');
+END //
+
+DELIMITER ;
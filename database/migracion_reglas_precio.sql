@@ -0,0 +1,58 @@
+-- =====================================================
+-- MIGRACIÓN: REGLAS DE PRECIOS POR UBICACIÓN Y PLATAFORMA
+-- =====================================================
+-- Agrega Pricing_Rule a una base de datos existente. El impuesto (16%) y la tarifa de
+-- envío (25.00) dejan de estar fijos en el código: los lee PricingEngine al iniciar y
+-- ProcesarNuevoPedido en cada pedido. Después de ejecutar este script, volver a crear
+-- ProcesarNuevoPedido desde dark_kitchen.sql (DROP PROCEDURE + CREATE PROCEDURE).
+-- Cada pedido guarda en tax_rate la tasa con la que se cobró, para que un cambio de regla
+-- no altere los pedidos anteriores; a los existentes se les deduce de sus propios montos.
+
+USE dark_kitchen;
+
+CREATE TABLE IF NOT EXISTS `Pricing_Rule` (
+  `pricing_rule_id` INT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'Clave primaria para identificación de regla',
+  `location_id` INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Ubicación a la que aplica (0 = todas)',
+  `platform_id` INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Plataforma a la que aplica (0 = todas)',
+  `tax_rate` DECIMAL(5,2) NOT NULL DEFAULT 16.00 COMMENT 'Porcentaje de impuesto',
+  `delivery_fee` DECIMAL(10,2) NOT NULL DEFAULT 25.00 COMMENT 'Tarifa de envío',
+  `active` TINYINT(1) NOT NULL DEFAULT 1 COMMENT 'Estado de la regla',
+  PRIMARY KEY(`pricing_rule_id`),
+  UNIQUE KEY `uk_pricing_rule` (`location_id`, `platform_id`)
+) COMMENT='Almacena tasas de impuesto y tarifas de envío por ubicación y plataforma';
+
+-- Regla general con los valores que antes estaban fijos
+INSERT IGNORE INTO Pricing_Rule (location_id, platform_id, tax_rate, delivery_fee) VALUES
+(0, 0, 16.00, 25.00);
+
+DELIMITER //
+
+DROP PROCEDURE IF EXISTS AgregarTasaPedido //
+
+CREATE PROCEDURE AgregarTasaPedido()
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_schema = DATABASE() AND table_name = 'Order' AND column_name = 'tax_rate'
+    ) THEN
+        ALTER TABLE `Order`
+          ADD COLUMN `tax_rate` DECIMAL(7,4) DEFAULT NULL COMMENT 'Porcentaje de impuesto con el que se cobró el pedido' AFTER `tax_amount`;
+    END IF;
+END //
+
+DELIMITER ;
+
+CALL AgregarTasaPedido();
+DROP PROCEDURE AgregarTasaPedido;
+
+-- Pedidos anteriores: tasa = impuesto / (subtotal - descuento sobre platillos)
+UPDATE `Order` o
+LEFT JOIN (
+    SELECT op.order_id, SUM(op.discount_amount) AS items_discount
+    FROM Order_Promotion op
+    INNER JOIN Promotion p ON p.promotion_id = op.promotion_id AND p.type <> 'FREE_DELIVERY'
+    GROUP BY op.order_id
+) d ON d.order_id = o.order_id
+SET o.tax_rate = ROUND(o.tax_amount * 100 / (o.subtotal - COALESCE(d.items_discount, 0)), 4)
+WHERE o.tax_rate IS NULL
+  AND o.subtotal - COALESCE(d.items_discount, 0) > 0;
@@ -0,0 +1,29 @@
+-- =====================================================
+-- MIGRACIÓN: RENTABILIDAD DEL MENÚ EN MEMORIA
+-- =====================================================
+-- La pantalla de platillos muestra el margen de todo el menú calculado en la aplicación
+-- (ProfitabilityEngine) en lugar de llamar a CalculateDishProfitability por platillo.
+-- Para que un cambio de costo hecho en otra terminal recalcule los márgenes afectados,
+-- Change_Log registra también los cambios de costo de Ingredient.
+-- Requiere migracion_registro_cambios.sql.
+
+USE dark_kitchen;
+
+ALTER TABLE Change_Log
+  MODIFY `entity` ENUM('CUSTOMER', 'DISH', 'CATEGORY', 'INGREDIENT') NOT NULL COMMENT 'Tabla modificada';
+
+DELIMITER //
+
+DROP TRIGGER IF EXISTS tr_ingredient_after_update //
+
+-- Solo los cambios de costo afectan los márgenes
+CREATE TRIGGER tr_ingredient_after_update
+AFTER UPDATE ON Ingredient
+FOR EACH ROW
+BEGIN
+    IF NOT (NEW.cost_per_unit <=> OLD.cost_per_unit) THEN
+        INSERT INTO Change_Log (entity, entity_id, change_type) VALUES ('INGREDIENT', NEW.ingredient_id, 'UPDATE');
+    END IF;
+END //
+
+DELIMITER ;
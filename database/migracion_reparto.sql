@@ -0,0 +1,21 @@
+-- =====================================================
+-- MIGRACIÓN: ASIGNACIÓN DE REPARTIDORES
+-- =====================================================
+-- La aplicación asigna los pedidos listos al repartidor más conveniente de su plataforma
+-- (DispatchService) según la distancia al punto de recolección de la ubicación.
+-- Las ubicaciones sin coordenadas no reciben asignaciones automáticas; se capturan así:
+--   UPDATE Location SET latitude = 19.432600, longitude = -99.133200 WHERE location_id = 1;
+
+USE dark_kitchen;
+
+ALTER TABLE Location
+  ADD COLUMN `latitude` DECIMAL(9,6) DEFAULT NULL COMMENT 'Latitud del punto de recolección (asignación de repartidores)' AFTER `address`,
+  ADD COLUMN `longitude` DECIMAL(9,6) DEFAULT NULL COMMENT 'Longitud del punto de recolección' AFTER `latitude`;
+
+-- Coordenadas de las ubicaciones de ejemplo
+UPDATE Location SET latitude = 19.432600, longitude = -99.133200 WHERE name = 'Cocina Centro';
+UPDATE Location SET latitude = 19.385000, longitude = -99.171000 WHERE name = 'Hub Sur';
+UPDATE Location SET latitude = 20.673600, longitude = -103.405000 WHERE name = 'Sucursal Norte';
+UPDATE Location SET latitude = 25.669400, longitude = -100.309900 WHERE name = 'Cocina Oriental';
+UPDATE Location SET latitude = 19.433000, longitude = -99.195000 WHERE name = 'Punto Poniente';
+UPDATE Location SET latitude = 21.133000, longitude = -86.746000 WHERE name = 'Cocina Costera';
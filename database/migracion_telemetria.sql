@@ -0,0 +1,17 @@
+-- =====================================================
+-- MIGRACIÓN: POSICIONES DE REPARTIDORES
+-- =====================================================
+-- La aplicación recibe las posiciones GPS de los repartidores (TelemetryService) y guarda
+-- su recorrido reciente en memoria; a esta tabla solo llega una muestra: un punto cada
+-- 30 segundos o cada 100 metros recorridos por repartidor.
+
+USE dark_kitchen;
+
+CREATE TABLE `Driver_Position` (
+  `driver_id` INT UNSIGNED NOT NULL COMMENT 'Clave foránea que referencia tabla Delivery_Driver',
+  `recorded_at` DATETIME(3) NOT NULL COMMENT 'Fecha y hora del reporte del GPS',
+  `latitude` DECIMAL(9,6) NOT NULL COMMENT 'Latitud reportada',
+  `longitude` DECIMAL(9,6) NOT NULL COMMENT 'Longitud reportada',
+  PRIMARY KEY(`driver_id`, `recorded_at`),
+  FOREIGN KEY(`driver_id`) REFERENCES `Delivery_Driver`(`driver_id`) ON DELETE CASCADE ON UPDATE CASCADE
+) COMMENT='Posiciones de repartidores guardadas cada 30 segundos o 100 metros; el recorrido completo reciente vive en memoria';
@@ -0,0 +1,61 @@
+-- =====================================================
+-- MIGRACIÓN: TIEMPOS DE ENTREGA
+-- =====================================================
+-- tr_order_status_after_update fijaba la hora estimada de entrega en NOW() + 45 minutos
+-- al aceptar y NOW() + 30 minutos al preparar, sin importar la carga de la cocina ni los
+-- platillos, y lo hacía con un UPDATE a la misma tabla del trigger (MySQL lo rechaza con el
+-- error 1442). Ahora la calcula la aplicación (EtaService) con la cola de cada cocina y los
+-- tiempos medidos de preparación por platillo y de traslado por ubicación. Para medirlos,
+-- un trigger BEFORE UPDATE guarda la hora en que cada pedido empieza a prepararse y en que
+-- queda listo.
+
+USE dark_kitchen;
+
+ALTER TABLE `Order`
+  ADD COLUMN `preparing_at` DATETIME DEFAULT NULL COMMENT 'Hora en que empezó la preparación (la pone tr_order_status_before_update)' AFTER `actual_delivery_time`,
+  ADD COLUMN `ready_at` DATETIME DEFAULT NULL COMMENT 'Hora en que quedó listo para recogerse' AFTER `preparing_at`,
+  ADD INDEX `idx_order_status_delivered` (`status`, `actual_delivery_time`) COMMENT 'Historial de tiempos de entrega (EtaService)';
+
+DELIMITER //
+
+DROP TRIGGER IF EXISTS tr_order_status_before_update //
+DROP TRIGGER IF EXISTS tr_order_status_after_update //
+
+CREATE TRIGGER tr_order_status_before_update
+BEFORE UPDATE ON `Order`
+FOR EACH ROW
+BEGIN
+    IF NEW.status = 'PREPARING' AND OLD.status <> 'PREPARING' THEN
+        SET NEW.preparing_at = NOW();
+    END IF;
+    
+    IF NEW.status = 'READY' AND OLD.status <> 'READY' THEN
+        SET NEW.ready_at = NOW();
+    END IF;
+END //
+
+-- Trigger 2: After UPDATE on Order status - Entregas del repartidor y lealtad del cliente
+CREATE TRIGGER tr_order_status_after_update
+AFTER UPDATE ON `Order`
+FOR EACH ROW
+BEGIN
+    IF NEW.status = 'DELIVERED' AND OLD.status != 'DELIVERED' THEN
+        -- Update delivery driver's total deliveries count
+        IF NEW.driver_id IS NOT NULL THEN
+            UPDATE Delivery_Driver
+            SET total_deliveries = total_deliveries + 1
+            WHERE driver_id = NEW.driver_id;
+        END IF;
+        
+        -- Estadísticas de lealtad sumando solo este pedido. En un UPDATE de una tabla las
+        -- asignaciones se evalúan en orden: el nivel ya ve los valores nuevos.
+        UPDATE Customer
+        SET total_orders = total_orders + 1,
+            delivered_orders = delivered_orders + 1,
+            total_spent = total_spent + COALESCE(NEW.total_amount, 0),
+            loyalty_tier = LoyaltyTierFor(delivered_orders, total_spent)
+        WHERE customer_id = NEW.customer_id;
+    END IF;
+END //
+
+DELIMITER ;
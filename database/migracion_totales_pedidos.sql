@@ -0,0 +1,15 @@
+-- =====================================================
+-- MIGRACIÓN: TOTALES DE PEDIDOS SIN TRIGGER POR ARTÍCULO
+-- =====================================================
+-- Elimina tr_order_item_after_insert de una base de datos existente. Los totales se
+-- calculan una vez por pedido al darlo de alta (OrderService / ProcesarNuevoPedido).
+
+USE dark_kitchen;
+
+DROP TRIGGER IF EXISTS tr_order_item_after_insert;
+
+-- Verificación: no se hace aquí porque debe usar la misma fórmula que la aplicación
+-- (descuentos de Order_Promotion y la tasa de impuesto de cada pedido). Para contar los
+-- pedidos con diferencias ejecutar `bench.bat OrderTotalsCheck --db` (OrderTotalsRecompute.verify,
+-- con OrderDAO.countTotalMismatches); para corregirlos, Base de Datos → Recalcular totales
+-- de pedidos en la aplicación, que procesa la tabla por rangos de IDs.
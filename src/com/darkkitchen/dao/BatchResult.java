@@ -0,0 +1,117 @@
+package com.darkkitchen.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una operación masiva (createAll/updateAll).
+ * Los elementos guardados ya tienen su ID generado; los que fallaron se reportan
+ * con su posición en la colección original y el mensaje de error.
+ */
+public class BatchResult<T> {
+
+    /**
+     * Fila que no se pudo guardar
+     */
+    public static class Failure<T> {
+        private final int index;
+        private final T item;
+        private final String message;
+
+        Failure(int index, T item, String message) {
+            this.index = index;
+            this.item = item;
+            this.message = message;
+        }
+
+        /** Posición del elemento en la colección recibida */
+        public int getIndex() {
+            return index;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + ": " + message;
+        }
+    }
+
+    private final List<T> succeeded = new ArrayList<>();
+    private final List<Failure<T>> failures = new ArrayList<>();
+    private long elapsedMillis;
+    private String batchError;
+
+    void addSuccess(T item) {
+        succeeded.add(item);
+    }
+
+    void addFailure(int index, T item, String message) {
+        failures.add(new Failure<>(index, item, message));
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    void setBatchError(String batchError) {
+        this.batchError = batchError;
+    }
+
+    // Agrega el resultado de una parte del lote; positions traduce sus posiciones a las del lote completo
+    void include(BatchResult<T> part, List<Integer> positions) {
+        succeeded.addAll(part.succeeded);
+        for (Failure<T> failure : part.failures) {
+            failures.add(new Failure<>(positions.get(failure.getIndex()), failure.getItem(), failure.getMessage()));
+        }
+        elapsedMillis += part.elapsedMillis;
+        if (part.batchError != null) {
+            batchError = part.batchError;
+        }
+    }
+
+    public List<T> getSucceeded() {
+        return Collections.unmodifiableList(succeeded);
+    }
+
+    public List<Failure<T>> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public int getSucceededCount() {
+        return succeeded.size();
+    }
+
+    public int getFailedCount() {
+        return failures.size();
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Error que impidió guardar todo el lote (conexión o commit), o null.
+     * En ese caso todas las filas aparecen como fallidas aunque sus datos sean válidos.
+     */
+    public String getBatchError() {
+        return batchError;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d guardados, %d con error en %d ms",
+            succeeded.size(), failures.size(), elapsedMillis);
+    }
+}
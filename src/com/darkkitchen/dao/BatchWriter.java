@@ -0,0 +1,199 @@
+package com.darkkitchen.dao;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Escritura masiva con lotes JDBC dentro de una sola transacción.
+ * Los elementos se envían en bloques (con rewriteBatchedStatements cada bloque viaja
+ * como un solo INSERT de varias filas). Si un bloque falla se deshace hasta su
+ * savepoint y se reintenta fila por fila para reportar solo las filas con error.
+ */
+final class BatchWriter {
+
+    // Filas por executeBatch si no se indica otra cosa
+    static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /**
+     * Asigna los parámetros de la sentencia para un elemento
+     */
+    @FunctionalInterface
+    interface Binder<T> {
+        void bind(PreparedStatement stmt, T item) throws SQLException;
+    }
+
+    /**
+     * Guarda en el elemento la llave generada
+     */
+    @FunctionalInterface
+    interface KeySetter<T> {
+        void setKey(T item, int key);
+    }
+
+    private BatchWriter() {
+    }
+
+    /**
+     * Ejecuta la sentencia para cada elemento
+     * @param keySetter null si no se esperan llaves generadas (UPDATE)
+     */
+    static <T> BatchResult<T> write(String sql, Collection<T> items, int chunkSize,
+                                    Binder<T> binder, KeySetter<T> keySetter) {
+        long start = System.currentTimeMillis();
+        BatchResult<T> result = new BatchResult<>();
+        List<T> list = new ArrayList<>(items);
+        if (list.isEmpty()) {
+            return result;
+        }
+
+        int size = Math.max(1, chunkSize);
+        int keys = keySetter != null ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS;
+        // Filas guardadas (se confirman hasta el commit) y filas que ya se reportaron con error
+        List<Integer> saved = new ArrayList<>(list.size());
+        boolean[] failed = new boolean[list.size()];
+
+        // Al regresar la conexión al pool se deshace lo no confirmado y se restaura autocommit
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, keys)) {
+
+            conn.setAutoCommit(false);
+
+            for (int from = 0; from < list.size(); from += size) {
+                int to = Math.min(from + size, list.size());
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    for (int i = from; i < to; i++) {
+                        binder.bind(stmt, list.get(i));
+                        stmt.addBatch();
+                    }
+                    int[] counts = stmt.executeBatch();
+                    if (!allApplied(counts)) {
+                        throw new SQLException("Una o más filas no se aplicaron");
+                    }
+                    readKeys(stmt, list, from, to, keySetter);
+                    for (int i = from; i < to; i++) {
+                        saved.add(i);
+                    }
+                    conn.releaseSavepoint(savepoint);
+                } catch (SQLException | RuntimeException e) {
+                    // Se deshace el bloque y se reintenta fila por fila para aislar los errores
+                    conn.rollback(savepoint);
+                    stmt.clearBatch();
+                    writeRowByRow(conn, stmt, list, from, to, binder, keySetter, saved, failed, result);
+                }
+            }
+
+            conn.commit();
+            for (int index : saved) {
+                result.addSuccess(list.get(index));
+            }
+
+        } catch (SQLException e) {
+            // Falló la conexión o el commit: ninguna fila quedó guardada
+            System.err.println("❌ Error en escritura masiva: " + e.getMessage());
+            result.setBatchError(e.getMessage());
+            for (int i = 0; i < list.size(); i++) {
+                if (!failed[i]) {
+                    result.addFailure(i, list.get(i), e.getMessage());
+                }
+            }
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * Guarda un lote en dos partes: los elementos que ya existen con update y los demás con
+     * create. Las filas con error se reportan con su posición en el lote recibido.
+     */
+    static <T> BatchResult<T> upsert(List<T> items, Predicate<T> exists,
+                                     Function<List<T>, BatchResult<T>> update,
+                                     Function<List<T>, BatchResult<T>> create) {
+        List<T> updates = new ArrayList<>();
+        List<Integer> updatePositions = new ArrayList<>();
+        List<T> inserts = new ArrayList<>();
+        List<Integer> insertPositions = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            if (exists.test(item)) {
+                updates.add(item);
+                updatePositions.add(i);
+            } else {
+                inserts.add(item);
+                insertPositions.add(i);
+            }
+        }
+
+        BatchResult<T> result = new BatchResult<>();
+        if (!updates.isEmpty()) {
+            result.include(update.apply(updates), updatePositions);
+        }
+        if (!inserts.isEmpty()) {
+            result.include(create.apply(inserts), insertPositions);
+        }
+        return result;
+    }
+
+    /**
+     * Lote que no se pudo intentar (por ejemplo, sin conexión): todas las filas con error
+     */
+    static <T> BatchResult<T> failed(List<T> items, String message) {
+        BatchResult<T> result = new BatchResult<>();
+        result.setBatchError(message);
+        for (int i = 0; i < items.size(); i++) {
+            result.addFailure(i, items.get(i), message);
+        }
+        return result;
+    }
+
+    private static <T> void writeRowByRow(Connection conn, PreparedStatement stmt, List<T> list,
+                                          int from, int to, Binder<T> binder, KeySetter<T> keySetter,
+                                          List<Integer> saved, boolean[] failed,
+                                          BatchResult<T> result) throws SQLException {
+        for (int i = from; i < to; i++) {
+            T item = list.get(i);
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                binder.bind(stmt, item);
+                if (stmt.executeUpdate() == 0) {
+                    throw new SQLException("No existe el registro a actualizar");
+                }
+                readKeys(stmt, list, i, i + 1, keySetter);
+                saved.add(i);
+                conn.releaseSavepoint(savepoint);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback(savepoint);
+                failed[i] = true;
+                result.addFailure(i, item, e.getMessage());
+            }
+        }
+    }
+
+    private static <T> void readKeys(PreparedStatement stmt, List<T> list, int from, int to,
+                                     KeySetter<T> keySetter) throws SQLException {
+        if (keySetter == null) {
+            return;
+        }
+        // Las llaves llegan en el mismo orden que las filas del lote
+        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+            for (int i = from; i < to && generatedKeys.next(); i++) {
+                keySetter.setKey(list.get(i), generatedKeys.getInt(1));
+            }
+        }
+    }
+
+    // SUCCESS_NO_INFO es normal en lotes reescritos; 0 filas significa que no existía el registro
+    private static boolean allApplied(int[] counts) {
+        for (int count : counts) {
+            if (count == 0 || count == Statement.EXECUTE_FAILED) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
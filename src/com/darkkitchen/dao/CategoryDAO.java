@@ -3,12 +3,19 @@ package com.darkkitchen.dao;
 import com.darkkitchen.model.Category;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * DAO para manejar operaciones CRUD de Category
  */
 public class CategoryDAO {
+
+    // Consultas revisadas también por QueryPlanAudit (bench)
+    static final String READ_ALL = "SELECT * FROM Category WHERE active = TRUE ORDER BY name";
+    static final String READ_BY_ID = "SELECT * FROM Category WHERE category_id = ?";
+    static final String UPDATE = "UPDATE Category SET name = ?, description = ?, active = ? WHERE category_id = ?";
+    static final String DELETE = "UPDATE Category SET active = FALSE WHERE category_id = ?";
     
     /**
      * Crear una nueva categoría
@@ -29,6 +36,8 @@ public class CategoryDAO {
                 if (generatedKeys.next()) {
                     category.setCategoryId(generatedKeys.getInt(1));
                 }
+                MenuCache.getInstance().invalidateAll();
+                ChangeBus.getInstance().publish(ChangeEvent.Entity.CATEGORY, ChangeEvent.Type.INSERT, category.getCategoryId());
                 System.out.println("✅ Categoría creada exitosamente: " + category.getName());
                 return true;
             }
@@ -44,11 +53,11 @@ public class CategoryDAO {
      */
     public List<Category> readAll() {
         List<Category> categories = new ArrayList<>();
-        String sql = "SELECT * FROM Category WHERE active = TRUE ORDER BY name";
+        String sql = READ_ALL;
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 Category category = new Category(
@@ -71,7 +80,7 @@ public class CategoryDAO {
      * Obtener categoría por ID
      */
     public Category readById(int categoryId) {
-        String sql = "SELECT * FROM Category WHERE category_id = ?";
+        String sql = READ_BY_ID;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -99,7 +108,7 @@ public class CategoryDAO {
      * Actualizar categoría
      */
     public boolean update(Category category) {
-        String sql = "UPDATE Category SET name = ?, description = ?, active = ? WHERE category_id = ?";
+        String sql = UPDATE;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -112,6 +121,8 @@ public class CategoryDAO {
             int rowsAffected = stmt.executeUpdate();
             
             if (rowsAffected > 0) {
+                MenuCache.getInstance().invalidateAll();
+                ChangeBus.getInstance().publish(ChangeEvent.Entity.CATEGORY, ChangeEvent.Type.UPDATE, category.getCategoryId());
                 System.out.println("✅ Categoría actualizada exitosamente: " + category.getName());
                 return true;
             }
@@ -122,11 +133,68 @@ public class CategoryDAO {
         return false;
     }
     
+    /**
+     * Crear varias categorías en una sola transacción
+     * @return Categorías guardadas (con su ID) y filas con error
+     */
+    public BatchResult<Category> createAll(Collection<Category> categories) {
+        return createAll(categories, BatchWriter.DEFAULT_CHUNK_SIZE);
+    }
+    
+    /**
+     * Crear varias categorías en una sola transacción
+     * @param chunkSize Filas por lote enviado al servidor
+     */
+    public BatchResult<Category> createAll(Collection<Category> categories, int chunkSize) {
+        String sql = "INSERT INTO Category (name, description) VALUES (?, ?)";
+        
+        BatchResult<Category> result = BatchWriter.write(sql, categories, chunkSize,
+            (stmt, category) -> {
+                stmt.setString(1, category.getName());
+                stmt.setString(2, category.getDescription());
+            },
+            Category::setCategoryId);
+        
+        categoriesChanged(result, ChangeEvent.Type.INSERT);
+        System.out.println("✅ Categorías creadas en lote: " + result);
+        return result;
+    }
+    
+    /**
+     * Actualizar varias categorías en una sola transacción
+     */
+    public BatchResult<Category> updateAll(Collection<Category> categories) {
+        String sql = UPDATE;
+        
+        BatchResult<Category> result = BatchWriter.write(sql, categories, BatchWriter.DEFAULT_CHUNK_SIZE,
+            (stmt, category) -> {
+                stmt.setString(1, category.getName());
+                stmt.setString(2, category.getDescription());
+                stmt.setBoolean(3, category.isActive());
+                stmt.setInt(4, category.getCategoryId());
+            },
+            null);
+        
+        categoriesChanged(result, ChangeEvent.Type.UPDATE);
+        System.out.println("✅ Categorías actualizadas en lote: " + result);
+        return result;
+    }
+    
+    private static void categoriesChanged(BatchResult<Category> result, ChangeEvent.Type type) {
+        if (result.getSucceededCount() > 0) {
+            MenuCache.getInstance().invalidateAll();
+        }
+        ChangeBus changes = ChangeBus.getInstance();
+        for (Category category : result.getSucceeded()) {
+            changes.publish(ChangeEvent.Entity.CATEGORY, type, category.getCategoryId());
+        }
+    }
+    
     /**
      * Eliminar categoría (marca como inactiva)
      */
     public boolean delete(int categoryId) {
-        String sql = "UPDATE Category SET active = FALSE WHERE category_id = ?";
+        String sql = DELETE;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -135,6 +203,8 @@ public class CategoryDAO {
             int rowsAffected = stmt.executeUpdate();
             
             if (rowsAffected > 0) {
+                MenuCache.getInstance().invalidateAll();
+                ChangeBus.getInstance().publish(ChangeEvent.Entity.CATEGORY, ChangeEvent.Type.UPDATE, categoryId);
                 System.out.println("✅ Categoría desactivada exitosamente con ID: " + categoryId);
                 return true;
             }
@@ -0,0 +1,305 @@
+package com.darkkitchen.dao;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus de cambios en memoria. Los DAOs publican cada alta, cambio o baja después de
+ * escribir; publicar no bloquea: el cambio se combina con el pendiente de la misma fila
+ * (alta + cambio = alta, alta + baja = nada) y un hilo los entrega por ráfagas a los
+ * listeners de cada entidad, así las pantallas actualizan solo las filas afectadas.
+ * Con startPolling también se leen de Change_Log los cambios de otras terminales, a partir
+ * de una marca (el último ID leído).
+ */
+public class ChangeBus {
+
+    // Espera tras el primer cambio de una ráfaga para juntar los siguientes
+    private static final long COALESCE_NANOS = 25_000_000L;
+    private static final long POLL_INTERVAL_MS = 2_000;
+    private static final int POLL_LIMIT = 1_000;
+    // Un ID saltado puede llenarse después (transacción larga) o nunca (rollback)
+    private static final long GAP_WAIT_MS = 60_000;
+    private static final int MAX_GAPS = 500;
+    // Los cambios propios regresan por Change_Log; se descartan si llegan dentro de este plazo
+    private static final long ECHO_WINDOW_MS = 60_000;
+    private static final long PURGE_INTERVAL_MS = 60 * 60_000L;
+    private static final int LOG_RETENTION_HOURS = 24;
+
+    /**
+     * Recibe una ráfaga de cambios de una entidad (a lo más uno por fila), en el hilo del bus
+     */
+    public interface Listener {
+        void changed(List<ChangeEvent> events);
+    }
+
+    // Instancia singleton
+    private static class Holder {
+        private static final ChangeBus INSTANCE = new ChangeBus();
+    }
+
+    // Cambio pendiente por fila y filas en el orden de su primer cambio
+    private final Map<Long, ChangeEvent> pending = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> order = new ConcurrentLinkedQueue<>();
+    private final Map<ChangeEvent.Entity, List<Listener>> listeners = new EnumMap<>(ChangeEvent.Entity.class);
+    private final AtomicBoolean wakeScheduled = new AtomicBoolean();
+    private final Thread dispatcher;
+
+    // Cambios propios que todavía no regresan por Change_Log
+    private final Map<Long, Echo> echoes = new ConcurrentHashMap<>();
+    private volatile boolean polling;
+    private Thread poller;
+
+    // Estadísticas
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong bursts = new AtomicLong();
+    private final AtomicLong remote = new AtomicLong();
+
+    ChangeBus() {
+        for (ChangeEvent.Entity entity : ChangeEvent.Entity.values()) {
+            listeners.put(entity, new CopyOnWriteArrayList<>());
+        }
+        dispatcher = new Thread(this::dispatchLoop, "dk-change-bus");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Obtiene la instancia singleton de ChangeBus
+     */
+    public static ChangeBus getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public void subscribe(ChangeEvent.Entity entity, Listener listener) {
+        listeners.get(entity).add(listener);
+    }
+
+    public void unsubscribe(ChangeEvent.Entity entity, Listener listener) {
+        listeners.get(entity).remove(listener);
+    }
+
+    /**
+     * Publica un cambio hecho en esta terminal
+     */
+    public void publish(ChangeEvent.Entity entity, ChangeEvent.Type type, int entityId) {
+        if (entityId <= 0) {
+            return;
+        }
+        if (polling && entity.isLogged()) {
+            long expiresAt = System.currentTimeMillis() + ECHO_WINDOW_MS;
+            echoes.compute(echoKey(entity, type, entityId), (key, echo) -> {
+                Echo updated = echo != null ? echo : new Echo();
+                updated.count++;
+                updated.expiresAt = expiresAt;
+                return updated;
+            });
+        }
+        enqueue(new ChangeEvent(entity, type, entityId));
+    }
+
+    /**
+     * Empieza a leer Change_Log en segundo plano desde el último cambio registrado
+     */
+    public synchronized void startPolling(ChangeLogDAO changeLogDAO) {
+        if (poller != null) {
+            return;
+        }
+        polling = true;
+        poller = new Thread(() -> pollLoop(changeLogDAO), "dk-change-log");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * Deja de leer Change_Log
+     */
+    public synchronized void stopPolling() {
+        polling = false;
+        if (poller != null) {
+            poller.interrupt();
+            poller = null;
+        }
+        echoes.clear();
+    }
+
+    /**
+     * Resumen de estadísticas
+     */
+    public String getStats() {
+        long b = bursts.get();
+        return String.format("Cambios: %d publicados | %d de otras terminales | %d entregados en %d ráfagas (prom %.1f)",
+            published.get(), remote.get(), delivered.get(), b, b == 0 ? 0.0 : delivered.get() / (double) b);
+    }
+
+    private void enqueue(ChangeEvent event) {
+        published.incrementAndGet();
+        long key = rowKey(event.getEntity(), event.getEntityId());
+        boolean[] added = new boolean[1];
+        pending.compute(key, (k, older) -> {
+            if (older == null) {
+                added[0] = true;
+                return event;
+            }
+            return ChangeEvent.merge(older, event);
+        });
+        if (added[0]) {
+            order.add(key);
+            if (wakeScheduled.compareAndSet(false, true)) {
+                LockSupport.unpark(dispatcher);
+            }
+        }
+    }
+
+    private void dispatchLoop() {
+        Map<ChangeEvent.Entity, List<ChangeEvent>> burst = new EnumMap<>(ChangeEvent.Entity.class);
+        while (true) {
+            if (order.isEmpty()) {
+                // Se libera la marca y se revisa de nuevo: un cambio posterior despierta al hilo
+                wakeScheduled.set(false);
+                if (order.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                continue;
+            }
+            // Con la marca puesta nadie interrumpe la espera de la ráfaga
+            LockSupport.parkNanos(COALESCE_NANOS);
+
+            Long key;
+            while ((key = order.poll()) != null) {
+                ChangeEvent event = pending.remove(key);
+                // null si se anuló con otro cambio o si la fila ya salió con una llave repetida
+                if (event != null) {
+                    burst.computeIfAbsent(event.getEntity(), e -> new ArrayList<>()).add(event);
+                }
+            }
+            for (Map.Entry<ChangeEvent.Entity, List<ChangeEvent>> entry : burst.entrySet()) {
+                deliver(entry.getKey(), entry.getValue());
+            }
+            burst.clear();
+        }
+    }
+
+    private void deliver(ChangeEvent.Entity entity, List<ChangeEvent> events) {
+        bursts.incrementAndGet();
+        delivered.addAndGet(events.size());
+        for (Listener listener : listeners.get(entity)) {
+            try {
+                listener.changed(events);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error al avisar cambios de " + entity + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void pollLoop(ChangeLogDAO changeLogDAO) {
+        long watermark = -1;
+        // ID saltado → hora límite para esperarlo
+        TreeMap<Long, Long> gaps = new TreeMap<>();
+        long nextPurge = System.currentTimeMillis() + PURGE_INTERVAL_MS;
+
+        while (polling) {
+            try {
+                if (watermark < 0) {
+                    // Solo interesan los cambios desde que se abrió la aplicación
+                    watermark = changeLogDAO.readMaxId();
+                }
+                if (watermark >= 0) {
+                    watermark = readChanges(changeLogDAO, watermark, gaps);
+                }
+
+                long now = System.currentTimeMillis();
+                if (now >= nextPurge) {
+                    nextPurge = now + PURGE_INTERVAL_MS;
+                    changeLogDAO.purgeOlderThan(LOG_RETENTION_HOURS);
+                }
+                echoes.values().removeIf(echo -> echo.expiresAt < now);
+
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error al leer cambios de otras terminales: " + e.getMessage());
+            }
+        }
+    }
+
+    // Lee hasta alcanzar el último cambio; regresa la nueva marca
+    private long readChanges(ChangeLogDAO changeLogDAO, long watermark, TreeMap<Long, Long> gaps) {
+        List<ChangeEvent> events;
+        do {
+            long now = System.currentTimeMillis();
+            gaps.values().removeIf(deadline -> deadline < now);
+
+            events = changeLogDAO.readSince(watermark, gaps.keySet(), POLL_LIMIT);
+            if (events == null) {
+                break;
+            }
+            for (ChangeEvent event : events) {
+                long logId = event.getLogId();
+                if (logId > watermark) {
+                    for (long missing = watermark + 1; missing < logId && gaps.size() < MAX_GAPS; missing++) {
+                        gaps.put(missing, now + GAP_WAIT_MS);
+                    }
+                    watermark = logId;
+                } else {
+                    gaps.remove(logId);
+                }
+                if (!consumeEcho(event)) {
+                    remote.incrementAndGet();
+                    invalidateCaches(event);
+                    enqueue(event);
+                }
+            }
+        } while (events.size() == POLL_LIMIT);
+        return watermark;
+    }
+
+    // true si el cambio es uno propio que regresó por Change_Log
+    private boolean consumeEcho(ChangeEvent event) {
+        boolean[] matched = new boolean[1];
+        echoes.computeIfPresent(echoKey(event.getEntity(), event.getType(), event.getEntityId()), (key, echo) -> {
+            matched[0] = true;
+            echo.count--;
+            return echo.count > 0 ? echo : null;
+        });
+        return matched[0];
+    }
+
+    // Los DAOs invalidan las cachés con sus propios cambios; los de otras terminales, aquí
+    private static void invalidateCaches(ChangeEvent event) {
+        switch (event.getEntity()) {
+            case DISH:
+                MenuCache.getInstance().invalidateDish(event.getEntityId());
+                break;
+            case CATEGORY:
+                MenuCache.getInstance().invalidateAll();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static long rowKey(ChangeEvent.Entity entity, int entityId) {
+        return (long) entity.ordinal() << 32 | (entityId & 0xFFFFFFFFL);
+    }
+
+    private static long echoKey(ChangeEvent.Entity entity, ChangeEvent.Type type, int entityId) {
+        return (long) entity.ordinal() << 40 | (long) type.ordinal() << 32 | (entityId & 0xFFFFFFFFL);
+    }
+
+    // Cambios propios de una fila que se esperan en Change_Log
+    private static final class Echo {
+        int count;
+        long expiresAt;
+    }
+}
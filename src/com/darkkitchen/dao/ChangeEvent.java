@@ -0,0 +1,111 @@
+package com.darkkitchen.dao;
+
+/**
+ * Cambio en una fila de la base de datos (alta, cambio o baja), identificado por su
+ * entidad e ID. Los eventos propios los publica cada DAO después de escribir; los de otras
+ * terminales llegan de Change_Log.
+ */
+public final class ChangeEvent {
+
+    /**
+     * Tablas que publican cambios
+     */
+    public enum Entity {
+        CUSTOMER(true),
+        DISH(true),
+        CATEGORY(true),
+        INGREDIENT(true),
+        ORDER(false);
+
+        private final boolean logged;
+
+        Entity(boolean logged) {
+            this.logged = logged;
+        }
+
+        /**
+         * Indica si los triggers de la tabla escriben en Change_Log (los cambios de otras
+         * terminales solo se reciben de estas tablas)
+         */
+        public boolean isLogged() {
+            return logged;
+        }
+    }
+
+    /**
+     * Tipo de cambio (mismos valores que Change_Log.change_type)
+     */
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+    private final Entity entity;
+    private final Type type;
+    private final int entityId;
+    // ID en Change_Log (0 = cambio hecho en esta terminal)
+    private final long logId;
+
+    public ChangeEvent(Entity entity, Type type, int entityId) {
+        this(entity, type, entityId, 0);
+    }
+
+    ChangeEvent(Entity entity, Type type, int entityId, long logId) {
+        this.entity = entity;
+        this.type = type;
+        this.entityId = entityId;
+        this.logId = logId;
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public long getLogId() {
+        return logId;
+    }
+
+    /**
+     * Indica si el cambio se hizo en otra terminal
+     */
+    public boolean isRemote() {
+        return logId > 0;
+    }
+
+    /**
+     * Combina dos cambios pendientes de la misma fila en uno solo
+     * @return Cambio combinado, o null si se anulan (alta y baja antes de avisar)
+     */
+    static ChangeEvent merge(ChangeEvent older, ChangeEvent newer) {
+        switch (older.type) {
+            case INSERT:
+                if (newer.type == Type.DELETE) {
+                    return null;
+                }
+                return older;
+            case DELETE:
+                // Una fila que vuelve a aparecer (otra terminal) se trata como cambio
+                return newer.type == Type.INSERT ? newer.withType(Type.UPDATE) : newer;
+            default:
+                return newer;
+        }
+    }
+
+    private ChangeEvent withType(Type newType) {
+        return new ChangeEvent(entity, newType, entityId, logId);
+    }
+
+    @Override
+    public String toString() {
+        return entity + " " + type + " #" + entityId + (isRemote() ? " (remoto)" : "");
+    }
+}
@@ -0,0 +1,107 @@
+package com.darkkitchen.dao;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * DAO para Change_Log: cambios que escriben los triggers de Customer, Dish, Category e Ingredient,
+ * leídos por ChangeBus para enterarse de lo que hacen otras terminales
+ */
+public class ChangeLogDAO {
+
+    // Consultas revisadas también por QueryPlanAudit (bench)
+    static final String READ_MAX_ID = "SELECT COALESCE(MAX(change_id), 0) FROM Change_Log";
+    static final String PURGE = "DELETE FROM Change_Log WHERE changed_at < NOW() - INTERVAL ? HOUR";
+
+    // Cambios con ID mayor a ?, más gapCount IDs sueltos, hasta ? filas
+    static String readSinceSql(int gapCount) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT change_id, entity, entity_id, change_type FROM Change_Log WHERE change_id > ?");
+        if (gapCount > 0) {
+            sql.append(" OR change_id IN (");
+            for (int i = 0; i < gapCount; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+        }
+        return sql.append(" ORDER BY change_id LIMIT ?").toString();
+    }
+
+    /**
+     * ID del último cambio registrado (marca de inicio al abrir la aplicación)
+     * @return ID, 0 si la tabla está vacía o -1 si hubo error
+     */
+    public long readMaxId() {
+        String sql = READ_MAX_ID;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al leer el registro de cambios: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Cambios con ID mayor a la marca, más los IDs sueltos que se indiquen (huecos que
+     * pueden llenarse después, porque las transacciones no confirman en orden de ID)
+     * @return Cambios en orden de ID, o null si hubo error
+     */
+    public List<ChangeEvent> readSince(long afterId, Collection<Long> gapIds, int limit) {
+        String sql = readSinceSql(gapIds.size());
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setLong(index++, afterId);
+            for (long gapId : gapIds) {
+                stmt.setLong(index++, gapId);
+            }
+            stmt.setInt(index, limit);
+
+            List<ChangeEvent> events = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    events.add(new ChangeEvent(
+                        ChangeEvent.Entity.valueOf(rs.getString("entity")),
+                        ChangeEvent.Type.valueOf(rs.getString("change_type")),
+                        rs.getInt("entity_id"),
+                        rs.getLong("change_id")));
+                }
+            }
+            return events;
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al leer el registro de cambios: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Borra los cambios más viejos que las horas indicadas
+     * @return Filas borradas, o -1 si hubo error
+     */
+    public int purgeOlderThan(int hours) {
+        String sql = PURGE;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, hours);
+            return stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al depurar el registro de cambios: " + e.getMessage());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,464 @@
+package com.darkkitchen.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool acotado de conexiones JDBC.
+ * Las conexiones entregadas son proxies: al llamar close() regresan al pool
+ * en lugar de cerrar la conexión física con MySQL.
+ */
+public class ConnectionPool {
+
+    // Tiempo máximo de espera por isValid() al validar una conexión (segundos)
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+
+    // Conexiones físicas libres (la más reciente al frente)
+    private final Deque<PhysicalConnection> idle = new ArrayDeque<>();
+    // Conexiones entregadas actualmente a algún DAO
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private int totalConnections = 0;
+    private boolean shutdown = false;
+
+    private final ScheduledExecutorService housekeeper;
+
+    // Caché de sentencias preparadas por conexión y tiempo límite por sentencia
+    private volatile int statementCacheSize = 64;
+    // Pila de cada préstamo para los reportes de fuga; crearla en cada préstamo cuesta
+    private volatile boolean leakTraces = false;
+    private volatile StatementTimeoutPolicy timeoutPolicy = StatementTimeoutPolicy.fixed(0);
+
+    // Métricas de préstamo
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowWaitNanos = new AtomicLong();
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong connectionsCreated = new AtomicLong();
+    private final AtomicLong connectionsEvicted = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+
+    public ConnectionPool(String url, String username, String password,
+                          int minSize, int maxSize, long borrowTimeoutMillis,
+                          long idleTimeoutMillis, long leakThresholdMillis) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Tamaños de pool inválidos: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dk-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, leakThresholdMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Obtiene una conexión del pool, esperando si se alcanzó el tamaño máximo
+     * @throws SQLException si no hay conexión disponible dentro del tiempo límite
+     */
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        while (true) {
+            PhysicalConnection physical = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (shutdown) {
+                        throw new SQLException("El pool de conexiones está cerrado");
+                    }
+                    physical = idle.pollFirst();
+                    if (physical != null) {
+                        break;
+                    }
+                    if (totalConnections < maxSize) {
+                        totalConnections++;
+                        create = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        borrowTimeouts.incrementAndGet();
+                        throw new SQLException("Tiempo de espera agotado al obtener conexión ("
+                                + borrowTimeoutMillis + " ms, " + maxSize + " en uso)");
+                    }
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrumpido mientras se esperaba una conexión", e);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    physical = openPhysical();
+                } catch (SQLException e) {
+                    releaseSlot();
+                    throw e;
+                }
+            } else if (!isUsable(physical.connection)) {
+                // Validación al préstamo: descartar y volver a intentar
+                validationFailures.incrementAndGet();
+                discard(physical);
+                continue;
+            }
+
+            recordWait(System.nanoTime() - start);
+            return wrap(physical);
+        }
+    }
+
+    /**
+     * Regresa una conexión física al pool (llamado desde el proxy)
+     */
+    private void giveBack(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        PhysicalConnection physical = pooled.physical;
+
+        try {
+            Connection c = physical.connection;
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            c.clearWarnings();
+        } catch (SQLException e) {
+            discard(physical);
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (shutdown) {
+                totalConnections--;
+                physical.close();
+                return;
+            }
+            physical.idleSince = System.currentTimeMillis();
+            idle.offerFirst(physical);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones y rechaza nuevos préstamos
+     */
+    public void shutdown() {
+        List<PhysicalConnection> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            shutdown = true;
+            toClose.addAll(idle);
+            totalConnections -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        for (PhysicalConnection c : toClose) {
+            c.close();
+        }
+    }
+
+    /**
+     * Abre las conexiones mínimas por adelantado
+     */
+    public void warmUp() {
+        while (true) {
+            lock.lock();
+            try {
+                if (shutdown || totalConnections >= minSize) {
+                    return;
+                }
+                totalConnections++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                PhysicalConnection physical = openPhysical();
+                lock.lock();
+                try {
+                    idle.offerLast(physical);
+                    available.signal();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                releaseSlot();
+                System.err.println("❌ Error al precargar el pool: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tarea periódica: expulsa conexiones inactivas por encima del mínimo
+     * y reporta conexiones prestadas por demasiado tiempo (posibles fugas)
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        List<PhysicalConnection> evicted = new ArrayList<>();
+
+        lock.lock();
+        try {
+            // Las más antiguas están al final de la cola
+            while (totalConnections > minSize && !idle.isEmpty()
+                    && now - idle.peekLast().idleSince > idleTimeoutMillis) {
+                evicted.add(idle.pollLast());
+                totalConnections--;
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (PhysicalConnection c : evicted) {
+            connectionsEvicted.incrementAndGet();
+            c.close();
+        }
+
+        for (PooledConnection pooled : borrowed) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdMillis) {
+                pooled.leakReported = true;
+                leaksDetected.incrementAndGet();
+                System.err.println("⚠️ Posible fuga de conexión: prestada hace "
+                        + (now - pooled.borrowedAt) + " ms por " + pooled.owner);
+                if (pooled.borrowTrace != null) {
+                    pooled.borrowTrace.printStackTrace();
+                } else {
+                    System.err.println("   (con -D" + DatabaseConnection.LEAK_TRACES_PROPERTY + "=true se muestra dónde se obtuvo)");
+                }
+            }
+        }
+    }
+
+    private PhysicalConnection openPhysical() throws SQLException {
+        Connection c = DriverManager.getConnection(url, username, password);
+        connectionsCreated.incrementAndGet();
+        return new PhysicalConnection(c, new StatementCache(c, statementCacheSize));
+    }
+
+    private boolean isUsable(Connection c) {
+        try {
+            return !c.isClosed() && c.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(PhysicalConnection physical) {
+        physical.close();
+        releaseSlot();
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            totalConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordWait(long nanos) {
+        borrowCount.incrementAndGet();
+        borrowWaitNanos.addAndGet(nanos);
+        maxBorrowWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private Connection wrap(PhysicalConnection physical) {
+        PooledConnection pooled = new PooledConnection(physical);
+        borrowed.add(pooled);
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                pooled);
+    }
+
+    /**
+     * Resumen de métricas del pool
+     */
+    public String getStats() {
+        int idleCount;
+        int total;
+        lock.lock();
+        try {
+            idleCount = idle.size();
+            total = totalConnections;
+        } finally {
+            lock.unlock();
+        }
+        long count = borrowCount.get();
+        double avgWaitMs = count == 0 ? 0 : borrowWaitNanos.get() / (double) count / 1_000_000.0;
+        return String.format(
+            "Pool: %d/%d (min %d) | En uso: %d | Libres: %d | Préstamos: %d | Espera prom: %.3f ms | "
+            + "Espera máx: %.3f ms | Timeouts: %d | Creadas: %d | Expulsadas: %d | Inválidas: %d | Fugas: %d",
+            total, maxSize, minSize, borrowed.size(), idleCount, count, avgWaitMs,
+            maxBorrowWaitNanos.get() / 1_000_000.0, borrowTimeouts.get(), connectionsCreated.get(),
+            connectionsEvicted.get(), validationFailures.get(), leaksDetected.get());
+    }
+
+    /**
+     * Resumen de la caché de sentencias preparadas (todas las conexiones)
+     */
+    public String getStatementCacheStats() {
+        long hits = StatementCache.getTotalHits();
+        long misses = StatementCache.getTotalMisses();
+        long total = hits + misses;
+        return String.format("Sentencias: aciertos %d | fallos %d | tasa %.1f%% | expulsadas %d",
+                hits, misses, total == 0 ? 0.0 : hits * 100.0 / total, StatementCache.getTotalEvictions());
+    }
+
+    /**
+     * Tamaño máximo de la caché de sentencias para conexiones nuevas
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Guardar la pila de cada préstamo para mostrarla si se detecta una fuga (solo diagnóstico)
+     */
+    public void setLeakTraces(boolean leakTraces) {
+        this.leakTraces = leakTraces;
+    }
+
+    /**
+     * Política de tiempo límite aplicada a cada sentencia antes de entregarla
+     */
+    public void setStatementTimeoutPolicy(StatementTimeoutPolicy timeoutPolicy) {
+        this.timeoutPolicy = timeoutPolicy;
+    }
+
+    public int getActiveCount() { return borrowed.size(); }
+    public long getBorrowCount() { return borrowCount.get(); }
+    public long getBorrowTimeouts() { return borrowTimeouts.get(); }
+    public long getLeaksDetected() { return leaksDetected.get(); }
+
+    public double getAverageBorrowWaitMillis() {
+        long count = borrowCount.get();
+        return count == 0 ? 0 : borrowWaitNanos.get() / (double) count / 1_000_000.0;
+    }
+
+    // Conexión física con su caché de sentencias y el momento en que quedó inactiva
+    private static class PhysicalConnection {
+        final Connection connection;
+        final StatementCache statementCache;
+        long idleSince = System.currentTimeMillis();
+
+        PhysicalConnection(Connection connection, StatementCache statementCache) {
+            this.connection = connection;
+            this.statementCache = statementCache;
+        }
+
+        void close() {
+            statementCache.closeAll();
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // La conexión ya no es utilizable
+            }
+        }
+    }
+
+    // Proxy de una conexión prestada; close() la regresa al pool
+    private class PooledConnection implements InvocationHandler {
+        final PhysicalConnection physical;
+        final long borrowedAt = System.currentTimeMillis();
+        final String owner = Thread.currentThread().getName();
+        final Throwable borrowTrace = leakTraces ? new Throwable("Conexión obtenida aquí") : null;
+        volatile boolean leakReported = false;
+        private volatile boolean closed = false;
+
+        PooledConnection(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        giveBack(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical.connection + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("La conexión ya fue regresada al pool");
+            }
+            if (method.getName().equals("prepareStatement") && args.length <= 2
+                    && (args.length == 1 || args[1] instanceof Integer)) {
+                // prepareStatement(sql) y prepareStatement(sql, autoGeneratedKeys) usan la caché
+                String sql = (String) args[0];
+                int keys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                return physical.statementCache.prepare(sql, keys, timeoutPolicy.timeoutSeconds(sql));
+            }
+            try {
+                Object result = method.invoke(physical.connection, args);
+                if (result instanceof Statement && !(result instanceof PreparedStatement)) {
+                    ((Statement) result).setQueryTimeout(timeoutPolicy.timeoutSeconds(""));
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,14 +1,65 @@
 package com.darkkitchen.dao;
 
 import com.darkkitchen.model.Customer;
+import com.darkkitchen.model.LoyaltyTier;
+import com.darkkitchen.search.SearchService;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * DAO (Data Access Object) para manejar operaciones CRUD de Customer
  */
 public class CustomerDAO {
+
+    // Consultas revisadas también por QueryPlanAudit (bench)
+    static final String READ_ALL = "SELECT * FROM Customer ORDER BY full_name";
+    static final String READ_FIRST_PAGE = "SELECT * FROM Customer ORDER BY full_name, customer_id LIMIT ?";
+    static final String READ_NEXT_PAGE = """
+        SELECT * FROM Customer
+        WHERE full_name > ? OR (full_name = ? AND customer_id > ?)
+        ORDER BY full_name, customer_id
+        LIMIT ?
+        """;
+    static final String READ_PAGE_AT = "SELECT * FROM Customer ORDER BY full_name, customer_id LIMIT ? OFFSET ?";
+    static final String COUNT_ALL = "SELECT COUNT(*) FROM Customer";
+    static final String COUNT_BEFORE = """
+        SELECT COUNT(*) FROM Customer
+        WHERE full_name < ? OR (full_name = ? AND customer_id < ?)
+        """;
+    static final String STREAM_ALL = "SELECT * FROM Customer ORDER BY full_name, customer_id";
+    static final String READ_BY_ID = "SELECT * FROM Customer WHERE customer_id = ?";
+    static final String UPDATE = "UPDATE Customer SET full_name = ?, email = ?, phone = ?, active = ? WHERE customer_id = ?";
+    static final String DELETE = "DELETE FROM Customer WHERE customer_id = ?";
+    static final String SEARCH = """
+        SELECT *, MATCH(full_name) AGAINST (? IN BOOLEAN MODE) AS score
+        FROM Customer
+        WHERE MATCH(full_name) AGAINST (? IN BOOLEAN MODE)
+        ORDER BY score DESC, full_name, customer_id
+        LIMIT ? OFFSET ?
+        """;
+    static final String SEARCH_LIKE = "SELECT * FROM Customer WHERE full_name LIKE ? ORDER BY full_name, customer_id LIMIT ? OFFSET ?";
+    static final String RECOMPUTE_LOYALTY = """
+        UPDATE Customer c
+        LEFT JOIN (
+            SELECT customer_id, COUNT(*) AS delivered, SUM(total_amount) AS spent
+            FROM `Order`
+            WHERE customer_id BETWEEN ? AND ? AND status = 'DELIVERED'
+            GROUP BY customer_id
+        ) s ON s.customer_id = c.customer_id
+        SET c.delivered_orders = COALESCE(s.delivered, 0),
+            c.total_spent = COALESCE(s.spent, 0),
+            c.loyalty_tier = LoyaltyTierFor(COALESCE(s.delivered, 0), COALESCE(s.spent, 0))
+        WHERE c.customer_id BETWEEN ? AND ?
+          AND NOT (c.delivered_orders <=> COALESCE(s.delivered, 0)
+                   AND c.total_spent <=> COALESCE(s.spent, 0)
+                   AND c.loyalty_tier <=> LoyaltyTierFor(COALESCE(s.delivered, 0), COALESCE(s.spent, 0)))
+        """;
     
     /**
      * Crear un nuevo cliente
@@ -34,6 +85,9 @@ public class CustomerDAO {
                     customer.setCustomerId(generatedKeys.getInt(1));
                 }
                 System.out.println("✅ Cliente creado exitosamente: " + customer.getFullName());
+                SearchService.getInstance().customerSaved(customer);
+                ReferenceCache.getInstance().customerChanged(customer.getCustomerId(), true);
+                ChangeBus.getInstance().publish(ChangeEvent.Entity.CUSTOMER, ChangeEvent.Type.INSERT, customer.getCustomerId());
                 return true;
             }
             
@@ -49,23 +103,14 @@ public class CustomerDAO {
      */
     public List<Customer> readAll() {
         List<Customer> customers = new ArrayList<>();
-        String sql = "SELECT * FROM Customer ORDER BY full_name";
+        String sql = READ_ALL;
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
-                Customer customer = new Customer(
-                    rs.getInt("customer_id"),
-                    rs.getString("full_name"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    null, // delivery_address no existe en BD
-                    rs.getTimestamp("registration_date"),
-                    rs.getBoolean("active")
-                );
-                customers.add(customer);
+                customers.add(mapCustomer(rs));
             }
             
         } catch (SQLException e) {
@@ -74,13 +119,153 @@ public class CustomerDAO {
         return customers;
     }
     
+    /**
+     * Obtener una página de clientes ordenados por nombre (paginación por llave)
+     * @param pageToken Token de la página anterior, o null para la primera página (también si no es válido)
+     * @param pageSize Número máximo de clientes por página
+     * @return Página con los clientes y el token para la siguiente
+     */
+    public Page<Customer> readPage(String pageToken, int pageSize) {
+        List<Customer> customers = new ArrayList<>();
+        String[] keys = pageToken == null ? null : Page.decodeToken(pageToken, 2);
+        String sql = keys == null ? READ_FIRST_PAGE : READ_NEXT_PAGE;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (keys != null) {
+                stmt.setString(index++, keys[0]);
+                stmt.setString(index++, keys[0]);
+                stmt.setInt(index++, Integer.parseInt(keys[1]));
+            }
+            // Se pide una fila extra para saber si hay más páginas
+            stmt.setInt(index, pageSize + 1);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                customers.add(mapCustomer(rs));
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener página de clientes: " + e.getMessage());
+        }
+        
+        String nextToken = null;
+        if (customers.size() > pageSize) {
+            customers.remove(pageSize);
+            Customer last = customers.get(pageSize - 1);
+            nextToken = Page.encodeToken(last.getFullName(), last.getCustomerId());
+        }
+        return new Page<>(customers, nextToken);
+    }
+    
+    /**
+     * Obtener una página de clientes a partir de una posición absoluta.
+     * Se usa cuando no se conoce el token (saltos de la barra de desplazamiento);
+     * el token de la página resultante permite seguir con paginación por llave.
+     * @param offset Posición de la primera fila
+     * @param pageSize Número máximo de clientes por página
+     */
+    public Page<Customer> readPageAt(int offset, int pageSize) {
+        List<Customer> customers = new ArrayList<>();
+        String sql = READ_PAGE_AT;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, pageSize + 1);
+            stmt.setInt(2, offset);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                customers.add(mapCustomer(rs));
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener página de clientes: " + e.getMessage());
+        }
+        
+        String nextToken = null;
+        if (customers.size() > pageSize) {
+            customers.remove(pageSize);
+            Customer last = customers.get(pageSize - 1);
+            nextToken = Page.encodeToken(last.getFullName(), last.getCustomerId());
+        }
+        return new Page<>(customers, nextToken);
+    }
+    
+    /**
+     * Contar todos los clientes
+     * @return Número de clientes, o 0 si hay error
+     */
+    public int countAll() {
+        String sql = COUNT_ALL;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error al contar clientes: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Posición de un cliente en el orden de las páginas (full_name, customer_id):
+     * número de clientes que van antes que él
+     * @return Posición, o -1 si hay error
+     */
+    public int countBefore(String fullName, int customerId) {
+        String sql = COUNT_BEFORE;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, fullName);
+            stmt.setString(2, fullName);
+            stmt.setInt(3, customerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al contar clientes: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Recorrer todos los clientes ordenados por nombre sin cargarlos en memoria.
+     * Usa un cursor del servidor; la conexión se libera al cerrar el Stream.
+     * @param fetchSize Filas leídas por viaje al servidor
+     * @return Stream perezoso de clientes (usar con try-with-resources)
+     */
+    public Stream<Customer> streamAll(int fetchSize) {
+        String sql = STREAM_ALL;
+        
+        try {
+            return ResultSetStream.query(sql, fetchSize, CustomerDAO::mapCustomer);
+        } catch (SQLException e) {
+            System.err.println("❌ Error al recorrer clientes: " + e.getMessage());
+        }
+        return Stream.empty();
+    }
+    
     /**
      * Obtener un cliente por ID
      * @param customerId ID del cliente
      * @return Cliente encontrado o null
      */
     public Customer readById(int customerId) {
-        String sql = "SELECT * FROM Customer WHERE customer_id = ?";
+        String sql = READ_BY_ID;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -89,15 +274,7 @@ public class CustomerDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return new Customer(
-                    rs.getInt("customer_id"),
-                    rs.getString("full_name"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    null, // delivery_address no existe en BD
-                    rs.getTimestamp("registration_date"),
-                    rs.getBoolean("active")
-                );
+                return mapCustomer(rs);
             }
             
         } catch (SQLException e) {
@@ -112,7 +289,7 @@ public class CustomerDAO {
      * @return true si se actualizó correctamente, false en caso contrario
      */
     public boolean update(Customer customer) {
-        String sql = "UPDATE Customer SET full_name = ?, email = ?, phone = ?, active = ? WHERE customer_id = ?";
+        String sql = UPDATE;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -127,6 +304,9 @@ public class CustomerDAO {
             
             if (rowsAffected > 0) {
                 System.out.println("✅ Cliente actualizado exitosamente: " + customer.getFullName());
+                SearchService.getInstance().customerSaved(customer);
+                ReferenceCache.getInstance().customerChanged(customer.getCustomerId(), customer.isActive());
+                ChangeBus.getInstance().publish(ChangeEvent.Entity.CUSTOMER, ChangeEvent.Type.UPDATE, customer.getCustomerId());
                 return true;
             }
             
@@ -136,13 +316,140 @@ public class CustomerDAO {
         return false;
     }
     
+    /**
+     * Crear varios clientes en una sola transacción (por ejemplo, una migración)
+     * @return Clientes guardados (con su ID) y filas con error
+     */
+    public BatchResult<Customer> createAll(Collection<Customer> customers) {
+        return createAll(customers, BatchWriter.DEFAULT_CHUNK_SIZE);
+    }
+    
+    /**
+     * Crear varios clientes en una sola transacción
+     * @param chunkSize Filas por lote enviado al servidor
+     */
+    public BatchResult<Customer> createAll(Collection<Customer> customers, int chunkSize) {
+        String sql = "INSERT INTO Customer (full_name, email, phone, active) VALUES (?, ?, ?, ?)";
+        
+        BatchResult<Customer> result = BatchWriter.write(sql, customers, chunkSize,
+            (stmt, customer) -> {
+                stmt.setString(1, customer.getFullName());
+                stmt.setString(2, customer.getEmail());
+                stmt.setString(3, customer.getPhone());
+                stmt.setBoolean(4, customer.isActive());
+            },
+            Customer::setCustomerId);
+        
+        indexCustomers(result, true);
+        System.out.println("✅ Clientes creados en lote: " + result);
+        return result;
+    }
+    
+    /**
+     * Importar clientes: los que tienen el email de un cliente existente lo actualizan y los
+     * demás se crean, así que importar dos veces el mismo archivo no duplica clientes
+     * @return Clientes guardados y filas con error (posición en la lista recibida)
+     */
+    public BatchResult<Customer> importAll(List<Customer> customers) {
+        List<String> emails = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            emails.add(customer.getEmail());
+        }
+        Map<String, Integer> existing = readIdsByEmail(emails);
+        if (existing == null) {
+            return BatchWriter.failed(customers, "no se pudieron leer los clientes existentes");
+        }
+        return BatchWriter.upsert(customers, customer -> {
+            Integer customerId = existing.get(customer.getEmail().toLowerCase(Locale.ROOT));
+            if (customerId == null) {
+                return false;
+            }
+            customer.setCustomerId(customerId);
+            return true;
+        }, this::updateAll, this::createAll);
+    }
+    
+    // ID por email (en minúsculas) de los clientes existentes con esos emails; null si hubo error
+    private Map<String, Integer> readIdsByEmail(Collection<String> emails) {
+        Map<String, Integer> ids = new HashMap<>();
+        if (emails.isEmpty()) {
+            return ids;
+        }
+        StringBuilder sql = new StringBuilder("SELECT customer_id, email FROM Customer WHERE email IN (");
+        for (int i = 0; i < emails.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY customer_id");
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            int index = 1;
+            for (String email : emails) {
+                stmt.setString(index++, email);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    // Si hay emails repetidos en la tabla se actualiza el cliente más antiguo
+                    ids.putIfAbsent(rs.getString(2).toLowerCase(Locale.ROOT), rs.getInt(1));
+                }
+            }
+            return ids;
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error al buscar clientes por email: " + e.getMessage());
+        }
+        return null;
+    }
+    
+    /**
+     * Actualizar varios clientes en una sola transacción
+     */
+    public BatchResult<Customer> updateAll(Collection<Customer> customers) {
+        return updateAll(customers, BatchWriter.DEFAULT_CHUNK_SIZE);
+    }
+    
+    /**
+     * Actualizar varios clientes en una sola transacción
+     * @param chunkSize Filas por lote enviado al servidor
+     */
+    public BatchResult<Customer> updateAll(Collection<Customer> customers, int chunkSize) {
+        String sql = UPDATE;
+        
+        BatchResult<Customer> result = BatchWriter.write(sql, customers, chunkSize,
+            (stmt, customer) -> {
+                stmt.setString(1, customer.getFullName());
+                stmt.setString(2, customer.getEmail());
+                stmt.setString(3, customer.getPhone());
+                stmt.setBoolean(4, customer.isActive());
+                stmt.setInt(5, customer.getCustomerId());
+            },
+            null);
+        
+        indexCustomers(result, false);
+        System.out.println("✅ Clientes actualizados en lote: " + result);
+        return result;
+    }
+    
+    private static void indexCustomers(BatchResult<Customer> result, boolean created) {
+        SearchService search = SearchService.getInstance();
+        ReferenceCache references = ReferenceCache.getInstance();
+        ChangeBus changes = ChangeBus.getInstance();
+        ChangeEvent.Type type = created ? ChangeEvent.Type.INSERT : ChangeEvent.Type.UPDATE;
+        for (Customer customer : result.getSucceeded()) {
+            search.customerSaved(customer);
+            references.customerChanged(customer.getCustomerId(), customer.isActive());
+            changes.publish(ChangeEvent.Entity.CUSTOMER, type, customer.getCustomerId());
+        }
+    }
+    
     /**
      * Eliminar un cliente por ID
      * @param customerId ID del cliente a eliminar
      * @return true si se eliminó correctamente, false en caso contrario
      */
     public boolean delete(int customerId) {
-        String sql = "DELETE FROM Customer WHERE customer_id = ?";
+        String sql = DELETE;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -152,6 +459,9 @@ public class CustomerDAO {
             
             if (rowsAffected > 0) {
                 System.out.println("✅ Cliente eliminado exitosamente con ID: " + customerId);
+                SearchService.getInstance().customerDeleted(customerId);
+                ReferenceCache.getInstance().customerChanged(customerId, false);
+                ChangeBus.getInstance().publish(ChangeEvent.Entity.CUSTOMER, ChangeEvent.Type.DELETE, customerId);
                 return true;
             }
             
@@ -164,34 +474,126 @@ public class CustomerDAO {
     /**
      * Buscar clientes por nombre
      * @param name Nombre a buscar (parcial)
+     * @param limit Número máximo de resultados; si la lista llega a limit puede haber más
      * @return Lista de clientes que coinciden
      */
-    public List<Customer> searchByName(String name) {
-        List<Customer> customers = new ArrayList<>();
-        String sql = "SELECT * FROM Customer WHERE full_name LIKE ? ORDER BY full_name";
+    public List<Customer> searchByName(String name, int limit) {
+        return search(name, limit);
+    }
+    
+    /**
+     * Buscar clientes por nombre usando el índice FULLTEXT, ordenados por relevancia.
+     * Cada palabra del término debe ser prefijo de alguna palabra del nombre, igual que en
+     * SearchIndex; la comparación no distingue acentos ni mayúsculas.
+     * @param term Palabras a buscar (parciales)
+     * @param limit Número máximo de resultados
+     */
+    public List<Customer> search(String term, int limit) {
+        String query = FullTextQuery.booleanQuery(term);
+        if (query == null) {
+            // Término de un solo carácter: se recorre idx_customer_full_name en orden
+            return searchLike(term, limit);
+        }
+        
+        String sql = SEARCH;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, "%" + name + "%");
-            ResultSet rs = stmt.executeQuery();
+            stmt.setString(1, query);
+            stmt.setString(2, query);
+            return FullTextQuery.collectMatches(stmt, 3, term, limit,
+                CustomerDAO::mapCustomer, Customer::getFullName);
             
-            while (rs.next()) {
-                Customer customer = new Customer(
-                    rs.getInt("customer_id"),
-                    rs.getString("full_name"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    null, // delivery_address no existe en BD
-                    rs.getTimestamp("registration_date"),
-                    rs.getBoolean("active")
-                );
-                customers.add(customer);
+        } catch (SQLException e) {
+            if (FullTextQuery.isMissingIndex(e)) {
+                System.err.println("⚠️ Falta el índice FULLTEXT de Customer, se usa LIKE: " + e.getMessage());
+                return searchLike(term, limit);
             }
+            System.err.println("❌ Error al buscar clientes por nombre: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+    
+    private List<Customer> searchLike(String term, int limit) {
+        String sql = SEARCH_LIKE;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, FullTextQuery.likeContains(term));
+            return FullTextQuery.collectMatches(stmt, 2, term, limit,
+                CustomerDAO::mapCustomer, Customer::getFullName);
             
         } catch (SQLException e) {
             System.err.println("❌ Error al buscar clientes por nombre: " + e.getMessage());
         }
-        return customers;
+        return new ArrayList<>();
+    }
+    
+    /**
+     * Rango de IDs de clientes
+     * @return {mínimo, máximo}, o null si no hay clientes o hay error
+     */
+    public int[] readIdRange() {
+        String sql = "SELECT MIN(customer_id), MAX(customer_id) FROM Customer";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (rs.next()) {
+                int min = rs.getInt(1);
+                return rs.wasNull() ? null : new int[] {min, rs.getInt(2)};
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener rango de clientes: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Recalcular pedidos entregados, total gastado y nivel de lealtad de los clientes con ID
+     * entre fromId y toId a partir de sus pedidos, con una sola sentencia para todo el rango
+     * (usa idx_order_customer_status). Solo se reescriben los clientes con diferencias.
+     * @return Clientes corregidos, o -1 si hay error
+     */
+    public int recomputeLoyalty(int fromId, int toId) {
+        String sql = RECOMPUTE_LOYALTY;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, fromId);
+            stmt.setInt(2, toId);
+            stmt.setInt(3, fromId);
+            stmt.setInt(4, toId);
+            return stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al recalcular lealtad de clientes: " + e.getMessage());
+        }
+        return -1;
+    }
+    
+    /**
+     * Convierte la fila actual del ResultSet en un Customer (con sus estadísticas de lealtad,
+     * que vienen en la misma fila)
+     */
+    public static Customer mapCustomer(ResultSet rs) throws SQLException {
+        Customer customer = new Customer(
+            rs.getInt("customer_id"),
+            rs.getString("full_name"),
+            rs.getString("email"),
+            rs.getString("phone"),
+            null, // delivery_address no existe en BD
+            rs.getTimestamp("registration_date"),
+            rs.getBoolean("active")
+        );
+        customer.setDeliveredOrders(rs.getInt("delivered_orders"));
+        customer.setTotalSpent(rs.getBigDecimal("total_spent"));
+        customer.setLoyaltyTier(LoyaltyTier.fromDatabase(rs.getString("loyalty_tier")));
+        return customer;
     }
 }
\ No newline at end of file
@@ -4,12 +4,14 @@ import java.sql.*;
 
 /**
  * Clase para manejar la conexión a la base de datos MySQL
- * Implementa el patrón Singleton para garantizar una sola conexión
+ * Implementa el patrón Singleton y entrega conexiones desde un pool acotado
  */
 public class DatabaseConnection {
     
-    // Instancia singleton
-    private static DatabaseConnection instance;
+    // Instancia singleton (inicializada de forma perezosa y segura entre hilos)
+    private static class Holder {
+        private static final DatabaseConnection INSTANCE = new DatabaseConnection();
+    }
     
     // Configuración de conexión
     private static final String DEFAULT_HOST = "localhost";
@@ -18,6 +20,17 @@ public class DatabaseConnection {
     private static final String DEFAULT_USERNAME = "root";
     private static final String DEFAULT_PASSWORD = "Em1liano"; 
     
+    // Configuración del pool
+    private static final int POOL_MIN_SIZE = 2;
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long BORROW_TIMEOUT_MS = 10_000;
+    private static final long IDLE_TIMEOUT_MS = 5 * 60_000;
+    private static final long LEAK_THRESHOLD_MS = 60_000;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    // Con -Ddarkkitchen.pool.leakTraces=true cada fuga muestra dónde se obtuvo la conexión
+    static final String LEAK_TRACES_PROPERTY = "darkkitchen.pool.leakTraces";
+    private static final int DEFAULT_QUERY_TIMEOUT_SECONDS = 30;
+    
     // Configuración actual
     private String host;
     private String port;
@@ -26,8 +39,11 @@ public class DatabaseConnection {
     private String password;
     private String url;
     
-    // Instancia única de la conexión
-    private static Connection connection = null;
+    // Pool de conexiones activo (null hasta el primer uso)
+    private volatile ConnectionPool pool;
+    
+    // Tiempo límite aplicado a cada sentencia
+    private StatementTimeoutPolicy timeoutPolicy = StatementTimeoutPolicy.fixed(DEFAULT_QUERY_TIMEOUT_SECONDS);
     
     /**
      * Constructor privado para implementar Singleton
@@ -46,55 +62,68 @@ public class DatabaseConnection {
      * Obtiene la instancia singleton de DatabaseConnection
      */
     public static DatabaseConnection getInstance() {
-        if (instance == null) {
-            instance = new DatabaseConnection();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
     
     /**
      * Construye la URL de conexión
      */
     private String buildUrl() {
-        return "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&serverTimezone=UTC";
+        return "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&serverTimezone=UTC"
+                + "&useServerPrepStmts=true&useCursorFetch=true&rewriteBatchedStatements=true";
     }
     
     /**
-     * Obtiene la conexión a la base de datos
+     * Obtiene una conexión del pool.
+     * Al cerrarla (por ejemplo con try-with-resources) regresa al pool.
      * @return Connection objeto de conexión
      * @throws SQLException si hay error en la conexión
      */
     public static Connection getConnection() throws SQLException {
         DatabaseConnection dbInstance = getInstance();
-        if (connection == null || connection.isClosed()) {
+        ConnectionPool current = dbInstance.pool;
+        if (current == null) {
+            current = dbInstance.createPool();
+        }
+        return current.borrow();
+    }
+    
+    /**
+     * Crea el pool en el primer uso
+     */
+    private synchronized ConnectionPool createPool() throws SQLException {
+        if (pool == null) {
             try {
                 // Cargar el driver MySQL
                 Class.forName("com.mysql.cj.jdbc.Driver");
-                connection = DriverManager.getConnection(dbInstance.url, dbInstance.username, dbInstance.password);
-                System.out.println("✅ Conexión exitosa a la base de datos");
             } catch (ClassNotFoundException e) {
                 System.err.println("❌ Error: No se encontró el driver MySQL");
                 System.err.println("Asegúrate de tener mysql-connector-java.jar en la carpeta lib/");
                 throw new SQLException("Driver MySQL no encontrado", e);
-            } catch (SQLException e) {
-                System.err.println("❌ Error al conectar a la base de datos: " + e.getMessage());
-                throw e;
             }
+            pool = new ConnectionPool(url, username, password,
+                    POOL_MIN_SIZE, POOL_MAX_SIZE, BORROW_TIMEOUT_MS, IDLE_TIMEOUT_MS, LEAK_THRESHOLD_MS);
+            pool.setStatementCacheSize(STATEMENT_CACHE_SIZE);
+            pool.setLeakTraces(Boolean.getBoolean(LEAK_TRACES_PROPERTY));
+            pool.setStatementTimeoutPolicy(timeoutPolicy);
+            pool.warmUp();
+            System.out.println("✅ Pool de conexiones inicializado (" + POOL_MIN_SIZE + "-" + POOL_MAX_SIZE + ")");
         }
-        return connection;
+        return pool;
     }
     
     /**
-     * Cierra la conexión a la base de datos
+     * Cierra el pool y todas sus conexiones
      */
     public static void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("🔌 Conexión cerrada correctamente");
-            }
-        } catch (SQLException e) {
-            System.err.println("❌ Error al cerrar la conexión: " + e.getMessage());
+        getInstance().shutdownPool();
+    }
+    
+    private synchronized void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+            System.out.println("🔌 Conexiones cerradas correctamente");
         }
     }
     
@@ -103,16 +132,11 @@ public class DatabaseConnection {
      * @return true si la conexión es exitosa, false en caso contrario
      */
     public static boolean testConnection() {
-        try {
-            Connection conn = getConnection();
-            if (conn != null && !conn.isClosed()) {
-                // Ejecutar una consulta simple para verificar la conexión
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery("SELECT 1");
-                rs.close();
-                stmt.close();
-                return true;
-            }
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1")) {
+            // Ejecutar una consulta simple para verificar la conexión
+            return rs.next();
         } catch (SQLException e) {
             System.err.println("❌ Error en test de conexión: " + e.getMessage());
         }
@@ -122,7 +146,7 @@ public class DatabaseConnection {
     /**
      * Configura los parámetros de conexión personalizados
      */
-    public void setConnectionParams(String host, String port, String database, String username, String password) {
+    public synchronized void setConnectionParams(String host, String port, String database, String username, String password) {
         this.host = host;
         this.port = port;
         this.database = database;
@@ -130,8 +154,8 @@ public class DatabaseConnection {
         this.password = password;
         this.url = buildUrl();
         
-        // Cerrar conexión existente para usar los nuevos parámetros
-        closeConnection();
+        // Cerrar el pool existente para usar los nuevos parámetros
+        shutdownPool();
     }
     
     /**
@@ -142,6 +166,30 @@ public class DatabaseConnection {
                            host, port, database, username);
     }
     
+    /**
+     * Obtiene las métricas del pool de conexiones
+     */
+    public synchronized String getPoolStats() {
+        return pool != null ? pool.getStats() : "Pool no inicializado";
+    }
+    
+    /**
+     * Obtiene las métricas de la caché de sentencias preparadas
+     */
+    public synchronized String getStatementCacheStats() {
+        return pool != null ? pool.getStatementCacheStats() : "Pool no inicializado";
+    }
+    
+    /**
+     * Cambia la política de tiempo límite por sentencia
+     */
+    public synchronized void setStatementTimeoutPolicy(StatementTimeoutPolicy timeoutPolicy) {
+        this.timeoutPolicy = timeoutPolicy;
+        if (pool != null) {
+            pool.setStatementTimeoutPolicy(timeoutPolicy);
+        }
+    }
+    
     /**
      * Getters para acceder a la configuración
      */
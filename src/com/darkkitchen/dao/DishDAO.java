@@ -3,12 +3,93 @@ package com.darkkitchen.dao;
 import com.darkkitchen.model.Dish;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * DAO para manejar operaciones CRUD de Dish
  */
 public class DishDAO {
+
+    // Consultas revisadas también por QueryPlanAudit (bench)
+    static final String READ_ALL = """
+        SELECT d.*, c.name as category_name
+        FROM Dish d
+        INNER JOIN Category c ON d.category_id = c.category_id
+        WHERE d.active = TRUE
+        ORDER BY c.name, d.name
+        """;
+    static final String READ_FIRST_PAGE = """
+        SELECT d.*, c.name as category_name
+        FROM Dish d
+        INNER JOIN Category c ON d.category_id = c.category_id
+        WHERE d.active = TRUE
+        ORDER BY c.name, d.name, d.dish_id
+        LIMIT ?
+        """;
+    static final String READ_NEXT_PAGE = """
+        SELECT d.*, c.name as category_name
+        FROM Dish d
+        INNER JOIN Category c ON d.category_id = c.category_id
+        WHERE d.active = TRUE
+          AND (c.name > ?
+               OR (c.name = ? AND (d.name > ? OR (d.name = ? AND d.dish_id > ?))))
+        ORDER BY c.name, d.name, d.dish_id
+        LIMIT ?
+        """;
+    static final String READ_PAGE_AT = """
+        SELECT d.*, c.name as category_name
+        FROM Dish d
+        INNER JOIN Category c ON d.category_id = c.category_id
+        WHERE d.active = TRUE
+        ORDER BY c.name, d.name, d.dish_id
+        LIMIT ? OFFSET ?
+        """;
+    static final String COUNT_ALL = "SELECT COUNT(*) FROM Dish WHERE active = TRUE";
+    static final String STREAM_ALL = """
+        SELECT d.*, c.name as category_name
+        FROM Dish d
+        INNER JOIN Category c ON d.category_id = c.category_id
+        WHERE d.active = TRUE
+        ORDER BY c.name, d.name, d.dish_id
+        """;
+    static final String READ_BY_ID = """
+        SELECT d.*, c.name as category_name
+        FROM Dish d
+        INNER JOIN Category c ON d.category_id = c.category_id
+        WHERE d.dish_id = ?
+        """;
+    static final String READ_BY_CATEGORY = """
+        SELECT d.*, c.name as category_name
+        FROM Dish d
+        INNER JOIN Category c ON d.category_id = c.category_id
+        WHERE d.category_id = ? AND d.active = TRUE
+        ORDER BY d.name
+        """;
+    static final String UPDATE = "UPDATE Dish SET brand_id = ?, category_id = ?, name = ?, description = ?, price = ?, preparation_time = ?, active = ? WHERE dish_id = ?";
+    static final String DELETE = "UPDATE Dish SET active = FALSE WHERE dish_id = ?";
+    static final String UPDATE_OUT_OF_STOCK = "UPDATE Dish SET out_of_stock = ? WHERE dish_id = ?";
+    static final String READ_OUT_OF_STOCK = "SELECT dish_id FROM Dish WHERE active = TRUE AND out_of_stock = TRUE";
+    static final String SEARCH = """
+        SELECT d.*, c.name as category_name,
+               MATCH(d.name) AGAINST (? IN BOOLEAN MODE) AS score
+        FROM Dish d
+        INNER JOIN Category c ON d.category_id = c.category_id
+        WHERE MATCH(d.name) AGAINST (? IN BOOLEAN MODE) AND d.active = TRUE
+        ORDER BY score DESC, d.name, d.dish_id
+        LIMIT ? OFFSET ?
+        """;
+    static final String SEARCH_LIKE = """
+        SELECT d.*, c.name as category_name
+        FROM Dish d
+        INNER JOIN Category c ON d.category_id = c.category_id
+        WHERE d.name LIKE ? AND d.active = TRUE
+        ORDER BY d.name, d.dish_id
+        LIMIT ? OFFSET ?
+        """;
     
     /**
      * Crear un nuevo platillo
@@ -33,6 +114,8 @@ public class DishDAO {
                 if (generatedKeys.next()) {
                     dish.setDishId(generatedKeys.getInt(1));
                 }
+                MenuCache.getInstance().invalidateDish(dish.getDishId());
+                ChangeBus.getInstance().publish(ChangeEvent.Entity.DISH, ChangeEvent.Type.INSERT, dish.getDishId());
                 System.out.println("✅ Platillo creado exitosamente: " + dish.getName());
                 return true;
             }
@@ -48,33 +131,14 @@ public class DishDAO {
      */
     public List<Dish> readAll() {
         List<Dish> dishes = new ArrayList<>();
-        String sql = """
-            SELECT d.*, c.name as category_name 
-            FROM Dish d 
-            INNER JOIN Category c ON d.category_id = c.category_id 
-            WHERE d.active = TRUE 
-            ORDER BY c.name, d.name
-            """;
+        String sql = READ_ALL;
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
-                Dish dish = new Dish(
-                    rs.getInt("dish_id"),
-                    rs.getInt("category_id"),
-                    rs.getString("name"),
-                    rs.getString("description"),
-                    rs.getBigDecimal("price"),
-                    rs.getInt("preparation_time"),
-                    rs.getBoolean("active"),
-                    false, // vegetarian por defecto
-                    false, // spicy por defecto
-                    rs.getTimestamp("created_at")
-                );
-                dish.setCategoryName(rs.getString("category_name"));
-                dishes.add(dish);
+                dishes.add(mapDish(rs));
             }
             
         } catch (SQLException e) {
@@ -83,16 +147,127 @@ public class DishDAO {
         return dishes;
     }
     
+    /**
+     * Obtener una página de platillos activos ordenados por categoría y nombre (paginación por llave)
+     * @param pageToken Token de la página anterior, o null para la primera página (también si no es válido)
+     * @param pageSize Número máximo de platillos por página
+     * @return Página con los platillos y el token para la siguiente
+     */
+    public Page<Dish> readPage(String pageToken, int pageSize) {
+        List<Dish> dishes = new ArrayList<>();
+        String[] keys = pageToken == null ? null : Page.decodeToken(pageToken, 3);
+        String sql = keys == null ? READ_FIRST_PAGE : READ_NEXT_PAGE;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (keys != null) {
+                stmt.setString(index++, keys[0]);
+                stmt.setString(index++, keys[0]);
+                stmt.setString(index++, keys[1]);
+                stmt.setString(index++, keys[1]);
+                stmt.setInt(index++, Integer.parseInt(keys[2]));
+            }
+            // Se pide una fila extra para saber si hay más páginas
+            stmt.setInt(index, pageSize + 1);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                dishes.add(mapDish(rs));
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener página de platillos: " + e.getMessage());
+        }
+        
+        String nextToken = null;
+        if (dishes.size() > pageSize) {
+            dishes.remove(pageSize);
+            Dish last = dishes.get(pageSize - 1);
+            nextToken = Page.encodeToken(last.getCategoryName(), last.getName(), last.getDishId());
+        }
+        return new Page<>(dishes, nextToken);
+    }
+    
+    /**
+     * Obtener una página de platillos activos a partir de una posición absoluta.
+     * Se usa cuando no se conoce el token (saltos de la barra de desplazamiento);
+     * el token de la página resultante permite seguir con paginación por llave.
+     * @param offset Posición de la primera fila
+     * @param pageSize Número máximo de platillos por página
+     */
+    public Page<Dish> readPageAt(int offset, int pageSize) {
+        List<Dish> dishes = new ArrayList<>();
+        String sql = READ_PAGE_AT;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, pageSize + 1);
+            stmt.setInt(2, offset);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                dishes.add(mapDish(rs));
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener página de platillos: " + e.getMessage());
+        }
+        
+        String nextToken = null;
+        if (dishes.size() > pageSize) {
+            dishes.remove(pageSize);
+            Dish last = dishes.get(pageSize - 1);
+            nextToken = Page.encodeToken(last.getCategoryName(), last.getName(), last.getDishId());
+        }
+        return new Page<>(dishes, nextToken);
+    }
+    
+    /**
+     * Contar los platillos activos
+     * @return Número de platillos, o 0 si hay error
+     */
+    public int countAll() {
+        String sql = COUNT_ALL;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error al contar platillos: " + e.getMessage());
+        }
+        return 0;
+    }
+    
+    /**
+     * Recorrer todos los platillos activos sin cargarlos en memoria.
+     * Usa un cursor del servidor; la conexión se libera al cerrar el Stream.
+     * @param fetchSize Filas leídas por viaje al servidor
+     * @return Stream perezoso de platillos (usar con try-with-resources)
+     */
+    public Stream<Dish> streamAll(int fetchSize) {
+        String sql = STREAM_ALL;
+        
+        try {
+            return ResultSetStream.query(sql, fetchSize, DishDAO::mapDish);
+        } catch (SQLException e) {
+            System.err.println("❌ Error al recorrer platillos: " + e.getMessage());
+        }
+        return Stream.empty();
+    }
+    
     /**
      * Obtener platillo por ID
      */
     public Dish readById(int dishId) {
-        String sql = """
-            SELECT d.*, c.name as category_name 
-            FROM Dish d 
-            INNER JOIN Category c ON d.category_id = c.category_id 
-            WHERE d.dish_id = ?
-            """;
+        String sql = READ_BY_ID;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -101,20 +276,7 @@ public class DishDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                Dish dish = new Dish(
-                    rs.getInt("dish_id"),
-                    rs.getInt("category_id"),
-                    rs.getString("name"),
-                    rs.getString("description"),
-                    rs.getBigDecimal("price"),
-                    rs.getInt("preparation_time"),
-                    rs.getBoolean("active"),
-                    false, // vegetarian por defecto
-                    false, // spicy por defecto
-                    rs.getTimestamp("created_at")
-                );
-                dish.setCategoryName(rs.getString("category_name"));
-                return dish;
+                return mapDish(rs);
             }
             
         } catch (SQLException e) {
@@ -128,13 +290,7 @@ public class DishDAO {
      */
     public List<Dish> readByCategory(int categoryId) {
         List<Dish> dishes = new ArrayList<>();
-        String sql = """
-            SELECT d.*, c.name as category_name 
-            FROM Dish d 
-            INNER JOIN Category c ON d.category_id = c.category_id 
-            WHERE d.category_id = ? AND d.active = TRUE 
-            ORDER BY d.name
-            """;
+        String sql = READ_BY_CATEGORY;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -143,20 +299,7 @@ public class DishDAO {
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                Dish dish = new Dish(
-                    rs.getInt("dish_id"),
-                    rs.getInt("category_id"),
-                    rs.getString("name"),
-                    rs.getString("description"),
-                    rs.getBigDecimal("price"),
-                    rs.getInt("preparation_time"),
-                    rs.getBoolean("available"),
-                    rs.getBoolean("vegetarian"),
-                    rs.getBoolean("spicy"),
-                    rs.getTimestamp("created_at")
-                );
-                dish.setCategoryName(rs.getString("category_name"));
-                dishes.add(dish);
+                dishes.add(mapDish(rs));
             }
             
         } catch (SQLException e) {
@@ -169,7 +312,7 @@ public class DishDAO {
      * Actualizar platillo
      */
     public boolean update(Dish dish) {
-        String sql = "UPDATE Dish SET brand_id = ?, category_id = ?, name = ?, description = ?, price = ?, preparation_time = ?, active = ? WHERE dish_id = ?";
+        String sql = UPDATE;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -186,6 +329,8 @@ public class DishDAO {
             int rowsAffected = stmt.executeUpdate();
             
             if (rowsAffected > 0) {
+                MenuCache.getInstance().invalidateDish(dish.getDishId());
+                ChangeBus.getInstance().publish(ChangeEvent.Entity.DISH, ChangeEvent.Type.UPDATE, dish.getDishId());
                 System.out.println("✅ Platillo actualizado exitosamente: " + dish.getName());
                 return true;
             }
@@ -196,11 +341,136 @@ public class DishDAO {
         return false;
     }
     
+    /**
+     * Crear varios platillos en una sola transacción (por ejemplo, el menú de una marca nueva)
+     * @return Platillos guardados (con su ID) y filas con error
+     */
+    public BatchResult<Dish> createAll(Collection<Dish> dishes) {
+        return createAll(dishes, BatchWriter.DEFAULT_CHUNK_SIZE);
+    }
+    
+    /**
+     * Crear varios platillos en una sola transacción
+     * @param chunkSize Filas por lote enviado al servidor
+     */
+    public BatchResult<Dish> createAll(Collection<Dish> dishes, int chunkSize) {
+        String sql = "INSERT INTO Dish (brand_id, category_id, name, description, price, preparation_time, active) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        
+        BatchResult<Dish> result = BatchWriter.write(sql, dishes, chunkSize,
+            (stmt, dish) -> {
+                stmt.setInt(1, 1); // brand_id por defecto
+                stmt.setInt(2, dish.getCategoryId());
+                stmt.setString(3, dish.getName());
+                stmt.setString(4, dish.getDescription());
+                stmt.setBigDecimal(5, dish.getPrice());
+                stmt.setInt(6, dish.getPreparationTime());
+                stmt.setBoolean(7, dish.isAvailable());
+            },
+            Dish::setDishId);
+        
+        invalidateMenu(result, ChangeEvent.Type.INSERT);
+        System.out.println("✅ Platillos creados en lote: " + result);
+        return result;
+    }
+    
+    /**
+     * Importar platillos: los que traen el ID de un platillo existente se actualizan y los
+     * demás se crean, así que importar dos veces el mismo archivo no duplica el menú
+     * @return Platillos guardados y filas con error (posición en la lista recibida)
+     */
+    public BatchResult<Dish> importAll(List<Dish> dishes) {
+        List<Integer> ids = new ArrayList<>();
+        for (Dish dish : dishes) {
+            if (dish.getDishId() > 0) {
+                ids.add(dish.getDishId());
+            }
+        }
+        Set<Integer> existing = readExistingIds(ids);
+        if (existing == null) {
+            return BatchWriter.failed(dishes, "no se pudieron leer los platillos existentes");
+        }
+        return BatchWriter.upsert(dishes, dish -> existing.contains(dish.getDishId()),
+            this::updateAll, this::createAll);
+    }
+    
+    // IDs de la lista que existen en Dish (activos o no); null si hubo error
+    private Set<Integer> readExistingIds(Collection<Integer> dishIds) {
+        Set<Integer> existing = new HashSet<>();
+        if (dishIds.isEmpty()) {
+            return existing;
+        }
+        StringBuilder sql = new StringBuilder("SELECT dish_id FROM Dish WHERE dish_id IN (");
+        for (int i = 0; i < dishIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            int index = 1;
+            for (int dishId : dishIds) {
+                stmt.setInt(index++, dishId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getInt(1));
+                }
+            }
+            return existing;
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error al buscar platillos existentes: " + e.getMessage());
+        }
+        return null;
+    }
+    
+    /**
+     * Actualizar varios platillos en una sola transacción
+     */
+    public BatchResult<Dish> updateAll(Collection<Dish> dishes) {
+        return updateAll(dishes, BatchWriter.DEFAULT_CHUNK_SIZE);
+    }
+    
+    /**
+     * Actualizar varios platillos en una sola transacción
+     * @param chunkSize Filas por lote enviado al servidor
+     */
+    public BatchResult<Dish> updateAll(Collection<Dish> dishes, int chunkSize) {
+        String sql = UPDATE;
+        
+        BatchResult<Dish> result = BatchWriter.write(sql, dishes, chunkSize,
+            (stmt, dish) -> {
+                stmt.setInt(1, 1); // brand_id por defecto
+                stmt.setInt(2, dish.getCategoryId());
+                stmt.setString(3, dish.getName());
+                stmt.setString(4, dish.getDescription());
+                stmt.setBigDecimal(5, dish.getPrice());
+                stmt.setInt(6, dish.getPreparationTime());
+                stmt.setBoolean(7, dish.isAvailable());
+                stmt.setInt(8, dish.getDishId());
+            },
+            null);
+        
+        invalidateMenu(result, ChangeEvent.Type.UPDATE);
+        System.out.println("✅ Platillos actualizados en lote: " + result);
+        return result;
+    }
+    
+    private static void invalidateMenu(BatchResult<Dish> result, ChangeEvent.Type type) {
+        MenuCache cache = MenuCache.getInstance();
+        ChangeBus changes = ChangeBus.getInstance();
+        for (Dish dish : result.getSucceeded()) {
+            cache.invalidateDish(dish.getDishId());
+            changes.publish(ChangeEvent.Entity.DISH, type, dish.getDishId());
+        }
+    }
+    
     /**
      * Eliminar platillo (marca como no disponible)
      */
     public boolean delete(int dishId) {
-        String sql = "UPDATE Dish SET available = FALSE WHERE dish_id = ?";
+        String sql = DELETE;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -209,6 +479,9 @@ public class DishDAO {
             int rowsAffected = stmt.executeUpdate();
             
             if (rowsAffected > 0) {
+                MenuCache.getInstance().invalidateDish(dishId);
+                // Baja lógica: en la tabla es un UPDATE de active
+                ChangeBus.getInstance().publish(ChangeEvent.Entity.DISH, ChangeEvent.Type.UPDATE, dishId);
                 System.out.println("✅ Platillo marcado como no disponible con ID: " + dishId);
                 return true;
             }
@@ -219,45 +492,175 @@ public class DishDAO {
         return false;
     }
     
+    /**
+     * Marcar varios platillos activos como agotados o con existencia otra vez (por ejemplo,
+     * cuando se acaba un ingrediente). Solo cambia out_of_stock: la baja lógica (active) y la
+     * disponibilidad que captura el personal no se tocan.
+     * @return Platillos que cambiaron, o -1 si hubo error
+     */
+    public int setOutOfStock(Collection<Integer> dishIds, boolean outOfStock) {
+        if (dishIds.isEmpty()) {
+            return 0;
+        }
+        String select = lockOutOfStockSql(dishIds.size());
+        String update = UPDATE_OUT_OF_STOCK;
+
+        // Al regresar la conexión al pool se deshace lo no confirmado y se restaura autocommit
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            // Se bloquean los que de verdad cambian: solo de esos se avisa
+            List<Integer> changed = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(select)) {
+                stmt.setBoolean(1, outOfStock);
+                int index = 2;
+                for (int dishId : dishIds) {
+                    stmt.setInt(index++, dishId);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(rs.getInt(1));
+                    }
+                }
+            }
+            if (changed.isEmpty()) {
+                conn.commit();
+                return 0;
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(update)) {
+                for (int dishId : changed) {
+                    stmt.setBoolean(1, outOfStock);
+                    stmt.setInt(2, dishId);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            conn.commit();
+
+            MenuCache cache = MenuCache.getInstance();
+            ChangeBus changes = ChangeBus.getInstance();
+            for (int dishId : changed) {
+                cache.invalidateDish(dishId);
+                changes.publish(ChangeEvent.Entity.DISH, ChangeEvent.Type.UPDATE, dishId);
+            }
+            System.out.println("✅ Platillos marcados como " + (outOfStock ? "agotados" : "con existencia")
+                + ": " + changed);
+            return changed.size();
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al cambiar existencia de platillos: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    // Bloquea los platillos activos de la lista (count IDs) cuyo out_of_stock es distinto de ?
+    static String lockOutOfStockSql(int count) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT dish_id FROM Dish WHERE active = TRUE AND out_of_stock <> ? AND dish_id IN (");
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(") FOR UPDATE").toString();
+    }
+
+    /**
+     * IDs de los platillos activos marcados como agotados
+     * @return IDs, o null si hubo error
+     */
+    public List<Integer> readOutOfStockIds() {
+        List<Integer> dishIds = new ArrayList<>();
+        String sql = READ_OUT_OF_STOCK;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                dishIds.add(rs.getInt(1));
+            }
+            return dishIds;
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener platillos agotados: " + e.getMessage());
+        }
+        return null;
+    }
+
     /**
      * Buscar platillos por nombre
+     * @param limit Número máximo de resultados; si la lista llega a limit puede haber más
      */
-    public List<Dish> searchByName(String name) {
-        List<Dish> dishes = new ArrayList<>();
-        String sql = """
-            SELECT d.*, c.name as category_name 
-            FROM Dish d 
-            INNER JOIN Category c ON d.category_id = c.category_id 
-            WHERE d.name LIKE ? AND d.available = TRUE 
-            ORDER BY d.name
-            """;
+    public List<Dish> searchByName(String name, int limit) {
+        return search(name, limit);
+    }
+    
+    /**
+     * Buscar platillos activos por nombre usando el índice FULLTEXT, ordenados por relevancia.
+     * Cada palabra del término debe ser prefijo de alguna palabra del nombre, igual que en
+     * SearchIndex; la comparación no distingue acentos ni mayúsculas.
+     * @param term Palabras a buscar (parciales)
+     * @param limit Número máximo de resultados
+     */
+    public List<Dish> search(String term, int limit) {
+        String query = FullTextQuery.booleanQuery(term);
+        if (query == null) {
+            // Término de un solo carácter: se recorre idx_dish_name en orden
+            return searchLike(term, limit);
+        }
+        
+        String sql = SEARCH;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, "%" + name + "%");
-            ResultSet rs = stmt.executeQuery();
+            stmt.setString(1, query);
+            stmt.setString(2, query);
+            return FullTextQuery.collectMatches(stmt, 3, term, limit, DishDAO::mapDish, Dish::getName);
             
-            while (rs.next()) {
-                Dish dish = new Dish(
-                    rs.getInt("dish_id"),
-                    rs.getInt("category_id"),
-                    rs.getString("name"),
-                    rs.getString("description"),
-                    rs.getBigDecimal("price"),
-                    rs.getInt("preparation_time"),
-                    rs.getBoolean("available"),
-                    rs.getBoolean("vegetarian"),
-                    rs.getBoolean("spicy"),
-                    rs.getTimestamp("created_at")
-                );
-                dish.setCategoryName(rs.getString("category_name"));
-                dishes.add(dish);
+        } catch (SQLException e) {
+            if (FullTextQuery.isMissingIndex(e)) {
+                System.err.println("⚠️ Falta el índice FULLTEXT de Dish, se usa LIKE: " + e.getMessage());
+                return searchLike(term, limit);
             }
+            System.err.println("❌ Error al buscar platillos por nombre: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+    
+    private List<Dish> searchLike(String term, int limit) {
+        String sql = SEARCH_LIKE;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, FullTextQuery.likeContains(term));
+            return FullTextQuery.collectMatches(stmt, 2, term, limit, DishDAO::mapDish, Dish::getName);
             
         } catch (SQLException e) {
             System.err.println("❌ Error al buscar platillos por nombre: " + e.getMessage());
         }
-        return dishes;
+        return new ArrayList<>();
+    }
+    
+    /**
+     * Convierte la fila actual del ResultSet (con category_name) en un Dish
+     */
+    public static Dish mapDish(ResultSet rs) throws SQLException {
+        Dish dish = new Dish(
+            rs.getInt("dish_id"),
+            rs.getInt("category_id"),
+            rs.getString("name"),
+            rs.getString("description"),
+            rs.getBigDecimal("price"),
+            rs.getInt("preparation_time"),
+            rs.getBoolean("active"),
+            false, // vegetarian no existe en BD
+            false, // spicy no existe en BD
+            rs.getTimestamp("created_at")
+        );
+        dish.setCategoryName(rs.getString("category_name"));
+        dish.setOutOfStock(rs.getBoolean("out_of_stock"));
+        return dish;
     }
 }
\ No newline at end of file
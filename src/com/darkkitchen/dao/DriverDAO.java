@@ -0,0 +1,163 @@
+package com.darkkitchen.dao;
+
+import com.darkkitchen.model.Driver;
+import com.darkkitchen.model.DriverPosition;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO para repartidores, sus posiciones y los puntos de recolección (coordenadas de las
+ * ubicaciones). Las asignaciones de repartidores a pedidos las decide DispatchService en
+ * memoria y se guardan con OrderDAO.assignDrivers; de las posiciones, TelemetryService
+ * guarda solo una muestra (el recorrido completo reciente vive en memoria).
+ */
+public class DriverDAO {
+
+    // Consultas revisadas también por QueryPlanAudit (bench)
+    static final String READ_ACTIVE = "SELECT * FROM Delivery_Driver WHERE active = 1";
+    static final String READ_LOCATIONS = "SELECT location_id, latitude, longitude FROM Location "
+        + "WHERE active = 1 AND latitude IS NOT NULL AND longitude IS NOT NULL";
+    static final String READ_POSITIONS = "SELECT * FROM Driver_Position WHERE driver_id = ? AND recorded_at >= ? AND recorded_at < ? "
+        + "ORDER BY recorded_at";
+    static final String READ_LAST_POSITION = "SELECT * FROM Driver_Position WHERE driver_id = ? ORDER BY recorded_at DESC LIMIT 1";
+
+    /**
+     * Obtener los repartidores activos
+     */
+    public List<Driver> readActiveDrivers() {
+        List<Driver> drivers = new ArrayList<>();
+        String sql = READ_ACTIVE;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                drivers.add(mapDriver(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener repartidores: " + e.getMessage());
+        }
+        return drivers;
+    }
+
+    /**
+     * Coordenadas de las ubicaciones activas que las tienen registradas
+     * @return {latitud, longitud} por ID de ubicación; vacío si hay error
+     */
+    public Map<Integer, double[]> readLocationPoints() {
+        Map<Integer, double[]> points = new HashMap<>();
+        String sql = READ_LOCATIONS;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                points.put(rs.getInt("location_id"),
+                    new double[] {rs.getDouble("latitude"), rs.getDouble("longitude")});
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener coordenadas de ubicaciones: " + e.getMessage());
+        }
+        return points;
+    }
+
+    /**
+     * Guardar posiciones en una sola transacción
+     * @return Posiciones guardadas y posiciones con error (repartidor inexistente o posición repetida)
+     */
+    public BatchResult<DriverPosition> insertPositions(Collection<DriverPosition> positions) {
+        String sql = "INSERT IGNORE INTO Driver_Position (driver_id, recorded_at, latitude, longitude) VALUES (?, ?, ?, ?)";
+
+        return BatchWriter.write(sql, positions, BatchWriter.DEFAULT_CHUNK_SIZE,
+            (stmt, position) -> {
+                stmt.setInt(1, position.getDriverId());
+                stmt.setTimestamp(2, new Timestamp(position.getTimeMillis()));
+                stmt.setDouble(3, position.getLatitude());
+                stmt.setDouble(4, position.getLongitude());
+            },
+            null);
+    }
+
+    /**
+     * Obtener las posiciones guardadas de un repartidor en un rango de tiempo
+     * @param fromMillis Desde (incluido)
+     * @param toMillis Hasta (sin incluir)
+     * @return Posiciones de la más antigua a la más nueva; lista vacía si hay error
+     */
+    public List<DriverPosition> readPositions(int driverId, long fromMillis, long toMillis) {
+        List<DriverPosition> positions = new ArrayList<>();
+        String sql = READ_POSITIONS;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, driverId);
+            stmt.setTimestamp(2, new Timestamp(fromMillis));
+            stmt.setTimestamp(3, new Timestamp(toMillis));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    positions.add(mapPosition(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener posiciones del repartidor: " + e.getMessage());
+        }
+        return positions;
+    }
+
+    /**
+     * Obtener la última posición guardada de un repartidor
+     * @return Posición encontrada o null
+     */
+    public DriverPosition readLastPosition(int driverId) {
+        String sql = READ_LAST_POSITION;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, driverId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapPosition(rs);
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener posición del repartidor: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private static DriverPosition mapPosition(ResultSet rs) throws SQLException {
+        return new DriverPosition(
+            rs.getInt("driver_id"),
+            rs.getTimestamp("recorded_at").getTime(),
+            rs.getDouble("latitude"),
+            rs.getDouble("longitude")
+        );
+    }
+
+    static Driver mapDriver(ResultSet rs) throws SQLException {
+        Driver driver = new Driver();
+        driver.setDriverId(rs.getInt("driver_id"));
+        driver.setPlatformId(rs.getInt("platform_id"));
+        driver.setFullName(rs.getString("full_name"));
+        driver.setExternalId(rs.getString("external_id"));
+        driver.setPhone(rs.getString("phone"));
+        String vehicle = rs.getString("vehicle_type");
+        driver.setVehicleType(vehicle != null ? Driver.VehicleType.valueOf(vehicle) : Driver.VehicleType.MOTORCYCLE);
+        driver.setRating(rs.getBigDecimal("rating"));
+        driver.setTotalDeliveries(rs.getInt("total_deliveries"));
+        driver.setActive(rs.getBoolean("active"));
+        return driver;
+    }
+}
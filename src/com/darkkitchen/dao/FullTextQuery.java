@@ -0,0 +1,94 @@
+package com.darkkitchen.dao;
+
+import com.darkkitchen.search.TextNormalizer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Utilidades para las búsquedas con MATCH ... AGAINST sobre índices FULLTEXT con parser ngram
+ */
+final class FullTextQuery {
+
+    // ngram_token_size por defecto de MySQL: palabras más cortas no están en el índice
+    static final int MIN_TOKEN_LENGTH = 2;
+
+    // Candidatos leídos por consulta al filtrar por prefijo de palabra
+    private static final int CHUNK_SIZE = 200;
+
+    // ER_FT_MATCHING_KEY_NOT_FOUND y ER_TABLE_CANT_HANDLE_FT
+    private static final int MISSING_INDEX = 1191;
+    private static final int ENGINE_WITHOUT_FULLTEXT = 1214;
+
+    private FullTextQuery() {
+    }
+
+    /**
+     * Convierte el término en una consulta booleana donde cada palabra es obligatoria
+     * y se busca como frase de n-gramas (equivale a "contiene" pero usando el índice).
+     * @return null si ninguna palabra alcanza el tamaño mínimo del índice
+     */
+    static String booleanQuery(String term) {
+        List<String> tokens = TextNormalizer.tokens(term);
+        StringBuilder query = new StringBuilder();
+        for (String token : tokens) {
+            if (token.length() >= MIN_TOKEN_LENGTH) {
+                query.append("+\"").append(token).append("\" ");
+            }
+        }
+        return query.length() == 0 ? null : query.toString().trim();
+    }
+
+    /**
+     * Patrón LIKE de "contiene" (términos de un carácter y respaldo cuando no existe el índice FULLTEXT)
+     */
+    static String likeContains(String term) {
+        return "%" + escapeLike(term.trim()) + "%";
+    }
+
+    /**
+     * Lee los candidatos de la sentencia por bloques y conserva, en su orden, los que cumplen
+     * TextNormalizer.matchesWordPrefixes, igual que SearchIndex. El índice ngram y LIKE solo
+     * garantizan que el nombre contiene cada palabra, así que se siguen leyendo bloques hasta
+     * juntar limit coincidencias o agotar los candidatos.
+     * @param limitIndex Posición del parámetro de LIMIT ? OFFSET ? (los anteriores ya asignados)
+     */
+    static <T> List<T> collectMatches(PreparedStatement stmt, int limitIndex, String term, int limit,
+                                      RowMapper<T> mapper, Function<T, String> text) throws SQLException {
+        List<String> terms = TextNormalizer.tokens(term);
+        List<T> matches = new ArrayList<>();
+        int chunk = Math.max(CHUNK_SIZE, limit);
+        for (int offset = 0; matches.size() < limit; offset += chunk) {
+            stmt.setInt(limitIndex, chunk);
+            stmt.setInt(limitIndex + 1, offset);
+            int read = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (matches.size() < limit && rs.next()) {
+                    read++;
+                    T row = mapper.map(rs);
+                    if (TextNormalizer.matchesWordPrefixes(text.apply(row), terms)) {
+                        matches.add(row);
+                    }
+                }
+            }
+            if (read < chunk) {
+                break;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * true si el error se debe a que la tabla no tiene el índice FULLTEXT
+     */
+    static boolean isMissingIndex(SQLException e) {
+        return e.getErrorCode() == MISSING_INDEX || e.getErrorCode() == ENGINE_WITHOUT_FULLTEXT;
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
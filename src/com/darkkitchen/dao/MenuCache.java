@@ -0,0 +1,346 @@
+package com.darkkitchen.dao;
+
+import com.darkkitchen.model.Category;
+import com.darkkitchen.model.Dish;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caché de lectura del menú (platillos y categorías) delante de DishDAO y CategoryDAO.
+ * Mantiene índices por ID y por categoría, expira por TTL, limita el número de
+ * platillos por ID y se invalida desde las operaciones create/update/delete de los DAOs.
+ * Los platillos que entrega son copias: los cacheados nunca salen de la caché.
+ */
+public class MenuCache {
+
+    private static final long DEFAULT_TTL_MS = 5 * 60_000;
+    private static final int DEFAULT_MAX_ENTRIES = 5_000;
+
+    // Instancia singleton
+    private static class Holder {
+        private static final MenuCache INSTANCE = new MenuCache(DEFAULT_TTL_MS, DEFAULT_MAX_ENTRIES);
+    }
+
+    private final DishDAO dishDAO = new DishDAO();
+    private final CategoryDAO categoryDAO = new CategoryDAO();
+
+    private volatile long ttlMillis;
+    private final int maxEntries;
+
+    // Menú activo completo con índice por categoría
+    private volatile DishSnapshot dishSnapshot;
+    // Categorías activas
+    private volatile CategorySnapshot categorySnapshot;
+    // Platillos por ID (LRU acotado); incluye platillos inactivos leídos individualmente
+    private final LinkedHashMap<Integer, Entry> byId;
+
+    // Versiones para descartar cargas que se cruzaron con una invalidación
+    private long dishVersion = 0;
+    private long categoryVersion = 0;
+    // Una sola carga del menú a la vez, fuera del monitor de la caché
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final AtomicLong snapshotSeq = new AtomicLong();
+
+    // Estadísticas
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    MenuCache(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.byId = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > MenuCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Obtiene la instancia singleton de MenuCache
+     */
+    public static MenuCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Obtener copias de todos los platillos activos (mismo orden que DishDAO.readAll)
+     */
+    public List<Dish> getAllDishes() {
+        return copy(dishes().dishes);
+    }
+
+    /**
+     * Obtener copias de los platillos activos de una categoría
+     */
+    public List<Dish> getDishesByCategory(int categoryId) {
+        List<Dish> dishes = dishes().byCategory.get(categoryId);
+        return dishes != null ? copy(dishes) : new ArrayList<>();
+    }
+
+    /**
+     * Número de la carga del menú vigente; cambia cada vez que la caché vuelve a leer los
+     * platillos (para reconstruir índices derivados sin comparar listas)
+     */
+    public long getMenuStamp() {
+        return dishes().stamp;
+    }
+
+    /**
+     * Precio de un platillo activo sin copiar el platillo (ruta de alta de pedidos)
+     * @return Precio, o null si el platillo no existe o no está activo
+     */
+    public BigDecimal getActivePrice(int dishId) {
+        Dish dish = dishes().activeById.get(dishId);
+        return dish != null ? dish.getPrice() : null;
+    }
+
+    /**
+     * Obtener una copia del platillo por ID (la copia puede modificarse libremente)
+     */
+    public Dish getDish(int dishId) {
+        long now = System.currentTimeMillis();
+        long version;
+        synchronized (this) {
+            Entry entry = byId.get(dishId);
+            if (entry != null && now - entry.loadedAt < ttlMillis) {
+                hits.incrementAndGet();
+                return new Dish(entry.dish);
+            }
+            version = dishVersion;
+        }
+
+        misses.incrementAndGet();
+        long start = System.nanoTime();
+        Dish dish = dishDAO.readById(dishId);
+        recordLoad(start);
+
+        if (dish != null) {
+            synchronized (this) {
+                if (version == dishVersion) {
+                    byId.put(dishId, new Entry(dish, now));
+                }
+            }
+            return new Dish(dish);
+        }
+        return null;
+    }
+
+    /**
+     * Obtener todas las categorías activas
+     */
+    public List<Category> getCategories() {
+        CategorySnapshot snapshot = categorySnapshot;
+        if (snapshot != null && System.currentTimeMillis() - snapshot.loadedAt < ttlMillis) {
+            hits.incrementAndGet();
+            return snapshot.categories;
+        }
+        return loadCategories();
+    }
+
+    /**
+     * Invalida un platillo y el menú completo (tras create/update/delete de Dish)
+     */
+    public synchronized void invalidateDish(int dishId) {
+        byId.remove(dishId);
+        dishSnapshot = null;
+        dishVersion++;
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Invalida todo el contenido (tras cambios en Category, que afectan los platillos)
+     */
+    public synchronized void invalidateAll() {
+        byId.clear();
+        dishSnapshot = null;
+        categorySnapshot = null;
+        dishVersion++;
+        categoryVersion++;
+        invalidations.incrementAndGet();
+    }
+
+    private DishSnapshot dishes() {
+        DishSnapshot snapshot = dishSnapshot;
+        if (snapshot != null && System.currentTimeMillis() - snapshot.loadedAt < ttlMillis) {
+            hits.incrementAndGet();
+            return snapshot;
+        }
+        return loadDishes();
+    }
+
+    // Una sola carga a la vez y fuera del monitor: aciertos e invalidaciones no esperan a la
+    // consulta. Si otro hilo ya está cargando y hay un menú vencido, se sigue usando ese.
+    private DishSnapshot loadDishes() {
+        DishSnapshot stale = dishSnapshot;
+        if (stale != null && !loadLock.tryLock()) {
+            return stale;
+        }
+        if (stale == null) {
+            loadLock.lock();
+        }
+        try {
+            long now = System.currentTimeMillis();
+            long version;
+            synchronized (this) {
+                if (dishSnapshot != null && now - dishSnapshot.loadedAt < ttlMillis) {
+                    hits.incrementAndGet();
+                    return dishSnapshot;
+                }
+                version = dishVersion;
+            }
+
+            misses.incrementAndGet();
+            long start = System.nanoTime();
+            List<Dish> dishes = dishDAO.readAll();
+            recordLoad(start);
+
+            Map<Integer, List<Dish>> byCategory = new LinkedHashMap<>();
+            Map<Integer, Dish> activeById = new HashMap<>(dishes.size() * 2);
+            for (Dish dish : dishes) {
+                activeById.put(dish.getDishId(), dish);
+                byCategory.computeIfAbsent(dish.getCategoryId(), k -> new ArrayList<>()).add(dish);
+            }
+            // readAll ordena por categoría y nombre, así que cada lista ya queda ordenada por nombre
+            for (Map.Entry<Integer, List<Dish>> e : byCategory.entrySet()) {
+                e.setValue(Collections.unmodifiableList(e.getValue()));
+            }
+
+            DishSnapshot snapshot = new DishSnapshot(Collections.unmodifiableList(dishes), byCategory, activeById,
+                now, snapshotSeq.incrementAndGet());
+            synchronized (this) {
+                // Un menú vacío también se guarda (con el mismo TTL) para no consultar en cada cotización.
+                // Si hubo una invalidación durante la consulta, el resultado solo sirve a este hilo.
+                if (version == dishVersion) {
+                    dishSnapshot = snapshot;
+                    for (Dish dish : dishes) {
+                        byId.put(dish.getDishId(), new Entry(dish, now));
+                    }
+                }
+            }
+            return snapshot;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private List<Category> loadCategories() {
+        long version;
+        synchronized (this) {
+            version = categoryVersion;
+        }
+
+        misses.incrementAndGet();
+        long start = System.nanoTime();
+        List<Category> categories = Collections.unmodifiableList(categoryDAO.readAll());
+        recordLoad(start);
+
+        synchronized (this) {
+            if (version == categoryVersion) {
+                categorySnapshot = new CategorySnapshot(categories, System.currentTimeMillis());
+            }
+        }
+        return categories;
+    }
+
+    private static List<Dish> copy(List<Dish> dishes) {
+        List<Dish> copies = new ArrayList<>(dishes.size());
+        for (Dish dish : dishes) {
+            copies.add(new Dish(dish));
+        }
+        return copies;
+    }
+
+    private void recordLoad(long startNanos) {
+        loads.incrementAndGet();
+        loadNanos.addAndGet(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Cambia el tiempo de vida de las entradas
+     */
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : h / (double) total;
+    }
+
+    public double getAverageLoadMillis() {
+        long count = loads.get();
+        return count == 0 ? 0.0 : loadNanos.get() / (double) count / 1_000_000.0;
+    }
+
+    /**
+     * Resumen de estadísticas de la caché
+     */
+    public String getStats() {
+        int size;
+        synchronized (this) {
+            size = byId.size();
+        }
+        return String.format(
+            "Menú: %d platillos | aciertos %d | fallos %d | tasa %.1f%% | cargas %d (prom %.2f ms) | "
+            + "expulsiones %d | invalidaciones %d",
+            size, hits.get(), misses.get(), getHitRatio() * 100, loads.get(), getAverageLoadMillis(),
+            evictions.get(), invalidations.get());
+    }
+
+    // Platillo cacheado por ID
+    private static class Entry {
+        final Dish dish;
+        final long loadedAt;
+
+        Entry(Dish dish, long loadedAt) {
+            this.dish = dish;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    // Menú activo completo cargado de una sola vez
+    private static class DishSnapshot {
+        final List<Dish> dishes;
+        final Map<Integer, List<Dish>> byCategory;
+        final Map<Integer, Dish> activeById;
+        final long loadedAt;
+        final long stamp;
+
+        DishSnapshot(List<Dish> dishes, Map<Integer, List<Dish>> byCategory,
+                     Map<Integer, Dish> activeById, long loadedAt, long stamp) {
+            this.dishes = dishes;
+            this.byCategory = byCategory;
+            this.activeById = activeById;
+            this.loadedAt = loadedAt;
+            this.stamp = stamp;
+        }
+    }
+
+    // Categorías activas cargadas de una sola vez
+    private static class CategorySnapshot {
+        final List<Category> categories;
+        final long loadedAt;
+
+        CategorySnapshot(List<Category> categories, long loadedAt) {
+            this.categories = categories;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,682 @@
+package com.darkkitchen.dao;
+
+import com.darkkitchen.model.Order;
+import com.darkkitchen.model.OrderItem;
+import com.darkkitchen.model.OrderStatus;
+import com.darkkitchen.model.Payment;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DAO (Data Access Object) para pedidos con sus artículos y pagos.
+ * Las validaciones y los totales los calcula el servicio de pedidos; aquí solo se escribe.
+ */
+public class OrderDAO {
+
+    private static final String INSERT_ORDER = """
+        INSERT INTO `Order` (platform_id, location_id, customer_id, subtotal, tax_amount,
+                             tax_rate, delivery_fee, total_amount, special_instructions)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+    private static final String INSERT_ITEM =
+        "INSERT INTO Order_Item (order_id, dish_id, quantity, unit_price, special_requests) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_PAYMENT = """
+        INSERT INTO Payment (order_id, method, amount, authorized, reference, transaction_id, currency, status)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+    static final String ADD_CUSTOMER_ORDERS =
+        "UPDATE Customer SET total_orders = total_orders + ? WHERE customer_id = ?";
+
+    private static final String INSERT_ORDER_PROMOTION =
+        "INSERT INTO Order_Promotion (order_id, promotion_id, discount_amount) VALUES (?, ?, ?)";
+    // Sin pasar de usage_limit: si no actualiza la fila, la promoción ya no tiene usos disponibles
+    static final String ADD_PROMOTION_USES = """
+        UPDATE Promotion SET used_count = used_count + ?
+        WHERE promotion_id = ? AND (usage_limit IS NULL OR used_count + ? <= usage_limit)
+        """;
+
+    // Subtotal de cada pedido de un rango calculado desde sus artículos
+    private static final String ITEM_TOTALS = """
+        SELECT order_id, SUM(subtotal) AS items_subtotal
+        FROM Order_Item
+        WHERE order_id BETWEEN ? AND ?
+        GROUP BY order_id
+        """;
+    // Descuento sobre los platillos (el envío gratis no reduce la base del impuesto)
+    private static final String ITEM_DISCOUNTS = """
+        SELECT op.order_id, SUM(op.discount_amount) AS items_discount
+        FROM Order_Promotion op
+        INNER JOIN Promotion p ON p.promotion_id = op.promotion_id AND p.type <> 'FREE_DELIVERY'
+        WHERE op.order_id BETWEEN ? AND ?
+        GROUP BY op.order_id
+        """;
+    private static final String RANGE_JOINS = """
+        INNER JOIN (""" + ITEM_TOTALS + """
+        ) t ON t.order_id = o.order_id
+        LEFT JOIN (""" + ITEM_DISCOUNTS + """
+        ) d ON d.order_id = o.order_id
+        """;
+    private static final String NET = "(t.items_subtotal - COALESCE(d.items_discount, 0))";
+    // Con la tasa guardada en el pedido al cobrarlo; la regla vigente (misma prioridad que
+    // PricingEngine: ubicación y plataforma, ubicación, plataforma, general) solo si no tiene
+    private static final String TAX = """
+        ROUND((t.items_subtotal - COALESCE(d.items_discount, 0)) * COALESCE(o.tax_rate,
+            (SELECT r.tax_rate FROM Pricing_Rule r
+             WHERE r.active = 1 AND r.location_id IN (o.location_id, 0) AND r.platform_id IN (o.platform_id, 0)
+             ORDER BY r.location_id <> 0 DESC, r.platform_id <> 0 DESC
+             LIMIT 1), 16.00) / 100, 2)""";
+    // <=> compara también NULL (pedidos antiguos sin totales)
+    private static final String TOTALS_DIFFER =
+        "NOT (o.subtotal <=> t.items_subtotal AND o.tax_amount <=> " + TAX
+        + " AND o.total_amount <=> " + NET + " + " + TAX + " + COALESCE(o.delivery_fee, 25.00))";
+
+    // Consultas revisadas también por QueryPlanAudit (bench)
+    static final String RECOMPUTE_TOTALS = "UPDATE `Order` o\n" + RANGE_JOINS
+        + "SET o.subtotal = t.items_subtotal,\n"
+        + "    o.tax_amount = " + TAX + ",\n"
+        + "    o.total_amount = " + NET + " + " + TAX + " + COALESCE(o.delivery_fee, 25.00)\n"
+        + "WHERE o.order_id BETWEEN ? AND ?\n"
+        + "  AND " + TOTALS_DIFFER;
+    static final String COUNT_TOTAL_MISMATCHES = "SELECT COUNT(*)\nFROM `Order` o\n" + RANGE_JOINS
+        + "WHERE o.order_id BETWEEN ? AND ?\n"
+        + "  AND " + TOTALS_DIFFER;
+    static final String READ_BY_ID = "SELECT * FROM `Order` WHERE order_id = ?";
+    private static final String OPEN = "WHERE o.status IN ('CREATED', 'ACCEPTED', 'PREPARING')";
+    static final String READ_OPEN_ORDERS = "SELECT o.* FROM `Order` o " + OPEN + " ORDER BY o.order_id";
+    static final String READ_OPEN_ITEMS = "SELECT oi.* FROM Order_Item oi INNER JOIN `Order` o ON o.order_id = oi.order_id "
+        + OPEN + " ORDER BY oi.order_id, oi.order_item_id";
+    private static final String DELIVERED_SINCE = "WHERE o.status = 'DELIVERED' AND o.actual_delivery_time >= ? AND o.ready_at IS NOT NULL";
+    static final String READ_DELIVERED_ORDERS = "SELECT o.* FROM `Order` o " + DELIVERED_SINCE + " ORDER BY o.order_id";
+    static final String READ_DELIVERED_ITEMS = "SELECT oi.* FROM Order_Item oi INNER JOIN `Order` o ON o.order_id = oi.order_id "
+        + DELIVERED_SINCE + " ORDER BY oi.order_id, oi.order_item_id";
+    static final String UPDATE_ESTIMATED_TIME = "UPDATE `Order` SET estimated_delivery_time = ? "
+        + "WHERE order_id = ? AND status NOT IN ('DELIVERED', 'CANCELLED')";
+    static final String UPDATE_STATUS = "UPDATE `Order` SET status = ? WHERE order_id = ? AND status NOT IN ('DELIVERED', 'CANCELLED')";
+    static final String UPDATE_STATUS_ALL = """
+        UPDATE `Order`
+        SET status = ?,
+            actual_delivery_time = CASE WHEN ? = 'DELIVERED' THEN NOW() ELSE actual_delivery_time END
+        WHERE order_id = ? AND status NOT IN ('DELIVERED', 'CANCELLED')
+        """;
+    static final String READ_READY_UNASSIGNED = "SELECT * FROM `Order` WHERE status = 'READY' AND driver_id IS NULL ORDER BY order_id";
+    static final String ASSIGN_DRIVER = "UPDATE `Order` SET driver_id = ? WHERE order_id = ? AND status = 'READY' AND driver_id IS NULL";
+    static final String READ_ITEMS = "SELECT * FROM Order_Item WHERE order_id = ? ORDER BY order_item_id";
+    static final String READ_PAYMENT = "SELECT * FROM Payment WHERE order_id = ? ORDER BY payment_id LIMIT 1";
+
+    /**
+     * Guardar un pedido completo (pedido, artículos y pago) en una transacción
+     * @return true si se guardó; el pedido queda con su ID
+     */
+    public boolean create(Order order) {
+        return !createAll(Collections.singletonList(order)).hasFailures();
+    }
+
+    /**
+     * Guardar varios pedidos completos en una sola transacción.
+     * Cada tabla se escribe con un solo lote (con rewriteBatchedStatements, un INSERT de
+     * varias filas). Si el grupo falla se reintenta pedido por pedido con savepoints para
+     * guardar los válidos y reportar solo los que fallan.
+     * @return Pedidos guardados (con sus IDs) y pedidos con error
+     */
+    public BatchResult<Order> createAll(List<Order> orders) {
+        long start = System.currentTimeMillis();
+        BatchResult<Order> result = new BatchResult<>();
+        if (orders.isEmpty()) {
+            return result;
+        }
+
+        List<Order> saved = new ArrayList<>(orders.size());
+        boolean[] failed = new boolean[orders.size()];
+
+        // Al regresar la conexión al pool se deshace lo no confirmado y se restaura autocommit
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try {
+                insertGroup(conn, orders);
+                saved.addAll(orders);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                if (orders.size() == 1) {
+                    failed[0] = true;
+                    result.addFailure(0, orders.get(0), e.getMessage());
+                } else {
+                    insertOneByOne(conn, orders, saved, failed, result);
+                }
+            }
+
+            conn.commit();
+            ChangeBus changes = ChangeBus.getInstance();
+            for (Order order : saved) {
+                result.addSuccess(order);
+                changes.publish(ChangeEvent.Entity.ORDER, ChangeEvent.Type.INSERT, order.getOrderId());
+            }
+
+        } catch (SQLException e) {
+            // Falló la conexión o el commit: ningún pedido quedó guardado
+            System.err.println("❌ Error al guardar pedidos: " + e.getMessage());
+            result.setBatchError(e.getMessage());
+            for (int i = 0; i < orders.size(); i++) {
+                if (!failed[i]) {
+                    result.addFailure(i, orders.get(i), e.getMessage());
+                }
+            }
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private static void insertOneByOne(Connection conn, List<Order> orders, List<Order> saved,
+                                       boolean[] failed, BatchResult<Order> result) throws SQLException {
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                insertGroup(conn, Collections.singletonList(order));
+                saved.add(order);
+                conn.releaseSavepoint(savepoint);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback(savepoint);
+                order.setOrderId(0);
+                failed[i] = true;
+                result.addFailure(i, order, e.getMessage());
+            }
+        }
+    }
+
+    // Escribe los pedidos, sus artículos, sus pagos y el contador de pedidos de cada cliente
+    private static void insertGroup(Connection conn, List<Order> orders) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_ORDER, Statement.RETURN_GENERATED_KEYS)) {
+            for (Order order : orders) {
+                stmt.setInt(1, order.getPlatformId());
+                stmt.setInt(2, order.getLocationId());
+                stmt.setInt(3, order.getCustomerId());
+                stmt.setBigDecimal(4, order.getSubtotal());
+                stmt.setBigDecimal(5, order.getTaxAmount());
+                stmt.setBigDecimal(6, order.getTaxRate());
+                stmt.setBigDecimal(7, order.getDeliveryFee());
+                stmt.setBigDecimal(8, order.getTotalAmount());
+                stmt.setString(9, order.getSpecialInstructions());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            // Las llaves llegan en el mismo orden que las filas del lote
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (Order order : orders) {
+                    if (!keys.next()) {
+                        throw new SQLException("No se recibieron todos los IDs de pedido");
+                    }
+                    order.setOrderId(keys.getInt(1));
+                }
+            }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_ITEM)) {
+            for (Order order : orders) {
+                for (OrderItem item : order.getItems()) {
+                    stmt.setInt(1, order.getOrderId());
+                    stmt.setInt(2, item.getDishId());
+                    stmt.setInt(3, item.getQuantity());
+                    stmt.setBigDecimal(4, item.getUnitPrice());
+                    stmt.setString(5, item.getSpecialRequests());
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+
+        boolean anyPayment = false;
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_PAYMENT)) {
+            for (Order order : orders) {
+                Payment payment = order.getPayment();
+                if (payment == null) {
+                    continue;
+                }
+                stmt.setInt(1, order.getOrderId());
+                stmt.setString(2, payment.getMethod().name());
+                stmt.setBigDecimal(3, payment.getAmount());
+                stmt.setBoolean(4, payment.isAuthorized());
+                stmt.setString(5, payment.getReference());
+                stmt.setString(6, payment.getTransactionId());
+                stmt.setString(7, payment.getCurrency());
+                stmt.setString(8, payment.getStatus());
+                stmt.addBatch();
+                anyPayment = true;
+            }
+            if (anyPayment) {
+                stmt.executeBatch();
+            }
+        }
+
+        insertPromotions(conn, orders);
+
+        // Un UPDATE por cliente, en orden de ID para que dos grupos no se bloqueen mutuamente
+        Map<Integer, Integer> perCustomer = new TreeMap<>();
+        for (Order order : orders) {
+            perCustomer.merge(order.getCustomerId(), 1, Integer::sum);
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(ADD_CUSTOMER_ORDERS)) {
+            for (Map.Entry<Integer, Integer> e : perCustomer.entrySet()) {
+                stmt.setInt(1, e.getValue());
+                stmt.setInt(2, e.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // Promociones aplicadas y sus usos; falla el grupo si alguna ya no tiene usos disponibles.
+    // Los usos ya apartados en PromotionQuota están contados en used_count y no se vuelven a sumar.
+    private static void insertPromotions(Connection conn, List<Order> orders) throws SQLException {
+        Map<Integer, Integer> perPromotion = new TreeMap<>();
+        int rows = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_ORDER_PROMOTION)) {
+            for (Order order : orders) {
+                if (order.getPromotionId() == 0) {
+                    continue;
+                }
+                stmt.setInt(1, order.getOrderId());
+                stmt.setInt(2, order.getPromotionId());
+                stmt.setBigDecimal(3, order.getDiscountAmount());
+                stmt.addBatch();
+                rows++;
+                if (!order.isPromotionReserved()) {
+                    perPromotion.merge(order.getPromotionId(), 1, Integer::sum);
+                }
+            }
+            if (rows == 0) {
+                return;
+            }
+            stmt.executeBatch();
+        }
+        if (perPromotion.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(ADD_PROMOTION_USES)) {
+            for (Map.Entry<Integer, Integer> e : perPromotion.entrySet()) {
+                stmt.setInt(1, e.getValue());
+                stmt.setInt(2, e.getKey());
+                stmt.setInt(3, e.getValue());
+                stmt.addBatch();
+            }
+            int[] counts = stmt.executeBatch();
+            int i = 0;
+            for (Integer promotionId : perPromotion.keySet()) {
+                if (counts[i++] == 0) {
+                    throw new SQLException("La promoción " + promotionId + " ya alcanzó su límite de usos");
+                }
+            }
+        }
+    }
+
+    /**
+     * Rango de IDs de pedidos
+     * @return {mínimo, máximo}, o null si no hay pedidos o hay error
+     */
+    public int[] readIdRange() {
+        String sql = "SELECT MIN(order_id), MAX(order_id) FROM `Order`";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (rs.next()) {
+                int min = rs.getInt(1);
+                return rs.wasNull() ? null : new int[] {min, rs.getInt(2)};
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener rango de pedidos: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Recalcular subtotal, impuesto y total de los pedidos con ID entre fromId y toId a partir
+     * de sus artículos, su descuento y la tasa de impuesto con la que se cobró (tax_rate), con
+     * una sola sentencia para todo el rango. Solo se reescriben los pedidos cuyos totales no
+     * coinciden; la tarifa de envío guardada se respeta y un cambio de Pricing_Rule no los toca.
+     * @return Pedidos corregidos, o -1 si hay error
+     */
+    public int recomputeTotals(int fromId, int toId) {
+        String sql = RECOMPUTE_TOTALS;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            bindRecompute(stmt, fromId, toId);
+            return stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al recalcular totales de pedidos: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Contar los pedidos del rango cuyos totales no coinciden con sus artículos (sin modificarlos)
+     * @return Pedidos con diferencias, o -1 si hay error
+     */
+    public int countTotalMismatches(int fromId, int toId) {
+        String sql = COUNT_TOTAL_MISMATCHES;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            bindRecompute(stmt, fromId, toId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al verificar totales de pedidos: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    // Parámetros: rango de artículos, rango de descuentos, rango de pedidos
+    private static void bindRecompute(PreparedStatement stmt, int fromId, int toId) throws SQLException {
+        for (int i = 1; i <= 6; i += 2) {
+            stmt.setInt(i, fromId);
+            stmt.setInt(i + 1, toId);
+        }
+    }
+
+    /**
+     * Obtener un pedido por ID con sus artículos y su pago
+     * @return Pedido encontrado o null
+     */
+    public Order readById(int orderId) {
+        String sql = READ_BY_ID;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, orderId);
+            Order order = null;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    order = mapOrder(rs);
+                }
+            }
+            if (order != null) {
+                readItems(conn, order);
+                readPayment(conn, order);
+            }
+            return order;
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener pedido por ID: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Obtener los pedidos abiertos (CREATED, ACCEPTED o PREPARING) con sus artículos,
+     * con una consulta para los pedidos y otra para todos sus artículos
+     * @return Pedidos ordenados por ID; lista vacía si hay error
+     */
+    public List<Order> readOpenOrders() {
+        String ordersSql = READ_OPEN_ORDERS;
+        String itemsSql = READ_OPEN_ITEMS;
+
+        Map<Integer, Order> byId = new LinkedHashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(ordersSql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Order order = mapOrder(rs);
+                    byId.put(order.getOrderId(), order);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(itemsSql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Order order = byId.get(rs.getInt("order_id"));
+                    // Un pedido que cambió de estado entre ambas consultas no aparece en la primera
+                    if (order != null) {
+                        order.getItems().add(mapItem(rs));
+                    }
+                }
+            }
+            return new ArrayList<>(byId.values());
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener pedidos abiertos: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Obtener los pedidos entregados desde una fecha que tienen sus tiempos de preparación y
+     * de entrega (preparing_at, ready_at y actual_delivery_time), con sus artículos
+     * @return Pedidos ordenados por ID; lista vacía si hay error
+     */
+    public List<Order> readDeliveredSince(Timestamp since) {
+        String ordersSql = READ_DELIVERED_ORDERS;
+        String itemsSql = READ_DELIVERED_ITEMS;
+
+        Map<Integer, Order> byId = new LinkedHashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(ordersSql)) {
+                stmt.setTimestamp(1, since);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Order order = mapOrder(rs);
+                        byId.put(order.getOrderId(), order);
+                    }
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(itemsSql)) {
+                stmt.setTimestamp(1, since);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Order order = byId.get(rs.getInt("order_id"));
+                        if (order != null) {
+                            order.getItems().add(mapItem(rs));
+                        }
+                    }
+                }
+            }
+            return new ArrayList<>(byId.values());
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener historial de entregas: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Guardar la hora estimada de entrega de varios pedidos abiertos en una sola transacción
+     * @param estimates Pares {pedido, hora estimada en milisegundos}
+     * @return Estimaciones guardadas y estimaciones con error (por ejemplo, pedido ya cerrado)
+     */
+    public BatchResult<long[]> updateEstimatedTimes(Collection<long[]> estimates) {
+        String sql = UPDATE_ESTIMATED_TIME;
+
+        BatchResult<long[]> result = BatchWriter.write(sql, estimates, BatchWriter.DEFAULT_CHUNK_SIZE,
+            (stmt, estimate) -> {
+                stmt.setTimestamp(1, new Timestamp(estimate[1]));
+                stmt.setInt(2, (int) estimate[0]);
+            },
+            null);
+        ChangeBus changes = ChangeBus.getInstance();
+        for (long[] estimate : result.getSucceeded()) {
+            changes.publish(ChangeEvent.Entity.ORDER, ChangeEvent.Type.UPDATE, (int) estimate[0]);
+        }
+        return result;
+    }
+
+    /**
+     * Cambiar el estado de un pedido que no esté entregado ni cancelado
+     * @return true si se actualizó
+     */
+    public boolean updateStatus(int orderId, OrderStatus status) {
+        String sql = UPDATE_STATUS;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, status.name());
+            stmt.setInt(2, orderId);
+            if (stmt.executeUpdate() > 0) {
+                ChangeBus.getInstance().publish(ChangeEvent.Entity.ORDER, ChangeEvent.Type.UPDATE, orderId);
+                return true;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al actualizar estado del pedido: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Cambiar el estado de varios pedidos en una sola transacción (mismas reglas que
+     * updateStatus; al entregarse se guarda también actual_delivery_time)
+     * @return Pedidos actualizados y pedidos con error (por ejemplo, ya cerrados en la base de datos)
+     */
+    public BatchResult<Order> updateStatusAll(Collection<Order> orders) {
+        String sql = UPDATE_STATUS_ALL;
+
+        BatchResult<Order> result = BatchWriter.write(sql, orders, BatchWriter.DEFAULT_CHUNK_SIZE,
+            (stmt, order) -> {
+                stmt.setString(1, order.getStatus().name());
+                stmt.setString(2, order.getStatus().name());
+                stmt.setInt(3, order.getOrderId());
+            },
+            null);
+        ChangeBus changes = ChangeBus.getInstance();
+        for (Order order : result.getSucceeded()) {
+            changes.publish(ChangeEvent.Entity.ORDER, ChangeEvent.Type.UPDATE, order.getOrderId());
+        }
+        return result;
+    }
+
+    /**
+     * Obtener los pedidos listos que todavía no tienen repartidor (sin artículos)
+     * @return Pedidos ordenados por ID; lista vacía si hay error
+     */
+    public List<Order> readUnassignedReady() {
+        String sql = READ_READY_UNASSIGNED;
+        List<Order> orders = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                orders.add(mapOrder(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener pedidos listos: " + e.getMessage());
+        }
+        return orders;
+    }
+
+    /**
+     * Asignar repartidores a pedidos listos en una sola transacción. Un pedido que ya tiene
+     * repartidor o que ya no está listo (por ejemplo, cancelado) se reporta con error.
+     * @param assignments Pares {pedido, repartidor}
+     */
+    public BatchResult<int[]> assignDrivers(Collection<int[]> assignments) {
+        String sql = ASSIGN_DRIVER;
+
+        BatchResult<int[]> result = BatchWriter.write(sql, assignments, BatchWriter.DEFAULT_CHUNK_SIZE,
+            (stmt, assignment) -> {
+                stmt.setInt(1, assignment[1]);
+                stmt.setInt(2, assignment[0]);
+            },
+            null);
+        ChangeBus changes = ChangeBus.getInstance();
+        for (int[] assignment : result.getSucceeded()) {
+            changes.publish(ChangeEvent.Entity.ORDER, ChangeEvent.Type.UPDATE, assignment[0]);
+        }
+        return result;
+    }
+
+    private static void readItems(Connection conn, Order order) throws SQLException {
+        String sql = READ_ITEMS;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, order.getOrderId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    order.getItems().add(mapItem(rs));
+                }
+            }
+        }
+    }
+
+    private static void readPayment(Connection conn, Order order) throws SQLException {
+        String sql = READ_PAYMENT;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, order.getOrderId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    order.setPayment(mapPayment(rs));
+                }
+            }
+        }
+    }
+
+    /**
+     * Mapear la fila actual del ResultSet a un pedido (sin artículos)
+     */
+    static Order mapOrder(ResultSet rs) throws SQLException {
+        Order order = new Order();
+        order.setOrderId(rs.getInt("order_id"));
+        order.setPlatformId(rs.getInt("platform_id"));
+        order.setLocationId(rs.getInt("location_id"));
+        order.setCustomerId(rs.getInt("customer_id"));
+        int driverId = rs.getInt("driver_id");
+        order.setDriverId(rs.wasNull() ? null : driverId);
+        order.setOrderDatetime(rs.getTimestamp("order_datetime"));
+        order.setStatus(OrderStatus.valueOf(rs.getString("status")));
+        order.setSubtotal(rs.getBigDecimal("subtotal"));
+        order.setTaxAmount(rs.getBigDecimal("tax_amount"));
+        order.setTaxRate(rs.getBigDecimal("tax_rate"));
+        order.setDeliveryFee(rs.getBigDecimal("delivery_fee"));
+        order.setTotalAmount(rs.getBigDecimal("total_amount"));
+        order.setEstimatedDeliveryTime(rs.getTimestamp("estimated_delivery_time"));
+        order.setActualDeliveryTime(rs.getTimestamp("actual_delivery_time"));
+        order.setPreparingAt(rs.getTimestamp("preparing_at"));
+        order.setReadyAt(rs.getTimestamp("ready_at"));
+        order.setSpecialInstructions(rs.getString("special_instructions"));
+        return order;
+    }
+
+    static OrderItem mapItem(ResultSet rs) throws SQLException {
+        OrderItem item = new OrderItem();
+        item.setOrderItemId(rs.getInt("order_item_id"));
+        item.setOrderId(rs.getInt("order_id"));
+        item.setDishId(rs.getInt("dish_id"));
+        item.setQuantity(rs.getInt("quantity"));
+        item.setUnitPrice(rs.getBigDecimal("unit_price"));
+        item.setSpecialRequests(rs.getString("special_requests"));
+        return item;
+    }
+
+    static Payment mapPayment(ResultSet rs) throws SQLException {
+        Payment payment = new Payment();
+        payment.setPaymentId(rs.getInt("payment_id"));
+        payment.setOrderId(rs.getInt("order_id"));
+        payment.setMethod(Payment.Method.valueOf(rs.getString("method")));
+        payment.setAmount(rs.getBigDecimal("amount"));
+        payment.setAuthorized(rs.getBoolean("authorized"));
+        payment.setReference(rs.getString("reference"));
+        payment.setTransactionId(rs.getString("transaction_id"));
+        payment.setCurrency(rs.getString("currency"));
+        payment.setStatus(rs.getString("status"));
+        return payment;
+    }
+}
@@ -0,0 +1,75 @@
+package com.darkkitchen.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados obtenida con paginación por llave (keyset).
+ * El token de continuación codifica las columnas de orden de la última fila
+ * y se pasa tal cual para pedir la página siguiente.
+ */
+public class Page<T> {
+
+    // Separador de las partes del token (no aparece en nombres ni IDs)
+    private static final char SEPARATOR = '\u0000';
+
+    private final List<T> items;
+    private final String nextToken;
+
+    public Page(List<T> items, String nextToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextToken = nextToken;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Token para pedir la página siguiente, o null si es la última
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    /**
+     * Codifica los valores de las columnas de orden en un token opaco
+     */
+    static String encodeToken(Object... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un token generado por encodeToken; la última parte es siempre un ID
+     * @return Partes del token, o null si el token no es válido (no es Base64, no tiene el
+     *         número esperado de partes o el ID no es un número)
+     */
+    static String[] decodeToken(String token, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+            if (parts.length == expectedParts) {
+                Integer.parseInt(parts[expectedParts - 1]);
+                return parts;
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException también es IllegalArgumentException
+        }
+        System.err.println("❌ Token de página inválido, se muestra la primera página: " + token);
+        return null;
+    }
+}
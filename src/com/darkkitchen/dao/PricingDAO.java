@@ -0,0 +1,148 @@
+package com.darkkitchen.dao;
+
+import com.darkkitchen.model.PricingRule;
+import com.darkkitchen.model.Promotion;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DAO (Data Access Object) para las reglas de precios y las promociones.
+ * Los cálculos los hace PricingEngine con estas tablas cargadas en memoria; aquí solo se
+ * leen y se apartan o devuelven bloques de usos de las promociones (PromotionQuota).
+ */
+public class PricingDAO {
+
+    // Consultas revisadas también por QueryPlanAudit (bench)
+    static final String READ_RULES = "SELECT location_id, platform_id, tax_rate, delivery_fee FROM Pricing_Rule WHERE active = 1";
+    static final String READ_PROMOTIONS = "SELECT * FROM Promotion WHERE active = 1 AND valid_until >= CURDATE()";
+    static final String LOCK_PROMOTION = "SELECT usage_limit, used_count FROM Promotion WHERE promotion_id = ? AND active = 1 FOR UPDATE";
+    static final String ADD_USES = "UPDATE Promotion SET used_count = used_count + ? WHERE promotion_id = ?";
+    static final String RELEASE_USES = "UPDATE Promotion SET used_count = used_count - LEAST(used_count, ?) WHERE promotion_id = ?";
+
+    /**
+     * Obtener las reglas de impuesto y envío activas
+     */
+    public List<PricingRule> readRules() {
+        List<PricingRule> rules = new ArrayList<>();
+        String sql = READ_RULES;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                rules.add(new PricingRule(
+                    rs.getInt("location_id"),
+                    rs.getInt("platform_id"),
+                    rs.getBigDecimal("tax_rate"),
+                    rs.getBigDecimal("delivery_fee")
+                ));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener reglas de precios: " + e.getMessage());
+        }
+        return rules;
+    }
+
+    /**
+     * Obtener las promociones activas cuya vigencia no ha terminado
+     */
+    public List<Promotion> readPromotions() {
+        List<Promotion> promotions = new ArrayList<>();
+        String sql = READ_PROMOTIONS;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                promotions.add(mapPromotion(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener promociones: " + e.getMessage());
+        }
+        return promotions;
+    }
+
+    /**
+     * Apartar usos de una promoción en una transacción corta: bloquea la fila, suma a
+     * used_count lo que se concede y confirma. Con pocos usos restantes concede solo una
+     * cuarta parte de lo que queda para que las demás terminales también alcancen.
+     * @return Usos concedidos (0 = ya no quedan o la promoción no está activa), o -1 si hay error
+     */
+    public int reserveUses(int promotionId, int wanted) {
+        String select = LOCK_PROMOTION;
+        String update = ADD_USES;
+
+        // Al regresar la conexión al pool se deshace lo no confirmado y se restaura autocommit
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            int granted;
+            try (PreparedStatement stmt = conn.prepareStatement(select)) {
+                stmt.setInt(1, promotionId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return 0;
+                    }
+                    long usageLimit = rs.getLong("usage_limit");
+                    boolean unlimited = rs.wasNull();
+                    long remaining = usageLimit - rs.getLong("used_count");
+                    granted = unlimited ? wanted : (int) Math.max(0, Math.min(wanted, (remaining + 3) / 4));
+                }
+            }
+
+            if (granted > 0) {
+                try (PreparedStatement stmt = conn.prepareStatement(update)) {
+                    stmt.setInt(1, granted);
+                    stmt.setInt(2, promotionId);
+                    stmt.executeUpdate();
+                }
+            }
+            conn.commit();
+            return granted;
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al apartar usos de la promoción: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Devolver usos apartados que no se usaron
+     */
+    public boolean returnUses(int promotionId, int count) {
+        String sql = RELEASE_USES;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, count);
+            stmt.setInt(2, promotionId);
+            return stmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al devolver usos de la promoción: " + e.getMessage());
+            return false;
+        }
+    }
+
+    static Promotion mapPromotion(ResultSet rs) throws SQLException {
+        Promotion promotion = new Promotion();
+        promotion.setPromotionId(rs.getInt("promotion_id"));
+        promotion.setType(Promotion.Type.valueOf(rs.getString("type")));
+        promotion.setValue(rs.getBigDecimal("value"));
+        promotion.setCode(rs.getString("code"));
+        promotion.setDescription(rs.getString("description"));
+        promotion.setValidFrom(rs.getDate("valid_from"));
+        promotion.setValidUntil(rs.getDate("valid_until"));
+        int usageLimit = rs.getInt("usage_limit");
+        promotion.setUsageLimit(rs.wasNull() ? null : usageLimit);
+        promotion.setUsedCount(rs.getInt("used_count"));
+        promotion.setActive(rs.getBoolean("active"));
+        return promotion;
+    }
+}
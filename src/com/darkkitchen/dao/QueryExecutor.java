@@ -0,0 +1,160 @@
+package com.darkkitchen.dao;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Ejecuta las llamadas a los DAOs fuera del Event Dispatch Thread.
+ * Usa un pool acotado de hilos y regresa CompletableFuture; permite cancelar
+ * consultas reemplazadas (búsquedas) y unir solicitudes duplicadas (recargas).
+ */
+public class QueryExecutor {
+
+    // No mayor que el pool de conexiones para no acumular hilos esperando conexión
+    private static final int WORKER_THREADS = 4;
+    private static final int QUEUE_CAPACITY = 256;
+
+    // Instancia singleton
+    private static class Holder {
+        private static final QueryExecutor INSTANCE = new QueryExecutor();
+    }
+
+    private final ThreadPoolExecutor pool;
+    // Tareas en curso por clave (para cancelar o unir)
+    private final Map<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final List<IntConsumer> activityListeners = new CopyOnWriteArrayList<>();
+
+    private QueryExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        pool = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "dk-query-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Obtiene la instancia singleton de QueryExecutor
+     */
+    public static QueryExecutor getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Ejecuta una tarea en segundo plano
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        activityChanged(pending.incrementAndGet());
+
+        Future<?> running;
+        try {
+            running = pool.submit(() -> {
+                if (result.isDone()) {
+                    return; // Cancelada antes de empezar
+                }
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IllegalStateException("Demasiadas consultas pendientes", e));
+            activityChanged(pending.decrementAndGet());
+            return result;
+        }
+
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                // Sin interrumpir: una consulta en curso termina y su resultado se descarta
+                running.cancel(false);
+            }
+            activityChanged(pending.decrementAndGet());
+        });
+        return result;
+    }
+
+    /**
+     * Ejecuta la tarea y cancela la anterior con la misma clave si aún no termina.
+     * Útil para búsquedas donde solo importa el último término.
+     */
+    public <T> CompletableFuture<T> latest(String key, Callable<T> task) {
+        CompletableFuture<T> result = submit(task);
+        CompletableFuture<?> previous = inFlight.put(key, result);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        result.whenComplete((value, error) -> inFlight.remove(key, result));
+        return result;
+    }
+
+    /**
+     * Si ya hay una tarea en curso con la misma clave, regresa esa misma;
+     * si no, ejecuta la nueva. Útil para recargas repetidas.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> coalesce(String key, Callable<T> task) {
+        while (true) {
+            CompletableFuture<?> current = inFlight.get(key);
+            if (current != null && !current.isDone()) {
+                return (CompletableFuture<T>) current;
+            }
+            CompletableFuture<T> placeholder = new CompletableFuture<>();
+            boolean claimed = current == null
+                    ? inFlight.putIfAbsent(key, placeholder) == null
+                    : inFlight.replace(key, current, placeholder);
+            if (!claimed) {
+                continue; // Otro hilo registró la tarea primero
+            }
+            submit(task).whenComplete((value, error) -> {
+                inFlight.remove(key, placeholder);
+                if (error != null) {
+                    placeholder.completeExceptionally(error);
+                } else {
+                    placeholder.complete(value);
+                }
+            });
+            return placeholder;
+        }
+    }
+
+    /**
+     * Registra un listener que recibe el número de tareas pendientes
+     * cada vez que cambia (se llama desde hilos de trabajo)
+     */
+    public void addActivityListener(IntConsumer listener) {
+        activityListeners.add(listener);
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Detiene el pool; las tareas en cola se descartan
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void activityChanged(int count) {
+        for (IntConsumer listener : activityListeners) {
+            listener.accept(count);
+        }
+    }
+}
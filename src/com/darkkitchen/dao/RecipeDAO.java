@@ -0,0 +1,204 @@
+package com.darkkitchen.dao;
+
+import com.darkkitchen.model.Ingredient;
+import com.darkkitchen.model.RecipeItem;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO para ingredientes y recetas. Los costos de los platillos los calcula
+ * ProfitabilityEngine y las existencias las descuenta InventoryService, ambos con estas
+ * tablas cargadas en memoria.
+ */
+public class RecipeDAO {
+
+    // Consultas revisadas también por QueryPlanAudit (bench)
+    static final String READ_INGREDIENTS = "SELECT ingredient_id, name, unit, cost_per_unit, supplier, active, stock_quantity, reorder_level FROM Ingredient";
+    static final String READ_RECIPES = "SELECT r.dish_id, r.ingredient_id, r.quantity, r.is_optional "
+        + "FROM Recipe r INNER JOIN Dish d ON d.dish_id = r.dish_id WHERE d.active = TRUE";
+    static final String DEPLETE = "UPDATE Ingredient SET stock_quantity = stock_quantity - ? WHERE ingredient_id = ? AND stock_quantity IS NOT NULL";
+    static final String RESTOCK = "UPDATE Ingredient SET stock_quantity = COALESCE(stock_quantity, 0) + ? WHERE ingredient_id = ?";
+    static final String UPDATE_COST = "UPDATE Ingredient SET cost_per_unit = ? WHERE ingredient_id = ?";
+
+    /**
+     * Obtener todos los ingredientes (activos e inactivos: las recetas pueden usar ambos)
+     */
+    public List<Ingredient> readIngredients() {
+        List<Ingredient> ingredients = new ArrayList<>();
+        String sql = READ_INGREDIENTS;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                Ingredient ingredient = new Ingredient(
+                    rs.getInt("ingredient_id"),
+                    rs.getString("name"),
+                    rs.getString("unit"),
+                    rs.getBigDecimal("cost_per_unit"),
+                    rs.getString("supplier"),
+                    rs.getBoolean("active")
+                );
+                ingredient.setStockQuantity(rs.getBigDecimal("stock_quantity"));
+                ingredient.setReorderLevel(rs.getBigDecimal("reorder_level"));
+                ingredients.add(ingredient);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener ingredientes: " + e.getMessage());
+        }
+        return ingredients;
+    }
+
+    /**
+     * Obtener los renglones de las recetas de los platillos activos
+     * (los dados de baja no se cuestan ni se agotan)
+     */
+    public List<RecipeItem> readRecipeItems() {
+        List<RecipeItem> items = new ArrayList<>();
+        String sql = READ_RECIPES;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                items.add(new RecipeItem(
+                    rs.getInt("dish_id"),
+                    rs.getInt("ingredient_id"),
+                    rs.getBigDecimal("quantity"),
+                    rs.getBoolean("is_optional")
+                ));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al obtener recetas: " + e.getMessage());
+        }
+        return items;
+    }
+
+    /**
+     * Costo por unidad actual de los ingredientes indicados
+     * @return Costo por ID (sin los que no existen), o null si hubo error
+     */
+    public Map<Integer, BigDecimal> readCosts(Collection<Integer> ingredientIds) {
+        return readColumn("cost_per_unit", ingredientIds);
+    }
+
+    /**
+     * Existencia actual de los ingredientes indicados
+     * @return Existencia por ID (null = sin control de existencias), o null si hubo error
+     */
+    public Map<Integer, BigDecimal> readStock(Collection<Integer> ingredientIds) {
+        return readColumn("stock_quantity", ingredientIds);
+    }
+
+    // Una columna de count ingredientes (readCosts, readStock)
+    static String readColumnSql(String column, int count) {
+        StringBuilder sql = new StringBuilder("SELECT ingredient_id, ").append(column)
+            .append(" FROM Ingredient WHERE ingredient_id IN (");
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+
+    // Una columna de varios ingredientes en una sola consulta
+    private Map<Integer, BigDecimal> readColumn(String column, Collection<Integer> ingredientIds) {
+        Map<Integer, BigDecimal> values = new HashMap<>();
+        if (ingredientIds.isEmpty()) {
+            return values;
+        }
+        String sql = readColumnSql(column, ingredientIds.size());
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            for (int ingredientId : ingredientIds) {
+                stmt.setInt(index++, ingredientId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    values.put(rs.getInt(1), rs.getBigDecimal(2));
+                }
+            }
+            return values;
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al leer " + column + " de ingredientes: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Descontar consumos de existencias en una sola transacción. Resta sobre el valor
+     * guardado, así que los consumos de varias terminales se suman sin pisarse.
+     * @param consumptions Pares {ID de ingrediente, cantidad en milésimas de unidad}
+     * @return Pares descontados y pares con error
+     */
+    public BatchResult<long[]> consumeStock(Collection<long[]> consumptions) {
+        String sql = DEPLETE;
+
+        return BatchWriter.write(sql, consumptions, BatchWriter.DEFAULT_CHUNK_SIZE,
+            (stmt, consumption) -> {
+                stmt.setBigDecimal(1, BigDecimal.valueOf(consumption[1], 3));
+                stmt.setInt(2, (int) consumption[0]);
+            },
+            null);
+    }
+
+    /**
+     * Sumar una entrada de mercancía a la existencia de un ingrediente
+     * (un ingrediente sin control de existencias empieza a tenerlo)
+     * @return true si se actualizó correctamente, false en caso contrario
+     */
+    public boolean addStock(int ingredientId, BigDecimal quantity) {
+        String sql = RESTOCK;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setBigDecimal(1, quantity);
+            stmt.setInt(2, ingredientId);
+            if (stmt.executeUpdate() > 0) {
+                System.out.println("✅ Entrada de " + quantity + " al ingrediente #" + ingredientId);
+                return true;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al registrar entrada de ingrediente: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Cambiar el costo por unidad de un ingrediente
+     * @return true si se actualizó correctamente, false en caso contrario
+     */
+    public boolean updateCost(int ingredientId, BigDecimal costPerUnit) {
+        String sql = UPDATE_COST;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setBigDecimal(1, costPerUnit);
+            stmt.setInt(2, ingredientId);
+            if (stmt.executeUpdate() > 0) {
+                ChangeBus.getInstance().publish(ChangeEvent.Entity.INGREDIENT, ChangeEvent.Type.UPDATE, ingredientId);
+                System.out.println("✅ Costo del ingrediente #" + ingredientId + " actualizado a $" + costPerUnit);
+                return true;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al actualizar costo del ingrediente: " + e.getMessage());
+        }
+        return false;
+    }
+}
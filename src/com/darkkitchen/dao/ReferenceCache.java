@@ -0,0 +1,222 @@
+package com.darkkitchen.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Datos de referencia para validar pedidos sin consultar la base de datos:
+ * plataformas, ubicaciones y clientes activos. Cada conjunto es un BitSet indexado
+ * por ID (un millón de clientes ocupa 125 KB), se recarga completo al expirar el TTL
+ * y CustomerDAO lo actualiza al crear, desactivar o eliminar clientes.
+ */
+public class ReferenceCache {
+
+    private static final long DEFAULT_TTL_MS = 5 * 60_000;
+    private static final int FETCH_SIZE = 10_000;
+
+    // Instancia singleton
+    private static class Holder {
+        private static final ReferenceCache INSTANCE = new ReferenceCache(DEFAULT_TTL_MS);
+    }
+
+    // Consultas revisadas también por QueryPlanAudit (bench)
+    static final String READ_PLATFORMS = "SELECT platform_id FROM Platform WHERE active = 1";
+    static final String READ_LOCATIONS = "SELECT location_id FROM Location WHERE active = 1";
+    static final String READ_CUSTOMERS = "SELECT customer_id FROM Customer WHERE active = 1";
+    static final String CUSTOMER_EXISTS = "SELECT 1 FROM Customer WHERE customer_id = ? AND active = 1";
+
+    private volatile long ttlMillis;
+
+    private final IdSet platforms = new IdSet(READ_PLATFORMS);
+    private final IdSet locations = new IdSet(READ_LOCATIONS);
+    private final IdSet customers = new IdSet(READ_CUSTOMERS);
+
+    // Estadísticas
+    private final AtomicLong customerLookups = new AtomicLong();
+
+    ReferenceCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Obtiene la instancia singleton de ReferenceCache
+     */
+    public static ReferenceCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public boolean isActivePlatform(int platformId) {
+        return platforms.contains(platformId);
+    }
+
+    public boolean isActiveLocation(int locationId) {
+        return locations.contains(locationId);
+    }
+
+    /**
+     * Indica si el cliente existe y está activo. Si no está en la caché (por ejemplo, se
+     * registró desde otra terminal después de la carga) se consulta por ID y se agrega.
+     */
+    public boolean isActiveCustomer(int customerId) {
+        if (customers.contains(customerId)) {
+            return true;
+        }
+        if (customerId <= 0) {
+            return false;
+        }
+        customerLookups.incrementAndGet();
+        boolean active = lookupActiveCustomer(customerId);
+        if (active) {
+            customers.set(customerId, true);
+        }
+        return active;
+    }
+
+    /**
+     * Registra el estado de un cliente después de crearlo, actualizarlo o eliminarlo
+     */
+    public void customerChanged(int customerId, boolean active) {
+        customers.set(customerId, active);
+    }
+
+    /**
+     * Descarta todo; la siguiente consulta recarga cada conjunto
+     */
+    public void invalidateAll() {
+        platforms.invalidate();
+        locations.invalidate();
+        customers.invalidate();
+    }
+
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Resumen de la caché
+     */
+    public String getStats() {
+        return String.format("Referencias: %d plataformas | %d ubicaciones | %d clientes | %d consultas de clientes",
+            platforms.cardinality(), locations.cardinality(), customers.cardinality(), customerLookups.get());
+    }
+
+    private static boolean lookupActiveCustomer(int customerId) {
+        String sql = CUSTOMER_EXISTS;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, customerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error al verificar cliente: " + e.getMessage());
+        }
+        return false;
+    }
+
+    // Conjunto de IDs activos cargado con una sola consulta
+    private class IdSet {
+        private final String sql;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private BitSet ids;
+        private long loadedAt;
+
+        IdSet(String sql) {
+            this.sql = sql;
+        }
+
+        boolean contains(int id) {
+            if (id <= 0) {
+                return false;
+            }
+            lock.readLock().lock();
+            try {
+                if (ids != null && System.currentTimeMillis() - loadedAt < ttlMillis) {
+                    return ids.get(id);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return reloadAndGet(id);
+        }
+
+        void set(int id, boolean active) {
+            if (id <= 0) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                // Si aún no se carga, la carga ya traerá el estado actual
+                if (ids != null) {
+                    ids.set(id, active);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void invalidate() {
+            lock.writeLock().lock();
+            try {
+                ids = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int cardinality() {
+            lock.readLock().lock();
+            try {
+                return ids != null ? ids.cardinality() : 0;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Una sola carga a la vez; los lectores esperan y reutilizan el resultado
+        private boolean reloadAndGet(int id) {
+            lock.writeLock().lock();
+            try {
+                long now = System.currentTimeMillis();
+                if (ids == null || now - loadedAt >= ttlMillis) {
+                    BitSet loaded = load();
+                    if (loaded != null) {
+                        ids = loaded;
+                        loadedAt = now;
+                    }
+                }
+                // Si falló la consulta se usa lo anterior aunque haya expirado
+                return ids != null && ids.get(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private BitSet load() {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setFetchSize(FETCH_SIZE);
+                BitSet loaded = new BitSet();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        loaded.set(rs.getInt(1));
+                    }
+                }
+                return loaded;
+
+            } catch (SQLException e) {
+                System.err.println("❌ Error al cargar datos de referencia: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+}
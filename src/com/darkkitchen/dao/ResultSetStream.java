@@ -0,0 +1,102 @@
+package com.darkkitchen.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stream perezoso sobre un ResultSet.
+ * Las filas se leen conforme se consumen; al cerrar el Stream (o al agotarse)
+ * se cierran el ResultSet y la sentencia y la conexión regresa al pool.
+ * Debe usarse con try-with-resources.
+ */
+final class ResultSetStream {
+
+    private ResultSetStream() {}
+
+    /**
+     * Ejecuta la consulta con cursor del servidor (useCursorFetch) y lee fetchSize filas a la vez
+     * @throws SQLException si falla antes de entregar el Stream (la conexión ya se liberó)
+     */
+    static <T> Stream<T> query(String sql, int fetchSize, RowMapper<T> mapper) throws SQLException {
+        Connection conn = DatabaseConnection.getConnection();
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(sql);
+            stmt.setFetchSize(fetchSize);
+            ResultSet rs = stmt.executeQuery();
+            return of(conn, stmt, rs, mapper);
+        } catch (SQLException e) {
+            if (stmt != null) {
+                stmt.close();
+            }
+            conn.close();
+            throw e;
+        }
+    }
+
+    static <T> Stream<T> of(Connection conn, PreparedStatement stmt, ResultSet rs, RowMapper<T> mapper) {
+        Resources resources = new Resources(conn, stmt, rs);
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (resources.closed) {
+                    return false;
+                }
+                try {
+                    if (!rs.next()) {
+                        // Liberar la conexión en cuanto se termina de leer
+                        resources.close();
+                        return false;
+                    }
+                    action.accept(mapper.map(rs));
+                    return true;
+                } catch (SQLException e) {
+                    resources.close();
+                    throw new IllegalStateException("Error al leer resultados: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(resources::close);
+    }
+
+    // Recursos JDBC que se liberan una sola vez
+    private static class Resources {
+        private final Connection conn;
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+        private boolean closed = false;
+
+        Resources(Connection conn, PreparedStatement stmt, ResultSet rs) {
+            this.conn = conn;
+            this.stmt = stmt;
+            this.rs = rs;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // En orden inverso al de apertura; un error no impide cerrar lo demás
+            close(rs);
+            close(stmt);
+            close(conn);
+        }
+
+        private static void close(AutoCloseable resource) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.err.println("❌ Error al liberar recursos del stream: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.darkkitchen.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché LRU de sentencias preparadas asociada a una conexión física.
+ * Con useServerPrepStmts=true MySQL analiza y planifica cada SQL una sola vez
+ * por conexión; las siguientes ejecuciones reutilizan la sentencia del servidor.
+ * Al cerrar la sentencia entregada solo se limpia y se regresa a la caché.
+ */
+class StatementCache {
+
+    // Contadores globales (suma de todas las conexiones)
+    private static final AtomicLong totalHits = new AtomicLong();
+    private static final AtomicLong totalMisses = new AtomicLong();
+    private static final AtomicLong totalEvictions = new AtomicLong();
+
+    private final Connection physical;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    StatementCache(Connection physical, int maxSize) {
+        this.physical = physical;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > maxSize) {
+                    CachedStatement evicted = eldest.getValue();
+                    evicted.evicted = true;
+                    if (!evicted.inUse) {
+                        closeQuietly(evicted.statement);
+                    }
+                    totalEvictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Obtiene una sentencia preparada para el SQL indicado, reutilizándola si ya existe
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS o Statement.NO_GENERATED_KEYS
+     * @param timeoutSeconds tiempo límite a aplicar (0 = sin límite)
+     */
+    synchronized PreparedStatement prepare(String sql, int autoGeneratedKeys, int timeoutSeconds) throws SQLException {
+        String key = autoGeneratedKeys + "|" + sql;
+        CachedStatement cached = statements.get(key);
+
+        if (cached != null && !cached.inUse) {
+            hits++;
+            totalHits.incrementAndGet();
+        } else if (cached != null) {
+            // La misma sentencia ya está abierta en esta conexión (uso anidado): no se cachea
+            misses++;
+            totalMisses.incrementAndGet();
+            PreparedStatement stmt = physical.prepareStatement(sql, autoGeneratedKeys);
+            stmt.setQueryTimeout(timeoutSeconds);
+            return stmt;
+        } else {
+            misses++;
+            totalMisses.incrementAndGet();
+            cached = new CachedStatement(physical.prepareStatement(sql, autoGeneratedKeys));
+            statements.put(key, cached);
+        }
+
+        cached.inUse = true;
+        cached.statement.setQueryTimeout(timeoutSeconds);
+        return cached.proxy();
+    }
+
+    /**
+     * Regresa una sentencia a la caché después de limpiarla
+     */
+    private synchronized void release(CachedStatement cached) {
+        cached.inUse = false;
+        if (cached.evicted) {
+            closeQuietly(cached.statement);
+            return;
+        }
+        try {
+            cached.statement.clearParameters();
+            cached.statement.clearBatch();
+            cached.statement.setFetchSize(0);
+            cached.statement.setMaxRows(0);
+            ResultSet rs = cached.statement.getResultSet();
+            if (rs != null) {
+                rs.close();
+            }
+        } catch (SQLException e) {
+            // No se pudo reiniciar: se descarta de la caché
+            cached.evicted = true;
+            statements.values().remove(cached);
+            closeQuietly(cached.statement);
+        }
+    }
+
+    /**
+     * Cierra todas las sentencias (cuando la conexión física se descarta)
+     */
+    synchronized void closeAll() {
+        List<CachedStatement> all = new ArrayList<>(statements.values());
+        statements.clear();
+        for (CachedStatement cached : all) {
+            cached.evicted = true;
+            if (!cached.inUse) {
+                closeQuietly(cached.statement);
+            }
+        }
+    }
+
+    synchronized long getHits() { return hits; }
+    synchronized long getMisses() { return misses; }
+    synchronized int size() { return statements.size(); }
+
+    static long getTotalHits() { return totalHits.get(); }
+    static long getTotalMisses() { return totalMisses.get(); }
+    static long getTotalEvictions() { return totalEvictions.get(); }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException ignored) {
+            // La sentencia ya no es utilizable
+        }
+    }
+
+    // Sentencia física cacheada y su estado de uso
+    private class CachedStatement {
+        final PreparedStatement statement;
+        volatile boolean inUse = false;
+        volatile boolean evicted = false;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement proxy() {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    new Lease(this));
+        }
+    }
+
+    // Préstamo individual de una sentencia cacheada; close() la regresa a la caché
+    private class Lease implements InvocationHandler {
+        private final CachedStatement cached;
+        private boolean closed = false;
+
+        Lease(CachedStatement cached) {
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(cached);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("La sentencia ya fue cerrada");
+            }
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
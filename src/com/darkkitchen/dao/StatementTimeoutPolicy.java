@@ -0,0 +1,22 @@
+package com.darkkitchen.dao;
+
+/**
+ * Define el tiempo límite (en segundos) que se aplica a cada sentencia
+ * antes de ejecutarla, para que una consulta lenta no retenga una conexión del pool
+ */
+@FunctionalInterface
+public interface StatementTimeoutPolicy {
+
+    /**
+     * @param sql Texto de la sentencia
+     * @return segundos de tiempo límite, 0 para no limitar
+     */
+    int timeoutSeconds(String sql);
+
+    /**
+     * Política con el mismo tiempo límite para todas las sentencias
+     */
+    static StatementTimeoutPolicy fixed(int seconds) {
+        return sql -> seconds;
+    }
+}
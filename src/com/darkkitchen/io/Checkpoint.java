@@ -0,0 +1,71 @@
+package com.darkkitchen.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Punto de control de una importación: cuántos registros del archivo ya quedaron
+ * guardados o rechazados. Se guarda junto al archivo como "archivo.checkpoint" y
+ * solo es válido si el archivo no cambió (mismo tamaño y fecha de modificación).
+ */
+class Checkpoint {
+
+    private final Path file;
+    private final Path checkpointFile;
+
+    Checkpoint(Path file) {
+        this.file = file;
+        this.checkpointFile = file.resolveSibling(file.getFileName() + ".checkpoint");
+    }
+
+    /**
+     * Registros ya procesados según el punto de control, o 0 si no hay uno válido
+     */
+    long load() {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            props.load(in);
+            if (Long.parseLong(props.getProperty("size")) != Files.size(file)
+                    || Long.parseLong(props.getProperty("modified")) != Files.getLastModifiedTime(file).toMillis()) {
+                System.out.println("⚠️ El archivo cambió desde el último punto de control; se importa desde el inicio");
+                return 0;
+            }
+            return Long.parseLong(props.getProperty("records"));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("❌ Error al leer punto de control: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Guarda el avance (se escribe a un temporal y se renombra para no dejarlo a medias)
+     */
+    void save(long records) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("records", String.valueOf(records));
+        props.setProperty("size", String.valueOf(Files.size(file)));
+        props.setProperty("modified", String.valueOf(Files.getLastModifiedTime(file).toMillis()));
+
+        Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            props.store(out, "Dark Kitchen - punto de control de importación");
+        }
+        Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(checkpointFile);
+        } catch (IOException e) {
+            System.err.println("❌ Error al borrar punto de control: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.darkkitchen.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lector CSV (RFC 4180): la primera fila es el encabezado, los campos pueden ir
+ * entre comillas dobles y contener comas, saltos de línea y comillas duplicadas.
+ */
+class CsvRecordReader implements RecordReader {
+
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private int position = 0;
+    private int limit = 0;
+    private String[] header;
+    private long line = 1;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        if (header == null) {
+            List<String> names = readRow();
+            if (names == null) {
+                return null;
+            }
+            header = new String[names.size()];
+            for (int i = 0; i < header.length; i++) {
+                // Se ignora el BOM que agregan algunas hojas de cálculo
+                header[i] = names.get(i).replace("\uFEFF", "").trim();
+            }
+        }
+
+        List<String> values;
+        do {
+            values = readRow();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isEmpty()); // Líneas vacías
+
+        if (values.size() > header.length) {
+            throw new IOException("Línea " + line + ": " + values.size()
+                + " campos pero el encabezado tiene " + header.length);
+        }
+        Map<String, String> record = new LinkedHashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            String value = i < values.size() ? values.get(i) : null;
+            record.put(header[i], value == null || value.isEmpty() ? null : value);
+        }
+        return record;
+    }
+
+    // Lee una fila completa; null al final del archivo
+    private List<String> readRow() throws IOException {
+        int c = read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Línea " + line + ": comillas sin cerrar");
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c < 0) {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '\r') {
+                int next = read();
+                if (next != '\n') {
+                    unread();
+                }
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    // Solo se usa justo después de read(), así que el carácter sigue en el búfer
+    private void unread() {
+        if (position > 0) {
+            position--;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
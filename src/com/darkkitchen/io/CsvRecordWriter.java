@@ -0,0 +1,71 @@
+package com.darkkitchen.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Escritor CSV con encabezado; pone entre comillas solo los campos que lo necesitan
+ */
+class CsvRecordWriter implements RecordWriter {
+
+    private final Writer writer;
+    private final String[] columns;
+    private boolean headerWritten = false;
+
+    CsvRecordWriter(Writer writer, String[] columns) {
+        this.writer = writer;
+        this.columns = columns;
+    }
+
+    @Override
+    public void write(Map<String, String> record) throws IOException {
+        if (!headerWritten) {
+            writeRow(columns);
+            headerWritten = true;
+        }
+        String[] values = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = record.get(columns[i]);
+        }
+        writeRow(values);
+    }
+
+    private void writeRow(String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (needsQuotes(value)) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!headerWritten) {
+            writeRow(columns); // Archivo vacío: al menos el encabezado
+        }
+        writer.close();
+    }
+}
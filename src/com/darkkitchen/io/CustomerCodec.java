@@ -0,0 +1,71 @@
+package com.darkkitchen.io;
+
+import com.darkkitchen.model.Customer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registros de clientes; aplica las mismas reglas que el formulario de CustomerPanel
+ * (la dirección no se guarda en la base de datos, así que no se exige)
+ */
+class CustomerCodec implements RecordCodec<Customer> {
+
+    private static final String[] COLUMNS = {
+        "customer_id", "full_name", "email", "phone", "registration_date", "active"
+    };
+
+    @Override
+    public String[] columns() {
+        return COLUMNS;
+    }
+
+    @Override
+    public Customer decode(Map<String, String> record) {
+        StringBuilder errors = new StringBuilder();
+
+        String fullName = DishCodec.trim(record.get("full_name"));
+        if (fullName == null) {
+            errors.append("el nombre es obligatorio; ");
+        } else if (fullName.length() > 100) {
+            errors.append("el nombre excede 100 caracteres; ");
+        }
+
+        String email = DishCodec.trim(record.get("email"));
+        if (email == null) {
+            errors.append("el email es obligatorio; ");
+        } else if (!email.contains("@")) {
+            errors.append("el email debe tener un formato válido; ");
+        } else if (email.length() > 120) {
+            errors.append("el email excede 120 caracteres; ");
+        }
+
+        String phone = DishCodec.trim(record.get("phone"));
+        if (phone == null) {
+            errors.append("el teléfono es obligatorio; ");
+        } else if (phone.length() > 20) {
+            errors.append("el teléfono excede 20 caracteres; ");
+        }
+
+        if (errors.length() > 0) {
+            throw new IllegalArgumentException(errors.substring(0, errors.length() - 2));
+        }
+
+        Customer customer = new Customer(fullName, email, phone, null);
+        String active = DishCodec.trim(record.get("active"));
+        customer.setActive(active == null || DishCodec.parseBoolean(active));
+        return customer;
+    }
+
+    @Override
+    public Map<String, String> encode(Customer customer) {
+        Map<String, String> record = new LinkedHashMap<>();
+        record.put("customer_id", String.valueOf(customer.getCustomerId()));
+        record.put("full_name", customer.getFullName());
+        record.put("email", customer.getEmail());
+        record.put("phone", customer.getPhone());
+        record.put("registration_date",
+            customer.getRegistrationDate() != null ? customer.getRegistrationDate().toString() : null);
+        record.put("active", String.valueOf(customer.isActive()));
+        return record;
+    }
+}
@@ -0,0 +1,42 @@
+package com.darkkitchen.io;
+
+import com.darkkitchen.dao.CustomerDAO;
+import com.darkkitchen.dao.DishDAO;
+import com.darkkitchen.model.Customer;
+import com.darkkitchen.model.Dish;
+import java.nio.file.Path;
+
+/**
+ * Crea los trabajos de importación y exportación del menú y de los clientes.
+ * El formato (CSV o JSON) se elige por la extensión del archivo.
+ */
+public class DataTransfer {
+
+    // Filas por viaje al servidor al exportar
+    private static final int EXPORT_FETCH_SIZE = 1_000;
+
+    private final DishDAO dishDAO = new DishDAO();
+    private final CustomerDAO customerDAO = new CustomerDAO();
+
+    /** Importar platillos (con el dish_id de un platillo existente se actualiza; si no, se crea) */
+    public ImportJob<Dish> importDishes(Path file) {
+        return new ImportJob<>(file, new DishCodec(), dishDAO::importAll);
+    }
+
+    /** Importar clientes (con el email de un cliente existente se actualiza; si no, se crea) */
+    public ImportJob<Customer> importCustomers(Path file) {
+        return new ImportJob<>(file, new CustomerCodec(), customerDAO::importAll);
+    }
+
+    /** Exportar los platillos activos */
+    public ExportJob<Dish> exportDishes(Path file) {
+        return new ExportJob<>(file, new DishCodec(),
+            () -> dishDAO.streamAll(EXPORT_FETCH_SIZE), dishDAO::countAll);
+    }
+
+    /** Exportar todos los clientes */
+    public ExportJob<Customer> exportCustomers(Path file) {
+        return new ExportJob<>(file, new CustomerCodec(),
+            () -> customerDAO.streamAll(EXPORT_FETCH_SIZE), customerDAO::countAll);
+    }
+}
@@ -0,0 +1,117 @@
+package com.darkkitchen.io;
+
+import com.darkkitchen.model.Dish;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registros de platillos; aplica las mismas reglas que el formulario de DishPanel
+ */
+class DishCodec implements RecordCodec<Dish> {
+
+    private static final String[] COLUMNS = {
+        "dish_id", "category_id", "category_name", "name", "description",
+        "price", "preparation_time", "available"
+    };
+
+    @Override
+    public String[] columns() {
+        return COLUMNS;
+    }
+
+    @Override
+    public Dish decode(Map<String, String> record) {
+        StringBuilder errors = new StringBuilder();
+
+        // Opcional: con el ID de un platillo existente la importación lo actualiza
+        int dishId = 0;
+        String id = trim(record.get("dish_id"));
+        if (id != null) {
+            try {
+                dishId = Integer.parseInt(id);
+            } catch (NumberFormatException e) {
+                errors.append("dish_id debe ser un número entero; ");
+            }
+        }
+
+        String name = trim(record.get("name"));
+        if (name == null) {
+            errors.append("el nombre es obligatorio; ");
+        } else if (name.length() > 100) {
+            errors.append("el nombre excede 100 caracteres; ");
+        }
+
+        String description = trim(record.get("description"));
+        if (description == null) {
+            errors.append("la descripción es obligatoria; ");
+        }
+
+        int categoryId = 0;
+        try {
+            categoryId = Integer.parseInt(trim(record.get("category_id")));
+            if (categoryId <= 0) {
+                errors.append("category_id debe ser mayor a 0; ");
+            }
+        } catch (NumberFormatException e) {
+            errors.append("category_id debe ser un número entero; ");
+        }
+
+        BigDecimal price = null;
+        try {
+            price = new BigDecimal(trim(record.get("price")));
+            if (price.compareTo(BigDecimal.ZERO) <= 0) {
+                errors.append("el precio debe ser mayor a 0; ");
+            }
+        } catch (NumberFormatException | NullPointerException e) {
+            errors.append("el precio debe ser un número válido; ");
+        }
+
+        int prepTime = 0;
+        try {
+            prepTime = Integer.parseInt(trim(record.get("preparation_time")));
+            if (prepTime <= 0) {
+                errors.append("el tiempo de preparación debe ser mayor a 0; ");
+            }
+        } catch (NumberFormatException e) {
+            errors.append("el tiempo de preparación debe ser un número entero; ");
+        }
+
+        if (errors.length() > 0) {
+            throw new IllegalArgumentException(errors.substring(0, errors.length() - 2));
+        }
+
+        Dish dish = new Dish(categoryId, name, description, price, prepTime, false, false);
+        dish.setDishId(Math.max(0, dishId));
+        String available = trim(record.get("available"));
+        dish.setAvailable(available == null || parseBoolean(available));
+        return dish;
+    }
+
+    @Override
+    public Map<String, String> encode(Dish dish) {
+        Map<String, String> record = new LinkedHashMap<>();
+        record.put("dish_id", String.valueOf(dish.getDishId()));
+        record.put("category_id", String.valueOf(dish.getCategoryId()));
+        record.put("category_name", dish.getCategoryName());
+        record.put("name", dish.getName());
+        record.put("description", dish.getDescription());
+        record.put("price", dish.getPrice() != null ? dish.getPrice().toPlainString() : null);
+        record.put("preparation_time", String.valueOf(dish.getPreparationTime()));
+        record.put("available", String.valueOf(dish.isAvailable()));
+        return record;
+    }
+
+    static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    static boolean parseBoolean(String value) {
+        return "true".equalsIgnoreCase(value) || "1".equals(value)
+            || "si".equalsIgnoreCase(value) || "sí".equalsIgnoreCase(value);
+    }
+}
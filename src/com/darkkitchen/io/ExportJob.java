@@ -0,0 +1,174 @@
+package com.darkkitchen.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Exportación a CSV o JSON sin cargar la tabla en memoria.
+ * Un hilo recorre la consulta con cursor del servidor y entrega bloques por una cola
+ * acotada; el hilo que llama a run() los convierte y escribe. Se escribe a un archivo
+ * temporal que reemplaza al destino solo si la exportación termina completa.
+ */
+public class ExportJob<T> {
+
+    private static final int BLOCK_SIZE = 256;
+    private static final int QUEUE_CAPACITY = 16;
+    private static final int PROGRESS_EVERY = 1_000;
+    private static final long POLL_MILLIS = 100;
+
+    private final Path file;
+    private final Format format;
+    private final RecordCodec<T> codec;
+    private final Supplier<Stream<T>> source;
+    private final LongSupplier count;
+
+    private Consumer<TransferProgress> progressListener = progress -> { };
+
+    private volatile boolean cancelRequested = false;
+    private volatile boolean stopping = false;
+    private final AtomicReference<String> readerError = new AtomicReference<>();
+
+    /**
+     * @param source Consulta a exportar (por ejemplo, dishDAO.streamAll(1000)); se cierra al terminar
+     * @param count Total estimado de registros para el avance
+     */
+    public ExportJob(Path file, RecordCodec<T> codec, Supplier<Stream<T>> source, LongSupplier count) {
+        this.file = file;
+        this.format = Format.fromPath(file);
+        this.codec = codec;
+        this.source = source;
+        this.count = count;
+    }
+
+    /** Recibe el avance desde el hilo de escritura */
+    public ExportJob<T> setProgressListener(Consumer<TransferProgress> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    public void cancel() {
+        cancelRequested = true;
+        stopping = true;
+    }
+
+    /**
+     * Ejecuta la exportación y espera a que termine
+     */
+    public TransferReport run() {
+        long start = System.currentTimeMillis();
+        TransferReport report = new TransferReport();
+        long total = count.getAsLong();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        // Una lista vacía marca el fin de la consulta
+        BlockingQueue<List<T>> blocks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Thread reader = new Thread(() -> readRows(blocks), "dk-export-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        long records = 0;
+        String fatalError = null;
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8);
+             RecordWriter writer = format.openWriter(out, codec.columns())) {
+
+            while (!stopping) {
+                List<T> block = blocks.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (block == null) {
+                    continue;
+                }
+                if (block.isEmpty()) {
+                    break;
+                }
+                for (T item : block) {
+                    writer.write(codec.encode(item));
+                    records++;
+                    if (records % PROGRESS_EVERY == 0) {
+                        progressListener.accept(new TransferProgress(records, records, 0, records, total,
+                            System.currentTimeMillis() - start));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            fatalError = "Error al escribir " + file.getFileName() + ": " + e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fatalError = "Exportación interrumpida";
+        } finally {
+            stopping = true;
+        }
+
+        if (fatalError == null) {
+            fatalError = readerError.get();
+        }
+        try {
+            if (fatalError == null && !cancelRequested) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            fatalError = "No se pudo reemplazar " + file.getFileName() + ": " + e.getMessage();
+        }
+
+        report.setCounts(records, records, 0);
+        report.setCancelled(cancelRequested);
+        report.setFatalError(fatalError);
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        progressListener.accept(new TransferProgress(records, records, 0, records, Math.max(total, records),
+            System.currentTimeMillis() - start));
+        System.out.println((report.isCompleted() ? "✅ " : "⚠️ ") + "Exportación a " + file.getFileName() + ": " + report);
+        return report;
+    }
+
+    // Recorre la consulta y entrega bloques de filas; la conexión se libera al cerrar el Stream
+    private void readRows(BlockingQueue<List<T>> blocks) {
+        try (Stream<T> rows = source.get()) {
+            Iterator<T> iterator = rows.iterator();
+            List<T> block = new ArrayList<>(BLOCK_SIZE);
+            while (!stopping && iterator.hasNext()) {
+                block.add(iterator.next());
+                if (block.size() == BLOCK_SIZE) {
+                    if (!put(blocks, block)) {
+                        return;
+                    }
+                    block = new ArrayList<>(BLOCK_SIZE);
+                }
+            }
+            if (!block.isEmpty() && !put(blocks, block)) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            readerError.set("Error al leer de la base de datos: " + e.getMessage());
+        }
+        put(blocks, new ArrayList<>());
+    }
+
+    private boolean put(BlockingQueue<List<T>> blocks, List<T> block) {
+        try {
+            while (!blocks.offer(block, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (stopping) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.darkkitchen.io;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Formatos de archivo soportados para importar y exportar
+ */
+public enum Format {
+    CSV("csv"),
+    JSON("json");
+
+    private final String extension;
+
+    Format(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Determina el formato por la extensión del archivo (.csv, .json o .jsonl)
+     */
+    public static Format fromPath(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".json") || name.endsWith(".jsonl")) {
+            return JSON;
+        }
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        throw new IllegalArgumentException("Formato no soportado: " + name);
+    }
+
+    RecordReader openReader(Reader reader) {
+        return this == CSV ? new CsvRecordReader(reader) : new JsonRecordReader(reader);
+    }
+
+    RecordWriter openWriter(Writer writer, String[] columns) {
+        return this == CSV ? new CsvRecordWriter(writer, columns) : new JsonRecordWriter(writer, columns);
+    }
+}
@@ -0,0 +1,426 @@
+package com.darkkitchen.io;
+
+import com.darkkitchen.dao.BatchResult;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Importación masiva de un archivo CSV o JSON en tres etapas conectadas por colas acotadas:
+ * lectura (un hilo), validación (varios hilos) y escritura en lotes (hilo que llama a run()).
+ * La memoria usada no depende del tamaño del archivo. Después de cada lote guardado se
+ * actualiza un punto de control, de modo que una importación cancelada o interrumpida
+ * puede reanudarse sin repetir registros.
+ */
+public class ImportJob<T> {
+
+    private static final int QUEUE_CAPACITY = 1_024;
+    private static final int DEFAULT_CHUNK_SIZE = 1_000;
+    private static final int PROGRESS_EVERY = 1_000;
+    private static final long POLL_MILLIS = 100;
+
+    private final Path file;
+    private final Format format;
+    private final RecordCodec<T> codec;
+    private final Function<List<T>, BatchResult<T>> writer;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int validatorThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private boolean resume = true;
+    private Consumer<TransferProgress> progressListener = progress -> { };
+
+    // cancelRequested: lo pidió el usuario; stopping: todas las etapas deben terminar
+    private volatile boolean cancelRequested = false;
+    private volatile boolean stopping = false;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicReference<String> readerError = new AtomicReference<>();
+
+    /**
+     * @param writer Guarda un lote en la base de datos (por ejemplo, DishDAO::importAll)
+     */
+    public ImportJob(Path file, RecordCodec<T> codec, Function<List<T>, BatchResult<T>> writer) {
+        this.file = file;
+        this.format = Format.fromPath(file);
+        this.codec = codec;
+        this.writer = writer;
+    }
+
+    /** Registros por transacción (y por punto de control) */
+    public ImportJob<T> setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+        return this;
+    }
+
+    public ImportJob<T> setValidatorThreads(int validatorThreads) {
+        this.validatorThreads = Math.max(1, validatorThreads);
+        return this;
+    }
+
+    /** Si es true (por defecto) se continúa desde el último punto de control válido */
+    public ImportJob<T> setResume(boolean resume) {
+        this.resume = resume;
+        return this;
+    }
+
+    /** Recibe el avance desde el hilo de escritura */
+    public ImportJob<T> setProgressListener(Consumer<TransferProgress> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * Detiene la importación después del lote en curso; el avance queda en el punto de control
+     */
+    public void cancel() {
+        cancelRequested = true;
+        stopping = true;
+    }
+
+    /**
+     * Ejecuta la importación y espera a que termine
+     */
+    public TransferReport run() {
+        long start = System.currentTimeMillis();
+        TransferReport report = new TransferReport();
+        Checkpoint checkpoint = new Checkpoint(file);
+        long skip = resume ? checkpoint.load() : 0;
+        report.setSkipped(skip);
+        long totalBytes = sizeOf(file);
+
+        BlockingQueue<Raw> raw = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Parsed<T>> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        startThread("dk-import-reader", () -> readRecords(skip, raw));
+        for (int i = 1; i <= validatorThreads; i++) {
+            startThread("dk-import-validate-" + i, () -> validateRecords(raw, parsed));
+        }
+
+        Path errorPath = file.resolveSibling(file.getFileName() + ".errores.txt");
+        ErrorLog errorLog = new ErrorLog(errorPath, skip > 0, report);
+
+        // Los registros llegan desordenados desde los validadores y se guardan en el orden del archivo
+        PriorityQueue<Parsed<T>> pending = new PriorityQueue<>(Comparator.comparingLong((Parsed<T> p) -> p.seq));
+        long nextSeq = skip + 1;
+        long records = 0;
+        long written = 0;
+        long rejected = 0;
+        int finishedValidators = 0;
+        List<T> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkSeqs = new ArrayList<>(chunkSize);
+        String fatalError = null;
+
+        try {
+            while (finishedValidators < validatorThreads && !stopping) {
+                Parsed<T> item = parsed.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    continue;
+                }
+                if (item.seq < 0) {
+                    finishedValidators++;
+                    continue;
+                }
+                pending.add(item);
+
+                while (!pending.isEmpty() && pending.peek().seq == nextSeq && fatalError == null) {
+                    Parsed<T> next = pending.poll();
+                    nextSeq++;
+                    records++;
+                    if (next.error != null) {
+                        rejected++;
+                        errorLog.write(next.seq, next.error);
+                    } else {
+                        chunk.add(next.value);
+                        chunkSeqs.add(next.seq);
+                    }
+
+                    if (chunk.size() >= chunkSize) {
+                        ChunkOutcome outcome = flush(chunk, chunkSeqs, errorLog);
+                        if (outcome.batchError != null) {
+                            fatalError = outcome.batchError;
+                            nextSeq = chunkSeqs.get(0);
+                            records = nextSeq - 1 - skip;
+                            break;
+                        }
+                        written += outcome.written;
+                        rejected += outcome.rejected;
+                        chunk.clear();
+                        chunkSeqs.clear();
+                        checkpoint.save(nextSeq - 1);
+                        progressListener.accept(progress(records, written, rejected, totalBytes, start));
+                    } else if (records % PROGRESS_EVERY == 0) {
+                        progressListener.accept(progress(records, written, rejected, totalBytes, start));
+                    }
+                }
+                if (fatalError != null) {
+                    break;
+                }
+            }
+
+            // Último lote (también al cancelar: sus registros ya están validados y en orden)
+            if (fatalError == null && !chunk.isEmpty()) {
+                ChunkOutcome outcome = flush(chunk, chunkSeqs, errorLog);
+                if (outcome.batchError != null) {
+                    fatalError = outcome.batchError;
+                    nextSeq = chunkSeqs.get(0);
+                    records = nextSeq - 1 - skip;
+                } else {
+                    written += outcome.written;
+                    rejected += outcome.rejected;
+                }
+            }
+
+            if (fatalError == null) {
+                fatalError = readerError.get();
+            }
+            if (fatalError == null && !cancelRequested) {
+                checkpoint.delete();
+            } else {
+                checkpoint.save(nextSeq - 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fatalError = "Importación interrumpida";
+        } catch (IOException e) {
+            fatalError = "No se pudo guardar el punto de control: " + e.getMessage();
+        } finally {
+            stopping = true;
+            errorLog.close();
+        }
+
+        report.setCounts(records, written, rejected);
+        report.setCancelled(cancelRequested);
+        report.setFatalError(fatalError);
+        report.setErrorFile(errorLog.used() ? errorPath : null);
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        progressListener.accept(progress(records, written, rejected, totalBytes, start));
+        System.out.println((report.isCompleted() ? "✅ " : "⚠️ ") + "Importación de " + file.getFileName() + ": " + report);
+        return report;
+    }
+
+    // Etapa 1: lee el archivo y numera los registros
+    private void readRecords(long skip, BlockingQueue<Raw> raw) {
+        try (RecordReader reader = format.openReader(new InputStreamReader(
+                new CountingInputStream(Files.newInputStream(file), bytesRead), StandardCharsets.UTF_8))) {
+            long seq = 0;
+            Map<String, String> record;
+            while (!stopping && (record = reader.next()) != null) {
+                seq++;
+                if (seq > skip && !put(raw, new Raw(seq, record))) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            readerError.set(e.getMessage());
+        }
+        // Una marca de fin por cada validador
+        for (int i = 0; i < validatorThreads; i++) {
+            if (!put(raw, Raw.END)) {
+                return;
+            }
+        }
+    }
+
+    // Etapa 2: valida y convierte cada registro en un objeto del modelo
+    private void validateRecords(BlockingQueue<Raw> raw, BlockingQueue<Parsed<T>> parsed) {
+        try {
+            while (!stopping) {
+                Raw record = raw.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (record == null) {
+                    continue;
+                }
+                if (record == Raw.END) {
+                    put(parsed, new Parsed<>(-1, null, null));
+                    return;
+                }
+                Parsed<T> result;
+                try {
+                    result = new Parsed<>(record.seq, codec.decode(record.values), null);
+                } catch (IllegalArgumentException e) {
+                    result = new Parsed<>(record.seq, null, e.getMessage());
+                }
+                if (!put(parsed, result)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Etapa 3: guarda un lote; las filas que rechaza la BD van al archivo de errores
+    private ChunkOutcome flush(List<T> chunk, List<Long> chunkSeqs, ErrorLog errorLog) {
+        BatchResult<T> result = writer.apply(new ArrayList<>(chunk));
+        ChunkOutcome outcome = new ChunkOutcome();
+        if (result.getBatchError() != null) {
+            // Sin conexión o falló el commit: se detiene sin avanzar el punto de control
+            outcome.batchError = "Error al guardar el lote: " + result.getBatchError();
+            return outcome;
+        }
+        for (BatchResult.Failure<T> failure : result.getFailures()) {
+            errorLog.write(chunkSeqs.get(failure.getIndex()), failure.getMessage());
+        }
+        outcome.written = result.getSucceededCount();
+        outcome.rejected = result.getFailedCount();
+        return outcome;
+    }
+
+    private TransferProgress progress(long records, long written, long rejected, long totalBytes, long start) {
+        return new TransferProgress(records, written, rejected, bytesRead.get(), totalBytes,
+            System.currentTimeMillis() - start);
+    }
+
+    private <E> boolean put(BlockingQueue<E> queue, E element) {
+        try {
+            while (!queue.offer(element, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (stopping) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void startThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // Registro leído del archivo con su número (1 = primer registro)
+    private static class Raw {
+        static final Raw END = new Raw(-1, null);
+
+        final long seq;
+        final Map<String, String> values;
+
+        Raw(long seq, Map<String, String> values) {
+            this.seq = seq;
+            this.values = values;
+        }
+    }
+
+    // Registro validado: value si es válido, error si no; seq < 0 marca el fin de un validador
+    private static class Parsed<T> {
+        final long seq;
+        final T value;
+        final String error;
+
+        Parsed(long seq, T value, String error) {
+            this.seq = seq;
+            this.value = value;
+            this.error = error;
+        }
+    }
+
+    private static class ChunkOutcome {
+        long written;
+        long rejected;
+        String batchError;
+    }
+
+    // Archivo con todos los registros rechazados; se abre solo si hay errores
+    private static class ErrorLog {
+        private final Path path;
+        private final boolean append;
+        private final TransferReport report;
+        private BufferedWriter out;
+        private boolean failed = false;
+
+        ErrorLog(Path path, boolean append, TransferReport report) {
+            this.path = path;
+            this.append = append;
+            this.report = report;
+        }
+
+        void write(long seq, String message) {
+            String line = "Registro " + seq + ": " + message;
+            report.addError(line);
+            if (failed) {
+                return;
+            }
+            try {
+                if (out == null) {
+                    out = append
+                        ? Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                        : Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+                }
+                out.write(line);
+                out.newLine();
+            } catch (IOException e) {
+                failed = true;
+                System.err.println("❌ Error al escribir el archivo de errores: " + e.getMessage());
+            }
+        }
+
+        boolean used() {
+            return out != null;
+        }
+
+        void close() {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    System.err.println("❌ Error al cerrar el archivo de errores: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Cuenta los bytes leídos para estimar el avance
+    private static class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count;
+
+        CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+    }
+}
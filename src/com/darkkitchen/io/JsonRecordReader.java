@@ -0,0 +1,169 @@
+package com.darkkitchen.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lector JSON de objetos planos. Acepta un arreglo de objetos ([{...}, {...}])
+ * o un objeto por línea (JSON Lines). Los valores se entregan como texto;
+ * no se admiten objetos ni arreglos anidados.
+ */
+class JsonRecordReader implements RecordReader {
+
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private int position = 0;
+    private int limit = 0;
+    private int peeked = -2;
+    private long offset = 0;
+
+    JsonRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        // Se saltan los separadores entre objetos: [ , ] y espacios
+        int c;
+        do {
+            c = nextNonSpace();
+        } while (c == '[' || c == ',' || c == ']');
+        if (c < 0) {
+            return null;
+        }
+        if (c != '{') {
+            throw error("se esperaba '{'");
+        }
+
+        Map<String, String> record = new LinkedHashMap<>();
+        c = nextNonSpace();
+        if (c == '}') {
+            return record;
+        }
+        while (true) {
+            if (c != '"') {
+                throw error("se esperaba el nombre de un campo");
+            }
+            String name = readString();
+            if (nextNonSpace() != ':') {
+                throw error("se esperaba ':'");
+            }
+            record.put(name, readValue());
+            c = nextNonSpace();
+            if (c == '}') {
+                return record;
+            }
+            if (c != ',') {
+                throw error("se esperaba ',' o '}'");
+            }
+            c = nextNonSpace();
+        }
+    }
+
+    private String readValue() throws IOException {
+        int c = nextNonSpace();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            throw error("no se admiten valores anidados");
+        }
+        StringBuilder literal = new StringBuilder();
+        while (c >= 0 && c != ',' && c != '}' && !Character.isWhitespace(c)) {
+            literal.append((char) c);
+            c = read();
+        }
+        unread(c);
+        String value = literal.toString();
+        if (value.isEmpty()) {
+            throw error("valor vacío");
+        }
+        return "null".equals(value) ? null : value;
+    }
+
+    private String readString() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw error("texto sin cerrar");
+            }
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append((char) c);
+                continue;
+            }
+            int escape = read();
+            switch (escape) {
+                case '"': sb.append('"'); break;
+                case '\\': sb.append('\\'); break;
+                case '/': sb.append('/'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    char[] hex = new char[4];
+                    for (int i = 0; i < 4; i++) {
+                        int h = read();
+                        if (h < 0) {
+                            throw error("escape \\u incompleto");
+                        }
+                        hex[i] = (char) h;
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(new String(hex), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("escape \\u inválido");
+                    }
+                    break;
+                default:
+                    throw error("escape inválido");
+            }
+        }
+    }
+
+    private int nextNonSpace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && Character.isWhitespace(c));
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        offset++;
+        return buffer[position++];
+    }
+
+    private void unread(int c) {
+        peeked = c;
+    }
+
+    private IOException error(String message) {
+        return new IOException("JSON inválido cerca del carácter " + offset + ": " + message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.darkkitchen.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Escritor JSON: un arreglo con un objeto plano por línea
+ */
+class JsonRecordWriter implements RecordWriter {
+
+    private final Writer writer;
+    private final String[] columns;
+    private boolean first = true;
+
+    JsonRecordWriter(Writer writer, String[] columns) {
+        this.writer = writer;
+        this.columns = columns;
+    }
+
+    @Override
+    public void write(Map<String, String> record) throws IOException {
+        writer.write(first ? "[\n" : ",\n");
+        first = false;
+        writer.write('{');
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeString(columns[i]);
+            writer.write(':');
+            String value = record.get(columns[i]);
+            if (value == null) {
+                writer.write("null");
+            } else {
+                writeString(value);
+            }
+        }
+        writer.write('}');
+    }
+
+    private void writeString(String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': writer.write("\\\""); break;
+                case '\\': writer.write("\\\\"); break;
+                case '\n': writer.write("\\n"); break;
+                case '\r': writer.write("\\r"); break;
+                case '\t': writer.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.write(first ? "[]\n" : "\n]\n");
+        writer.close();
+    }
+}
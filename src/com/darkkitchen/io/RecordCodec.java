@@ -0,0 +1,20 @@
+package com.darkkitchen.io;
+
+import java.util.Map;
+
+/**
+ * Conversión entre registros de archivo (columna → texto) y objetos del modelo
+ */
+public interface RecordCodec<T> {
+
+    /** Columnas en el orden en que se exportan */
+    String[] columns();
+
+    /**
+     * Valida el registro y crea el objeto
+     * @throws IllegalArgumentException con la lista de errores si el registro no es válido
+     */
+    T decode(Map<String, String> record);
+
+    Map<String, String> encode(T item);
+}
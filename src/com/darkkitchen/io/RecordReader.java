@@ -0,0 +1,18 @@
+package com.darkkitchen.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Lee registros uno a uno desde un archivo sin cargarlo completo en memoria.
+ * Cada registro es un mapa columna → valor (null si el campo viene vacío o nulo).
+ */
+interface RecordReader extends Closeable {
+
+    /**
+     * Siguiente registro, o null al llegar al final
+     * @throws IOException si el archivo no se puede leer o está mal formado
+     */
+    Map<String, String> next() throws IOException;
+}
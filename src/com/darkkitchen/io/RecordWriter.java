@@ -0,0 +1,13 @@
+package com.darkkitchen.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Escribe registros uno a uno; close() completa el archivo (por ejemplo, cierra el arreglo JSON)
+ */
+interface RecordWriter extends Closeable {
+
+    void write(Map<String, String> record) throws IOException;
+}
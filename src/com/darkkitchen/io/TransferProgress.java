@@ -0,0 +1,58 @@
+package com.darkkitchen.io;
+
+/**
+ * Avance de una importación o exportación en un momento dado
+ */
+public class TransferProgress {
+
+    private final long records;
+    private final long written;
+    private final long rejected;
+    private final long bytes;
+    private final long totalBytes;
+    private final long elapsedMillis;
+
+    TransferProgress(long records, long written, long rejected, long bytes, long totalBytes, long elapsedMillis) {
+        this.records = records;
+        this.written = written;
+        this.rejected = rejected;
+        this.bytes = bytes;
+        this.totalBytes = totalBytes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /** Registros procesados */
+    public long getRecords() {
+        return records;
+    }
+
+    /** Registros guardados (importación) o escritos al archivo (exportación) */
+    public long getWritten() {
+        return written;
+    }
+
+    /** Registros rechazados por validación o por la base de datos */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Porcentaje estimado de avance (0-100), por bytes leídos o por registros
+     */
+    public int getPercent() {
+        if (totalBytes <= 0) {
+            return 0;
+        }
+        return (int) Math.min(100, bytes * 100 / totalBytes);
+    }
+
+    public double getRecordsPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : records * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d registros (%d guardados, %d rechazados) | %d%% | %.0f reg/s",
+            records, written, rejected, getPercent(), getRecordsPerSecond());
+    }
+}
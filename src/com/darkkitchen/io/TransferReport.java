@@ -0,0 +1,118 @@
+package com.darkkitchen.io;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado final de una importación o exportación
+ */
+public class TransferReport {
+
+    // Errores que se conservan en memoria; el resto solo va al archivo de errores
+    private static final int MAX_ERRORS_IN_REPORT = 100;
+
+    private long records;
+    private long written;
+    private long rejected;
+    private long skipped;
+    private long elapsedMillis;
+    private boolean cancelled;
+    private String fatalError;
+    private Path errorFile;
+    private final List<String> errors = new ArrayList<>();
+
+    void addError(String error) {
+        if (errors.size() < MAX_ERRORS_IN_REPORT) {
+            errors.add(error);
+        }
+    }
+
+    void setCounts(long records, long written, long rejected) {
+        this.records = records;
+        this.written = written;
+        this.rejected = rejected;
+    }
+
+    void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    void setFatalError(String fatalError) {
+        this.fatalError = fatalError;
+    }
+
+    void setErrorFile(Path errorFile) {
+        this.errorFile = errorFile;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /** Registros omitidos al reanudar desde un punto de control */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** true si terminó sin cancelarse ni detenerse por un error */
+    public boolean isCompleted() {
+        return !cancelled && fatalError == null;
+    }
+
+    public String getFatalError() {
+        return fatalError;
+    }
+
+    /** Archivo con todos los registros rechazados, o null si no hubo */
+    public Path getErrorFile() {
+        return errorFile;
+    }
+
+    /** Primeros errores encontrados */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d registros: %d guardados, %d rechazados en %.1f s",
+            records, written, rejected, elapsedMillis / 1000.0));
+        if (skipped > 0) {
+            sb.append(" (se reanudó omitiendo ").append(skipped).append(")");
+        }
+        if (cancelled) {
+            sb.append(" | cancelado");
+        }
+        if (fatalError != null) {
+            sb.append(" | detenido: ").append(fatalError);
+        }
+        return sb.toString();
+    }
+}
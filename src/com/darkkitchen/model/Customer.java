@@ -12,6 +12,10 @@ public class Customer {
     private String deliveryAddress;
     private java.sql.Timestamp registrationDate;
     private boolean isActive;
+    // Estadísticas de lealtad (las mantiene la base de datos al entregar cada pedido)
+    private int deliveredOrders;
+    private java.math.BigDecimal totalSpent = java.math.BigDecimal.ZERO;
+    private LoyaltyTier loyaltyTier = LoyaltyTier.NEW;
     
     // Constructor vacío
     public Customer() {}
@@ -94,6 +98,30 @@ public class Customer {
         isActive = active;
     }
     
+    public int getDeliveredOrders() {
+        return deliveredOrders;
+    }
+    
+    public void setDeliveredOrders(int deliveredOrders) {
+        this.deliveredOrders = deliveredOrders;
+    }
+    
+    public java.math.BigDecimal getTotalSpent() {
+        return totalSpent;
+    }
+    
+    public void setTotalSpent(java.math.BigDecimal totalSpent) {
+        this.totalSpent = totalSpent;
+    }
+    
+    public LoyaltyTier getLoyaltyTier() {
+        return loyaltyTier;
+    }
+    
+    public void setLoyaltyTier(LoyaltyTier loyaltyTier) {
+        this.loyaltyTier = loyaltyTier;
+    }
+    
     @Override
     public String toString() {
         return "Customer{" +
@@ -104,6 +132,7 @@ public class Customer {
                 ", deliveryAddress='" + deliveryAddress + '\'' +
                 ", registrationDate=" + registrationDate +
                 ", isActive=" + isActive +
+                ", loyaltyTier=" + loyaltyTier +
                 '}';
     }
 }
\ No newline at end of file
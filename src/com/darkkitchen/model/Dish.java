@@ -14,6 +14,7 @@ public class Dish {
     private BigDecimal price;
     private int preparationTime; // en minutos
     private boolean isAvailable;
+    private boolean outOfStock; // lo marca el inventario, independiente de isAvailable
     private boolean isVegetarian;
     private boolean isSpicy;
     private java.sql.Timestamp createdAt;
@@ -53,6 +54,14 @@ public class Dish {
         this.createdAt = createdAt;
     }
     
+    // Constructor de copia
+    public Dish(Dish other) {
+        this(other.dishId, other.categoryId, other.name, other.description, other.price,
+             other.preparationTime, other.isAvailable, other.isVegetarian, other.isSpicy, other.createdAt);
+        this.categoryName = other.categoryName;
+        this.outOfStock = other.outOfStock;
+    }
+    
     // Getters y Setters
     public int getDishId() {
         return dishId;
@@ -110,6 +119,14 @@ public class Dish {
         isAvailable = available;
     }
     
+    public boolean isOutOfStock() {
+        return outOfStock;
+    }
+    
+    public void setOutOfStock(boolean outOfStock) {
+        this.outOfStock = outOfStock;
+    }
+    
     public boolean isVegetarian() {
         return isVegetarian;
     }
@@ -0,0 +1,121 @@
+package com.darkkitchen.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Modelo que representa un repartidor de una plataforma de entrega
+ */
+public class Driver {
+
+    /**
+     * Tipos de vehículo (mismos valores que la columna Delivery_Driver.vehicle_type)
+     */
+    public enum VehicleType {
+        BICYCLE,
+        MOTORCYCLE,
+        CAR,
+        WALKING
+    }
+
+    private int driverId;
+    private int platformId;
+    private String fullName;
+    private String externalId;      // ID del repartidor en la plataforma
+    private String phone;
+    private VehicleType vehicleType;
+    private BigDecimal rating;      // 1.00 a 5.00
+    private int totalDeliveries;
+    private boolean isActive;
+
+    // Constructor vacío
+    public Driver() {}
+
+    // Constructor completo
+    public Driver(int driverId, int platformId, String fullName, VehicleType vehicleType,
+                  BigDecimal rating, boolean isActive) {
+        this.driverId = driverId;
+        this.platformId = platformId;
+        this.fullName = fullName;
+        this.vehicleType = vehicleType;
+        this.rating = rating;
+        this.isActive = isActive;
+    }
+
+    // Getters y Setters
+    public int getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(int driverId) {
+        this.driverId = driverId;
+    }
+
+    public int getPlatformId() {
+        return platformId;
+    }
+
+    public void setPlatformId(int platformId) {
+        this.platformId = platformId;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+
+    public String getExternalId() {
+        return externalId;
+    }
+
+    public void setExternalId(String externalId) {
+        this.externalId = externalId;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    public void setVehicleType(VehicleType vehicleType) {
+        this.vehicleType = vehicleType;
+    }
+
+    public BigDecimal getRating() {
+        return rating;
+    }
+
+    public void setRating(BigDecimal rating) {
+        this.rating = rating;
+    }
+
+    public int getTotalDeliveries() {
+        return totalDeliveries;
+    }
+
+    public void setTotalDeliveries(int totalDeliveries) {
+        this.totalDeliveries = totalDeliveries;
+    }
+
+    public boolean isActive() {
+        return isActive;
+    }
+
+    public void setActive(boolean active) {
+        isActive = active;
+    }
+
+    @Override
+    public String toString() {
+        return fullName + " (" + vehicleType + ")";
+    }
+}
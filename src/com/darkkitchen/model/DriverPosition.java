@@ -0,0 +1,61 @@
+package com.darkkitchen.model;
+
+/**
+ * Modelo que representa una posición reportada por el GPS de un repartidor
+ */
+public class DriverPosition {
+
+    private int driverId;
+    private long timeMillis;        // hora del reporte (milisegundos desde 1970)
+    private double latitude;
+    private double longitude;
+
+    // Constructor vacío
+    public DriverPosition() {}
+
+    // Constructor completo
+    public DriverPosition(int driverId, long timeMillis, double latitude, double longitude) {
+        this.driverId = driverId;
+        this.timeMillis = timeMillis;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    // Getters y Setters
+    public int getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(int driverId) {
+        this.driverId = driverId;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public void setTimeMillis(long timeMillis) {
+        this.timeMillis = timeMillis;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d (%.6f, %.6f) @%d", driverId, latitude, longitude, timeMillis);
+    }
+}
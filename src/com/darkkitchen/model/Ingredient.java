@@ -0,0 +1,102 @@
+package com.darkkitchen.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Modelo que representa un ingrediente con su costo por unidad de medida
+ */
+public class Ingredient {
+
+    private int ingredientId;
+    private String name;
+    private String unit;            // g, kg, ml, l, pz, oz o lb
+    private BigDecimal costPerUnit;
+    private String supplier;
+    private boolean isActive;
+    private BigDecimal stockQuantity;   // null = sin control de existencias
+    private BigDecimal reorderLevel;
+
+    // Constructor vacío
+    public Ingredient() {}
+
+    // Constructor completo
+    public Ingredient(int ingredientId, String name, String unit, BigDecimal costPerUnit,
+                      String supplier, boolean isActive) {
+        this.ingredientId = ingredientId;
+        this.name = name;
+        this.unit = unit;
+        this.costPerUnit = costPerUnit;
+        this.supplier = supplier;
+        this.isActive = isActive;
+    }
+
+    // Getters y Setters
+    public int getIngredientId() {
+        return ingredientId;
+    }
+
+    public void setIngredientId(int ingredientId) {
+        this.ingredientId = ingredientId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public BigDecimal getCostPerUnit() {
+        return costPerUnit;
+    }
+
+    public void setCostPerUnit(BigDecimal costPerUnit) {
+        this.costPerUnit = costPerUnit;
+    }
+
+    public String getSupplier() {
+        return supplier;
+    }
+
+    public void setSupplier(String supplier) {
+        this.supplier = supplier;
+    }
+
+    public boolean isActive() {
+        return isActive;
+    }
+
+    public void setActive(boolean active) {
+        isActive = active;
+    }
+
+    public BigDecimal getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(BigDecimal stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public BigDecimal getReorderLevel() {
+        return reorderLevel;
+    }
+
+    public void setReorderLevel(BigDecimal reorderLevel) {
+        this.reorderLevel = reorderLevel;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + unit + ")";
+    }
+}
@@ -0,0 +1,30 @@
+package com.darkkitchen.model;
+
+/**
+ * Nivel de lealtad de un cliente (mismos valores que la columna Customer.loyalty_tier).
+ * Lo calcula la función LoyaltyTierFor con los pedidos entregados y el total gastado.
+ */
+public enum LoyaltyTier {
+    NEW,
+    BRONZE,
+    SILVER,
+    GOLD,
+    PLATINUM;
+
+    private static final LoyaltyTier[] TIERS = values();
+
+    /**
+     * Nivel a partir del valor guardado en la base de datos
+     * @return NEW si el valor es null o desconocido
+     */
+    public static LoyaltyTier fromDatabase(String value) {
+        if (value != null) {
+            for (LoyaltyTier tier : TIERS) {
+                if (tier.name().equals(value)) {
+                    return tier;
+                }
+            }
+        }
+        return NEW;
+    }
+}
@@ -0,0 +1,247 @@
+package com.darkkitchen.model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modelo que representa un pedido con sus artículos y su pago
+ */
+public class Order {
+
+    private int orderId;
+    private int platformId;
+    private int locationId;
+    private int customerId;
+    private Integer driverId; // null hasta asignar repartidor
+    private java.sql.Timestamp orderDatetime;
+    private OrderStatus status = OrderStatus.CREATED;
+    private BigDecimal subtotal;
+    private BigDecimal taxAmount;
+    private BigDecimal taxRate;     // porcentaje con el que se calculó taxAmount (16.00 = 16%)
+    private BigDecimal deliveryFee;
+    private BigDecimal totalAmount;
+    private java.sql.Timestamp estimatedDeliveryTime;
+    private java.sql.Timestamp actualDeliveryTime;
+    private java.sql.Timestamp preparingAt;     // cuándo pasó a PREPARING (null si no ha pasado)
+    private java.sql.Timestamp readyAt;         // cuándo pasó a READY
+    private String specialInstructions;
+    private String promotionCode;   // código capturado por el cliente (opcional)
+    private int promotionId;        // promoción aplicada al cotizar (0 = ninguna)
+    private BigDecimal discountAmount;
+    private boolean promotionReserved;  // uso ya apartado en PromotionQuota (no se suma al guardar)
+
+    private final List<OrderItem> items = new ArrayList<>();
+    private Payment payment;
+
+    // Constructor vacío
+    public Order() {}
+
+    // Constructor con parámetros básicos
+    public Order(int platformId, int locationId, int customerId, String specialInstructions) {
+        this.platformId = platformId;
+        this.locationId = locationId;
+        this.customerId = customerId;
+        this.specialInstructions = specialInstructions;
+    }
+
+    /**
+     * Agregar un artículo al pedido
+     */
+    public Order addItem(int dishId, int quantity, String specialRequests) {
+        items.add(new OrderItem(dishId, quantity, specialRequests));
+        return this;
+    }
+
+    // Getters y Setters
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(int orderId) {
+        this.orderId = orderId;
+        for (OrderItem item : items) {
+            item.setOrderId(orderId);
+        }
+        if (payment != null) {
+            payment.setOrderId(orderId);
+        }
+    }
+
+    public int getPlatformId() {
+        return platformId;
+    }
+
+    public void setPlatformId(int platformId) {
+        this.platformId = platformId;
+    }
+
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+
+    public Integer getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(Integer driverId) {
+        this.driverId = driverId;
+    }
+
+    public java.sql.Timestamp getOrderDatetime() {
+        return orderDatetime;
+    }
+
+    public void setOrderDatetime(java.sql.Timestamp orderDatetime) {
+        this.orderDatetime = orderDatetime;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public BigDecimal getSubtotal() {
+        return subtotal;
+    }
+
+    public void setSubtotal(BigDecimal subtotal) {
+        this.subtotal = subtotal;
+    }
+
+    public BigDecimal getTaxAmount() {
+        return taxAmount;
+    }
+
+    public void setTaxAmount(BigDecimal taxAmount) {
+        this.taxAmount = taxAmount;
+    }
+
+    public BigDecimal getTaxRate() {
+        return taxRate;
+    }
+
+    public void setTaxRate(BigDecimal taxRate) {
+        this.taxRate = taxRate;
+    }
+
+    public BigDecimal getDeliveryFee() {
+        return deliveryFee;
+    }
+
+    public void setDeliveryFee(BigDecimal deliveryFee) {
+        this.deliveryFee = deliveryFee;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public java.sql.Timestamp getEstimatedDeliveryTime() {
+        return estimatedDeliveryTime;
+    }
+
+    public void setEstimatedDeliveryTime(java.sql.Timestamp estimatedDeliveryTime) {
+        this.estimatedDeliveryTime = estimatedDeliveryTime;
+    }
+
+    public java.sql.Timestamp getActualDeliveryTime() {
+        return actualDeliveryTime;
+    }
+
+    public void setActualDeliveryTime(java.sql.Timestamp actualDeliveryTime) {
+        this.actualDeliveryTime = actualDeliveryTime;
+    }
+
+    public java.sql.Timestamp getPreparingAt() {
+        return preparingAt;
+    }
+
+    public void setPreparingAt(java.sql.Timestamp preparingAt) {
+        this.preparingAt = preparingAt;
+    }
+
+    public java.sql.Timestamp getReadyAt() {
+        return readyAt;
+    }
+
+    public void setReadyAt(java.sql.Timestamp readyAt) {
+        this.readyAt = readyAt;
+    }
+
+    public String getSpecialInstructions() {
+        return specialInstructions;
+    }
+
+    public void setSpecialInstructions(String specialInstructions) {
+        this.specialInstructions = specialInstructions;
+    }
+
+    public String getPromotionCode() {
+        return promotionCode;
+    }
+
+    public void setPromotionCode(String promotionCode) {
+        this.promotionCode = promotionCode;
+    }
+
+    public int getPromotionId() {
+        return promotionId;
+    }
+
+    public void setPromotionId(int promotionId) {
+        this.promotionId = promotionId;
+    }
+
+    public BigDecimal getDiscountAmount() {
+        return discountAmount;
+    }
+
+    public void setDiscountAmount(BigDecimal discountAmount) {
+        this.discountAmount = discountAmount;
+    }
+
+    public boolean isPromotionReserved() {
+        return promotionReserved;
+    }
+
+    public void setPromotionReserved(boolean promotionReserved) {
+        this.promotionReserved = promotionReserved;
+    }
+
+    public List<OrderItem> getItems() {
+        return items;
+    }
+
+    public Payment getPayment() {
+        return payment;
+    }
+
+    public void setPayment(Payment payment) {
+        this.payment = payment;
+    }
+
+    @Override
+    public String toString() {
+        return "Pedido #" + orderId + " (" + items.size() + " artículos) - $" + totalAmount;
+    }
+}
@@ -0,0 +1,87 @@
+package com.darkkitchen.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Modelo que representa un artículo (platillo y cantidad) dentro de un pedido
+ */
+public class OrderItem {
+
+    private int orderItemId;
+    private int orderId;
+    private int dishId;
+    private int quantity;
+    private BigDecimal unitPrice; // precio al momento del pedido
+    private String specialRequests;
+
+    // Constructor vacío
+    public OrderItem() {}
+
+    // Constructor con parámetros básicos (el precio lo asigna el servicio de pedidos)
+    public OrderItem(int dishId, int quantity, String specialRequests) {
+        this.dishId = dishId;
+        this.quantity = quantity;
+        this.specialRequests = specialRequests;
+    }
+
+    // Getters y Setters
+    public int getOrderItemId() {
+        return orderItemId;
+    }
+
+    public void setOrderItemId(int orderItemId) {
+        this.orderItemId = orderItemId;
+    }
+
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(int orderId) {
+        this.orderId = orderId;
+    }
+
+    public int getDishId() {
+        return dishId;
+    }
+
+    public void setDishId(int dishId) {
+        this.dishId = dishId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(BigDecimal unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+
+    public String getSpecialRequests() {
+        return specialRequests;
+    }
+
+    public void setSpecialRequests(String specialRequests) {
+        this.specialRequests = specialRequests;
+    }
+
+    /**
+     * Subtotal del artículo (cantidad por precio unitario)
+     */
+    public BigDecimal getSubtotal() {
+        return unitPrice == null ? BigDecimal.ZERO : unitPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+
+    @Override
+    public String toString() {
+        return quantity + " x platillo " + dishId;
+    }
+}
@@ -0,0 +1,32 @@
+package com.darkkitchen.model;
+
+/**
+ * Estados de un pedido (mismos valores que la columna Order.status)
+ */
+public enum OrderStatus {
+    CREATED,
+    ACCEPTED,
+    PREPARING,
+    READY,
+    PICKED_UP,
+    DELIVERED,
+    CANCELLED;
+
+    /**
+     * Indica si el pedido ya no puede cambiar de estado
+     */
+    public boolean isFinal() {
+        return this == DELIVERED || this == CANCELLED;
+    }
+
+    /**
+     * Indica si el pedido puede pasar de este estado al indicado: solo hacia adelante
+     * (se vale saltar pasos) o a CANCELLED mientras no esté entregado
+     */
+    public boolean canTransitionTo(OrderStatus next) {
+        if (isFinal() || next == this) {
+            return false;
+        }
+        return next == CANCELLED || next.ordinal() > ordinal();
+    }
+}
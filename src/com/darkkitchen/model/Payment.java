@@ -0,0 +1,117 @@
+package com.darkkitchen.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Modelo que representa el pago de un pedido
+ */
+public class Payment {
+
+    /**
+     * Métodos de pago (mismos valores que la columna Payment.method)
+     */
+    public enum Method {
+        CREDIT_CARD, DEBIT_CARD, CASH, DIGITAL_WALLET, BANK_TRANSFER, CRYPTO
+    }
+
+    private int paymentId;
+    private int orderId;
+    private Method method;
+    private BigDecimal amount;
+    private boolean authorized;
+    private String reference;
+    private String transactionId;
+    private String currency;
+    private String status;
+
+    // Constructor vacío
+    public Payment() {}
+
+    // Constructor con parámetros básicos (el monto lo asigna el servicio de pedidos)
+    public Payment(Method method, String reference, String transactionId) {
+        this.method = method;
+        this.reference = reference;
+        this.transactionId = transactionId;
+        this.authorized = true;
+        this.currency = "MXN";
+        this.status = "PENDING";
+    }
+
+    // Getters y Setters
+    public int getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(int paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(int orderId) {
+        this.orderId = orderId;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public void setMethod(Method method) {
+        this.method = method;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public boolean isAuthorized() {
+        return authorized;
+    }
+
+    public void setAuthorized(boolean authorized) {
+        this.authorized = authorized;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return method + " $" + amount + " (" + reference + ")";
+    }
+}
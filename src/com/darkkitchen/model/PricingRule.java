@@ -0,0 +1,64 @@
+package com.darkkitchen.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Modelo que representa la tasa de impuesto y la tarifa de envío de una ubicación y
+ * plataforma. Un ID en 0 aplica a todas las ubicaciones o a todas las plataformas.
+ */
+public class PricingRule {
+
+    private int locationId;
+    private int platformId;
+    private BigDecimal taxRate;     // porcentaje, por ejemplo 16.00
+    private BigDecimal deliveryFee;
+
+    // Constructor vacío
+    public PricingRule() {}
+
+    // Constructor completo
+    public PricingRule(int locationId, int platformId, BigDecimal taxRate, BigDecimal deliveryFee) {
+        this.locationId = locationId;
+        this.platformId = platformId;
+        this.taxRate = taxRate;
+        this.deliveryFee = deliveryFee;
+    }
+
+    // Getters y Setters
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
+    public int getPlatformId() {
+        return platformId;
+    }
+
+    public void setPlatformId(int platformId) {
+        this.platformId = platformId;
+    }
+
+    public BigDecimal getTaxRate() {
+        return taxRate;
+    }
+
+    public void setTaxRate(BigDecimal taxRate) {
+        this.taxRate = taxRate;
+    }
+
+    public BigDecimal getDeliveryFee() {
+        return deliveryFee;
+    }
+
+    public void setDeliveryFee(BigDecimal deliveryFee) {
+        this.deliveryFee = deliveryFee;
+    }
+
+    @Override
+    public String toString() {
+        return "Ubicación " + locationId + " / plataforma " + platformId + ": " + taxRate + "% + $" + deliveryFee;
+    }
+}
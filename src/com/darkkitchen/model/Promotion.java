@@ -0,0 +1,119 @@
+package com.darkkitchen.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Modelo que representa una promoción (código de descuento)
+ */
+public class Promotion {
+
+    /**
+     * Tipos de promoción (mismos valores que la columna Promotion.type)
+     */
+    public enum Type {
+        PERCENTAGE,     // porcentaje sobre el subtotal
+        FIXED_AMOUNT,   // monto fijo (sin exceder el subtotal)
+        FREE_DELIVERY,  // envío gratis
+        BOGO            // la segunda unidad de cada platillo con value % de descuento
+    }
+
+    private int promotionId;
+    private Type type;
+    private BigDecimal value;
+    private String code;
+    private String description;
+    private java.sql.Date validFrom;
+    private java.sql.Date validUntil;
+    private Integer usageLimit; // null = ilimitado
+    private int usedCount;
+    private boolean isActive;
+
+    // Constructor vacío
+    public Promotion() {}
+
+    // Getters y Setters
+    public int getPromotionId() {
+        return promotionId;
+    }
+
+    public void setPromotionId(int promotionId) {
+        this.promotionId = promotionId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    public void setValue(BigDecimal value) {
+        this.value = value;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public java.sql.Date getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(java.sql.Date validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public java.sql.Date getValidUntil() {
+        return validUntil;
+    }
+
+    public void setValidUntil(java.sql.Date validUntil) {
+        this.validUntil = validUntil;
+    }
+
+    public Integer getUsageLimit() {
+        return usageLimit;
+    }
+
+    public void setUsageLimit(Integer usageLimit) {
+        this.usageLimit = usageLimit;
+    }
+
+    public int getUsedCount() {
+        return usedCount;
+    }
+
+    public void setUsedCount(int usedCount) {
+        this.usedCount = usedCount;
+    }
+
+    public boolean isActive() {
+        return isActive;
+    }
+
+    public void setActive(boolean active) {
+        isActive = active;
+    }
+
+    @Override
+    public String toString() {
+        return code + " (" + type + " " + value + ")";
+    }
+}
@@ -0,0 +1,59 @@
+package com.darkkitchen.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Modelo que representa un renglón de la receta de un platillo: cuánto lleva de un
+ * ingrediente (en la unidad del ingrediente)
+ */
+public class RecipeItem {
+
+    private int dishId;
+    private int ingredientId;
+    private BigDecimal quantity;
+    private boolean isOptional;
+
+    // Constructor vacío
+    public RecipeItem() {}
+
+    // Constructor completo
+    public RecipeItem(int dishId, int ingredientId, BigDecimal quantity, boolean isOptional) {
+        this.dishId = dishId;
+        this.ingredientId = ingredientId;
+        this.quantity = quantity;
+        this.isOptional = isOptional;
+    }
+
+    // Getters y Setters
+    public int getDishId() {
+        return dishId;
+    }
+
+    public void setDishId(int dishId) {
+        this.dishId = dishId;
+    }
+
+    public int getIngredientId() {
+        return ingredientId;
+    }
+
+    public void setIngredientId(int ingredientId) {
+        this.ingredientId = ingredientId;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+    }
+
+    public boolean isOptional() {
+        return isOptional;
+    }
+
+    public void setOptional(boolean optional) {
+        isOptional = optional;
+    }
+}
@@ -0,0 +1,531 @@
+package com.darkkitchen.order;
+
+import com.darkkitchen.dao.BatchResult;
+import com.darkkitchen.dao.DriverDAO;
+import com.darkkitchen.dao.OrderDAO;
+import com.darkkitchen.model.Driver;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.model.OrderStatus;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asignación de repartidores a los pedidos listos (READY). Los repartidores disponibles
+ * viven en un índice espacial por ubicación (DriverGrid) y un solo hilo procesa por
+ * micro-lotes las posiciones que llegan del canal de repartidores y los pedidos que pasan a
+ * READY: cada BATCH_WINDOW_MS toma los pedidos pendientes, del más antiguo al más nuevo, y
+ * a cada uno le asigna el repartidor de su plataforma que llegaría antes a recogerlo
+ * (distancia entre la velocidad del vehículo, con castigo por calificación baja). El lote
+ * completo se guarda con un solo OrderDAO.assignDrivers. Cuando el pedido se entrega o se
+ * cancela, el repartidor vuelve a estar disponible en su última posición.
+ *
+ * Debe correr en una sola terminal: la que recibe las posiciones de los repartidores.
+ */
+public class DispatchService {
+
+    public static final long BATCH_WINDOW_MS = 50;
+    // Pausa antes de volver a intentar los pedidos cuya asignación no se pudo guardar
+    private static final long RETRY_DELAY_MS = 1_000;
+
+    // Velocidad promedio en ciudad (m/s) y distancia máxima para ir a recoger, por vehículo
+    private static final double[] SPEED = new double[Driver.VehicleType.values().length];
+    private static final double[] MAX_PICKUP_METERS = new double[SPEED.length];
+    private static final double MAX_SPEED;
+
+    static {
+        setVehicle(Driver.VehicleType.BICYCLE, 4.5, 5_000);
+        setVehicle(Driver.VehicleType.MOTORCYCLE, 9.0, DriverGrid.RADIUS_METERS);
+        setVehicle(Driver.VehicleType.CAR, 7.0, DriverGrid.RADIUS_METERS);
+        setVehicle(Driver.VehicleType.WALKING, 1.3, 1_500);
+        MAX_SPEED = Arrays.stream(SPEED).max().orElse(1);
+    }
+
+    /**
+     * Recibe cada asignación guardada, en el hilo de reparto
+     */
+    public interface Listener {
+        /**
+         * @param waitNanos Tiempo desde que el pedido quedó listo hasta que se guardó la asignación
+         */
+        void assigned(int orderId, int driverId, long waitNanos);
+    }
+
+    // Instancia singleton
+    private static class Holder {
+        private static final DispatchService INSTANCE = createDefault();
+    }
+
+    // Datos de los repartidores activos por ID; se reemplazan completos al recargar
+    private static final class Roster {
+        final int[] platform;
+        final byte[] vehicle;           // ordinal + 1 (0 = no está activo)
+        final double[] ratingFactor;
+
+        Roster(List<Driver> drivers) {
+            int maxId = 0;
+            for (Driver driver : drivers) {
+                maxId = Math.max(maxId, driver.getDriverId());
+            }
+            platform = new int[maxId + 1];
+            vehicle = new byte[maxId + 1];
+            ratingFactor = new double[maxId + 1];
+            for (Driver driver : drivers) {
+                int id = driver.getDriverId();
+                platform[id] = driver.getPlatformId();
+                Driver.VehicleType type = driver.getVehicleType() != null
+                    ? driver.getVehicleType() : Driver.VehicleType.MOTORCYCLE;
+                vehicle[id] = (byte) (type.ordinal() + 1);
+                ratingFactor[id] = ratingFactor(driver.getRating());
+            }
+        }
+
+        boolean isActive(int driverId) {
+            return driverId < vehicle.length && vehicle[driverId] != 0;
+        }
+    }
+
+    // Aviso para el hilo de reparto
+    private static final class Event {
+        static final int POSITION = 1;
+        static final int OFFLINE = 2;
+        static final int READY = 3;
+        static final int CLOSED = 4;
+
+        final int kind;
+        final int id;
+        final double lat;
+        final double lon;
+        final long nanos;
+
+        Event(int kind, int id, double lat, double lon) {
+            this.kind = kind;
+            this.id = id;
+            this.lat = lat;
+            this.lon = lon;
+            this.nanos = System.nanoTime();
+        }
+    }
+
+    // Pedido listo esperando repartidor
+    private static final class Pending {
+        final int orderId;
+        final int locationId;
+        final int platformId;
+        final long readyNanos;
+        boolean closed;
+
+        Pending(int orderId, int locationId, int platformId, long readyNanos) {
+            this.orderId = orderId;
+            this.locationId = locationId;
+            this.platformId = platformId;
+            this.readyNanos = readyNanos;
+        }
+    }
+
+    // Costo de los repartidores de una plataforma; se reutiliza para no crear objetos por pedido
+    private static final class PlatformCost implements DriverGrid.Cost {
+        Roster roster;
+        int platformId;
+
+        @Override
+        public double of(int driverId, double meters) {
+            if (!roster.isActive(driverId) || roster.platform[driverId] != platformId) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return pickupSeconds(roster.vehicle[driverId] - 1, roster.ratingFactor[driverId], meters);
+        }
+    }
+
+    private final DriverDAO driverDAO;
+    private final OrderDAO orderDAO;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    // Ubicación y plataforma de los pedidos guardados en esta terminal: {ubicación, plataforma}
+    private final Map<Integer, int[]> orderInfo = new ConcurrentHashMap<>();
+    private final Thread dispatcher;
+    private volatile Roster roster = new Roster(Collections.emptyList());
+    private volatile Map<Integer, double[]> locationPoints = Collections.emptyMap();
+    private volatile boolean running = true;
+
+    // Solo los usa el hilo de reparto
+    private DriverGrid grid = new DriverGrid(Collections.emptyMap());
+    private Map<Integer, double[]> gridPoints = locationPoints;
+    private final PlatformCost platformCost = new PlatformCost();
+    private double[] lat = new double[0];
+    private double[] lon = new double[0];
+    private boolean[] online = new boolean[0];
+    private int[] busyWith = new int[0];        // pedido asignado (0 = libre)
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    private final Map<Integer, Pending> pendingById = new HashMap<>();
+    private final Map<Integer, Integer> driverByOrder = new HashMap<>();
+    // Hay pedidos nuevos o repartidores que se liberaron desde el último pase
+    private boolean changed;
+    // Cuándo reintentar pedidos que regresaron a la cola (0 = ninguno)
+    private long retryAtNanos;
+
+    // Estadísticas
+    private final LongAdder assigned = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder positions = new LongAdder();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong matchNanos = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private volatile int pendingCount;
+    private volatile int availableCount;
+
+    /**
+     * @param driverDAO Repartidores activos y coordenadas de las ubicaciones
+     * @param orderDAO Pedidos listos sin repartidor y guardado de las asignaciones
+     */
+    public DispatchService(DriverDAO driverDAO, OrderDAO orderDAO) {
+        this.driverDAO = driverDAO;
+        this.orderDAO = orderDAO;
+        this.dispatcher = new Thread(this::dispatchLoop, "dk-dispatch");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Obtiene la instancia singleton de DispatchService
+     */
+    public static DispatchService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // La instancia de la aplicación conoce los pedidos guardados y sigue sus cambios de estado
+    private static DispatchService createDefault() {
+        DispatchService dispatch = new DispatchService(new DriverDAO(), new OrderDAO());
+        OrderService.getInstance().addSavedListener(dispatch::track);
+        OrderStateMachine.getInstance().addListener((orderId, from, to, version) -> {
+            if (to == OrderStatus.READY) {
+                dispatch.orderReady(orderId);
+            } else if (to == OrderStatus.DELIVERED || to == OrderStatus.CANCELLED) {
+                dispatch.orderClosed(orderId);
+            }
+        });
+        return dispatch;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Lee los repartidores activos, las coordenadas de las ubicaciones y los pedidos listos
+     * que ya esperaban repartidor
+     * @return Repartidores activos
+     */
+    public int load() {
+        List<Driver> drivers = driverDAO.readActiveDrivers();
+        Map<Integer, double[]> points = driverDAO.readLocationPoints();
+        if (points.isEmpty()) {
+            System.err.println("⚠️ Ninguna ubicación tiene coordenadas: no se pueden asignar repartidores");
+        }
+        roster = new Roster(drivers);
+        locationPoints = points;
+        for (Order order : orderDAO.readUnassignedReady()) {
+            track(order);
+            orderReady(order.getOrderId());
+        }
+        System.out.println("✅ Reparto: " + drivers.size() + " repartidores activos, "
+            + points.size() + " ubicaciones con coordenadas");
+        return drivers.size();
+    }
+
+    /**
+     * Registra la ubicación y plataforma de un pedido para asignarlo cuando esté listo
+     */
+    public void track(Order order) {
+        if (order.getOrderId() > 0) {
+            orderInfo.put(order.getOrderId(), new int[] {order.getLocationId(), order.getPlatformId()});
+        }
+    }
+
+    /**
+     * Posición reportada por un repartidor; lo deja disponible si no lleva un pedido
+     */
+    public void driverPosition(int driverId, double latitude, double longitude) {
+        events.add(new Event(Event.POSITION, driverId, latitude, longitude));
+    }
+
+    /**
+     * El repartidor dejó de recibir pedidos
+     */
+    public void driverOffline(int driverId) {
+        events.add(new Event(Event.OFFLINE, driverId, 0, 0));
+    }
+
+    /**
+     * El pedido está listo para recogerse
+     */
+    public void orderReady(int orderId) {
+        events.add(new Event(Event.READY, orderId, 0, 0));
+    }
+
+    /**
+     * El pedido se entregó o se canceló: libera a su repartidor
+     */
+    public void orderClosed(int orderId) {
+        orderInfo.remove(orderId);
+        events.add(new Event(Event.CLOSED, orderId, 0, 0));
+    }
+
+    /**
+     * Detiene el hilo de reparto (los pedidos pendientes quedan sin asignar)
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        try {
+            dispatcher.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Tiempo estimado en segundos para que el repartidor llegue a recoger, ajustado por su
+     * calificación (el mismo costo con el que se elige)
+     * @return Double.POSITIVE_INFINITY si la distancia pasa del alcance de su vehículo
+     */
+    public static double pickupSeconds(Driver driver, double meters) {
+        Driver.VehicleType type = driver.getVehicleType() != null
+            ? driver.getVehicleType() : Driver.VehicleType.MOTORCYCLE;
+        return pickupSeconds(type.ordinal(), ratingFactor(driver.getRating()), meters);
+    }
+
+    public String getStats() {
+        long b = batches.get();
+        long a = assigned.sum();
+        return String.format(
+            "Reparto: %d asignados | %d sin guardar | %d lotes | %.1f µs de búsqueda por asignación | espera prom %.1f ms"
+                + " | %d pendientes | %d repartidores disponibles | %d posiciones",
+            a, failed.sum(), b, a == 0 ? 0.0 : matchNanos.get() / (double) a / 1_000.0,
+            a == 0 ? 0.0 : waitNanos.get() / (double) a / 1_000_000.0,
+            pendingCount, availableCount, positions.sum());
+    }
+
+    private static void setVehicle(Driver.VehicleType type, double speed, double maxPickupMeters) {
+        SPEED[type.ordinal()] = speed;
+        MAX_PICKUP_METERS[type.ordinal()] = maxPickupMeters;
+    }
+
+    private static double pickupSeconds(int vehicle, double ratingFactor, double meters) {
+        if (meters > MAX_PICKUP_METERS[vehicle]) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return meters / SPEED[vehicle] * ratingFactor;
+    }
+
+    // 5.00 = 1.0; cada punto menos de calificación cuenta como 10 % más de tiempo
+    private static double ratingFactor(BigDecimal rating) {
+        return rating == null ? 1.0 : 1.0 + Math.max(0, 5.0 - rating.doubleValue()) * 0.1;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            LockSupport.parkNanos(BATCH_WINDOW_MS * 1_000_000);
+            try {
+                if (locationPoints != gridPoints) {
+                    rebuildGrid();
+                }
+                applyEvents();
+                boolean retry = retryAtNanos != 0 && System.nanoTime() - retryAtNanos >= 0;
+                if ((changed || retry) && !pending.isEmpty()) {
+                    retryAtNanos = 0;
+                    match();
+                }
+                changed = false;
+                pendingCount = pending.size();
+                availableCount = grid.size();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error al asignar repartidores: " + e.getMessage());
+            }
+        }
+    }
+
+    // Nuevas coordenadas de ubicaciones: se vuelven a colocar los repartidores libres
+    private void rebuildGrid() {
+        gridPoints = locationPoints;
+        grid = new DriverGrid(gridPoints);
+        for (int driver = 1; driver < online.length; driver++) {
+            makeAvailable(driver);
+        }
+    }
+
+    private void applyEvents() {
+        Roster current = roster;
+        Event event;
+        while ((event = events.poll()) != null) {
+            switch (event.kind) {
+                case Event.POSITION -> {
+                    int driver = event.id;
+                    ensureCapacity(driver);
+                    lat[driver] = event.lat;
+                    lon[driver] = event.lon;
+                    online[driver] = current.isActive(driver);
+                    makeAvailable(driver);
+                    positions.increment();
+                }
+                case Event.OFFLINE -> {
+                    if (event.id < online.length) {
+                        online[event.id] = false;
+                        grid.remove(event.id);
+                    }
+                }
+                case Event.READY -> ready(event.id, event.nanos);
+                case Event.CLOSED -> closed(event.id);
+                default -> { }
+            }
+        }
+    }
+
+    private void ready(int orderId, long readyNanos) {
+        if (pendingById.containsKey(orderId) || driverByOrder.containsKey(orderId)) {
+            return;
+        }
+        int[] info = orderInfo.remove(orderId);
+        if (info == null) {
+            // Pedido de otra terminal o de antes de iniciar
+            Order order = orderDAO.readById(orderId);
+            if (order == null || order.getStatus() != OrderStatus.READY || order.getDriverId() != null) {
+                return;
+            }
+            info = new int[] {order.getLocationId(), order.getPlatformId()};
+        }
+        Pending p = new Pending(orderId, info[0], info[1], readyNanos);
+        pending.addLast(p);
+        pendingById.put(orderId, p);
+        changed = true;
+    }
+
+    private void closed(int orderId) {
+        Pending p = pendingById.remove(orderId);
+        if (p != null) {
+            p.closed = true;
+        }
+        Integer driver = driverByOrder.remove(orderId);
+        if (driver != null) {
+            busyWith[driver] = 0;
+            makeAvailable(driver);
+        }
+    }
+
+    // Al índice si está en línea y libre
+    private void makeAvailable(int driver) {
+        if (driver < online.length && online[driver] && busyWith[driver] == 0) {
+            // Un repartidor que solo se movió dentro del índice no cambia quién puede asignarse
+            changed |= !grid.contains(driver);
+            grid.put(driver, lat[driver], lon[driver]);
+        } else {
+            grid.remove(driver);
+        }
+    }
+
+    // Un pase por los pendientes, del más antiguo al más nuevo; los que no encuentran repartidor esperan
+    private void match() {
+        long start = System.nanoTime();
+        platformCost.roster = roster;
+        List<int[]> batch = new ArrayList<>();
+        List<Pending> matched = new ArrayList<>();
+
+        for (int i = pending.size(); i > 0; i--) {
+            Pending p = pending.pollFirst();
+            if (p.closed) {
+                continue;
+            }
+            platformCost.platformId = p.platformId;
+            int driver = grid.best(p.locationId, platformCost, 1.0 / MAX_SPEED);
+            if (driver == 0) {
+                pending.addLast(p);
+                continue;
+            }
+            grid.remove(driver);
+            busyWith[driver] = p.orderId;
+            batch.add(new int[] {p.orderId, driver});
+            matched.add(p);
+        }
+        matchNanos.addAndGet(System.nanoTime() - start);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        BatchResult<int[]> result = orderDAO.assignDrivers(batch);
+        batches.incrementAndGet();
+        boolean[] rejected = new boolean[batch.size()];
+        for (BatchResult.Failure<int[]> failure : result.getFailures()) {
+            rejected[failure.getIndex()] = true;
+        }
+
+        // Si falló el lote completo (conexión o commit) ninguna fila se guardó: todos se reintentan
+        boolean batchFailed = result.getBatchError() != null;
+        if (batchFailed) {
+            System.err.println("❌ Error al guardar asignaciones de repartidores: " + result.getBatchError());
+        }
+        long now = System.nanoTime();
+        for (int i = 0; i < batch.size(); i++) {
+            Pending p = matched.get(i);
+            int driver = batch.get(i)[1];
+            if (rejected[i]) {
+                busyWith[driver] = 0;
+                makeAvailable(driver);
+                failed.increment();
+                if (batchFailed || stillWaiting(p.orderId)) {
+                    pending.addLast(p);
+                    retryAtNanos = now + RETRY_DELAY_MS * 1_000_000;
+                } else {
+                    // Ya tenía repartidor (por ejemplo, desde otra terminal) o ya no está listo
+                    pendingById.remove(p.orderId);
+                    System.err.println("⚠️ No se asignó repartidor al pedido #" + p.orderId);
+                }
+                continue;
+            }
+            pendingById.remove(p.orderId);
+            driverByOrder.put(p.orderId, driver);
+            assigned.increment();
+            long wait = now - p.readyNanos;
+            waitNanos.addAndGet(wait);
+            for (Listener listener : listeners) {
+                try {
+                    listener.assigned(p.orderId, driver, wait);
+                } catch (RuntimeException e) {
+                    System.err.println("❌ Error al avisar asignación: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // true si el pedido sigue listo y sin repartidor en la base de datos
+    private boolean stillWaiting(int orderId) {
+        Order order = orderDAO.readById(orderId);
+        return order != null && order.getStatus() == OrderStatus.READY && order.getDriverId() == null;
+    }
+
+    private void ensureCapacity(int driverId) {
+        if (driverId < online.length) {
+            return;
+        }
+        int capacity = Math.max(driverId + 1, online.length * 2);
+        lat = Arrays.copyOf(lat, capacity);
+        lon = Arrays.copyOf(lon, capacity);
+        online = Arrays.copyOf(online, capacity);
+        busyWith = Arrays.copyOf(busyWith, capacity);
+    }
+}
@@ -0,0 +1,294 @@
+package com.darkkitchen.order;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Índice espacial de los repartidores disponibles: una cuadrícula de celdas de 500 m
+ * alrededor de cada ubicación (unos 40 km por lado). Cada repartidor queda en la cuadrícula
+ * de todas las ubicaciones a menos de RADIUS_METERS (con ubicaciones cercanas, en varias),
+ * como una entrada de una lista enlazada por celda guardada en arreglos, así que moverlo
+ * cuesta O(ubicaciones) y no crea objetos. Para buscar el mejor repartidor de una
+ * ubicación se recorren anillos de celdas desde el centro hasta que ninguna celda más
+ * lejana pueda mejorar el costo encontrado.
+ *
+ * Las posiciones se proyectan a metros alrededor de cada ubicación (equirrectangular:
+ * suficiente para distancias de pocos kilómetros).
+ * No es seguro para varios hilos: solo lo usa el hilo de DispatchService.
+ */
+final class DriverGrid {
+
+    static final double METERS_PER_DEGREE = 111_320;
+    static final double CELL_METERS = 500;
+    // Impar: la ubicación queda en el centro de la celda central
+    private static final int CELLS = 81;
+    private static final int CENTER = CELLS / 2;
+    static final double RADIUS_METERS = CELL_METERS * CENTER;
+    private static final int NONE = -1;
+
+    /**
+     * Costo de asignar un repartidor que está a cierta distancia de la ubicación
+     */
+    interface Cost {
+        /**
+         * @return Costo (menor es mejor), o Double.POSITIVE_INFINITY si el repartidor no sirve
+         */
+        double of(int driverId, double meters);
+    }
+
+    // Ubicaciones (por posición): ID, origen y metros por grado de longitud en su latitud
+    private final int[] locationIds;
+    private final double[] originLat;
+    private final double[] originLon;
+    private final double[] metersPerDegreeLon;
+    private final int[][] heads;
+    private final Map<Integer, Integer> slotByLocation = new HashMap<>();
+
+    // Por entrada (un repartidor en la cuadrícula de una ubicación): repartidor, ubicación,
+    // celda, lista de la celda, siguiente entrada del mismo repartidor y posición en metros
+    private int[] entryDriver = new int[0];
+    private int[] entrySlot = new int[0];
+    private int[] entryCell = new int[0];
+    private int[] next = new int[0];
+    private int[] prev = new int[0];
+    private int[] sibling = new int[0];
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private int entries;
+    private int freeEntry = NONE;
+
+    // Por ID de repartidor: su primera entrada (NONE = fuera del índice)
+    private int[] firstEntry = new int[0];
+    private int size;
+
+    /**
+     * @param locationPoints {latitud, longitud} por ID de ubicación
+     */
+    DriverGrid(Map<Integer, double[]> locationPoints) {
+        int count = locationPoints.size();
+        locationIds = new int[count];
+        originLat = new double[count];
+        originLon = new double[count];
+        metersPerDegreeLon = new double[count];
+        heads = new int[count][];
+        int slot = 0;
+        for (Map.Entry<Integer, double[]> entry : locationPoints.entrySet()) {
+            locationIds[slot] = entry.getKey();
+            originLat[slot] = entry.getValue()[0];
+            originLon[slot] = entry.getValue()[1];
+            metersPerDegreeLon[slot] = METERS_PER_DEGREE * Math.cos(Math.toRadians(originLat[slot]));
+            heads[slot] = new int[CELLS * CELLS];
+            Arrays.fill(heads[slot], NONE);
+            slotByLocation.put(entry.getKey(), slot);
+            slot++;
+        }
+    }
+
+    /**
+     * Coloca o mueve al repartidor en la cuadrícula de cada ubicación a menos de RADIUS_METERS
+     * @return ID de la ubicación más cercana, o 0 si está a más de RADIUS_METERS de todas (queda fuera)
+     */
+    int put(int driverId, double lat, double lon) {
+        ensureDriverCapacity(driverId);
+        boolean wasIndexed = firstEntry[driverId] != NONE;
+        int nearest = NONE;
+        double nearestDistance = RADIUS_METERS * RADIUS_METERS;
+        for (int slot = 0; slot < locationIds.length; slot++) {
+            double dx = (lon - originLon[slot]) * metersPerDegreeLon[slot];
+            double dy = (lat - originLat[slot]) * METERS_PER_DEGREE;
+            double distance = dx * dx + dy * dy;
+            int entry = entryOf(driverId, slot);
+            if (distance > RADIUS_METERS * RADIUS_METERS) {
+                if (entry != NONE) {
+                    removeEntry(driverId, entry);
+                }
+                continue;
+            }
+            if (distance <= nearestDistance) {
+                nearest = slot;
+                nearestDistance = distance;
+            }
+
+            int cell = cell(dy) * CELLS + cell(dx);
+            if (entry == NONE) {
+                entry = newEntry(driverId, slot);
+                link(entry, cell);
+            } else if (entryCell[entry] != cell) {
+                unlink(entry);
+                link(entry, cell);
+            }
+            x[entry] = dx;
+            y[entry] = dy;
+        }
+
+        boolean indexed = firstEntry[driverId] != NONE;
+        if (indexed != wasIndexed) {
+            size += indexed ? 1 : -1;
+        }
+        return nearest == NONE ? 0 : locationIds[nearest];
+    }
+
+    /**
+     * Quita al repartidor del índice (de todas las ubicaciones)
+     * @return false si no estaba
+     */
+    boolean remove(int driverId) {
+        if (!contains(driverId)) {
+            return false;
+        }
+        for (int entry = firstEntry[driverId]; entry != NONE; ) {
+            int following = sibling[entry];
+            unlink(entry);
+            free(entry);
+            entry = following;
+        }
+        firstEntry[driverId] = NONE;
+        size--;
+        return true;
+    }
+
+    boolean contains(int driverId) {
+        return driverId < firstEntry.length && firstEntry[driverId] != NONE;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Repartidor de menor costo para recoger en la ubicación; en empate, el de menor ID
+     * @param minCostPerMeter Cota inferior del costo por metro de distancia (para dejar de buscar)
+     * @return ID del repartidor, o 0 si ninguno sirve
+     */
+    int best(int locationId, Cost cost, double minCostPerMeter) {
+        Integer slot = slotByLocation.get(locationId);
+        if (slot == null) {
+            return 0;
+        }
+        int[] head = heads[slot];
+        int bestDriver = 0;
+        double bestCost = Double.POSITIVE_INFINITY;
+
+        for (int ring = 0; ring <= CENTER; ring++) {
+            // Todo lo que está en el anillo queda al menos a (ring - 0.5) celdas de la ubicación
+            if (ring > 0 && (ring - 0.5) * CELL_METERS * minCostPerMeter > bestCost) {
+                break;
+            }
+            int low = CENTER - ring;
+            int high = CENTER + ring;
+            for (int row = low; row <= high; row++) {
+                // En las filas intermedias del anillo solo cuentan la primera y la última columna
+                int step = row == low || row == high ? 1 : high - low;
+                for (int column = low; column <= high; column += step) {
+                    for (int entry = head[row * CELLS + column]; entry != NONE; entry = next[entry]) {
+                        int driver = entryDriver[entry];
+                        double c = cost.of(driver, Math.sqrt(x[entry] * x[entry] + y[entry] * y[entry]));
+                        if (c < bestCost || (c == bestCost && c != Double.POSITIVE_INFINITY && driver < bestDriver)) {
+                            bestCost = c;
+                            bestDriver = driver;
+                        }
+                    }
+                }
+            }
+        }
+        return bestDriver;
+    }
+
+    private static int cell(double meters) {
+        int cell = CENTER + (int) Math.floor(meters / CELL_METERS + 0.5);
+        return Math.max(0, Math.min(CELLS - 1, cell));
+    }
+
+    // Entrada del repartidor en la cuadrícula de la ubicación, o NONE
+    private int entryOf(int driverId, int slot) {
+        for (int entry = firstEntry[driverId]; entry != NONE; entry = sibling[entry]) {
+            if (entrySlot[entry] == slot) {
+                return entry;
+            }
+        }
+        return NONE;
+    }
+
+    private int newEntry(int driverId, int slot) {
+        int entry;
+        if (freeEntry != NONE) {
+            entry = freeEntry;
+            freeEntry = next[entry];
+        } else {
+            ensureEntryCapacity(entries + 1);
+            entry = entries++;
+        }
+        entryDriver[entry] = driverId;
+        entrySlot[entry] = slot;
+        sibling[entry] = firstEntry[driverId];
+        firstEntry[driverId] = entry;
+        return entry;
+    }
+
+    // Quita una entrada de su celda y de la lista del repartidor
+    private void removeEntry(int driverId, int entry) {
+        unlink(entry);
+        if (firstEntry[driverId] == entry) {
+            firstEntry[driverId] = sibling[entry];
+        } else {
+            int before = firstEntry[driverId];
+            while (sibling[before] != entry) {
+                before = sibling[before];
+            }
+            sibling[before] = sibling[entry];
+        }
+        free(entry);
+    }
+
+    private void free(int entry) {
+        next[entry] = freeEntry;
+        freeEntry = entry;
+    }
+
+    private void link(int entry, int cell) {
+        int[] head = heads[entrySlot[entry]];
+        next[entry] = head[cell];
+        prev[entry] = NONE;
+        if (head[cell] != NONE) {
+            prev[head[cell]] = entry;
+        }
+        head[cell] = entry;
+        entryCell[entry] = cell;
+    }
+
+    private void unlink(int entry) {
+        if (prev[entry] != NONE) {
+            next[prev[entry]] = next[entry];
+        } else {
+            heads[entrySlot[entry]][entryCell[entry]] = next[entry];
+        }
+        if (next[entry] != NONE) {
+            prev[next[entry]] = prev[entry];
+        }
+    }
+
+    private void ensureDriverCapacity(int driverId) {
+        if (driverId < firstEntry.length) {
+            return;
+        }
+        int length = firstEntry.length;
+        firstEntry = Arrays.copyOf(firstEntry, Math.max(driverId + 1, length * 2));
+        Arrays.fill(firstEntry, length, firstEntry.length, NONE);
+    }
+
+    private void ensureEntryCapacity(int count) {
+        if (count <= entryDriver.length) {
+            return;
+        }
+        int capacity = Math.max(count, entryDriver.length * 2);
+        entryDriver = Arrays.copyOf(entryDriver, capacity);
+        entrySlot = Arrays.copyOf(entrySlot, capacity);
+        entryCell = Arrays.copyOf(entryCell, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        sibling = Arrays.copyOf(sibling, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+    }
+}
@@ -0,0 +1,137 @@
+package com.darkkitchen.order;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Recorrido reciente de cada repartidor: un búfer circular de CAPACITY puntos por
+ * repartidor dentro de arreglos primitivos compartidos (hora, latitud y longitud en
+ * millonésimas de grado), indexados por ID de repartidor. Agregar un punto no crea objetos.
+ *
+ * Un solo hilo escribe a la vez (TelemetryService lo garantiza); las lecturas no se
+ * bloquean: cada repartidor tiene un contador de puntos escritos que se publica después de
+ * escribir el punto, y el lector vuelve a leer el contador al terminar para descartar lo
+ * que el escritor pudo sobrescribir mientras copiaba (como un seqlock).
+ */
+final class DriverTracks {
+
+    static final int CAPACITY = 128;
+    private static final int MASK = CAPACITY - 1;
+    private static final int SHIFT = Integer.numberOfTrailingZeros(CAPACITY);
+
+    // Arreglos de todos los repartidores; se reemplazan completos al crecer
+    private static final class Store {
+        final long[] time;
+        final int[] lat;
+        final int[] lon;
+        final AtomicLongArray written;      // puntos escritos por repartidor (el último está en written - 1)
+
+        Store(int drivers) {
+            time = new long[drivers << SHIFT];
+            lat = new int[drivers << SHIFT];
+            lon = new int[drivers << SHIFT];
+            written = new AtomicLongArray(drivers);
+        }
+    }
+
+    private volatile Store store = new Store(0);
+
+    /**
+     * Agrega un punto al final del recorrido. Solo un hilo a la vez.
+     * @return false si el punto es más antiguo que el último (llegó desordenado)
+     */
+    boolean add(int driverId, long time, int latE6, int lonE6) {
+        Store s = ensureCapacity(driverId);
+        long n = s.written.get(driverId);
+        int base = driverId << SHIFT;
+        if (n > 0 && time < s.time[base + (int) ((n - 1) & MASK)]) {
+            return false;
+        }
+        int index = base + (int) (n & MASK);
+        s.time[index] = time;
+        s.lat[index] = latE6;
+        s.lon[index] = lonE6;
+        s.written.set(driverId, n + 1);
+        return true;
+    }
+
+    /**
+     * Copia los puntos con hora mayor o igual a since, del más antiguo al más nuevo, precedidos
+     * por el último punto anterior a since si todavía está en el búfer: si el primero copiado
+     * no es anterior a since, el recorrido desde since puede estar incompleto. Con since =
+     * Long.MAX_VALUE copia solo el último punto.
+     * @param times Recibe las horas (al menos CAPACITY posiciones)
+     * @param lats Recibe las latitudes en millonésimas de grado
+     * @param lons Recibe las longitudes en millonésimas de grado
+     * @return Puntos copiados
+     */
+    int copySince(int driverId, long since, long[] times, int[] lats, int[] lons) {
+        while (true) {
+            Store s = store;
+            if (driverId < 0 || driverId >= s.written.length()) {
+                return 0;
+            }
+            long written = s.written.get(driverId);
+            // El escritor puede estar sobrescribiendo el punto written - CAPACITY
+            long oldest = Math.max(0, written - CAPACITY + 1);
+            int base = driverId << SHIFT;
+
+            // Desde el más nuevo hacia atrás hasta el primero anterior a since
+            long first = written;
+            while (first > oldest && s.time[base + (int) ((first - 1) & MASK)] >= since) {
+                first--;
+            }
+            if (first > oldest) {
+                first--;
+            }
+            int count = 0;
+            for (long i = first; i < written; i++) {
+                int index = base + (int) (i & MASK);
+                times[count] = s.time[index];
+                lats[count] = s.lat[index];
+                lons[count] = s.lon[index];
+                count++;
+            }
+
+            // Lo copiado sigue siendo válido si el escritor no alcanzó a sobrescribirlo
+            VarHandle.acquireFence();
+            if (first >= s.written.get(driverId) - CAPACITY + 1) {
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Puntos guardados de un repartidor (hasta CAPACITY - 1 legibles a la vez)
+     */
+    long written(int driverId) {
+        Store s = store;
+        return driverId >= 0 && driverId < s.written.length() ? s.written.get(driverId) : 0;
+    }
+
+    private Store ensureCapacity(int driverId) {
+        Store s = store;
+        if (driverId < s.written.length()) {
+            return s;
+        }
+        int drivers = Math.max(driverId + 1, s.written.length() * 2);
+        Store grown = new Store(drivers);
+        int length = s.written.length() << SHIFT;
+        System.arraycopy(s.time, 0, grown.time, 0, length);
+        System.arraycopy(s.lat, 0, grown.lat, 0, length);
+        System.arraycopy(s.lon, 0, grown.lon, 0, length);
+        for (int i = 0; i < s.written.length(); i++) {
+            grown.written.set(i, s.written.get(i));
+        }
+        store = grown;
+        return grown;
+    }
+
+    static int toMicroDegrees(double degrees) {
+        return (int) Math.round(degrees * 1_000_000);
+    }
+
+    static double toDegrees(int microDegrees) {
+        return microDegrees / 1_000_000.0;
+    }
+}
@@ -0,0 +1,466 @@
+package com.darkkitchen.order;
+
+import com.darkkitchen.dao.BatchResult;
+import com.darkkitchen.dao.MenuCache;
+import com.darkkitchen.dao.OrderDAO;
+import com.darkkitchen.model.Dish;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.model.OrderItem;
+import com.darkkitchen.model.OrderStatus;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * Hora estimada de entrega de los pedidos abiertos, en lugar de los 45 y 30 minutos fijos
+ * que ponía tr_order_status_after_update. Para cada pedido se suma:
+ * - la espera en la cocina de su ubicación: cada una de sus estaciones toma el siguiente
+ *   pedido en orden de llegada al terminar el que prepara (con los tiempos estimados);
+ * - la preparación de su canasta: el platillo más tardado, según el cuantil ETA_QUANTILE de
+ *   lo que ese platillo ha tardado de PREPARING a READY o, con pocos datos, su preparation_time;
+ * - el traslado: el cuantil de lo que tardan los pedidos de su ubicación de READY a DELIVERED.
+ * Los cuantiles se mantienen por platillo y por ubicación con P2Quantile, sumando cada pedido
+ * cuando cambia de estado, sin releer el historial. Cuando cambia la carga (pedidos nuevos o
+ * cambios de estado) un solo hilo recalcula todos los pedidos abiertos en una pasada y guarda
+ * solo las horas que se movieron al menos un minuto.
+ */
+public class EtaService {
+
+    public static final double ETA_QUANTILE = 0.7;
+    public static final int DEFAULT_STATIONS = 4;
+    // Datos mínimos antes de usar el cuantil en lugar de preparation_time o el traslado por defecto
+    public static final int MIN_SAMPLES = 20;
+    private static final int DEFAULT_PREPARATION_MINUTES = 15;
+    private static final int HISTORY_DAYS = 30;
+    private static final long RECOMPUTE_INTERVAL_MS = 1_000;
+    // Sin cambios de carga también se recalcula de vez en cuando: los pedidos atrasados se mueven
+    private static final long REFRESH_INTERVAL_MS = 60_000;
+    private static final long SAVE_TOLERANCE_MS = 60_000;
+    private static final long MIN_REMAINING_MS = 60_000;
+
+    /**
+     * Recibe cada hora estimada que cambió y se guardó, en el hilo de cálculo
+     */
+    public interface Listener {
+        void estimated(int orderId, long etaMillis);
+    }
+
+    // Instancia singleton
+    private static class Holder {
+        private static final EtaService INSTANCE = createDefault();
+    }
+
+    // Pedido abierto
+    private static final class Open {
+        final int orderId;
+        final int locationId;
+        final int[] dishIds;
+        final int[] preparationTimes;   // preparation_time de cada platillo al seguir el pedido
+        final long placedMillis;
+        OrderStatus status;
+        long preparingMillis;
+        long readyMillis;
+        long etaMillis;
+        long savedEtaMillis;
+
+        Open(Order order, long placedMillis, IntUnaryOperator preparationTime) {
+            this.orderId = order.getOrderId();
+            this.locationId = order.getLocationId();
+            this.dishIds = order.getItems().stream().mapToInt(OrderItem::getDishId).distinct().toArray();
+            this.preparationTimes = new int[dishIds.length];
+            for (int i = 0; i < dishIds.length; i++) {
+                preparationTimes[i] = preparationTime.applyAsInt(dishIds[i]);
+            }
+            this.placedMillis = placedMillis;
+            this.status = order.getStatus();
+            this.preparingMillis = millis(order.getPreparingAt());
+            this.readyMillis = millis(order.getReadyAt());
+            this.savedEtaMillis = millis(order.getEstimatedDeliveryTime());
+        }
+    }
+
+    private static final Comparator<Open> KITCHEN_ORDER = Comparator.<Open>comparingInt(o -> o.locationId)
+        .thenComparingInt(o -> o.status.ordinal() >= OrderStatus.PREPARING.ordinal() ? 0 : 1)
+        .thenComparingLong(o -> o.placedMillis)
+        .thenComparingInt(o -> o.orderId);
+
+    private final IntFunction<Dish> dishes;
+    private final OrderDAO orderDAO;
+    private final int stations;
+    private final LongSupplier clock;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Object passLock = new Object();
+    private final Thread calculator;
+    private volatile boolean running = true;
+
+    // Protegidos por el candado de la instancia
+    private final Map<Integer, Open> open = new HashMap<>();
+    private final Map<Integer, P2Quantile> prepByDish = new HashMap<>();
+    private final Map<Integer, P2Quantile> deliveryByLocation = new HashMap<>();
+    private boolean changed;
+    private long lastPassMillis;
+
+    // Estadísticas
+    private final LongAdder prepSamples = new LongAdder();
+    private final LongAdder deliverySamples = new LongAdder();
+    private final AtomicLong passes = new AtomicLong();
+    private final AtomicLong passNanos = new AtomicLong();
+    private final AtomicLong saved = new AtomicLong();
+    private final AtomicLong saveFailed = new AtomicLong();
+    private volatile int openCount;
+
+    /**
+     * @param dishes Platillo por ID (preparation_time); se consulta al seguir cada pedido, fuera del candado
+     * @param orderDAO Pedidos abiertos, historial y guardado de las horas estimadas
+     * @param stations Pedidos que cada cocina prepara a la vez
+     * @param clock Hora actual en milisegundos
+     */
+    public EtaService(IntFunction<Dish> dishes, OrderDAO orderDAO, int stations, LongSupplier clock) {
+        this.dishes = dishes;
+        this.orderDAO = orderDAO;
+        this.stations = Math.max(1, stations);
+        this.clock = clock;
+        this.calculator = new Thread(this::calculateLoop, "dk-eta");
+        calculator.setDaemon(true);
+        calculator.start();
+    }
+
+    /**
+     * Obtiene la instancia singleton de EtaService
+     */
+    public static EtaService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // La instancia de la aplicación sigue los pedidos guardados y sus cambios de estado, y
+    // reordena la cola de cocina con las horas nuevas
+    private static EtaService createDefault() {
+        EtaService eta = new EtaService(MenuCache.getInstance()::getDish, new OrderDAO(),
+            Integer.getInteger("darkkitchen.kitchen.stations", DEFAULT_STATIONS), System::currentTimeMillis);
+        OrderService.getInstance().addSavedListener(eta::track);
+        OrderStateMachine.getInstance().addListener((orderId, from, to, version) -> eta.statusChanged(orderId, to));
+        eta.addListener(KitchenQueue.getInstance()::reprioritize);
+        return eta;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Lee los tiempos de los pedidos entregados en los últimos HISTORY_DAYS días y los
+     * pedidos abiertos, y calcula sus horas estimadas
+     * @return Pedidos abiertos
+     */
+    public int load() {
+        Timestamp since = new Timestamp(clock.getAsLong() - HISTORY_DAYS * 24 * 3_600_000L);
+        List<Order> history = orderDAO.readDeliveredSince(since);
+        // Los platillos se leen fuera del candado y una sola vez cada uno
+        Map<Integer, Integer> times = new HashMap<>();
+        List<Open> done = new ArrayList<>(history.size());
+        for (Order order : history) {
+            done.add(new Open(order, millis(order.getOrderDatetime()),
+                dishId -> times.computeIfAbsent(dishId, this::preparationTime)));
+        }
+        synchronized (this) {
+            for (int i = 0; i < done.size(); i++) {
+                addPrepSample(done.get(i), done.get(i).readyMillis);
+                addDeliverySample(done.get(i), millis(history.get(i).getActualDeliveryTime()));
+            }
+        }
+        for (Order order : orderDAO.readOpenOrders()) {
+            track(order);
+        }
+        recompute();
+        System.out.println("✅ Tiempos de entrega: " + history.size() + " entregas de historial, "
+            + openCount + " pedidos abiertos");
+        return openCount;
+    }
+
+    /**
+     * Sigue un pedido guardado hasta que se entregue o se cancele.
+     * Los tiempos de preparación de sus platillos se leen aquí, fuera del candado.
+     */
+    public void track(Order order) {
+        if (order.getOrderId() <= 0 || order.getStatus().isFinal()) {
+            return;
+        }
+        long placed = order.getOrderDatetime() != null ? order.getOrderDatetime().getTime() : clock.getAsLong();
+        Open o = new Open(order, placed, this::preparationTime);
+        synchronized (this) {
+            if (open.putIfAbsent(order.getOrderId(), o) == null) {
+                openCount = open.size();
+                changed = true;
+            }
+        }
+    }
+
+    /**
+     * Cambio de estado de un pedido: al quedar listo y al entregarse suma sus tiempos a las
+     * estadísticas de sus platillos y de su ubicación
+     */
+    public synchronized void statusChanged(int orderId, OrderStatus status) {
+        Open o = open.get(orderId);
+        if (o == null || o.status == status) {
+            return;
+        }
+        long now = clock.getAsLong();
+        o.status = status;
+        switch (status) {
+            case PREPARING -> o.preparingMillis = now;
+            case READY -> {
+                o.readyMillis = now;
+                addPrepSample(o, now);
+            }
+            case DELIVERED -> {
+                addDeliverySample(o, now);
+                open.remove(orderId);
+            }
+            case CANCELLED -> open.remove(orderId);
+            default -> { }
+        }
+        openCount = open.size();
+        changed = true;
+    }
+
+    /**
+     * Hora estimada de entrega calculada en la última pasada
+     * @return Milisegundos o 0 si el pedido no está abierto o no se ha calculado
+     */
+    public synchronized long estimatedMillis(int orderId) {
+        Open o = open.get(orderId);
+        return o != null ? o.etaMillis : 0;
+    }
+
+    /**
+     * Minutos estimados de preparación de un platillo (cuantil o preparation_time)
+     */
+    public double preparationMinutes(int dishId) {
+        synchronized (this) {
+            P2Quantile stats = prepByDish.get(dishId);
+            if (stats != null && stats.count() >= MIN_SAMPLES) {
+                return stats.value();
+            }
+        }
+        return preparationTime(dishId);
+    }
+
+    /**
+     * Minutos estimados de traslado desde una ubicación (cuantil o el traslado por defecto)
+     */
+    public synchronized double deliveryMinutes(int locationId) {
+        P2Quantile stats = deliveryByLocation.get(locationId);
+        return stats != null && stats.count() >= MIN_SAMPLES
+            ? stats.value() : KitchenQueue.DEFAULT_DELIVERY_MINUTES;
+    }
+
+    /**
+     * Recalcula en una pasada la hora estimada de todos los pedidos abiertos y guarda las que
+     * se movieron al menos un minuto
+     * @return Horas guardadas
+     */
+    public int recompute() {
+        synchronized (passLock) {
+            List<long[]> estimates = new ArrayList<>();
+            synchronized (this) {
+                long start = System.nanoTime();
+                long now = clock.getAsLong();
+                changed = false;
+                lastPassMillis = now;
+                pass(now, estimates);
+                passes.incrementAndGet();
+                passNanos.addAndGet(System.nanoTime() - start);
+            }
+            if (estimates.isEmpty()) {
+                return 0;
+            }
+
+            BatchResult<long[]> result = orderDAO.updateEstimatedTimes(estimates);
+            boolean[] rejected = new boolean[estimates.size()];
+            for (BatchResult.Failure<long[]> failure : result.getFailures()) {
+                rejected[failure.getIndex()] = true;
+            }
+            int written = 0;
+            synchronized (this) {
+                for (int i = 0; i < estimates.size(); i++) {
+                    Open o = open.get((int) estimates.get(i)[0]);
+                    if (!rejected[i] && o != null) {
+                        o.savedEtaMillis = estimates.get(i)[1];
+                        written++;
+                    }
+                }
+            }
+            saved.addAndGet(written);
+            saveFailed.addAndGet(result.getFailedCount());
+            for (int i = 0; i < estimates.size(); i++) {
+                if (!rejected[i]) {
+                    for (Listener listener : listeners) {
+                        listener.estimated((int) estimates.get(i)[0], estimates.get(i)[1]);
+                    }
+                }
+            }
+            return written;
+        }
+    }
+
+    /**
+     * Detiene el hilo de cálculo
+     */
+    public void shutdown() {
+        running = false;
+        calculator.interrupt();
+        try {
+            calculator.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Resumen de estadísticas
+     */
+    public String getStats() {
+        long p = passes.get();
+        return String.format(
+            "Tiempos de entrega: %d pedidos abiertos | %d pasadas (prom %.2f ms) | %d horas guardadas | %d sin guardar"
+                + " | %d preparaciones y %d traslados medidos",
+            openCount, p, p == 0 ? 0.0 : passNanos.get() / (double) p / 1_000_000.0, saved.get(), saveFailed.get(),
+            prepSamples.sum(), deliverySamples.sum());
+    }
+
+    // Con el candado: cocina por cocina, primero los que ya se preparan y luego los que
+    // esperan, del más antiguo al más nuevo
+    private void pass(long now, List<long[]> estimates) {
+        List<Open> orders = new ArrayList<>(open.values());
+        orders.sort(KITCHEN_ORDER);
+        long[] free = new long[stations];       // hora en que se desocupa cada estación
+        int locationId = -1;
+        double deliveryMinutes = 0;
+        for (Open o : orders) {
+            if (o.locationId != locationId) {
+                locationId = o.locationId;
+                Arrays.fill(free, now);
+                deliveryMinutes = deliveryMinutes(locationId);
+            }
+            long readyMillis;
+            switch (o.status) {
+                case CREATED, ACCEPTED -> {
+                    int station = firstFree(free);
+                    readyMillis = free[station] + toMillis(basketMinutes(o));
+                    free[station] = readyMillis;
+                }
+                case PREPARING -> {
+                    long started = o.preparingMillis > 0 ? o.preparingMillis : now;
+                    readyMillis = now + Math.max(started + toMillis(basketMinutes(o)) - now, MIN_REMAINING_MS);
+                    int station = firstFree(free);
+                    free[station] = Math.max(free[station], readyMillis);
+                }
+                default -> readyMillis = o.readyMillis > 0 ? o.readyMillis : now;
+            }
+            long eta = Math.max(readyMillis + toMillis(deliveryMinutes), now + MIN_REMAINING_MS);
+            o.etaMillis = eta;
+            if (Math.abs(eta - o.savedEtaMillis) >= SAVE_TOLERANCE_MS) {
+                estimates.add(new long[] {o.orderId, eta});
+            }
+        }
+    }
+
+    private static int firstFree(long[] free) {
+        int first = 0;
+        for (int i = 1; i < free.length; i++) {
+            if (free[i] < free[first]) {
+                first = i;
+            }
+        }
+        return first;
+    }
+
+    // La canasta está lista cuando lo está su platillo más tardado (se preparan a la vez)
+    private double basketMinutes(Open o) {
+        if (o.dishIds.length == 0) {
+            return DEFAULT_PREPARATION_MINUTES;
+        }
+        double minutes = 0;
+        for (int i = 0; i < o.dishIds.length; i++) {
+            P2Quantile stats = prepByDish.get(o.dishIds[i]);
+            minutes = Math.max(minutes, stats != null && stats.count() >= MIN_SAMPLES
+                ? stats.value() : o.preparationTimes[i]);
+        }
+        return minutes;
+    }
+
+    // preparation_time del platillo; sin platillo (o sin tiempo) el valor por defecto.
+    // Puede leer la base de datos, así que nunca se llama con el candado
+    private int preparationTime(int dishId) {
+        Dish dish = dishes.apply(dishId);
+        return dish != null && dish.getPreparationTime() > 0 ? dish.getPreparationTime() : DEFAULT_PREPARATION_MINUTES;
+    }
+
+    // El tiempo de la canasta se le atribuye al platillo que la define (el de mayor preparation_time)
+    private void addPrepSample(Open o, long readyMillis) {
+        if (o.preparingMillis <= 0 || readyMillis < o.preparingMillis || o.dishIds.length == 0) {
+            return;
+        }
+        int critical = o.dishIds[0];
+        int criticalMinutes = -1;
+        for (int i = 0; i < o.dishIds.length; i++) {
+            if (o.preparationTimes[i] > criticalMinutes) {
+                critical = o.dishIds[i];
+                criticalMinutes = o.preparationTimes[i];
+            }
+        }
+        prepByDish.computeIfAbsent(critical, id -> new P2Quantile(ETA_QUANTILE))
+            .add((readyMillis - o.preparingMillis) / 60_000.0);
+        prepSamples.increment();
+    }
+
+    private void addDeliverySample(Open o, long deliveredMillis) {
+        if (o.readyMillis <= 0 || deliveredMillis < o.readyMillis) {
+            return;
+        }
+        deliveryByLocation.computeIfAbsent(o.locationId, id -> new P2Quantile(ETA_QUANTILE))
+            .add((deliveredMillis - o.readyMillis) / 60_000.0);
+        deliverySamples.increment();
+    }
+
+    private void calculateLoop() {
+        while (running) {
+            try {
+                Thread.sleep(RECOMPUTE_INTERVAL_MS);
+                boolean due;
+                synchronized (this) {
+                    due = changed || clock.getAsLong() - lastPassMillis >= REFRESH_INTERVAL_MS;
+                }
+                if (due) {
+                    recompute();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error al calcular tiempos de entrega: " + e.getMessage());
+            }
+        }
+    }
+
+    private static long toMillis(double minutes) {
+        return Math.round(minutes * 60_000);
+    }
+
+    private static long millis(Timestamp time) {
+        return time != null ? time.getTime() : 0;
+    }
+}
@@ -0,0 +1,526 @@
+package com.darkkitchen.order;
+
+import com.darkkitchen.dao.BatchResult;
+import com.darkkitchen.dao.DishDAO;
+import com.darkkitchen.dao.QueryExecutor;
+import com.darkkitchen.dao.RecipeDAO;
+import com.darkkitchen.model.Ingredient;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.model.OrderItem;
+import com.darkkitchen.model.OrderStatus;
+import com.darkkitchen.model.RecipeItem;
+import com.darkkitchen.pricing.RecipeGraph;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Existencias de ingredientes en memoria, descontadas al aceptar cada pedido.
+ * La receta de cada platillo se expande con RecipeGraph (solo los ingredientes requeridos).
+ * Los consumos se suman en un LongAdder por ingrediente, así que muchos pedidos a la vez no
+ * se forman detrás de la misma fila; un hilo los descuenta por lotes de la base de datos
+ * cada pocos segundos y relee la existencia guardada (incluye lo de otras terminales).
+ *
+ * Cuando un ingrediente llega a su punto de reorden se avisa a los listeners con los
+ * platillos que ya no alcanzan para una porción; si autoDisable está activo esos platillos
+ * se marcan agotados (Dish.out_of_stock), y se desmarcan cuando hay existencia otra vez.
+ * La baja lógica y la disponibilidad que captura el personal no se tocan.
+ * Un pedido cancelado antes de entrar a preparación devuelve sus ingredientes.
+ * Los ingredientes con stock_quantity en NULL no se controlan.
+ */
+public class InventoryService {
+
+    /** Existencia de un ingrediente sin control (o que ninguna receta usa) */
+    public static final long UNTRACKED = Long.MIN_VALUE;
+    private static final long FLUSH_INTERVAL_MS = 2_000;
+
+    /**
+     * Recibe los avisos de existencia baja, en el hilo que hizo el consumo
+     */
+    public interface Listener {
+        /**
+         * @param availableMilli Existencia disponible en milésimas de unidad
+         * @param exhaustedDishIds Platillos que ya no alcanzan para una porción (puede estar vacío)
+         */
+        void lowStock(int ingredientId, long availableMilli, int[] exhaustedDishIds);
+    }
+
+    // Instancia singleton
+    private static class Holder {
+        private static final InventoryService INSTANCE = createDefault();
+    }
+
+    // Tablas cargadas; se reemplazan completas al recargar
+    private static final class Tables {
+        final RecipeGraph graph;
+        final AtomicLongArray stock;            // existencia guardada, en milésimas
+        final LongAdder[] pending;              // consumos aún no guardados
+        final long[] reorderLevel;
+        final AtomicIntegerArray low;           // por ingrediente: 1 = ya se avisó
+        final AtomicIntegerArray exhausted;     // por platillo: 1 = sin existencia para una porción
+
+        Tables(RecipeGraph graph, int ingredients) {
+            this.graph = graph;
+            this.stock = new AtomicLongArray(ingredients);
+            this.pending = new LongAdder[ingredients];
+            this.reorderLevel = new long[ingredients];
+            this.low = new AtomicIntegerArray(ingredients);
+            this.exhausted = new AtomicIntegerArray(graph.maxDishId() + 1);
+            for (int i = 0; i < ingredients; i++) {
+                stock.set(i, UNTRACKED);
+                pending[i] = new LongAdder();
+            }
+        }
+
+        long available(int ingredientId) {
+            long saved = stock.get(ingredientId);
+            return saved == UNTRACKED ? UNTRACKED : saved - pending[ingredientId].sum();
+        }
+    }
+
+    private final RecipeDAO recipeDAO;
+    private final DishDAO dishDAO;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Platillos y cantidades de los pedidos que aún pueden cancelarse sin gastar ingredientes
+    private final Map<Integer, int[]> openOrders = new ConcurrentHashMap<>();
+    private final Thread flusher;
+    private volatile Tables tables;
+    private volatile boolean autoDisable = true;
+    private volatile boolean running = true;
+
+    // Estadísticas
+    private final LongAdder ordersConsumed = new LongAdder();
+    private final LongAdder ordersReleased = new LongAdder();
+    private final LongAdder ordersSkipped = new LongAdder();
+    private final LongAdder lowEvents = new LongAdder();
+    private final LongAdder dishesExhausted = new LongAdder();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+
+    /**
+     * @param recipeDAO Recetas, existencias y descuento por lotes
+     * @param dishDAO Marca de agotado de los platillos
+     */
+    public InventoryService(RecipeDAO recipeDAO, DishDAO dishDAO) {
+        this.recipeDAO = recipeDAO;
+        this.dishDAO = dishDAO;
+        this.flusher = new Thread(this::flushLoop, "dk-inventory-flush");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Obtiene la instancia singleton de InventoryService
+     */
+    public static InventoryService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // La instancia de la aplicación descuenta cada pedido guardado y devuelve los cancelados
+    private static InventoryService createDefault() {
+        InventoryService inventory = new InventoryService(new RecipeDAO(), new DishDAO());
+        OrderService.getInstance().addSavedListener(inventory::consume);
+        OrderStateMachine.getInstance().addListener((orderId, from, to, version) -> {
+            if (to == OrderStatus.CANCELLED) {
+                inventory.release(orderId);
+            } else if (to.ordinal() >= OrderStatus.PREPARING.ordinal()) {
+                inventory.settle(orderId);
+            }
+        });
+        return inventory;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Marca agotados los platillos sin existencia (true por defecto)
+     */
+    public void setAutoDisable(boolean autoDisable) {
+        this.autoDisable = autoDisable;
+    }
+
+    /**
+     * Lee ingredientes y recetas. Los consumos anteriores a la recarga se guardan primero.
+     * @return true si se cargó
+     */
+    public boolean load() {
+        long start = System.currentTimeMillis();
+        List<Ingredient> ingredients = recipeDAO.readIngredients();
+        List<RecipeItem> required = new ArrayList<>();
+        for (RecipeItem item : recipeDAO.readRecipeItems()) {
+            if (!item.isOptional()) {
+                required.add(item);
+            }
+        }
+        RecipeGraph graph = RecipeGraph.from(required);
+        // Al arrancar se retoman los platillos que quedaron agotados en la base de datos
+        List<Integer> marked = tables == null ? dishDAO.readOutOfStockIds() : null;
+
+        int size = graph.maxIngredientId() + 1;
+        for (Ingredient ingredient : ingredients) {
+            size = Math.max(size, ingredient.getIngredientId() + 1);
+        }
+        Tables loaded = new Tables(graph, size);
+        int tracked = 0;
+        for (Ingredient ingredient : ingredients) {
+            if (ingredient.getStockQuantity() != null) {
+                loaded.stock.set(ingredient.getIngredientId(), toMilli(ingredient.getStockQuantity()));
+                loaded.reorderLevel[ingredient.getIngredientId()] =
+                    ingredient.getReorderLevel() != null ? toMilli(ingredient.getReorderLevel()) : 0;
+                tracked++;
+            }
+        }
+
+        Tables previous;
+        synchronized (this) {
+            previous = tables;
+            if (previous != null) {
+                // Los platillos que el inventario desactivó siguen marcados para reactivarse
+                int dishes = Math.min(previous.exhausted.length(), loaded.exhausted.length());
+                for (int d = 0; d < dishes; d++) {
+                    loaded.exhausted.set(d, previous.exhausted.get(d));
+                }
+            }
+            tables = loaded;
+            if (previous != null) {
+                flush(previous);
+            }
+        }
+        if (marked != null) {
+            List<Integer> orphaned = new ArrayList<>();
+            for (int dishId : marked) {
+                if (graph.linesFrom(dishId) < graph.linesTo(dishId)) {
+                    loaded.exhausted.set(dishId, 1);
+                } else {
+                    // Sin receta requerida: ya no hay ingrediente que lo agote
+                    orphaned.add(dishId);
+                }
+            }
+            if (autoDisable && !orphaned.isEmpty()) {
+                QueryExecutor.getInstance().submit(() -> dishDAO.setOutOfStock(orphaned, false));
+            }
+        }
+        for (int i = 1; i < size; i++) {
+            stockIncreased(loaded, i);
+            stockDecreased(loaded, i);
+        }
+        System.out.printf("✅ Inventario cargado: %d ingredientes con existencias, %d renglones de receta en %d ms%n",
+            tracked, graph.lineCount(), System.currentTimeMillis() - start);
+        return true;
+    }
+
+    public boolean isLoaded() {
+        return tables != null;
+    }
+
+    /**
+     * Descuenta los ingredientes de un pedido aceptado (en memoria; se guardan con el siguiente lote)
+     * @return false si el inventario aún no se carga o el pedido no tiene platillos
+     */
+    public boolean consume(Order order) {
+        Tables t = tables;
+        List<OrderItem> items = order.getItems();
+        if (t == null || items.isEmpty()) {
+            ordersSkipped.increment();
+            return false;
+        }
+        int[] dishes = new int[items.size() * 2];
+        for (int i = 0; i < items.size(); i++) {
+            dishes[2 * i] = items.get(i).getDishId();
+            dishes[2 * i + 1] = items.get(i).getQuantity();
+        }
+        apply(t, dishes, 1);
+        if (order.getOrderId() > 0 && !order.getStatus().isFinal()
+                && order.getStatus().ordinal() < OrderStatus.PREPARING.ordinal()) {
+            openOrders.put(order.getOrderId(), dishes);
+        }
+        ordersConsumed.increment();
+        return true;
+    }
+
+    /**
+     * Devuelve los ingredientes de un pedido cancelado antes de prepararse
+     * @return true si el pedido tenía ingredientes descontados
+     */
+    public boolean release(int orderId) {
+        int[] dishes = openOrders.remove(orderId);
+        Tables t = tables;
+        if (dishes == null || t == null) {
+            return false;
+        }
+        apply(t, dishes, -1);
+        ordersReleased.increment();
+        return true;
+    }
+
+    /**
+     * El pedido entró a preparación: sus ingredientes ya no se devuelven
+     */
+    public void settle(int orderId) {
+        openOrders.remove(orderId);
+    }
+
+    /**
+     * Registra una entrada de mercancía y reactiva los platillos que vuelven a alcanzar
+     * @param quantity Cantidad en la unidad del ingrediente
+     * @return true si se guardó
+     */
+    public boolean restock(int ingredientId, BigDecimal quantity) {
+        if (!recipeDAO.addStock(ingredientId, quantity)) {
+            return false;
+        }
+        synchronized (this) {
+            refresh(List.of(ingredientId));
+        }
+        return true;
+    }
+
+    /**
+     * Existencia disponible (guardada menos consumos pendientes)
+     * @return Milésimas de unidad, o UNTRACKED
+     */
+    public long available(int ingredientId) {
+        Tables t = tables;
+        if (t == null || ingredientId <= 0 || ingredientId >= t.pending.length) {
+            return UNTRACKED;
+        }
+        return t.available(ingredientId);
+    }
+
+    /**
+     * Indica si el platillo se quedó sin existencia para una porción
+     */
+    public boolean isExhausted(int dishId) {
+        Tables t = tables;
+        return t != null && dishId > 0 && dishId < t.exhausted.length() && t.exhausted.get(dishId) == 1;
+    }
+
+    /**
+     * Guarda de inmediato los consumos pendientes
+     * @return Ingredientes descontados en la base de datos
+     */
+    public synchronized int flush() {
+        Tables t = tables;
+        return t != null ? flush(t) : 0;
+    }
+
+    /**
+     * Detiene el hilo de guardado después de guardar lo pendiente
+     */
+    public void shutdown() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Resumen de estadísticas
+     */
+    public String getStats() {
+        long f = flushes.get();
+        return String.format(
+            "Inventario: %d pedidos descontados | %d devueltos | %d sin cargar | %d avisos de existencia baja"
+                + " | %d platillos agotados | %d lotes (prom %.1f ingredientes) | %d con error",
+            ordersConsumed.sum(), ordersReleased.sum(), ordersSkipped.sum(), lowEvents.sum(),
+            dishesExhausted.sum(), f, f == 0 ? 0.0 : rowsWritten.get() / (double) f, rowsFailed.get());
+    }
+
+    // Suma (sign = 1) o devuelve (sign = -1) los ingredientes de pares {platillo, cantidad}
+    private void apply(Tables t, int[] dishes, int sign) {
+        RecipeGraph graph = t.graph;
+        for (int i = 0; i < dishes.length; i += 2) {
+            int dishId = dishes[i];
+            long portions = dishes[i + 1];
+            for (int line = graph.linesFrom(dishId); line < graph.linesTo(dishId); line++) {
+                int ingredientId = graph.ingredientOf(line);
+                if (t.stock.get(ingredientId) == UNTRACKED) {
+                    continue;
+                }
+                t.pending[ingredientId].add(sign * graph.quantityMilliOf(line) * portions);
+                if (sign > 0) {
+                    stockDecreased(t, ingredientId);
+                } else {
+                    stockIncreased(t, ingredientId);
+                }
+            }
+        }
+    }
+
+    // Aviso al llegar al punto de reorden y cada vez que otro platillo deja de alcanzar
+    private void stockDecreased(Tables t, int ingredientId) {
+        long available = t.available(ingredientId);
+        if (available == UNTRACKED || available > t.reorderLevel[ingredientId]) {
+            return;
+        }
+        boolean firstLow = t.low.compareAndSet(ingredientId, 0, 1);
+        List<Integer> exhausted = new ArrayList<>();
+        RecipeGraph graph = t.graph;
+        for (int use = graph.usesFrom(ingredientId); use < graph.usesTo(ingredientId); use++) {
+            int dishId = graph.dishOf(use);
+            if (available < portion(graph, dishId, ingredientId) && t.exhausted.compareAndSet(dishId, 0, 1)) {
+                exhausted.add(dishId);
+            }
+        }
+        if (!firstLow && exhausted.isEmpty()) {
+            return;
+        }
+
+        lowEvents.increment();
+        dishesExhausted.add(exhausted.size());
+        System.out.printf("⚠️ Ingrediente #%d en punto de reorden: quedan %s (%d platillos agotados)%n",
+            ingredientId, BigDecimal.valueOf(available, 3).toPlainString(), exhausted.size());
+        int[] dishIds = exhausted.stream().mapToInt(Integer::intValue).toArray();
+        for (Listener listener : listeners) {
+            try {
+                listener.lowStock(ingredientId, available, dishIds);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error al avisar existencia baja: " + e.getMessage());
+            }
+        }
+        if (autoDisable && !exhausted.isEmpty()) {
+            QueryExecutor.getInstance().submit(() -> dishDAO.setOutOfStock(exhausted, true));
+        }
+    }
+
+    // Rearma el aviso y reactiva los platillos agotados que ya alcanzan
+    private void stockIncreased(Tables t, int ingredientId) {
+        long available = t.available(ingredientId);
+        if (available == UNTRACKED || available > t.reorderLevel[ingredientId]) {
+            t.low.set(ingredientId, 0);
+        }
+        List<Integer> restored = new ArrayList<>();
+        RecipeGraph graph = t.graph;
+        for (int use = graph.usesFrom(ingredientId); use < graph.usesTo(ingredientId); use++) {
+            int dishId = graph.dishOf(use);
+            if (t.exhausted.get(dishId) == 1 && canServe(t, dishId) && t.exhausted.compareAndSet(dishId, 1, 0)) {
+                restored.add(dishId);
+            }
+        }
+        if (autoDisable && !restored.isEmpty()) {
+            System.out.println("✅ Platillos con existencia otra vez: " + restored);
+            QueryExecutor.getInstance().submit(() -> dishDAO.setOutOfStock(restored, false));
+        }
+    }
+
+    // true si todos los ingredientes controlados alcanzan para una porción
+    private static boolean canServe(Tables t, int dishId) {
+        RecipeGraph graph = t.graph;
+        for (int line = graph.linesFrom(dishId); line < graph.linesTo(dishId); line++) {
+            long available = t.available(graph.ingredientOf(line));
+            if (available != UNTRACKED && available < graph.quantityMilliOf(line)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long portion(RecipeGraph graph, int dishId, int ingredientId) {
+        for (int line = graph.linesFrom(dishId); line < graph.linesTo(dishId); line++) {
+            if (graph.ingredientOf(line) == ingredientId) {
+                return graph.quantityMilliOf(line);
+            }
+        }
+        return 0;
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                Thread.sleep(FLUSH_INTERVAL_MS);
+                flush();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error al guardar existencias: " + e.getMessage());
+            }
+        }
+    }
+
+    // Un solo lote con el consumo acumulado de cada ingrediente; lo que falla se reintenta después
+    private int flush(Tables t) {
+        List<long[]> consumptions = new ArrayList<>();
+        for (int i = 1; i < t.pending.length; i++) {
+            long amount = t.pending[i].sum();
+            if (amount != 0) {
+                consumptions.add(new long[] {i, amount});
+            }
+        }
+        if (consumptions.isEmpty()) {
+            return 0;
+        }
+
+        BatchResult<long[]> result = recipeDAO.consumeStock(consumptions);
+        flushes.incrementAndGet();
+        boolean[] rejected = new boolean[consumptions.size()];
+        for (BatchResult.Failure<long[]> failure : result.getFailures()) {
+            rejected[failure.getIndex()] = true;
+        }
+        List<Integer> ids = new ArrayList<>(consumptions.size());
+        int written = 0;
+        for (int i = 0; i < consumptions.size(); i++) {
+            int ingredientId = (int) consumptions.get(i)[0];
+            ids.add(ingredientId);
+            if (rejected[i]) {
+                continue;
+            }
+            long amount = consumptions.get(i)[1];
+            // Primero la existencia guardada: mientras tanto se ve de menos, nunca de más
+            t.stock.addAndGet(ingredientId, -amount);
+            t.pending[ingredientId].add(-amount);
+            written++;
+        }
+        rowsWritten.addAndGet(written);
+        rowsFailed.addAndGet(result.getFailedCount());
+        refresh(ids);
+        return written;
+    }
+
+    // Relee la existencia guardada (con lo que descontaron otras terminales)
+    private void refresh(Collection<Integer> ingredientIds) {
+        Tables t = tables;
+        Map<Integer, BigDecimal> saved = recipeDAO.readStock(ingredientIds);
+        if (t == null || saved == null) {
+            return;
+        }
+        for (int ingredientId : ingredientIds) {
+            if (ingredientId <= 0 || ingredientId >= t.pending.length) {
+                continue;
+            }
+            BigDecimal value = saved.get(ingredientId);
+            if (value == null) {
+                // Ya no se controla (o se borró)
+                t.stock.set(ingredientId, UNTRACKED);
+                t.pending[ingredientId].reset();
+            } else {
+                t.stock.set(ingredientId, toMilli(value));
+            }
+            stockIncreased(t, ingredientId);
+            stockDecreased(t, ingredientId);
+        }
+    }
+
+    private static long toMilli(BigDecimal quantity) {
+        return quantity.movePointRight(3).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
@@ -0,0 +1,359 @@
+package com.darkkitchen.order;
+
+import com.darkkitchen.dao.MenuCache;
+import com.darkkitchen.dao.OrderDAO;
+import com.darkkitchen.dao.QueryExecutor;
+import com.darkkitchen.model.Dish;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.model.OrderItem;
+import com.darkkitchen.model.OrderStatus;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Cola de preparación de la cocina en memoria.
+ * Cada platillo de un pedido es un renglón (KitchenTicket). Todos los renglones de un
+ * pedido deben estar listos a la misma hora (la hora prometida menos el traslado), así que
+ * cada uno empieza a esa hora menos su preparation_time: el de preparación más larga va
+ * primero y el pedido sale completo. La cola está ordenada por esa hora de inicio
+ * (ConcurrentSkipListSet, O(log n) por cambio) y avisa cada cambio a sus listeners, sin
+ * consultar la base de datos.
+ */
+public class KitchenQueue {
+
+    // Para un pedido que todavía no tiene hora estimada (EtaService la calcula al guardarse)
+    public static final int DEFAULT_PROMISE_MINUTES = 45;
+    // Tiempo de traslado: el pedido debe estar listo antes de la hora prometida
+    public static final int DEFAULT_DELIVERY_MINUTES = 15;
+    private static final int DEFAULT_PREPARATION_MINUTES = 15;
+
+    /**
+     * Recibe cada renglón nuevo o modificado; removed indica que salió de la pantalla
+     */
+    public interface Listener {
+        void ticketChanged(KitchenTicket ticket, boolean removed);
+    }
+
+    // Instancia singleton
+    private static class Holder {
+        private static final KitchenQueue INSTANCE = createDefault();
+    }
+
+    private final IntFunction<Dish> dishes;
+    private final int deliveryMinutes;
+
+    // Renglones en espera, por prioridad
+    private final ConcurrentSkipListSet<KitchenTicket> waiting = new ConcurrentSkipListSet<>(KitchenTicket.PRIORITY);
+    // Versión actual de cada renglón (en espera, en preparación o listo)
+    private final Map<Long, KitchenTicket> tickets = new ConcurrentHashMap<>();
+    // Renglones de cada pedido; los cambios de un pedido se serializan con su instancia
+    private final Map<Integer, OrderTickets> orders = new ConcurrentHashMap<>();
+    private final AtomicLong nextTicketId = new AtomicLong(1);
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile BiConsumer<Integer, OrderStatus> statusSink = (orderId, status) -> { };
+    // Registra el estado de cada pedido que entra a la cola (null fuera de la aplicación)
+    private volatile OrderStateMachine stateMachine;
+
+    /**
+     * @param dishes Platillo por ID (nombre y preparation_time)
+     * @param deliveryMinutes Minutos de traslado antes de la hora prometida
+     */
+    public KitchenQueue(IntFunction<Dish> dishes, int deliveryMinutes) {
+        this.dishes = dishes;
+        this.deliveryMinutes = deliveryMinutes;
+    }
+
+    /**
+     * Obtiene la instancia singleton de KitchenQueue
+     */
+    public static KitchenQueue getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // La instancia de la aplicación pasa los cambios de estado por OrderStateMachine; un pedido
+    // que la máquina no conoce se actualiza directo en segundo plano
+    private static KitchenQueue createDefault() {
+        KitchenQueue queue = new KitchenQueue(MenuCache.getInstance()::getDish, DEFAULT_DELIVERY_MINUTES);
+        OrderStateMachine stateMachine = OrderStateMachine.getInstance();
+        OrderDAO orderDAO = new OrderDAO();
+        queue.stateMachine = stateMachine;
+        queue.setStatusSink((orderId, status) -> {
+            if (stateMachine.transition(orderId, status) == OrderStateMachine.Result.UNKNOWN_ORDER) {
+                QueryExecutor.getInstance().submit(() -> orderDAO.updateStatus(orderId, status));
+            }
+        });
+        // Un pedido cancelado sale de la pantalla
+        stateMachine.addListener((orderId, from, to, version) -> {
+            if (to == OrderStatus.CANCELLED) {
+                queue.remove(orderId);
+            }
+        });
+        return queue;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Recibe los cambios de estado del pedido (PREPARING al empezar el primer renglón,
+     * READY al terminar el último)
+     */
+    public void setStatusSink(BiConsumer<Integer, OrderStatus> statusSink) {
+        this.statusSink = statusSink;
+    }
+
+    /**
+     * Agrega los platillos de un pedido. Un pedido que ya está en la cola se ignora.
+     * @return true si se agregó
+     */
+    public boolean enqueue(Order order) {
+        if (order.getOrderId() <= 0 || order.getItems().isEmpty() || order.getStatus().isFinal()
+                || order.getStatus() == OrderStatus.READY || orders.containsKey(order.getOrderId())) {
+            return false;
+        }
+        OrderStateMachine tracker = stateMachine;
+        if (tracker != null) {
+            tracker.track(order);
+            // En memoria puede ir más adelante que en la base de datos (por ejemplo, ya cancelado)
+            OrderStatus current = tracker.getStatus(order.getOrderId());
+            if (current != null && current.ordinal() >= OrderStatus.READY.ordinal()) {
+                return false;
+            }
+        }
+
+        long readyBy = promisedMillis(order) - deliveryMinutes * 60_000L;
+        List<OrderItem> items = order.getItems();
+        KitchenTicket[] created = new KitchenTicket[items.size()];
+        for (int i = 0; i < created.length; i++) {
+            OrderItem item = items.get(i);
+            Dish dish = dishes.apply(item.getDishId());
+            created[i] = new KitchenTicket(nextTicketId.getAndIncrement(), order.getOrderId(), item.getDishId(),
+                dish != null ? dish.getName() : "Platillo " + item.getDishId(), item.getQuantity(),
+                dish != null && dish.getPreparationTime() > 0 ? dish.getPreparationTime() : DEFAULT_PREPARATION_MINUTES,
+                item.getSpecialRequests(), readyBy);
+        }
+
+        OrderTickets entry = new OrderTickets(order.getOrderId(), created);
+        synchronized (entry) {
+            if (orders.putIfAbsent(order.getOrderId(), entry) != null) {
+                return false;
+            }
+            for (KitchenTicket ticket : created) {
+                tickets.put(ticket.getTicketId(), ticket);
+                waiting.add(ticket);
+                notify(ticket, false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marca un renglón en preparación; el primero de su pedido pasa el pedido a PREPARING
+     * @return true si el renglón estaba en espera
+     */
+    public boolean start(long ticketId) {
+        OrderTickets entry = entryOf(ticketId);
+        if (entry == null) {
+            return false;
+        }
+        boolean firstStarted;
+        synchronized (entry) {
+            KitchenTicket ticket = tickets.get(ticketId);
+            if (ticket == null || ticket.getState() != KitchenTicket.State.QUEUED) {
+                return false;
+            }
+            replace(ticket, ticket.withState(KitchenTicket.State.COOKING));
+            firstStarted = !entry.started;
+            entry.started = true;
+        }
+        if (firstStarted) {
+            statusSink.accept(entry.orderId, OrderStatus.PREPARING);
+        }
+        return true;
+    }
+
+    /**
+     * Marca un renglón como listo; el último de su pedido saca el pedido de la cola y lo pasa a READY
+     * @return true si el renglón estaba en espera o en preparación
+     */
+    public boolean complete(long ticketId) {
+        OrderTickets entry = entryOf(ticketId);
+        if (entry == null) {
+            return false;
+        }
+        boolean orderReady;
+        synchronized (entry) {
+            KitchenTicket ticket = tickets.get(ticketId);
+            if (ticket == null || ticket.getState() == KitchenTicket.State.DONE) {
+                return false;
+            }
+            replace(ticket, ticket.withState(KitchenTicket.State.DONE));
+            orderReady = ++entry.done == entry.ticketIds.length;
+            if (orderReady) {
+                removeOrder(entry);
+            }
+        }
+        if (orderReady) {
+            statusSink.accept(entry.orderId, OrderStatus.READY);
+        }
+        return true;
+    }
+
+    /**
+     * Cambia la hora prometida de un pedido y reordena sus renglones en espera
+     * @return Renglones reordenados
+     */
+    public int reprioritize(int orderId, long promisedMillis) {
+        OrderTickets entry = orders.get(orderId);
+        if (entry == null) {
+            return 0;
+        }
+        long readyBy = promisedMillis - deliveryMinutes * 60_000L;
+        int changed = 0;
+        synchronized (entry) {
+            for (long ticketId : entry.ticketIds) {
+                KitchenTicket ticket = tickets.get(ticketId);
+                if (ticket != null && ticket.getReadyByMillis() != readyBy) {
+                    replace(ticket, ticket.withReadyBy(readyBy));
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Quita de la cola todos los renglones de un pedido (por ejemplo, cancelado)
+     * @return true si el pedido estaba en la cola
+     */
+    public boolean remove(int orderId) {
+        OrderTickets entry = orders.get(orderId);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (entry) {
+            if (orders.get(orderId) != entry) {
+                return false;
+            }
+            removeOrder(entry);
+        }
+        return true;
+    }
+
+    /**
+     * Siguiente renglón a preparar
+     * @return Renglón en espera con la hora de inicio más temprana, o null si no hay
+     */
+    public KitchenTicket next() {
+        Iterator<KitchenTicket> it = waiting.iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    /**
+     * Todos los renglones en pantalla (en espera, en preparación y listos), por prioridad
+     */
+    public List<KitchenTicket> snapshot() {
+        List<KitchenTicket> all = new ArrayList<>(tickets.values());
+        all.sort(KitchenTicket.PRIORITY);
+        return all;
+    }
+
+    public int getWaitingCount() {
+        return waiting.size();
+    }
+
+    public int getOrderCount() {
+        return orders.size();
+    }
+
+    /**
+     * Carga una vez los pedidos abiertos de la base de datos (al abrir la pantalla o a petición)
+     * @return Pedidos agregados
+     */
+    public int loadOpenOrders(OrderDAO orderDAO) {
+        int added = 0;
+        for (Order order : orderDAO.readOpenOrders()) {
+            if (enqueue(order)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    // Hora prometida: la estimada del pedido o, si no tiene, la hora del pedido más el tiempo por defecto
+    private static long promisedMillis(Order order) {
+        if (order.getEstimatedDeliveryTime() != null) {
+            return order.getEstimatedDeliveryTime().getTime();
+        }
+        long placedAt = order.getOrderDatetime() != null
+            ? order.getOrderDatetime().getTime()
+            : System.currentTimeMillis();
+        return placedAt + DEFAULT_PROMISE_MINUTES * 60_000L;
+    }
+
+    private OrderTickets entryOf(long ticketId) {
+        KitchenTicket ticket = tickets.get(ticketId);
+        return ticket != null ? orders.get(ticket.getOrderId()) : null;
+    }
+
+    // Con el candado del pedido: reemplaza la versión del renglón y su lugar en la cola
+    private void replace(KitchenTicket old, KitchenTicket updated) {
+        waiting.remove(old);
+        if (updated.getState() == KitchenTicket.State.QUEUED) {
+            waiting.add(updated);
+        }
+        tickets.put(updated.getTicketId(), updated);
+        notify(updated, false);
+    }
+
+    // Con el candado del pedido
+    private void removeOrder(OrderTickets entry) {
+        orders.remove(entry.orderId);
+        for (long ticketId : entry.ticketIds) {
+            KitchenTicket ticket = tickets.remove(ticketId);
+            if (ticket != null) {
+                waiting.remove(ticket);
+                notify(ticket, true);
+            }
+        }
+    }
+
+    private void notify(KitchenTicket ticket, boolean removed) {
+        for (Listener listener : listeners) {
+            try {
+                listener.ticketChanged(ticket, removed);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error al avisar cambio en cocina: " + e.getMessage());
+            }
+        }
+    }
+
+    // Renglones de un pedido y su avance
+    private static final class OrderTickets {
+        final int orderId;
+        final long[] ticketIds;
+        int done;
+        boolean started;
+
+        OrderTickets(int orderId, KitchenTicket[] created) {
+            this.orderId = orderId;
+            this.ticketIds = new long[created.length];
+            for (int i = 0; i < created.length; i++) {
+                ticketIds[i] = created[i].getTicketId();
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.darkkitchen.order;
+
+import java.util.Comparator;
+
+/**
+ * Un renglón de pedido en la pantalla de cocina. Es inmutable: cada cambio crea una
+ * nueva versión, así la pantalla puede descartar avisos que lleguen desordenados.
+ */
+public final class KitchenTicket {
+
+    /**
+     * Estado del renglón en cocina
+     */
+    public enum State {
+        QUEUED,     // en espera
+        COOKING,    // en preparación
+        DONE        // listo, esperando al resto del pedido
+    }
+
+    /**
+     * Orden de preparación: primero lo que debe empezar antes; a igual inicio, lo que debe
+     * estar listo antes; al final el ID para que el orden sea total
+     */
+    public static final Comparator<KitchenTicket> PRIORITY = Comparator
+        .comparingLong(KitchenTicket::getStartByMillis)
+        .thenComparingLong(KitchenTicket::getReadyByMillis)
+        .thenComparingLong(KitchenTicket::getTicketId);
+
+    private final long ticketId;
+    private final int orderId;
+    private final int dishId;
+    private final String dishName;
+    private final int quantity;
+    private final int preparationMinutes;
+    private final String specialRequests;
+    private final long readyByMillis;
+    private final long startByMillis;
+    private final State state;
+    private final long version;
+
+    KitchenTicket(long ticketId, int orderId, int dishId, String dishName, int quantity, int preparationMinutes,
+                  String specialRequests, long readyByMillis) {
+        this(ticketId, orderId, dishId, dishName, quantity, preparationMinutes, specialRequests, readyByMillis,
+            State.QUEUED, 0);
+    }
+
+    private KitchenTicket(long ticketId, int orderId, int dishId, String dishName, int quantity,
+                          int preparationMinutes, String specialRequests, long readyByMillis, State state,
+                          long version) {
+        this.ticketId = ticketId;
+        this.orderId = orderId;
+        this.dishId = dishId;
+        this.dishName = dishName;
+        this.quantity = quantity;
+        this.preparationMinutes = preparationMinutes;
+        this.specialRequests = specialRequests;
+        this.readyByMillis = readyByMillis;
+        this.startByMillis = readyByMillis - preparationMinutes * 60_000L;
+        this.state = state;
+        this.version = version;
+    }
+
+    KitchenTicket withState(State newState) {
+        return new KitchenTicket(ticketId, orderId, dishId, dishName, quantity, preparationMinutes,
+            specialRequests, readyByMillis, newState, version + 1);
+    }
+
+    KitchenTicket withReadyBy(long newReadyByMillis) {
+        return new KitchenTicket(ticketId, orderId, dishId, dishName, quantity, preparationMinutes,
+            specialRequests, newReadyByMillis, state, version + 1);
+    }
+
+    public long getTicketId() {
+        return ticketId;
+    }
+
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public int getDishId() {
+        return dishId;
+    }
+
+    public String getDishName() {
+        return dishName;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getPreparationMinutes() {
+        return preparationMinutes;
+    }
+
+    public String getSpecialRequests() {
+        return specialRequests;
+    }
+
+    /**
+     * Hora en que el platillo debe estar listo (igual para todos los renglones del pedido)
+     */
+    public long getReadyByMillis() {
+        return readyByMillis;
+    }
+
+    /**
+     * Hora más tarde para empezar y terminar a tiempo con el resto del pedido
+     */
+    public long getStartByMillis() {
+        return startByMillis;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + orderId + " " + quantity + "x " + dishName + " (" + state + ")";
+    }
+}
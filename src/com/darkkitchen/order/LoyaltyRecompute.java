@@ -0,0 +1,98 @@
+package com.darkkitchen.order;
+
+import com.darkkitchen.dao.CustomerDAO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Recalcula desde cero las estadísticas de lealtad (pedidos entregados, total gastado y
+ * nivel) de todos los clientes. Normalmente no hace falta: el trigger de Order las
+ * actualiza al entregar cada pedido. Sirve para la carga inicial y para corregir datos
+ * viejos. Divide la tabla en rangos de IDs de clientes y procesa varios rangos en paralelo,
+ * cada uno con su propia conexión y una sola sentencia.
+ */
+public class LoyaltyRecompute {
+
+    private static final int DEFAULT_RANGE_SIZE = 5_000;
+    private static final int DEFAULT_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    private final CustomerDAO customerDAO;
+    private final int rangeSize;
+    private final int threads;
+
+    public LoyaltyRecompute() {
+        this(new CustomerDAO(), DEFAULT_RANGE_SIZE, DEFAULT_THREADS);
+    }
+
+    public LoyaltyRecompute(CustomerDAO customerDAO, int rangeSize, int threads) {
+        this.customerDAO = customerDAO;
+        this.rangeSize = Math.max(1, rangeSize);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Corrige los clientes cuyas estadísticas no coinciden con sus pedidos entregados
+     * @param progress Recibe un mensaje por rango procesado, desde varios hilos (puede ser null)
+     * @return Clientes corregidos, o -1 si hubo error en algún rango
+     */
+    public long recompute(Consumer<String> progress) {
+        long start = System.currentTimeMillis();
+        int[] range = customerDAO.readIdRange();
+        if (range == null) {
+            return 0;
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "dk-loyalty-recompute-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        int totalRanges = (int) ((range[1] - (long) range[0]) / rangeSize + 1);
+        AtomicInteger done = new AtomicInteger();
+        List<Future<Integer>> results = new ArrayList<>(totalRanges);
+        try {
+            for (long from = range[0]; from <= range[1]; from += rangeSize) {
+                int rangeFrom = (int) from;
+                int rangeTo = (int) Math.min(from + rangeSize - 1, range[1]);
+                results.add(pool.submit(() -> {
+                    int count = customerDAO.recomputeLoyalty(rangeFrom, rangeTo);
+                    if (progress != null) {
+                        progress.accept(String.format("Clientes %d-%d (%d de %d rangos): %d corregidos",
+                            rangeFrom, rangeTo, done.incrementAndGet(), totalRanges, count));
+                    }
+                    return count;
+                }));
+            }
+
+            long changed = 0;
+            boolean failed = false;
+            for (Future<Integer> result : results) {
+                int count = result.get();
+                if (count < 0) {
+                    failed = true;
+                } else {
+                    changed += count;
+                }
+            }
+            System.out.printf("✅ Recálculo de lealtad: %d clientes corregidos en %d ms (%d hilos)%n",
+                changed, System.currentTimeMillis() - start, threads);
+            return failed ? -1 : changed;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (ExecutionException e) {
+            System.err.println("❌ Error al recalcular lealtad de clientes: " + e.getCause().getMessage());
+            return -1;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.darkkitchen.order;
+
+import com.darkkitchen.model.Order;
+
+/**
+ * Resultado del alta de un pedido (equivale a p_exito/p_mensaje de ProcesarNuevoPedido)
+ */
+public class OrderResult {
+
+    private final Order order;
+    private final boolean success;
+    private final String message;
+
+    private OrderResult(Order order, boolean success, String message) {
+        this.order = order;
+        this.success = success;
+        this.message = message;
+    }
+
+    static OrderResult accepted(Order order) {
+        return new OrderResult(order, true, "Pedido procesado exitosamente");
+    }
+
+    static OrderResult rejected(Order order, String message) {
+        return new OrderResult(order, false, message);
+    }
+
+    /** Pedido recibido; si se guardó ya tiene su ID y sus totales */
+    public Order getOrder() {
+        return order;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return (success ? "✅ " : "❌ ") + message + (success ? " (#" + order.getOrderId() + ")" : "");
+    }
+}
@@ -0,0 +1,293 @@
+package com.darkkitchen.order;
+
+import com.darkkitchen.dao.BatchResult;
+import com.darkkitchen.dao.OrderDAO;
+import com.darkkitchen.dao.ReferenceCache;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.pricing.PricingEngine;
+import com.darkkitchen.pricing.PromotionQuota;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Alta de pedidos completos (varios platillos y pago) reemplazando a ProcesarNuevoPedido.
+ * La validación corre en el hilo que llama, contra datos en memoria; los pedidos válidos
+ * se encolan y unos pocos hilos escritores los guardan por grupos (group commit): bajo
+ * carga, cientos de pedidos comparten una transacción y un viaje por tabla.
+ * Los usos de promoción se toman del cupo apartado por la terminal (PromotionQuota) al
+ * validar, así que el grupo no bloquea la fila de la promoción.
+ */
+public class OrderService {
+
+    private static final int WRITER_THREADS = 2;
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int MAX_GROUP_SIZE = 500;
+    private static final String NO_PROMOTION_USES = "La promoción ya no tiene usos disponibles";
+    private static final String STOPPED = "El servicio de pedidos está detenido";
+
+    // Instancia singleton
+    private static class Holder {
+        private static final OrderService INSTANCE =
+            new OrderService(new OrderDAO(), ReferenceCache.getInstance(), PricingEngine.getInstance(),
+                PromotionQuota.getInstance());
+    }
+
+    private final OrderDAO orderDAO;
+    private final OrderValidator validator;
+    private final PromotionQuota quota;
+    private final BlockingQueue<PendingOrder> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = true;
+    // Reciben cada pedido guardado (por ejemplo, la cola de cocina)
+    private final List<Consumer<Order>> savedListeners = new CopyOnWriteArrayList<>();
+
+    // Estadísticas
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong groups = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+
+    OrderService(OrderDAO orderDAO, ReferenceCache references, PricingEngine pricing, PromotionQuota quota) {
+        this.orderDAO = orderDAO;
+        this.validator = new OrderValidator(references, pricing);
+        this.quota = quota;
+        for (int i = 1; i <= WRITER_THREADS; i++) {
+            Thread writer = new Thread(this::writeLoop, "dk-order-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+    }
+
+    /**
+     * Obtiene la instancia singleton de OrderService
+     */
+    public static OrderService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Valida el pedido y lo encola para guardarse con el siguiente grupo.
+     * Los rechazos por validación se resuelven de inmediato, sin tocar la base de datos.
+     * @return Resultado que se completa cuando el pedido se confirma o se rechaza
+     */
+    public CompletableFuture<OrderResult> submit(Order order) {
+        String error = validator.validate(order);
+        if (error != null) {
+            rejected.incrementAndGet();
+            return CompletableFuture.completedFuture(OrderResult.rejected(order, error));
+        }
+        if (!running) {
+            return CompletableFuture.completedFuture(OrderResult.rejected(order, STOPPED));
+        }
+        if (!reservePromotion(order)) {
+            rejected.incrementAndGet();
+            return CompletableFuture.completedFuture(OrderResult.rejected(order, NO_PROMOTION_USES));
+        }
+
+        PendingOrder pending = new PendingOrder(order);
+        if (!queue.offer(pending)) {
+            releasePromotion(order);
+            rejected.incrementAndGet();
+            return CompletableFuture.completedFuture(
+                OrderResult.rejected(order, "Demasiados pedidos pendientes, intente de nuevo"));
+        }
+        // shutdown pudo empezar entre la revisión de running y offer: si ningún escritor lo
+        // tomó, se rechaza aquí (si ya lo tomó, el escritor lo completa)
+        if (!running && queue.remove(pending)) {
+            releasePromotion(order);
+            return CompletableFuture.completedFuture(OrderResult.rejected(order, STOPPED));
+        }
+        return pending.result;
+    }
+
+    /**
+     * Valida y guarda varios pedidos en el hilo que llama (por ejemplo, una importación)
+     * @return Un resultado por pedido, en el mismo orden
+     */
+    public List<OrderResult> placeAll(List<Order> orders) {
+        List<OrderResult> results = new ArrayList<>(orders.size());
+        List<Order> valid = new ArrayList<>(orders.size());
+        List<Integer> positions = new ArrayList<>(orders.size());
+
+        for (Order order : orders) {
+            String error = validator.validate(order);
+            if (error == null && !reservePromotion(order)) {
+                error = NO_PROMOTION_USES;
+            }
+            if (error != null) {
+                rejected.incrementAndGet();
+                results.add(OrderResult.rejected(order, error));
+            } else {
+                results.add(null);
+                positions.add(results.size() - 1);
+                valid.add(order);
+            }
+        }
+
+        for (int from = 0; from < valid.size(); from += MAX_GROUP_SIZE) {
+            int to = Math.min(from + MAX_GROUP_SIZE, valid.size());
+            List<Order> group = valid.subList(from, to);
+            List<OrderResult> groupResults = write(group);
+            for (int i = 0; i < group.size(); i++) {
+                results.set(positions.get(from + i), groupResults.get(i));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Detiene los escritores después de guardar lo que ya estaba en cola; lo que quede
+     * (escritores que no terminaron a tiempo) se rechaza y devuelve sus promociones
+     */
+    public void shutdown() {
+        running = false;
+        for (Thread writer : writers) {
+            try {
+                writer.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        PendingOrder pending;
+        while ((pending = queue.poll()) != null) {
+            releasePromotion(pending.order);
+            pending.result.complete(OrderResult.rejected(pending.order, STOPPED));
+        }
+        int returned = quota.releaseAll();
+        if (returned > 0) {
+            System.out.println("✅ " + returned + " usos de promociones apartados devueltos");
+        }
+    }
+
+    /**
+     * Registra un listener que recibe cada pedido guardado, ya con su ID, en el hilo que lo guardó
+     */
+    public void addSavedListener(Consumer<Order> listener) {
+        savedListeners.add(listener);
+    }
+
+    /**
+     * Pedidos esperando a ser guardados
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Resumen de estadísticas del servicio
+     */
+    public String getStats() {
+        long g = groups.get();
+        long saved = accepted.get();
+        return String.format(
+            "Pedidos: %d guardados | %d rechazados | %d con error al guardar | %d grupos (prom %.1f pedidos, %.2f ms)",
+            saved, rejected.get(), failed.get(), g,
+            g == 0 ? 0.0 : (saved + failed.get()) / (double) g,
+            g == 0 ? 0.0 : writeNanos.get() / (double) g / 1_000_000.0);
+    }
+
+    // Toma lo que haya en cola (hasta MAX_GROUP_SIZE) y lo guarda en una sola transacción
+    private void writeLoop() {
+        List<PendingOrder> group = new ArrayList<>(MAX_GROUP_SIZE);
+        List<Order> orders = new ArrayList<>(MAX_GROUP_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, MAX_GROUP_SIZE - 1);
+
+                for (PendingOrder pending : group) {
+                    orders.add(pending.order);
+                }
+                List<OrderResult> results = write(orders);
+                for (int i = 0; i < group.size(); i++) {
+                    group.get(i).result.complete(results.get(i));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error al guardar pedidos: " + e.getMessage());
+                for (PendingOrder pending : group) {
+                    releasePromotion(pending.order);
+                    pending.result.complete(OrderResult.rejected(pending.order, "Error al guardar: " + e.getMessage()));
+                }
+            } finally {
+                group.clear();
+                orders.clear();
+            }
+        }
+    }
+
+    private List<OrderResult> write(List<Order> orders) {
+        long start = System.nanoTime();
+        BatchResult<Order> batch = orderDAO.createAll(orders);
+        writeNanos.addAndGet(System.nanoTime() - start);
+        groups.incrementAndGet();
+
+        List<OrderResult> results = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            results.add(OrderResult.accepted(order));
+        }
+        for (BatchResult.Failure<Order> failure : batch.getFailures()) {
+            releasePromotion(failure.getItem());
+            results.set(failure.getIndex(), OrderResult.rejected(failure.getItem(), "Error al guardar: " + failure.getMessage()));
+        }
+        accepted.addAndGet(batch.getSucceededCount());
+        failed.addAndGet(batch.getFailedCount());
+
+        for (Order order : batch.getSucceeded()) {
+            for (Consumer<Order> listener : savedListeners) {
+                try {
+                    listener.accept(order);
+                } catch (RuntimeException e) {
+                    System.err.println("❌ Error al avisar pedido guardado: " + e.getMessage());
+                }
+            }
+        }
+        return results;
+    }
+
+    // Toma un uso de la promoción del pedido (si tiene) del cupo de la terminal
+    private boolean reservePromotion(Order order) {
+        if (order.getPromotionId() == 0) {
+            return true;
+        }
+        if (!quota.reserve(order.getPromotionId())) {
+            return false;
+        }
+        order.setPromotionReserved(true);
+        return true;
+    }
+
+    // Regresa el uso al cupo si el pedido no se guardó
+    private void releasePromotion(Order order) {
+        if (order.isPromotionReserved()) {
+            quota.release(order.getPromotionId());
+            order.setPromotionReserved(false);
+        }
+    }
+
+    // Pedido validado esperando su grupo
+    private static class PendingOrder {
+        final Order order;
+        final CompletableFuture<OrderResult> result = new CompletableFuture<>();
+
+        PendingOrder(Order order) {
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.darkkitchen.order;
+
+import com.darkkitchen.dao.BatchResult;
+import com.darkkitchen.dao.OrderDAO;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.model.OrderStatus;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Estados de los pedidos abiertos en memoria, en lugar de llamar a UpdateOrderStatus por
+ * cada cambio. Cada pedido guarda su estado y una versión en un solo long que se cambia
+ * con compareAndSet: validar un cambio (por ejemplo, CANCELLED → cualquier otro) no
+ * bloquea ni toca la base de datos. Los cambios aceptados se avisan a los listeners en el
+ * hilo que los hizo y un solo hilo escritor los guarda por lotes; si un pedido cambia
+ * varias veces antes de guardarse, solo se escribe su último estado. Si el lote completo
+ * falla (conexión o commit) se reintenta; si la base de datos rechaza un pedido, se toma
+ * el estado guardado y se avisa como un cambio más para que los listeners se corrijan.
+ */
+public class OrderStateMachine {
+
+    public static final int MAX_BATCH_SIZE = 500;
+    // Los pedidos cerrados se recuerdan un tiempo para rechazar cambios tardíos sin consultar
+    private static final long FINAL_RETENTION_MS = 30 * 60_000L;
+    // Pausa antes de reintentar un lote que falló completo
+    private static final long RETRY_DELAY_MS = 1_000;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    /**
+     * Resultado de un cambio de estado
+     */
+    public enum Result {
+        APPLIED,        // aceptado; se guardará con el siguiente lote
+        ILLEGAL,        // el estado actual no permite el cambio (o no era el esperado)
+        UNKNOWN_ORDER   // el pedido no está registrado en memoria
+    }
+
+    /**
+     * Recibe cada cambio aceptado. Los avisos de un mismo pedido pueden llegar desordenados
+     * si dos hilos lo cambian a la vez; la versión indica cuál es el más reciente.
+     * Cuando la base de datos rechaza un cambio, el hilo escritor avisa el paso del estado
+     * en memoria al estado guardado.
+     */
+    public interface Listener {
+        void transitioned(int orderId, OrderStatus from, OrderStatus to, long version);
+    }
+
+    // Instancia singleton
+    private static class Holder {
+        private static final OrderStateMachine INSTANCE = createDefault();
+    }
+
+    // Pedido registrado: estado actual (ordinal en los 8 bits bajos, versión en el resto)
+    private static final class OrderState {
+        final int orderId;
+        final AtomicLong word;
+        // true mientras el pedido espera en la cola del escritor
+        final AtomicBoolean queued = new AtomicBoolean();
+        // Solo los usa el hilo escritor
+        long persistedVersion;
+
+        OrderState(int orderId, OrderStatus status) {
+            this.orderId = orderId;
+            this.word = new AtomicLong(pack(status, 0));
+        }
+    }
+
+    private final Map<Integer, OrderState> states = new ConcurrentHashMap<>();
+    private final BlockingQueue<OrderState> dirty = new LinkedBlockingQueue<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Function<List<Order>, BatchResult<Order>> persister;
+    private final IntFunction<OrderStatus> statusReader;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Solo los usa el hilo escritor: pedidos cerrados y cuándo se guardaron
+    private final ArrayDeque<long[]> closed = new ArrayDeque<>();
+
+    // Estadísticas
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder illegal = new LongAdder();
+    private final LongAdder unknown = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * @param persister Guarda un lote de pedidos con su nuevo estado (la base de datos o, en
+     *                  pruebas, cualquier otro destino)
+     */
+    public OrderStateMachine(Function<List<Order>, BatchResult<Order>> persister) {
+        this(persister, orderId -> null);
+    }
+
+    /**
+     * @param persister Guarda un lote de pedidos con su nuevo estado
+     * @param statusReader Estado guardado de un pedido cuyo cambio se rechazó (null = no se
+     *                     pudo leer; el pedido se olvida y se vuelve a registrar al usarse)
+     */
+    public OrderStateMachine(Function<List<Order>, BatchResult<Order>> persister,
+                             IntFunction<OrderStatus> statusReader) {
+        this.persister = persister;
+        this.statusReader = statusReader;
+        this.writer = new Thread(this::writeLoop, "dk-status-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Obtiene la instancia singleton de OrderStateMachine
+     */
+    public static OrderStateMachine getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static OrderStateMachine createDefault() {
+        OrderDAO orderDAO = new OrderDAO();
+        return new OrderStateMachine(orderDAO::updateStatusAll, orderId -> {
+            Order order = orderDAO.readById(orderId);
+            return order != null ? order.getStatus() : null;
+        });
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registra un pedido con su estado en la base de datos (al guardarse o al leerse).
+     * Un pedido ya registrado conserva el estado que tenga en memoria.
+     */
+    public void track(int orderId, OrderStatus status) {
+        if (orderId > 0) {
+            states.putIfAbsent(orderId, new OrderState(orderId, status));
+        }
+    }
+
+    public void track(Order order) {
+        track(order.getOrderId(), order.getStatus());
+    }
+
+    /**
+     * Estado actual de un pedido
+     * @return null si no está registrado
+     */
+    public OrderStatus getStatus(int orderId) {
+        OrderState state = states.get(orderId);
+        return state != null ? status(state.word.get()) : null;
+    }
+
+    /**
+     * Cambia el estado de un pedido si la transición es válida desde su estado actual
+     */
+    public Result transition(int orderId, OrderStatus to) {
+        return transition(orderId, null, to);
+    }
+
+    /**
+     * Cambia el estado de un pedido solo si sigue en el estado esperado
+     * @param expected Estado que debe tener el pedido (null = cualquiera)
+     */
+    public Result transition(int orderId, OrderStatus expected, OrderStatus to) {
+        OrderState state = states.get(orderId);
+        if (state == null) {
+            unknown.increment();
+            return Result.UNKNOWN_ORDER;
+        }
+
+        long current;
+        OrderStatus from;
+        long next;
+        do {
+            current = state.word.get();
+            from = status(current);
+            if ((expected != null && from != expected) || !from.canTransitionTo(to)) {
+                illegal.increment();
+                return Result.ILLEGAL;
+            }
+            next = pack(to, version(current) + 1);
+        } while (!state.word.compareAndSet(current, next));
+
+        applied.increment();
+        if (state.queued.compareAndSet(false, true)) {
+            dirty.add(state);
+        }
+        notify(orderId, from, to, version(next));
+        return Result.APPLIED;
+    }
+
+    /**
+     * Pedidos con cambios sin guardar
+     */
+    public int getPendingCount() {
+        return dirty.size();
+    }
+
+    public int getTrackedCount() {
+        return states.size();
+    }
+
+    /**
+     * Detiene el escritor después de guardar lo que ya estaba pendiente
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            writer.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Resumen de estadísticas
+     */
+    public String getStats() {
+        long b = batches.get();
+        return String.format(
+            "Estados: %d cambios | %d inválidos | %d pedidos desconocidos | %d guardados | %d con error | %d lotes (prom %.1f)",
+            applied.sum(), illegal.sum(), unknown.sum(), written.get(), failed.get(), b,
+            b == 0 ? 0.0 : (written.get() + failed.get()) / (double) b);
+    }
+
+    // Toma los pedidos con cambios (hasta MAX_BATCH_SIZE) y guarda el último estado de cada uno
+    private void writeLoop() {
+        List<OrderState> group = new ArrayList<>(MAX_BATCH_SIZE);
+        List<Order> orders = new ArrayList<>(MAX_BATCH_SIZE);
+        long[] versions = new long[MAX_BATCH_SIZE];
+        while (running || !dirty.isEmpty()) {
+            try {
+                OrderState first = dirty.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    evictClosed();
+                    continue;
+                }
+                group.add(first);
+                dirty.drainTo(group, MAX_BATCH_SIZE - 1);
+
+                for (OrderState state : group) {
+                    // Primero se libera la marca: un cambio posterior vuelve a encolar el pedido
+                    state.queued.set(false);
+                    long word = state.word.get();
+                    if (version(word) == state.persistedVersion) {
+                        continue;
+                    }
+                    Order order = new Order();
+                    order.setOrderId(state.orderId);
+                    order.setStatus(status(word));
+                    versions[orders.size()] = version(word);
+                    orders.add(order);
+                }
+                if (!orders.isEmpty() && !write(orders, versions)) {
+                    Thread.sleep(RETRY_DELAY_MS);
+                }
+                evictClosed();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error al guardar estados de pedidos: " + e.getMessage());
+            } finally {
+                group.clear();
+                orders.clear();
+            }
+        }
+    }
+
+    // false si falló el lote completo: sus pedidos vuelven a la cola
+    private boolean write(List<Order> orders, long[] versions) {
+        BatchResult<Order> result = persister.apply(orders);
+        batches.incrementAndGet();
+
+        if (result.getBatchError() != null) {
+            System.err.println("❌ Error al guardar estados de pedidos (se reintenta): " + result.getBatchError());
+            for (Order order : orders) {
+                OrderState state = states.get(order.getOrderId());
+                if (state != null && state.queued.compareAndSet(false, true)) {
+                    dirty.add(state);
+                }
+            }
+            return false;
+        }
+
+        boolean[] rejected = new boolean[orders.size()];
+        for (BatchResult.Failure<Order> failure : result.getFailures()) {
+            rejected[failure.getIndex()] = true;
+            System.err.println("❌ Error al guardar estado del pedido #" + failure.getItem().getOrderId()
+                + ": " + failure.getMessage());
+            restoreStored(failure.getItem().getOrderId());
+        }
+        failed.addAndGet(result.getFailedCount());
+        written.addAndGet(orders.size() - result.getFailedCount());
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < orders.size(); i++) {
+            if (rejected[i]) {
+                continue;
+            }
+            Order order = orders.get(i);
+            OrderState state = states.get(order.getOrderId());
+            if (state != null) {
+                state.persistedVersion = versions[i];
+            }
+            if (order.getStatus().isFinal()) {
+                closed.add(new long[] {order.getOrderId(), now});
+            }
+        }
+        return true;
+    }
+
+    // La memoria ya no coincide con la base de datos: se toma el estado guardado y se avisa
+    // a los listeners, que ya habían actuado sobre el cambio rechazado
+    private void restoreStored(int orderId) {
+        OrderState state = states.get(orderId);
+        OrderStatus stored = state != null ? statusReader.apply(orderId) : null;
+        if (stored == null) {
+            // Sin estado guardado: el siguiente en usar el pedido lo vuelve a registrar
+            states.remove(orderId);
+            return;
+        }
+
+        long current;
+        OrderStatus from;
+        long next;
+        do {
+            current = state.word.get();
+            from = status(current);
+            next = pack(stored, version(current) + 1);
+        } while (!state.word.compareAndSet(current, next));
+        state.persistedVersion = version(next);
+        if (stored.isFinal()) {
+            closed.add(new long[] {orderId, System.currentTimeMillis()});
+        }
+        if (from != stored) {
+            notify(orderId, from, stored, version(next));
+        }
+    }
+
+    // Olvida los pedidos cerrados que ya pasaron su tiempo de retención
+    private void evictClosed() {
+        long limit = System.currentTimeMillis() - FINAL_RETENTION_MS;
+        while (!closed.isEmpty() && closed.peekFirst()[1] < limit) {
+            states.remove((int) closed.pollFirst()[0]);
+        }
+    }
+
+    private void notify(int orderId, OrderStatus from, OrderStatus to, long version) {
+        for (Listener listener : listeners) {
+            try {
+                listener.transitioned(orderId, from, to, version);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error al avisar cambio de estado: " + e.getMessage());
+            }
+        }
+    }
+
+    private static long pack(OrderStatus status, long version) {
+        return version << 8 | status.ordinal();
+    }
+
+    private static OrderStatus status(long word) {
+        return STATUSES[(int) (word & 0xFF)];
+    }
+
+    private static long version(long word) {
+        return word >>> 8;
+    }
+}
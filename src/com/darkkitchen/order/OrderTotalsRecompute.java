@@ -0,0 +1,74 @@
+package com.darkkitchen.order;
+
+import com.darkkitchen.dao.OrderDAO;
+import java.util.function.Consumer;
+
+/**
+ * Recalcula los totales de los pedidos históricos a partir de sus artículos, sus descuentos
+ * y la tasa de impuesto con la que se cobró cada uno (no la regla vigente de Pricing_Rule).
+ * Recorre la tabla por rangos de IDs; cada rango es una sola sentencia que agrupa los
+ * artículos y reescribe solo los pedidos con diferencias, así que los bloqueos duran poco
+ * y se puede ejecutar con la aplicación en uso.
+ */
+public class OrderTotalsRecompute {
+
+    private static final int DEFAULT_RANGE_SIZE = 10_000;
+
+    private final OrderDAO orderDAO;
+    private final int rangeSize;
+
+    public OrderTotalsRecompute() {
+        this(new OrderDAO(), DEFAULT_RANGE_SIZE);
+    }
+
+    public OrderTotalsRecompute(OrderDAO orderDAO, int rangeSize) {
+        this.orderDAO = orderDAO;
+        this.rangeSize = Math.max(1, rangeSize);
+    }
+
+    /**
+     * Corrige los pedidos cuyos totales no coinciden con sus artículos
+     * @param progress Recibe un mensaje por rango procesado (puede ser null)
+     * @return Pedidos corregidos, o -1 si hubo error
+     */
+    public long recompute(Consumer<String> progress) {
+        return run(false, progress);
+    }
+
+    /**
+     * Solo cuenta los pedidos con diferencias, sin modificarlos
+     * @return Pedidos con diferencias, o -1 si hubo error
+     */
+    public long verify(Consumer<String> progress) {
+        return run(true, progress);
+    }
+
+    private long run(boolean dryRun, Consumer<String> progress) {
+        long start = System.currentTimeMillis();
+        int[] range = orderDAO.readIdRange();
+        if (range == null) {
+            return 0;
+        }
+
+        long changed = 0;
+        for (long from = range[0]; from <= range[1]; from += rangeSize) {
+            int to = (int) Math.min(from + rangeSize - 1, range[1]);
+            int count = dryRun
+                ? orderDAO.countTotalMismatches((int) from, to)
+                : orderDAO.recomputeTotals((int) from, to);
+            if (count < 0) {
+                return -1;
+            }
+            changed += count;
+            if (progress != null) {
+                progress.accept(String.format("Pedidos %d-%d de %d: %d %s", from, to, range[1], count,
+                    dryRun ? "con diferencias" : "corregidos"));
+            }
+        }
+
+        System.out.printf("✅ %s de totales: %d pedidos %s en %d ms%n",
+            dryRun ? "Verificación" : "Recálculo", changed, dryRun ? "con diferencias" : "corregidos",
+            System.currentTimeMillis() - start);
+        return changed;
+    }
+}
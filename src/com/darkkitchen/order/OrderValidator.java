@@ -0,0 +1,106 @@
+package com.darkkitchen.order;
+
+import com.darkkitchen.dao.ReferenceCache;
+import com.darkkitchen.model.Order;
+import com.darkkitchen.model.OrderItem;
+import com.darkkitchen.model.Payment;
+import com.darkkitchen.pricing.Money;
+import com.darkkitchen.pricing.OrderTotals;
+import com.darkkitchen.pricing.PricingEngine;
+import com.darkkitchen.pricing.PricingTables;
+import com.darkkitchen.pricing.Quote;
+import java.util.List;
+
+/**
+ * Valida un pedido contra los datos de referencia en memoria y calcula sus totales.
+ * Aplica las mismas reglas que ProcesarNuevoPedido, pero para un pedido con varios
+ * platillos y sin consultar la base de datos (salvo un cliente que aún no esté en caché).
+ */
+class OrderValidator {
+
+    static final int MAX_QUANTITY = 10;
+    static final int MAX_ITEMS = 50;
+
+    // Arreglos de la canasta y cotización reutilizados por cada hilo que valida
+    private static final class Scratch {
+        final int[] dishIds = new int[MAX_ITEMS];
+        final int[] quantities = new int[MAX_ITEMS];
+        final Quote quote = new Quote();
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final ReferenceCache references;
+    private final PricingEngine pricing;
+
+    OrderValidator(ReferenceCache references, PricingEngine pricing) {
+        this.references = references;
+        this.pricing = pricing;
+    }
+
+    /**
+     * Valida el pedido; si es válido asigna precios unitarios, totales, promoción y monto del pago
+     * @return null si el pedido es válido, o el motivo del rechazo
+     */
+    String validate(Order order) {
+        List<OrderItem> items = order.getItems();
+        if (items.isEmpty()) {
+            return "El pedido no tiene artículos";
+        }
+        if (items.size() > MAX_ITEMS) {
+            return "El pedido tiene más de " + MAX_ITEMS + " artículos";
+        }
+        if (!references.isActivePlatform(order.getPlatformId())) {
+            return "Plataforma inválida o inactiva especificada";
+        }
+        if (!references.isActiveLocation(order.getLocationId())) {
+            return "Ubicación inválida o inactiva especificada";
+        }
+
+        Scratch scratch = SCRATCH.get();
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            if (item.getQuantity() <= 0 || item.getQuantity() > MAX_QUANTITY) {
+                return "Cantidad inválida especificada (debe estar entre 1 y " + MAX_QUANTITY + ")";
+            }
+            scratch.dishIds[i] = item.getDishId();
+            scratch.quantities[i] = item.getQuantity();
+        }
+
+        // Las mismas tablas para la cotización y los precios unitarios, aunque el menú se recargue
+        PricingTables tables = pricing.getTables();
+        int promotionId = 0;
+        if (order.getPromotionCode() != null && !order.getPromotionCode().isBlank()) {
+            promotionId = tables.findPromotionId(order.getPromotionCode());
+            if (promotionId == 0) {
+                return "Promoción inválida o inactiva especificada";
+            }
+        }
+
+        // Totales calculados una vez por pedido, en centavos, con la regla de la ubicación y plataforma
+        Quote quote = scratch.quote;
+        if (PricingEngine.price(tables, order.getLocationId(), order.getPlatformId(), scratch.dishIds,
+                scratch.quantities, items.size(), promotionId, quote) != Quote.OK) {
+            return quote.getMessage();
+        }
+
+        // El cliente va al final: es la única validación que puede consultar la base de datos
+        if (!references.isActiveCustomer(order.getCustomerId())) {
+            return "Cliente inválido o inactivo especificado";
+        }
+
+        for (OrderItem item : items) {
+            item.setUnitPrice(Money.toDecimal(tables.dishPriceCents(item.getDishId())));
+        }
+        long total = OrderTotals.apply(order, quote);
+
+        Payment payment = order.getPayment();
+        if (payment != null) {
+            if (payment.getMethod() == null || payment.getReference() == null || payment.getReference().isBlank()) {
+                return "El pago requiere método y referencia";
+            }
+            payment.setAmount(Money.toDecimal(total));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.darkkitchen.order;
+
+/**
+ * Cuantil aproximado de un flujo de valores con el algoritmo P² (Jain y Chlamtac): cinco
+ * marcadores cuyas alturas se ajustan con cada valor, sin guardar la muestra. Memoria y
+ * tiempo constantes por valor; hasta tener cinco valores el cuantil es exacto.
+ * No es seguro entre hilos.
+ */
+final class P2Quantile {
+
+    private final double p;
+    private final double[] height = new double[5];      // alturas de los marcadores
+    private final double[] position = new double[5];    // posiciones reales (1..n)
+    private final double[] desired = new double[5];     // posiciones deseadas
+    private final double[] increment;                    // avance de las posiciones deseadas por valor
+    private long count;
+
+    /**
+     * @param p Cuantil entre 0 y 1 (por ejemplo, 0.8)
+     */
+    P2Quantile(double p) {
+        this.p = p;
+        this.increment = new double[] {0, p / 2, p, (1 + p) / 2, 1};
+    }
+
+    void add(double x) {
+        if (count < 5) {
+            // Los primeros cinco valores se guardan ordenados
+            int i = (int) count;
+            while (i > 0 && height[i - 1] > x) {
+                height[i] = height[i - 1];
+                i--;
+            }
+            height[i] = x;
+            if (++count == 5) {
+                for (int m = 0; m < 5; m++) {
+                    position[m] = m + 1;
+                    desired[m] = 1 + 4 * increment[m];
+                }
+            }
+            return;
+        }
+
+        // Celda del valor; los extremos se amplían si hace falta
+        int k;
+        if (x < height[0]) {
+            height[0] = x;
+            k = 0;
+        } else if (x >= height[4]) {
+            height[4] = x;
+            k = 3;
+        } else {
+            k = 0;
+            while (x >= height[k + 1]) {
+                k++;
+            }
+        }
+        for (int m = k + 1; m < 5; m++) {
+            position[m]++;
+        }
+        for (int m = 0; m < 5; m++) {
+            desired[m] += increment[m];
+        }
+        count++;
+
+        // Los marcadores intermedios se mueven a lo más una posición hacia la deseada
+        for (int m = 1; m <= 3; m++) {
+            double d = desired[m] - position[m];
+            if ((d >= 1 && position[m + 1] - position[m] > 1) || (d <= -1 && position[m - 1] - position[m] < -1)) {
+                int step = d > 0 ? 1 : -1;
+                double h = parabolic(m, step);
+                if (height[m - 1] < h && h < height[m + 1]) {
+                    height[m] = h;
+                } else {
+                    height[m] = linear(m, step);
+                }
+                position[m] += step;
+            }
+        }
+    }
+
+    /**
+     * Cuantil estimado (0 si todavía no hay valores)
+     */
+    double value() {
+        if (count == 0) {
+            return 0;
+        }
+        if (count < 5) {
+            int index = (int) Math.min(count - 1, Math.round(p * (count - 1)));
+            return height[index];
+        }
+        return height[2];
+    }
+
+    long count() {
+        return count;
+    }
+
+    private double parabolic(int m, int step) {
+        double left = position[m] - position[m - 1];
+        double right = position[m + 1] - position[m];
+        return height[m] + step / (position[m + 1] - position[m - 1])
+            * ((left + step) * (height[m + 1] - height[m]) / right
+            + (right - step) * (height[m] - height[m - 1]) / left);
+    }
+
+    private double linear(int m, int step) {
+        return height[m] + step * (height[m + step] - height[m]) / (position[m + step] - position[m]);
+    }
+}
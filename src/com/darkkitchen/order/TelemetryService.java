@@ -0,0 +1,472 @@
+package com.darkkitchen.order;
+
+import com.darkkitchen.dao.BatchResult;
+import com.darkkitchen.dao.DriverDAO;
+import com.darkkitchen.model.DriverPosition;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recepción de las posiciones GPS de los repartidores. Las posiciones llegan como líneas de
+ * texto "repartidor,milisegundos,latitud,longitud" desde un socket local o un archivo, a
+ * decenas de miles por segundo; el recorrido reciente de cada repartidor vive en memoria
+ * (DriverTracks) sin crear objetos por posición. A la base de datos solo va una muestra:
+ * un punto cada SAVE_INTERVAL_MS o cada SAVE_DISTANCE_METERS recorridos, guardados por lote
+ * cada FLUSH_INTERVAL_MS. A los listeners (el reparto) les llega como máximo una posición
+ * por segundo de cada repartidor.
+ */
+public class TelemetryService {
+
+    // Los recorridos se indexan por ID: un ID mayor se descarta para no crecer sin límite
+    public static final int MAX_DRIVER_ID = 1 << 16;
+    public static final long SAVE_INTERVAL_MS = 30_000;
+    public static final double SAVE_DISTANCE_METERS = 100;
+    public static final long FORWARD_INTERVAL_MS = 1_000;
+    private static final long FLUSH_INTERVAL_MS = 5_000;
+    private static final double METERS_PER_MICRODEGREE = 0.11132;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Recibe la posición más reciente de cada repartidor (como máximo una por segundo)
+     */
+    public interface Listener {
+        void position(int driverId, double latitude, double longitude);
+    }
+
+    // Instancia singleton
+    private static class Holder {
+        private static final TelemetryService INSTANCE = createDefault();
+    }
+
+    private final DriverDAO driverDAO;
+    private final DriverTracks tracks = new DriverTracks();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread flusher;
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile ServerSocket server;
+    private volatile boolean running = true;
+
+    // Protegidos por el candado de la instancia (un solo escritor en DriverTracks)
+    private long[] lastForwarded = new long[0];
+    private long[] lastSavedTime = new long[0];
+    private int[] lastSavedLat = new int[0];
+    private int[] lastSavedLon = new int[0];
+    private List<DriverPosition> toSave = new ArrayList<>();
+
+    // Estadísticas
+    private final LongAdder received = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder outOfOrder = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder saved = new LongAdder();
+    private final LongAdder saveFailed = new LongAdder();
+
+    /**
+     * @param driverDAO Guardado y lectura de las posiciones de muestra
+     */
+    public TelemetryService(DriverDAO driverDAO) {
+        this.driverDAO = driverDAO;
+        this.flusher = new Thread(this::flushLoop, "dk-telemetry-flush");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Obtiene la instancia singleton de TelemetryService
+     */
+    public static TelemetryService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // La instancia de la aplicación le pasa las posiciones al reparto
+    private static TelemetryService createDefault() {
+        TelemetryService telemetry = new TelemetryService(new DriverDAO());
+        telemetry.addListener(DispatchService.getInstance()::driverPosition);
+        return telemetry;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registra una posición
+     * @return false si se descartó (datos inválidos o más antigua que la última del repartidor)
+     */
+    public synchronized boolean record(int driverId, long timeMillis, double latitude, double longitude) {
+        received.increment();
+        if (driverId <= 0 || driverId > MAX_DRIVER_ID || timeMillis <= 0
+                || !(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            invalid.increment();
+            return false;
+        }
+        int latE6 = DriverTracks.toMicroDegrees(latitude);
+        int lonE6 = DriverTracks.toMicroDegrees(longitude);
+        if (!tracks.add(driverId, timeMillis, latE6, lonE6)) {
+            outOfOrder.increment();
+            return false;
+        }
+        accepted.increment();
+        ensureCapacity(driverId);
+
+        if (timeMillis - lastForwarded[driverId] >= FORWARD_INTERVAL_MS) {
+            lastForwarded[driverId] = timeMillis;
+            forwarded.increment();
+            for (Listener listener : listeners) {
+                listener.position(driverId, latitude, longitude);
+            }
+        }
+
+        // Muestra para la base de datos: por tiempo o por distancia desde el último guardado
+        if (lastSavedTime[driverId] == 0 || timeMillis - lastSavedTime[driverId] >= SAVE_INTERVAL_MS
+                || movedAtLeast(lastSavedLat[driverId], lastSavedLon[driverId], latE6, lonE6, SAVE_DISTANCE_METERS)) {
+            lastSavedTime[driverId] = timeMillis;
+            lastSavedLat[driverId] = latE6;
+            lastSavedLon[driverId] = lonE6;
+            toSave.add(new DriverPosition(driverId, timeMillis, latitude, longitude));
+        }
+        return true;
+    }
+
+    /**
+     * Lee posiciones hasta el final del flujo, una por línea:
+     * "repartidor,milisegundos,latitud,longitud". Las líneas mal formadas se cuentan y se saltan.
+     * @return Posiciones aceptadas
+     */
+    public long ingest(InputStream in) throws IOException {
+        PingParser parser = new PingParser();
+        byte[] buf = parser.buf;
+        long count = 0;
+        int filled = 0;
+        boolean skipping = false;       // línea más larga que el búfer: se descarta hasta su fin
+        int n;
+        while ((n = in.read(buf, filled, buf.length - filled)) != -1) {
+            int end = filled + n;
+            int lineStart = 0;
+            for (int i = filled; i < end; i++) {
+                if (buf[i] != '\n') {
+                    continue;
+                }
+                if (skipping) {
+                    skipping = false;
+                } else if (recordLine(parser, lineStart, i)) {
+                    count++;
+                }
+                lineStart = i + 1;
+            }
+            if (lineStart == 0 && end == buf.length) {
+                if (!skipping) {
+                    received.increment();
+                    invalid.increment();
+                }
+                skipping = true;
+                filled = 0;
+            } else {
+                filled = end - lineStart;
+                System.arraycopy(buf, lineStart, buf, 0, filled);
+            }
+        }
+        // Última línea sin salto de línea
+        if (filled > 0 && !skipping && recordLine(parser, 0, filled)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Lee las posiciones de un archivo con el formato de ingest
+     * @return Posiciones aceptadas
+     */
+    public long ingestFile(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            long count = ingest(in);
+            System.out.println("✅ " + count + " posiciones leídas de " + file.getFileName());
+            return count;
+        }
+    }
+
+    /**
+     * Acepta conexiones en el puerto local indicado; cada conexión manda posiciones con el
+     * formato de ingest
+     */
+    public synchronized void listen(int port) throws IOException {
+        if (server != null) {
+            return;
+        }
+        ServerSocket socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        server = socket;
+        Thread acceptor = new Thread(() -> acceptLoop(socket), "dk-telemetry-listen");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        System.out.println("✅ Recibiendo posiciones de repartidores en el puerto " + socket.getLocalPort());
+    }
+
+    /**
+     * Última posición conocida del repartidor: la de memoria o, si no hay, la última guardada
+     * @return Posición o null si no se conoce ninguna
+     */
+    public DriverPosition lastPosition(int driverId) {
+        long[] times = new long[1];
+        int[] lats = new int[1];
+        int[] lons = new int[1];
+        if (tracks.copySince(driverId, Long.MAX_VALUE, times, lats, lons) > 0) {
+            return new DriverPosition(driverId, times[0], DriverTracks.toDegrees(lats[0]), DriverTracks.toDegrees(lons[0]));
+        }
+        return driverDAO.readLastPosition(driverId);
+    }
+
+    /**
+     * Recorrido del repartidor desde sinceMillis, del punto más antiguo al más nuevo. Los
+     * puntos recientes vienen de memoria con todo detalle; si el recorrido en memoria no
+     * alcanza a cubrir desde sinceMillis, lo anterior se completa con la muestra guardada.
+     */
+    public List<DriverPosition> trackSince(int driverId, long sinceMillis) {
+        long[] times = new long[DriverTracks.CAPACITY];
+        int[] lats = new int[DriverTracks.CAPACITY];
+        int[] lons = new int[DriverTracks.CAPACITY];
+        int count = tracks.copySince(driverId, sinceMillis, times, lats, lons);
+
+        List<DriverPosition> track = new ArrayList<>(count);
+        int from = 0;
+        if (count > 0 && times[0] < sinceMillis) {
+            from = 1;           // el punto anterior a since confirma que memoria cubre todo
+        } else {
+            long until = count > 0 ? times[0] : System.currentTimeMillis() + 1;
+            track.addAll(driverDAO.readPositions(driverId, sinceMillis, until));
+        }
+        for (int i = from; i < count; i++) {
+            track.add(new DriverPosition(driverId, times[i], DriverTracks.toDegrees(lats[i]), DriverTracks.toDegrees(lons[i])));
+        }
+        return track;
+    }
+
+    /**
+     * Guarda de inmediato la muestra pendiente
+     * @return Posiciones guardadas
+     */
+    public int flush() {
+        List<DriverPosition> batch;
+        synchronized (this) {
+            if (toSave.isEmpty()) {
+                return 0;
+            }
+            batch = toSave;
+            toSave = new ArrayList<>();
+        }
+        // Las que fallan no se reintentan: el recorrido siguiente las reemplaza
+        BatchResult<DriverPosition> result = driverDAO.insertPositions(batch);
+        saved.add(result.getSucceededCount());
+        if (result.hasFailures()) {
+            saveFailed.add(result.getFailedCount());
+            System.err.println("⚠️ " + result.getFailedCount() + " posiciones de repartidores sin guardar");
+        }
+        return result.getSucceededCount();
+    }
+
+    /**
+     * Deja de aceptar conexiones, detiene el hilo de guardado y guarda lo pendiente
+     */
+    public void shutdown() {
+        running = false;
+        ServerSocket socket = server;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                System.err.println("❌ Error al cerrar el puerto de posiciones: " + e.getMessage());
+            }
+        }
+        flusher.interrupt();
+        try {
+            flusher.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Resumen de estadísticas
+     */
+    public String getStats() {
+        return String.format(
+            "Posiciones: %d recibidas | %d aceptadas | %d desordenadas | %d inválidas | %d al reparto"
+                + " | %d guardadas | %d sin guardar | %d conexiones",
+            received.sum(), accepted.sum(), outOfOrder.sum(), invalid.sum(), forwarded.sum(),
+            saved.sum(), saveFailed.sum(), connections.get());
+    }
+
+    private boolean recordLine(PingParser parser, int from, int to) {
+        if (!parser.parse(from, to)) {
+            received.increment();
+            invalid.increment();
+            return false;
+        }
+        return record(parser.driverId, parser.time, parser.lat, parser.lon);
+    }
+
+    private void acceptLoop(ServerSocket socket) {
+        while (running && !socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                Thread reader = new Thread(() -> readConnection(client),
+                    "dk-telemetry-" + connections.incrementAndGet());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("❌ Error al aceptar conexión de posiciones: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void readConnection(Socket client) {
+        try (Socket c = client; InputStream in = c.getInputStream()) {
+            ingest(in);
+        } catch (IOException e) {
+            System.err.println("⚠️ Conexión de posiciones cerrada: " + e.getMessage());
+        } finally {
+            connections.decrementAndGet();
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                Thread.sleep(FLUSH_INTERVAL_MS);
+                flush();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error al guardar posiciones: " + e.getMessage());
+            }
+        }
+    }
+
+    private void ensureCapacity(int driverId) {
+        if (driverId < lastSavedTime.length) {
+            return;
+        }
+        int size = Math.max(driverId + 1, lastSavedTime.length * 2);
+        lastForwarded = Arrays.copyOf(lastForwarded, size);
+        lastSavedTime = Arrays.copyOf(lastSavedTime, size);
+        lastSavedLat = Arrays.copyOf(lastSavedLat, size);
+        lastSavedLon = Arrays.copyOf(lastSavedLon, size);
+    }
+
+    // Distancia aproximada (proyección equirectangular), suficiente para decidir la muestra
+    private static boolean movedAtLeast(int fromLat, int fromLon, int toLat, int toLon, double meters) {
+        double dy = (toLat - fromLat) * METERS_PER_MICRODEGREE;
+        double dx = (toLon - fromLon) * METERS_PER_MICRODEGREE * Math.cos(Math.toRadians(fromLat / 1_000_000.0));
+        return dx * dx + dy * dy >= meters * meters;
+    }
+
+    // Lee los campos de una línea directamente de los bytes, sin crear objetos
+    private static final class PingParser {
+        private static final double[] POW10 = new double[19];
+
+        static {
+            POW10[0] = 1;
+            for (int i = 1; i < POW10.length; i++) {
+                POW10[i] = POW10[i - 1] * 10;
+            }
+        }
+
+        final byte[] buf = new byte[BUFFER_SIZE];
+        int driverId;
+        long time;
+        double lat;
+        double lon;
+        private int pos;
+        private int end;
+
+        boolean parse(int from, int to) {
+            pos = from;
+            end = to > from && buf[to - 1] == '\r' ? to - 1 : to;
+            long id = parseLong();
+            if (id < 0 || id > Integer.MAX_VALUE || !comma()) {
+                return false;
+            }
+            time = parseLong();
+            if (time < 0 || !comma()) {
+                return false;
+            }
+            lat = parseDouble();
+            if (Double.isNaN(lat) || !comma()) {
+                return false;
+            }
+            lon = parseDouble();
+            if (Double.isNaN(lon) || pos != end) {
+                return false;
+            }
+            driverId = (int) id;
+            return true;
+        }
+
+        // Entero sin signo de hasta 18 dígitos; -1 si no hay dígitos
+        private long parseLong() {
+            int start = pos;
+            long value = 0;
+            while (pos < end && pos - start < 18 && buf[pos] >= '0' && buf[pos] <= '9') {
+                value = value * 10 + (buf[pos++] - '0');
+            }
+            return pos == start ? -1 : value;
+        }
+
+        // Decimal con signo opcional y hasta 18 dígitos en total; NaN si no es válido
+        private double parseDouble() {
+            boolean negative = pos < end && buf[pos] == '-';
+            if (negative) {
+                pos++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int decimals = -1;
+            while (pos < end && digits < 18) {
+                byte b = buf[pos];
+                if (b >= '0' && b <= '9') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (decimals >= 0) {
+                        decimals++;
+                    }
+                } else if (b == '.' && decimals < 0) {
+                    decimals = 0;
+                } else {
+                    break;
+                }
+                pos++;
+            }
+            if (digits == 0) {
+                return Double.NaN;
+            }
+            double value = decimals > 0 ? mantissa / POW10[decimals] : mantissa;
+            return negative ? -value : value;
+        }
+
+        private boolean comma() {
+            if (pos < end && buf[pos] == ',') {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
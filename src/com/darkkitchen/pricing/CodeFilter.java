@@ -0,0 +1,86 @@
+package com.darkkitchen.pricing;
+
+import java.util.Collection;
+
+/**
+ * Filtro de Bloom de los códigos de promoción. Descarta casi todos los códigos que no
+ * existen sin recortar el texto, pasarlo a mayúsculas ni buscar en el mapa (sin crear
+ * objetos), lo que importa cuando llegan muchos códigos mal escritos o inventados.
+ * Nunca descarta un código que sí existe; los que pasan se confirman en el mapa.
+ */
+final class CodeFilter {
+
+    private static final int HASHES = 3;
+    // Los códigos con caracteres fuera de ASCII no se filtran (siempre pasan)
+    private static final long NOT_ASCII = 0;
+
+    private final long[] bits;
+    private final int mask;
+
+    CodeFilter(Collection<String> codes) {
+        // Unos 16 bits por código: menos de 0.5 % de falsos positivos con 3 funciones
+        int size = Integer.highestOneBit(Math.max(64, codes.size() * 16 - 1)) << 1;
+        bits = new long[size >>> 6];
+        mask = size - 1;
+        for (String code : codes) {
+            long hash = hash(code);
+            if (hash == NOT_ASCII) {
+                continue;
+            }
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * false si el código seguro no existe; true si puede existir
+     */
+    boolean mightContain(String code) {
+        long hash = hash(code);
+        if (hash == NOT_ASCII) {
+            return true;
+        }
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a del código sin espacios al inicio y al final y en mayúsculas (como trim().toUpperCase())
+    static long hash(String code) {
+        int from = 0;
+        int to = code.length();
+        while (from < to && code.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && code.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            char c = code.charAt(i);
+            if (c >= 128) {
+                return NOT_ASCII;
+            }
+            if (c >= 'a' && c <= 'z') {
+                c -= 'a' - 'A';
+            }
+            hash ^= c;
+            hash *= 0x100000001b3L;
+        }
+        // Mezcla final para que las dos mitades sean independientes
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash == NOT_ASCII ? 1 : hash;
+    }
+}
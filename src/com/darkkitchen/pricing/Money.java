@@ -0,0 +1,56 @@
+package com.darkkitchen.pricing;
+
+import java.math.BigDecimal;
+
+/**
+ * Operaciones con dinero en centavos (long). Las cuentas se hacen en enteros, que son
+ * exactos y no generan objetos; BigDecimal solo se usa al leer o escribir columnas
+ * DECIMAL(10,2).
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    /**
+     * Convierte un monto con hasta dos decimales a centavos
+     * @throws ArithmeticException si el monto tiene más de dos decimales o no cabe en un long
+     */
+    public static long toCents(BigDecimal amount) {
+        if (amount.scale() == 2) {
+            return amount.unscaledValue().longValueExact();
+        }
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * Convierte centavos a un monto con dos decimales (para columnas DECIMAL(10,2))
+     */
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Porcentaje de un monto, redondeado al centavo como DECIMAL en MySQL
+     * (mitades alejándose de cero)
+     * @param basisPoints Porcentaje en centésimas (16 % = 1600)
+     */
+    public static long percent(long cents, long basisPoints) {
+        long product = Math.multiplyExact(cents, basisPoints);
+        long quotient = product / 10_000;
+        long remainder = product % 10_000;
+        if (Math.abs(remainder) * 2 >= 10_000) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+
+    /**
+     * Texto con dos decimales sin crear un BigDecimal (para mostrar o registrar)
+     */
+    public static String format(long cents) {
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        return (cents < 0 ? "-" : "") + abs / 100 + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
@@ -0,0 +1,69 @@
+package com.darkkitchen.pricing;
+
+import com.darkkitchen.model.Order;
+import com.darkkitchen.model.OrderItem;
+import java.math.BigDecimal;
+
+/**
+ * Totales de un pedido calculados una sola vez, en centavos, antes de guardarlo.
+ * Reemplaza al trigger tr_order_item_after_insert, que volvía a sumar todos los artículos
+ * y reescribía la fila del pedido con cada artículo insertado.
+ */
+public final class OrderTotals {
+
+    // Regla general de Pricing_Rule; se usan si la tabla está vacía
+    public static final long DEFAULT_TAX_BASIS_POINTS = 1_600;
+    public static final long DEFAULT_DELIVERY_FEE_CENTS = 2_500;
+
+    private OrderTotals() {
+    }
+
+    /**
+     * Suma de cantidad por precio unitario de los artículos (los precios ya asignados)
+     */
+    public static long subtotalCents(Order order) {
+        long subtotal = 0;
+        for (OrderItem item : order.getItems()) {
+            subtotal = Math.addExact(subtotal,
+                Math.multiplyExact(Money.toCents(item.getUnitPrice()), (long) item.getQuantity()));
+        }
+        return subtotal;
+    }
+
+    /**
+     * Asigna subtotal, impuesto, envío y total al pedido
+     * @return Total en centavos
+     */
+    public static long apply(Order order, long subtotalCents, long taxBasisPoints, long deliveryFeeCents) {
+        long tax = Money.percent(subtotalCents, taxBasisPoints);
+        long total = subtotalCents + tax + deliveryFeeCents;
+        order.setSubtotal(Money.toDecimal(subtotalCents));
+        order.setTaxAmount(Money.toDecimal(tax));
+        order.setTaxRate(BigDecimal.valueOf(taxBasisPoints, 2));
+        order.setDeliveryFee(Money.toDecimal(deliveryFeeCents));
+        order.setTotalAmount(Money.toDecimal(total));
+        return total;
+    }
+
+    /**
+     * Asigna al pedido los montos de una cotización de PricingEngine
+     * @return Total en centavos
+     */
+    public static long apply(Order order, Quote quote) {
+        order.setSubtotal(Money.toDecimal(quote.getSubtotal()));
+        order.setTaxAmount(Money.toDecimal(quote.getTax()));
+        order.setTaxRate(BigDecimal.valueOf(quote.getTaxBasisPoints(), 2));
+        order.setDeliveryFee(Money.toDecimal(quote.getDeliveryFee()));
+        order.setTotalAmount(Money.toDecimal(quote.getTotal()));
+        order.setPromotionId(quote.getPromotionId());
+        order.setDiscountAmount(quote.getPromotionId() != 0 ? Money.toDecimal(quote.getDiscount()) : null);
+        return quote.getTotal();
+    }
+
+    /**
+     * Calcula y asigna los totales con la tasa y la tarifa de envío por defecto
+     */
+    public static long apply(Order order) {
+        return apply(order, subtotalCents(order), DEFAULT_TAX_BASIS_POINTS, DEFAULT_DELIVERY_FEE_CENTS);
+    }
+}
@@ -0,0 +1,212 @@
+package com.darkkitchen.pricing;
+
+import com.darkkitchen.dao.MenuCache;
+import com.darkkitchen.dao.PricingDAO;
+import com.darkkitchen.model.Dish;
+import com.darkkitchen.model.PricingRule;
+import com.darkkitchen.model.Promotion;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Motor de precios: impuesto y envío por ubicación y plataforma, y promociones.
+ * Las reglas y promociones se leen una vez y se refrescan como mucho cada 5 minutos (o con
+ * reload()); los precios de los platillos se toman del menú en caché y las tablas se
+ * reconstruyen cuando el menú cambia.
+ * Cotizar una canasta trabaja en centavos sobre arreglos primitivos y no crea objetos.
+ *
+ * Orden del cálculo: subtotal, descuento de la promoción sobre los platillos, impuesto
+ * sobre el subtotal con descuento y al final el envío (0 con envío gratis).
+ */
+public class PricingEngine {
+
+    private static final long RULES_TTL_MS = 5 * 60_000;
+
+    // Instancia singleton
+    private static class Holder {
+        private static final PricingEngine INSTANCE = new PricingEngine(new PricingDAO(), MenuCache.getInstance(),
+            PromotionQuota.getInstance());
+    }
+
+    private final PricingDAO pricingDAO;
+    private final MenuCache menu;
+    private final PromotionQuota quota;
+
+    private volatile PricingTables tables;
+    // Fuentes de las tablas actuales; el menú se identifica por su número de carga
+    private List<PricingRule> rules = Collections.emptyList();
+    private List<Promotion> promotions = Collections.emptyList();
+    private long menuStamp = -1;
+    private long rulesLoadedAt;
+
+    private PricingEngine(PricingDAO pricingDAO, MenuCache menu, PromotionQuota quota) {
+        this.pricingDAO = pricingDAO;
+        this.menu = menu;
+        this.quota = quota;
+    }
+
+    /**
+     * Motor con tablas fijas, sin base de datos (pruebas de rendimiento y herramientas)
+     */
+    public PricingEngine(PricingTables tables) {
+        this.pricingDAO = null;
+        this.menu = null;
+        this.quota = null;
+        this.tables = tables;
+    }
+
+    /**
+     * Obtiene la instancia singleton de PricingEngine
+     */
+    public static PricingEngine getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Tablas vigentes; se reconstruyen si el menú en caché se recargó
+     */
+    public PricingTables getTables() {
+        PricingTables current = tables;
+        if (menu == null) {
+            return current;
+        }
+        if (current == null || menu.getMenuStamp() != menuStamp) {
+            return rebuild(false);
+        }
+        return current;
+    }
+
+    /**
+     * Vuelve a leer reglas y promociones (después de editarlas en la base de datos)
+     */
+    public void reload() {
+        if (menu != null) {
+            rebuild(true);
+        }
+    }
+
+    private synchronized PricingTables rebuild(boolean reloadRules) {
+        long stamp = menu.getMenuStamp();
+        if (!reloadRules && tables != null && stamp == menuStamp) {
+            return tables;
+        }
+        long now = System.currentTimeMillis();
+        if (reloadRules || tables == null || now - rulesLoadedAt >= RULES_TTL_MS) {
+            rules = pricingDAO.readRules();
+            promotions = pricingDAO.readPromotions();
+            rulesLoadedAt = now;
+            if (rules.isEmpty()) {
+                System.err.println("⚠️ Sin reglas de precios: se usan 16% de impuesto y $25.00 de envío");
+            }
+        }
+        // Si el menú se recarga entre las dos lecturas, la siguiente consulta reconstruye otra vez
+        List<Dish> currentDishes = menu.getAllDishes();
+        menuStamp = stamp;
+        // used_count ya cuenta los usos apartados por esta terminal: siguen disponibles aquí
+        tables = PricingTables.from(currentDishes, rules, promotions, quota::held);
+        return tables;
+    }
+
+    /**
+     * ID de la promoción con ese código
+     * @return ID, o 0 si no existe o ya no está vigente
+     */
+    public int findPromotionId(String code) {
+        return getTables().findPromotionId(code);
+    }
+
+    /**
+     * Precio actual de un platillo activo
+     * @return Centavos, o -1 si el platillo no existe o no está activo
+     */
+    public long dishPriceCents(int dishId) {
+        return getTables().dishPriceCents(dishId);
+    }
+
+    /**
+     * Cotiza una canasta con los precios actuales del menú
+     * @param dishIds IDs de platillo (se leen las primeras count posiciones)
+     * @param quantities Cantidades, en la misma posición que el platillo
+     * @param promotionId Promoción a aplicar (0 = ninguna)
+     * @param out Recibe el resultado; se sobrescribe por completo
+     * @return Quote.OK o el código del rechazo (también en out.getStatus())
+     */
+    public int price(int locationId, int platformId, int[] dishIds, int[] quantities, int count,
+                     int promotionId, Quote out) {
+        return price(getTables(), locationId, platformId, dishIds, quantities, count, promotionId, out);
+    }
+
+    /**
+     * Cotiza una canasta con unas tablas fijas (para usar las mismas tablas en varios pasos)
+     */
+    public static int price(PricingTables t, int locationId, int platformId, int[] dishIds, int[] quantities, int count,
+                     int promotionId, Quote out) {
+        out.reset();
+
+        Promotion.Type type = null;
+        if (promotionId != 0) {
+            if (!t.hasPromotion(promotionId)) {
+                return out.status = Quote.UNKNOWN_PROMOTION;
+            }
+            long today = t.today();
+            if (today < t.promotionFromDay[promotionId] || today > t.promotionUntilDay[promotionId]) {
+                return out.status = Quote.PROMOTION_NOT_VALID_TODAY;
+            }
+            if (t.promotionRemaining[promotionId] <= 0) {
+                return out.status = Quote.PROMOTION_EXHAUSTED;
+            }
+            type = t.promotionType[promotionId];
+        }
+
+        // Subtotal y, para BOGO, el valor de las segundas unidades de cada renglón
+        long subtotal = 0;
+        long secondUnits = 0;
+        for (int i = 0; i < count; i++) {
+            long unit = t.dishPriceCents(dishIds[i]);
+            if (unit == PricingTables.NO_PRICE) {
+                out.failedDishId = dishIds[i];
+                return out.status = Quote.UNKNOWN_DISH;
+            }
+            subtotal = Math.addExact(subtotal, Math.multiplyExact(unit, (long) quantities[i]));
+            secondUnits += unit * (quantities[i] / 2);
+        }
+
+        int slot = t.ruleSlot(locationId, platformId);
+        long taxBasisPoints = t.taxBasisPoints[slot];
+        long deliveryFee = t.deliveryFeeCents[slot];
+
+        long itemsDiscount = 0;
+        long deliveryDiscount = 0;
+        if (type != null) {
+            long value = t.promotionValue[promotionId];
+            switch (type) {
+                case PERCENTAGE:
+                    itemsDiscount = Money.percent(subtotal, value);
+                    break;
+                case FIXED_AMOUNT:
+                    itemsDiscount = Math.min(value, subtotal);
+                    break;
+                case BOGO:
+                    itemsDiscount = Money.percent(secondUnits, value);
+                    break;
+                case FREE_DELIVERY:
+                    deliveryDiscount = deliveryFee;
+                    deliveryFee = 0;
+                    break;
+            }
+            out.promotionId = promotionId;
+        }
+
+        long taxable = subtotal - itemsDiscount;
+        long tax = Money.percent(taxable, taxBasisPoints);
+
+        out.taxBasisPoints = taxBasisPoints;
+        out.subtotal = subtotal;
+        out.itemsDiscount = itemsDiscount;
+        out.deliveryDiscount = deliveryDiscount;
+        out.tax = tax;
+        out.deliveryFee = deliveryFee;
+        out.total = taxable + tax + deliveryFee;
+        return Quote.OK;
+    }
+}
@@ -0,0 +1,261 @@
+package com.darkkitchen.pricing;
+
+import com.darkkitchen.model.Dish;
+import com.darkkitchen.model.PricingRule;
+import com.darkkitchen.model.Promotion;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Tablas de precios inmutables en arreglos primitivos indexados por ID: precio de cada
+ * platillo, impuesto y envío de cada combinación ubicación/plataforma (con la regla más
+ * específica ya resuelta) y promociones. Consultarlas no crea objetos.
+ */
+public final class PricingTables {
+
+    static final long NO_PRICE = -1;
+
+    // Precio en centavos por ID de platillo (NO_PRICE = no existe o no está activo)
+    final long[] dishPriceCents;
+
+    // Impuesto y envío por [ubicación * platformSlots + plataforma]
+    final int platformSlots;
+    final long[] taxBasisPoints;
+    final long[] deliveryFeeCents;
+
+    // Promociones por ID (type null = no existe)
+    final Promotion.Type[] promotionType;
+    final long[] promotionValue;        // centésimas de porcentaje o centavos según el tipo
+    final long[] promotionFromDay;      // días desde 1970-01-01
+    final long[] promotionUntilDay;
+    final long[] promotionRemaining;    // usos disponibles al cargar (Long.MAX_VALUE = ilimitado)
+    private final Map<String, Integer> promotionIdByCode;
+    private final CodeFilter codeFilter;
+
+    // Desfase de la zona horaria local para calcular el día sin crear un LocalDate
+    final long zoneOffsetMillis;
+
+    private PricingTables(Builder b) {
+        dishPriceCents = b.dishPriceCents;
+
+        int maxLocation = 0;
+        int maxPlatform = 0;
+        for (long key : b.rules.keySet()) {
+            maxLocation = Math.max(maxLocation, (int) (key >>> 32));
+            maxPlatform = Math.max(maxPlatform, (int) key);
+        }
+        platformSlots = maxPlatform + 1;
+        taxBasisPoints = new long[(maxLocation + 1) * platformSlots];
+        deliveryFeeCents = new long[taxBasisPoints.length];
+        for (int location = 0; location <= maxLocation; location++) {
+            for (int platform = 0; platform <= maxPlatform; platform++) {
+                long[] rule = b.resolve(location, platform);
+                taxBasisPoints[location * platformSlots + platform] = rule[0];
+                deliveryFeeCents[location * platformSlots + platform] = rule[1];
+            }
+        }
+
+        promotionType = b.promotionType;
+        promotionValue = b.promotionValue;
+        promotionFromDay = b.promotionFromDay;
+        promotionUntilDay = b.promotionUntilDay;
+        promotionRemaining = b.promotionRemaining;
+        promotionIdByCode = Collections.unmodifiableMap(new HashMap<>(b.promotionIdByCode));
+        codeFilter = new CodeFilter(promotionIdByCode.keySet());
+
+        TimeZone zone = TimeZone.getDefault();
+        zoneOffsetMillis = zone.getOffset(System.currentTimeMillis());
+    }
+
+    /**
+     * Posición de la ubicación y plataforma en las tablas de impuesto y envío.
+     * Un ID sin reglas propias usa la fila o columna 0 (la regla para todas).
+     */
+    int ruleSlot(int locationId, int platformId) {
+        int location = locationId > 0 && locationId < taxBasisPoints.length / platformSlots ? locationId : 0;
+        int platform = platformId > 0 && platformId < platformSlots ? platformId : 0;
+        return location * platformSlots + platform;
+    }
+
+    /**
+     * Precio de un platillo activo
+     * @return Centavos, o -1 si el platillo no existe o no está activo
+     */
+    public long dishPriceCents(int dishId) {
+        return dishId > 0 && dishId < dishPriceCents.length ? dishPriceCents[dishId] : NO_PRICE;
+    }
+
+    boolean hasPromotion(int promotionId) {
+        return promotionId > 0 && promotionId < promotionType.length && promotionType[promotionId] != null;
+    }
+
+    long today() {
+        return Math.floorDiv(System.currentTimeMillis() + zoneOffsetMillis, 86_400_000L);
+    }
+
+    /**
+     * ID de la promoción con ese código (sin distinguir mayúsculas)
+     * @return ID, o 0 si no existe o ya no está vigente
+     */
+    public int findPromotionId(String code) {
+        if (code == null || !codeFilter.mightContain(code) || code.isBlank()) {
+            return 0;
+        }
+        Integer id = promotionIdByCode.get(code.trim().toUpperCase());
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Tasa de impuesto en centésimas de porcentaje que aplica a la ubicación y plataforma
+     */
+    public long taxBasisPoints(int locationId, int platformId) {
+        return taxBasisPoints[ruleSlot(locationId, platformId)];
+    }
+
+    /**
+     * Tarifa de envío en centavos que aplica a la ubicación y plataforma
+     */
+    public long deliveryFeeCents(int locationId, int platformId) {
+        return deliveryFeeCents[ruleSlot(locationId, platformId)];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Construye las tablas a partir del menú activo, las reglas y las promociones de la base de datos
+     * (los platillos agotados quedan sin precio: no se pueden pedir)
+     */
+    public static PricingTables from(List<Dish> dishes, List<PricingRule> rules, List<Promotion> promotions) {
+        return from(dishes, rules, promotions, promotionId -> 0);
+    }
+
+    /**
+     * Igual que from, pero suma a los usos disponibles de cada promoción los que esta terminal
+     * ya tiene apartados (used_count los cuenta como usados aunque sigan sin usarse)
+     */
+    public static PricingTables from(List<Dish> dishes, List<PricingRule> rules, List<Promotion> promotions,
+                                     IntUnaryOperator heldUses) {
+        Builder builder = new Builder();
+        for (Dish dish : dishes) {
+            if (dish.getPrice() != null && !dish.isOutOfStock()) {
+                builder.dishPrice(dish.getDishId(), Money.toCents(dish.getPrice()));
+            }
+        }
+        for (PricingRule rule : rules) {
+            builder.rule(rule.getLocationId(), rule.getPlatformId(),
+                Money.toCents(rule.getTaxRate()), Money.toCents(rule.getDeliveryFee()));
+        }
+        for (Promotion promotion : promotions) {
+            builder.promotion(promotion, heldUses.applyAsInt(promotion.getPromotionId()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Constructor de tablas. Los IDs en 0 de una regla aplican a todas las ubicaciones o plataformas.
+     */
+    public static final class Builder {
+
+        private long[] dishPriceCents = new long[0];
+        private final Map<Long, long[]> rules = new HashMap<>();
+        private Promotion.Type[] promotionType = new Promotion.Type[0];
+        private long[] promotionValue = new long[0];
+        private long[] promotionFromDay = new long[0];
+        private long[] promotionUntilDay = new long[0];
+        private long[] promotionRemaining = new long[0];
+        private final Map<String, Integer> promotionIdByCode = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder dishPrice(int dishId, long cents) {
+            if (dishId >= dishPriceCents.length) {
+                int length = dishPriceCents.length;
+                dishPriceCents = Arrays.copyOf(dishPriceCents, Math.max(dishId + 1, length * 2));
+                Arrays.fill(dishPriceCents, length, dishPriceCents.length, NO_PRICE);
+            }
+            dishPriceCents[dishId] = cents;
+            return this;
+        }
+
+        /**
+         * @param taxBasisPoints Tasa en centésimas de porcentaje (16 % = 1600)
+         */
+        public Builder rule(int locationId, int platformId, long taxBasisPoints, long deliveryFeeCents) {
+            rules.put(key(locationId, platformId), new long[] {taxBasisPoints, deliveryFeeCents});
+            return this;
+        }
+
+        /**
+         * @param value Centésimas de porcentaje para PERCENTAGE y BOGO, centavos para FIXED_AMOUNT
+         * @param remainingUses Usos disponibles (Long.MAX_VALUE = ilimitado)
+         */
+        public Builder promotion(int promotionId, String code, Promotion.Type type, long value,
+                                 long fromEpochDay, long untilEpochDay, long remainingUses) {
+            if (promotionId >= promotionType.length) {
+                int length = Math.max(promotionId + 1, promotionType.length * 2);
+                promotionType = Arrays.copyOf(promotionType, length);
+                promotionValue = Arrays.copyOf(promotionValue, length);
+                promotionFromDay = Arrays.copyOf(promotionFromDay, length);
+                promotionUntilDay = Arrays.copyOf(promotionUntilDay, length);
+                promotionRemaining = Arrays.copyOf(promotionRemaining, length);
+            }
+            promotionType[promotionId] = type;
+            promotionValue[promotionId] = value;
+            promotionFromDay[promotionId] = fromEpochDay;
+            promotionUntilDay[promotionId] = untilEpochDay;
+            promotionRemaining[promotionId] = remainingUses;
+            promotionIdByCode.put(code.trim().toUpperCase(), promotionId);
+            return this;
+        }
+
+        public Builder promotion(Promotion promotion) {
+            return promotion(promotion, 0);
+        }
+
+        /**
+         * @param heldUses Usos ya contados en used_count que esta terminal tiene apartados
+         */
+        public Builder promotion(Promotion promotion, int heldUses) {
+            long remaining = promotion.getUsageLimit() == null
+                ? Long.MAX_VALUE
+                : Math.max(0, (long) promotion.getUsageLimit() - promotion.getUsedCount() + heldUses);
+            // value es porcentaje (10.00) o monto (50.00): en ambos casos se guarda como entero x100
+            return promotion(promotion.getPromotionId(), promotion.getCode(), promotion.getType(),
+                Money.toCents(promotion.getValue()),
+                promotion.getValidFrom().toLocalDate().toEpochDay(),
+                promotion.getValidUntil().toLocalDate().toEpochDay(), remaining);
+        }
+
+        public PricingTables build() {
+            return new PricingTables(this);
+        }
+
+        // Regla más específica: ubicación y plataforma, solo ubicación, solo plataforma, general
+        private long[] resolve(int location, int platform) {
+            long[] rule = rules.get(key(location, platform));
+            if (rule == null) {
+                rule = rules.get(key(location, 0));
+            }
+            if (rule == null) {
+                rule = rules.get(key(0, platform));
+            }
+            if (rule == null) {
+                rule = rules.get(key(0, 0));
+            }
+            return rule != null ? rule
+                : new long[] {OrderTotals.DEFAULT_TAX_BASIS_POINTS, OrderTotals.DEFAULT_DELIVERY_FEE_CENTS};
+        }
+
+        private static long key(int locationId, int platformId) {
+            return ((long) locationId << 32) | (platformId & 0xFFFFFFFFL);
+        }
+    }
+}
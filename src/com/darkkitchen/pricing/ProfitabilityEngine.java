@@ -0,0 +1,342 @@
+package com.darkkitchen.pricing;
+
+import com.darkkitchen.dao.ChangeBus;
+import com.darkkitchen.dao.ChangeEvent;
+import com.darkkitchen.dao.MenuCache;
+import com.darkkitchen.dao.QueryExecutor;
+import com.darkkitchen.dao.RecipeDAO;
+import com.darkkitchen.model.Dish;
+import com.darkkitchen.model.Ingredient;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Rentabilidad de todo el menú en memoria, en lugar de llamar a CalculateDishProfitability
+ * por platillo. Las recetas y los costos de los ingredientes se leen una vez (RecipeGraph)
+ * y el costo de todos los platillos se calcula en paralelo. Cuando cambia el costo de un
+ * ingrediente solo se recalculan los platillos que lo usan; cuando cambia el precio de un
+ * platillo, solo su margen. Los cambios llegan por ChangeBus (también de otras terminales).
+ *
+ * Igual que la función de la base de datos, el costo suma todos los renglones de la receta
+ * (también los opcionales). Consultar un margen no bloquea: cada cambio publica tablas nuevas.
+ */
+public class ProfitabilityEngine {
+
+    /** Margen desconocido: el platillo no existe, no tiene precio o no tiene receta */
+    public static final int NO_MARGIN = Integer.MIN_VALUE;
+    private static final long NO_PRICE = -1;
+
+    /**
+     * Recibe los platillos cuyo margen cambió (null = todos), en el hilo que hizo el cambio
+     */
+    public interface Listener {
+        void marginsChanged(int[] dishIds);
+    }
+
+    // Instancia singleton
+    private static class Holder {
+        private static final ProfitabilityEngine INSTANCE =
+            new ProfitabilityEngine(new RecipeDAO(), MenuCache.getInstance());
+    }
+
+    // Tablas vigentes; nunca se modifican después de publicarse
+    private static final class State {
+        final RecipeGraph graph;
+        final long[] ingredientCostCents;
+        final long[] dishPriceCents;
+        final long[] dishCostMilliCents;
+
+        State(RecipeGraph graph, long[] ingredientCostCents, long[] dishPriceCents, long[] dishCostMilliCents) {
+            this.graph = graph;
+            this.ingredientCostCents = ingredientCostCents;
+            this.dishPriceCents = dishPriceCents;
+            this.dishCostMilliCents = dishCostMilliCents;
+        }
+    }
+
+    private final RecipeDAO recipeDAO;
+    private final MenuCache menu;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile State state;
+
+    // Estadísticas
+    private final AtomicLong fullComputes = new AtomicLong();
+    private final AtomicLong partialComputes = new AtomicLong();
+    private final AtomicLong dishesRecomputed = new AtomicLong();
+
+    private ProfitabilityEngine(RecipeDAO recipeDAO, MenuCache menu) {
+        this.recipeDAO = recipeDAO;
+        this.menu = menu;
+        ChangeBus changes = ChangeBus.getInstance();
+        changes.subscribe(ChangeEvent.Entity.INGREDIENT, this::ingredientsChanged);
+        changes.subscribe(ChangeEvent.Entity.DISH, this::dishesChanged);
+    }
+
+    /**
+     * Motor con datos fijos, sin base de datos (pruebas de rendimiento y herramientas)
+     * @param ingredientCostCents Costo por unidad en centavos, indexado por ID de ingrediente
+     * @param dishPriceCents Precio en centavos indexado por ID de platillo (-1 = sin precio)
+     */
+    public ProfitabilityEngine(RecipeGraph graph, long[] ingredientCostCents, long[] dishPriceCents) {
+        this.recipeDAO = null;
+        this.menu = null;
+        this.state = new State(graph, ingredientCostCents.clone(), dishPriceCents.clone(),
+            computeAll(graph, ingredientCostCents));
+        fullComputes.incrementAndGet();
+    }
+
+    /**
+     * Obtiene la instancia singleton de ProfitabilityEngine
+     */
+    public static ProfitabilityEngine getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Lee recetas, costos y precios y calcula todo el menú (al abrir la pantalla o con F5,
+     * para tomar también recetas nuevas)
+     * @return true si se cargó
+     */
+    public boolean load() {
+        if (recipeDAO == null) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        List<Ingredient> ingredients = recipeDAO.readIngredients();
+        RecipeGraph graph = RecipeGraph.from(recipeDAO.readRecipeItems());
+
+        long[] costs = new long[graph.maxIngredientId() + 1];
+        for (Ingredient ingredient : ingredients) {
+            if (ingredient.getIngredientId() >= costs.length) {
+                costs = Arrays.copyOf(costs, ingredient.getIngredientId() + 1);
+            }
+            costs[ingredient.getIngredientId()] = ingredient.getCostPerUnit() != null
+                ? Money.toCents(ingredient.getCostPerUnit()) : 0;
+        }
+        long[] prices = new long[graph.maxDishId() + 1];
+        Arrays.fill(prices, NO_PRICE);
+        for (Dish dish : menu.getAllDishes()) {
+            if (dish.getPrice() != null) {
+                prices = setPrice(prices, dish.getDishId(), Money.toCents(dish.getPrice()));
+            }
+        }
+
+        synchronized (this) {
+            state = new State(graph, costs, prices, computeAll(graph, costs));
+        }
+        fullComputes.incrementAndGet();
+        System.out.printf("✅ Rentabilidad calculada: %d platillos, %d renglones de receta en %d ms%n",
+            graph.maxDishId(), graph.lineCount(), System.currentTimeMillis() - start);
+        notifyListeners(null);
+        return true;
+    }
+
+    public boolean isLoaded() {
+        return state != null;
+    }
+
+    /**
+     * Margen del platillo sobre su precio
+     * @return Centésimas de porcentaje (35.5 % = 3550), o NO_MARGIN
+     */
+    public int marginBasisPoints(int dishId) {
+        State current = state;
+        if (current == null || dishId <= 0 || dishId >= current.dishPriceCents.length
+                || !current.graph.hasRecipe(dishId)) {
+            return NO_MARGIN;
+        }
+        long price = current.dishPriceCents[dishId];
+        if (price <= 0) {
+            return NO_MARGIN;
+        }
+        return margin(price, current.dishCostMilliCents[dishId]);
+    }
+
+    /**
+     * Costo de la receta del platillo
+     * @return Centavos, o -1 si aún no se carga o el platillo no tiene receta
+     */
+    public long recipeCostCents(int dishId) {
+        State current = state;
+        if (current == null || !current.graph.hasRecipe(dishId)) {
+            return -1;
+        }
+        // Redondeo a centavos, mitades hacia arriba
+        return (current.dishCostMilliCents[dishId] + 500) / 1000;
+    }
+
+    /**
+     * Cambia el costo de varios ingredientes y recalcula solo los platillos que los usan
+     * @return IDs de los platillos recalculados
+     */
+    public int[] setIngredientCosts(int[] ingredientIds, long[] costCents, int count) {
+        int[] affected;
+        synchronized (this) {
+            State current = state;
+            if (current == null) {
+                return new int[0];
+            }
+            RecipeGraph graph = current.graph;
+            long[] costs = current.ingredientCostCents.clone();
+            BitSet dishes = new BitSet(graph.maxDishId() + 1);
+            for (int i = 0; i < count; i++) {
+                int ingredientId = ingredientIds[i];
+                if (ingredientId <= 0 || ingredientId > graph.maxIngredientId()) {
+                    continue; // ninguna receta lo usa
+                }
+                if (costs[ingredientId] == costCents[i]) {
+                    continue;
+                }
+                costs[ingredientId] = costCents[i];
+                for (int k = graph.ingredientStart[ingredientId]; k < graph.ingredientStart[ingredientId + 1]; k++) {
+                    dishes.set(graph.ingredientDishes[k]);
+                }
+            }
+            if (dishes.isEmpty()) {
+                return new int[0];
+            }
+
+            long[] dishCosts = current.dishCostMilliCents.clone();
+            affected = dishes.stream().toArray();
+            for (int dishId : affected) {
+                dishCosts[dishId] = graph.recipeCostMilliCents(dishId, costs);
+            }
+            state = new State(graph, costs, current.dishPriceCents, dishCosts);
+        }
+        partialComputes.incrementAndGet();
+        dishesRecomputed.addAndGet(affected.length);
+        notifyListeners(affected);
+        return affected;
+    }
+
+    public int[] setIngredientCost(int ingredientId, long costCents) {
+        return setIngredientCosts(new int[] {ingredientId}, new long[] {costCents}, 1);
+    }
+
+    /**
+     * Cambia el precio de varios platillos (-1 = ya no está en el menú); su costo no cambia
+     */
+    public void setDishPrices(int[] dishIds, long[] priceCents, int count) {
+        synchronized (this) {
+            State current = state;
+            if (current == null) {
+                return;
+            }
+            long[] prices = current.dishPriceCents.clone();
+            for (int i = 0; i < count; i++) {
+                prices = setPrice(prices, dishIds[i], priceCents[i]);
+            }
+            state = new State(current.graph, current.ingredientCostCents, prices, current.dishCostMilliCents);
+        }
+        notifyListeners(Arrays.copyOf(dishIds, count));
+    }
+
+    /**
+     * Resumen de estadísticas
+     */
+    public String getStats() {
+        long partial = partialComputes.get();
+        return String.format("Rentabilidad: %d cálculos completos | %d parciales (prom %.1f platillos)",
+            fullComputes.get(), partial, partial == 0 ? 0.0 : dishesRecomputed.get() / (double) partial);
+    }
+
+    // Costo de todos los platillos; cada hilo escribe posiciones distintas del arreglo
+    private static long[] computeAll(RecipeGraph graph, long[] costs) {
+        long[] dishCosts = new long[graph.maxDishId() + 1];
+        IntStream.rangeClosed(1, graph.maxDishId()).parallel()
+            .forEach(dishId -> dishCosts[dishId] = graph.recipeCostMilliCents(dishId, costs));
+        return dishCosts;
+    }
+
+    // Margen en centésimas de porcentaje; mitades lejos del cero, como ROUND en MySQL
+    static int margin(long priceCents, long costMilliCents) {
+        long priceMilli = priceCents * 1000;
+        long numerator = (priceMilli - costMilliCents) * 10_000;
+        long rounded = (Math.abs(numerator) * 2 + priceMilli) / (2 * priceMilli);
+        return (int) (numerator < 0 ? -rounded : rounded);
+    }
+
+    private static long[] setPrice(long[] prices, int dishId, long cents) {
+        if (dishId <= 0) {
+            return prices;
+        }
+        if (dishId >= prices.length) {
+            int length = prices.length;
+            prices = Arrays.copyOf(prices, Math.max(dishId + 1, length * 2));
+            Arrays.fill(prices, length, prices.length, NO_PRICE);
+        }
+        prices[dishId] = cents;
+        return prices;
+    }
+
+    // Costos nuevos de los ingredientes avisados (hilo de ChangeBus → consulta en segundo plano)
+    private void ingredientsChanged(List<ChangeEvent> events) {
+        if (state == null) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(events.size());
+        for (ChangeEvent event : events) {
+            ids.add(event.getEntityId());
+        }
+        QueryExecutor.getInstance().submit(() -> {
+            Map<Integer, BigDecimal> costs = recipeDAO.readCosts(ids);
+            if (costs == null) {
+                return null;
+            }
+            int[] ingredientIds = new int[costs.size()];
+            long[] cents = new long[costs.size()];
+            int count = 0;
+            for (Map.Entry<Integer, BigDecimal> entry : costs.entrySet()) {
+                ingredientIds[count] = entry.getKey();
+                cents[count++] = entry.getValue() != null ? Money.toCents(entry.getValue()) : 0;
+            }
+            setIngredientCosts(ingredientIds, cents, count);
+            return null;
+        });
+    }
+
+    // Precios nuevos de los platillos avisados; MenuCache ya los olvidó
+    private void dishesChanged(List<ChangeEvent> events) {
+        if (state == null) {
+            return;
+        }
+        QueryExecutor.getInstance().submit(() -> {
+            int[] dishIds = new int[events.size()];
+            long[] prices = new long[events.size()];
+            int count = 0;
+            for (ChangeEvent event : events) {
+                Dish dish = menu.getDish(event.getEntityId());
+                dishIds[count] = event.getEntityId();
+                prices[count++] = dish != null && dish.isAvailable() && dish.getPrice() != null
+                    ? Money.toCents(dish.getPrice()) : NO_PRICE;
+            }
+            setDishPrices(dishIds, prices, count);
+            return null;
+        });
+    }
+
+    private void notifyListeners(int[] dishIds) {
+        for (Listener listener : listeners) {
+            try {
+                listener.marginsChanged(dishIds);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error al avisar cambios de rentabilidad: " + e.getMessage());
+            }
+        }
+    }
+}
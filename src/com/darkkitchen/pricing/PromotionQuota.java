@@ -0,0 +1,155 @@
+package com.darkkitchen.pricing;
+
+import com.darkkitchen.dao.PricingDAO;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cupos de usos de promociones por terminal. En lugar de sumar used_count en la misma fila
+ * con cada pedido (todas las terminales esperando el bloqueo de una promoción popular), la
+ * terminal aparta bloques de usos en una transacción corta y los reparte en memoria con
+ * compareAndSet. used_count cuenta los usos apartados, así que entre todas las terminales
+ * nunca se pasa de usage_limit. Los que no se usan se devuelven al cerrar; si la terminal
+ * se cae se pierden: la promoción rinde de menos, nunca de más.
+ */
+public class PromotionQuota {
+
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+
+    // Tiempo antes de volver a pedir usos de una promoción agotada (otra terminal puede devolver)
+    private static final long SOLD_OUT_RETRY_MS = 30_000;
+
+    // Instancia singleton
+    private static class Holder {
+        private static final PromotionQuota INSTANCE = new PromotionQuota(new PricingDAO(), DEFAULT_BLOCK_SIZE);
+    }
+
+    private static final class Block {
+        final AtomicInteger left = new AtomicInteger();
+        // Solo con el candado del bloque
+        long soldOutUntil;
+    }
+
+    private final PricingDAO pricingDAO;
+    private final int blockSize;
+    private final Map<Integer, Block> blocks = new ConcurrentHashMap<>();
+
+    // Estadísticas
+    private final LongAdder redeemed = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder returned = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param blockSize Usos que se piden a la base de datos en cada transacción
+     */
+    public PromotionQuota(PricingDAO pricingDAO, int blockSize) {
+        this.pricingDAO = pricingDAO;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Obtiene la instancia singleton de PromotionQuota
+     */
+    public static PromotionQuota getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Toma un uso de la promoción; solo va a la base de datos cuando el bloque se vacía
+     * @return false si la promoción ya no tiene usos disponibles
+     */
+    public boolean reserve(int promotionId) {
+        Block block = blocks.computeIfAbsent(promotionId, id -> new Block());
+        while (true) {
+            int left = block.left.get();
+            if (left > 0) {
+                if (block.left.compareAndSet(left, left - 1)) {
+                    redeemed.increment();
+                    return true;
+                }
+            } else if (!refill(promotionId, block)) {
+                rejected.increment();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Regresa al bloque un uso tomado con reserve (pedido rechazado o que no se pudo guardar)
+     */
+    public void release(int promotionId) {
+        Block block = blocks.get(promotionId);
+        if (block != null) {
+            block.left.incrementAndGet();
+            redeemed.decrement();
+        }
+    }
+
+    /**
+     * Usos apartados en esta terminal que todavía no se usan
+     */
+    public int held(int promotionId) {
+        Block block = blocks.get(promotionId);
+        return block != null ? block.left.get() : 0;
+    }
+
+    /**
+     * Devuelve a la base de datos todos los usos apartados sin usar (al cerrar la aplicación)
+     * @return Usos devueltos
+     */
+    public int releaseAll() {
+        int total = 0;
+        for (Map.Entry<Integer, Block> entry : blocks.entrySet()) {
+            Block block = entry.getValue();
+            synchronized (block) {
+                int left = block.left.getAndSet(0);
+                if (left == 0) {
+                    continue;
+                }
+                if (pricingDAO.returnUses(entry.getKey(), left)) {
+                    total += left;
+                } else {
+                    block.left.addAndGet(left);
+                }
+            }
+        }
+        returned.add(total);
+        return total;
+    }
+
+    public String getStats() {
+        long r = refills.sum();
+        return String.format(
+            "Promociones: %d usos canjeados | %d apartados en %d bloques (prom %.1f) | %d devueltos | %d rechazos sin usos",
+            redeemed.sum(), reserved.sum(), r, r == 0 ? 0.0 : reserved.sum() / (double) r,
+            returned.sum(), rejected.sum());
+    }
+
+    // Pide otro bloque a la base de datos; un solo hilo por promoción, los demás esperan el resultado
+    private boolean refill(int promotionId, Block block) {
+        synchronized (block) {
+            if (block.left.get() > 0) {
+                return true;
+            }
+            long now = System.currentTimeMillis();
+            if (now < block.soldOutUntil) {
+                return false;
+            }
+            int granted = pricingDAO.reserveUses(promotionId, blockSize);
+            if (granted <= 0) {
+                if (granted == 0) {
+                    block.soldOutUntil = now + SOLD_OUT_RETRY_MS;
+                }
+                return false;
+            }
+            refills.increment();
+            reserved.add(granted);
+            block.left.addAndGet(granted);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.darkkitchen.pricing;
+
+/**
+ * Resultado de cotizar una canasta, en centavos. Es mutable para reutilizar la misma
+ * instancia en cada cotización (por ejemplo, una por hilo) y no crear objetos.
+ */
+public final class Quote {
+
+    public static final int OK = 0;
+    public static final int UNKNOWN_DISH = 1;
+    public static final int UNKNOWN_PROMOTION = 2;
+    public static final int PROMOTION_NOT_VALID_TODAY = 3;
+    public static final int PROMOTION_EXHAUSTED = 4;
+
+    int status;
+    int failedDishId;
+    int promotionId;
+    long taxBasisPoints;
+    long subtotal;
+    long itemsDiscount;
+    long deliveryDiscount;
+    long tax;
+    long deliveryFee;
+    long total;
+
+    void reset() {
+        status = OK;
+        failedDishId = 0;
+        promotionId = 0;
+        taxBasisPoints = 0;
+        subtotal = 0;
+        itemsDiscount = 0;
+        deliveryDiscount = 0;
+        tax = 0;
+        deliveryFee = 0;
+        total = 0;
+    }
+
+    public boolean isOk() {
+        return status == OK;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Platillo que no tiene precio (con UNKNOWN_DISH)
+     */
+    public int getFailedDishId() {
+        return failedDishId;
+    }
+
+    /**
+     * Promoción aplicada (0 = ninguna)
+     */
+    public int getPromotionId() {
+        return promotionId;
+    }
+
+    public long getTaxBasisPoints() {
+        return taxBasisPoints;
+    }
+
+    /**
+     * Suma de precio por cantidad, antes de descuentos
+     */
+    public long getSubtotal() {
+        return subtotal;
+    }
+
+    /**
+     * Descuento sobre los platillos (reduce la base del impuesto)
+     */
+    public long getItemsDiscount() {
+        return itemsDiscount;
+    }
+
+    /**
+     * Tarifa de envío condonada por la promoción
+     */
+    public long getDeliveryDiscount() {
+        return deliveryDiscount;
+    }
+
+    /**
+     * Descuento total de la promoción (lo que se guarda en Order_Promotion)
+     */
+    public long getDiscount() {
+        return itemsDiscount + deliveryDiscount;
+    }
+
+    public long getTax() {
+        return tax;
+    }
+
+    /**
+     * Tarifa de envío cobrada (0 con envío gratis)
+     */
+    public long getDeliveryFee() {
+        return deliveryFee;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Motivo del rechazo para mostrar al usuario (crea el texto, fuera de la ruta rápida)
+     */
+    public String getMessage() {
+        switch (status) {
+            case OK:
+                return "Cotización válida";
+            case UNKNOWN_DISH:
+                return "Platillo inválido o inactivo especificado: " + failedDishId;
+            case UNKNOWN_PROMOTION:
+                return "Promoción inválida o inactiva especificada";
+            case PROMOTION_NOT_VALID_TODAY:
+                return "La promoción no está vigente hoy";
+            case PROMOTION_EXHAUSTED:
+                return "La promoción ya alcanzó su límite de usos";
+            default:
+                return "Error de cotización " + status;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Subtotal " + Money.format(subtotal) + " - descuento " + Money.format(getDiscount())
+            + " + impuesto " + Money.format(tax) + " + envío " + Money.format(deliveryFee)
+            + " = " + Money.format(total);
+    }
+}
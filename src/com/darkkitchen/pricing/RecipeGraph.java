@@ -0,0 +1,205 @@
+package com.darkkitchen.pricing;
+
+import com.darkkitchen.model.RecipeItem;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Recetas en arreglos primitivos, inmutables: los renglones de cada platillo quedan juntos
+ * (de dishStart[id] a dishStart[id + 1]) y, al revés, los platillos que usa cada
+ * ingrediente (de ingredientStart[id] a ingredientStart[id + 1]). Recorrer la receta de un
+ * platillo o los platillos de un ingrediente no crea objetos.
+ */
+public final class RecipeGraph {
+
+    // Renglones agrupados por platillo
+    final int[] dishStart;
+    final int[] lineIngredient;
+    final long[] lineQuantityMilli;     // cantidad en milésimas de unidad (DECIMAL(10,3))
+
+    // Platillos que usan cada ingrediente
+    final int[] ingredientStart;
+    final int[] ingredientDishes;
+
+    private RecipeGraph(int[] dishStart, int[] lineIngredient, long[] lineQuantityMilli,
+                        int[] ingredientStart, int[] ingredientDishes) {
+        this.dishStart = dishStart;
+        this.lineIngredient = lineIngredient;
+        this.lineQuantityMilli = lineQuantityMilli;
+        this.ingredientStart = ingredientStart;
+        this.ingredientDishes = ingredientDishes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Construye el grafo con los renglones de Recipe
+     */
+    public static RecipeGraph from(List<RecipeItem> items) {
+        Builder builder = new Builder();
+        for (RecipeItem item : items) {
+            builder.line(item.getDishId(), item.getIngredientId(),
+                item.getQuantity().movePointRight(3).setScale(0, RoundingMode.HALF_UP).longValueExact());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Mayor ID de platillo que cabe en el grafo (los platillos sin receta también cuentan)
+     */
+    public int maxDishId() {
+        return dishStart.length - 2;
+    }
+
+    public int maxIngredientId() {
+        return ingredientStart.length - 2;
+    }
+
+    public int lineCount() {
+        return lineIngredient.length;
+    }
+
+    /**
+     * Indica si el platillo tiene al menos un ingrediente registrado
+     */
+    public boolean hasRecipe(int dishId) {
+        return dishId > 0 && dishId <= maxDishId() && dishStart[dishId + 1] > dishStart[dishId];
+    }
+
+    /**
+     * Primer renglón de la receta del platillo; con linesTo forma el rango [desde, hasta)
+     */
+    public int linesFrom(int dishId) {
+        return dishId > 0 && dishId <= maxDishId() ? dishStart[dishId] : 0;
+    }
+
+    public int linesTo(int dishId) {
+        return dishId > 0 && dishId <= maxDishId() ? dishStart[dishId + 1] : 0;
+    }
+
+    public int ingredientOf(int line) {
+        return lineIngredient[line];
+    }
+
+    public long quantityMilliOf(int line) {
+        return lineQuantityMilli[line];
+    }
+
+    /**
+     * Primer uso del ingrediente; con usesTo forma el rango [desde, hasta) para dishOf
+     */
+    public int usesFrom(int ingredientId) {
+        return ingredientId > 0 && ingredientId <= maxIngredientId() ? ingredientStart[ingredientId] : 0;
+    }
+
+    public int usesTo(int ingredientId) {
+        return ingredientId > 0 && ingredientId <= maxIngredientId() ? ingredientStart[ingredientId + 1] : 0;
+    }
+
+    public int dishOf(int use) {
+        return ingredientDishes[use];
+    }
+
+    /**
+     * Costo de la receta con los costos indicados
+     * @param costCents Costo por unidad de cada ingrediente, en centavos, indexado por ID
+     * @return Milésimas de centavo (0 si el platillo no tiene receta)
+     */
+    public long recipeCostMilliCents(int dishId, long[] costCents) {
+        if (dishId <= 0 || dishId > maxDishId()) {
+            return 0;
+        }
+        long total = 0;
+        for (int line = dishStart[dishId]; line < dishStart[dishId + 1]; line++) {
+            int ingredientId = lineIngredient[line];
+            if (ingredientId < costCents.length) {
+                total += lineQuantityMilli[line] * costCents[ingredientId];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Constructor del grafo. Acepta los renglones en cualquier orden.
+     */
+    public static final class Builder {
+
+        private int[] dishes = new int[64];
+        private int[] ingredients = new int[64];
+        private long[] quantities = new long[64];
+        private int size;
+        private int maxDishId;
+        private int maxIngredientId;
+
+        private Builder() {
+        }
+
+        /**
+         * @param quantityMilli Cantidad en milésimas de la unidad del ingrediente
+         */
+        public Builder line(int dishId, int ingredientId, long quantityMilli) {
+            if (dishId <= 0 || ingredientId <= 0) {
+                return this;
+            }
+            if (size == dishes.length) {
+                dishes = Arrays.copyOf(dishes, size * 2);
+                ingredients = Arrays.copyOf(ingredients, size * 2);
+                quantities = Arrays.copyOf(quantities, size * 2);
+            }
+            dishes[size] = dishId;
+            ingredients[size] = ingredientId;
+            quantities[size] = quantityMilli;
+            size++;
+            maxDishId = Math.max(maxDishId, dishId);
+            maxIngredientId = Math.max(maxIngredientId, ingredientId);
+            return this;
+        }
+
+        /**
+         * Reserva espacio para platillos sin receta hasta este ID
+         */
+        public Builder dish(int dishId) {
+            maxDishId = Math.max(maxDishId, dishId);
+            return this;
+        }
+
+        public RecipeGraph build() {
+            // Conteo por platillo y luego cada renglón a su lugar (ordenamiento por conteo)
+            int[] dishStart = new int[maxDishId + 2];
+            for (int i = 0; i < size; i++) {
+                dishStart[dishes[i] + 1]++;
+            }
+            for (int d = 1; d < dishStart.length; d++) {
+                dishStart[d] += dishStart[d - 1];
+            }
+            int[] lineIngredient = new int[size];
+            long[] lineQuantity = new long[size];
+            int[] next = Arrays.copyOf(dishStart, dishStart.length);
+            for (int i = 0; i < size; i++) {
+                int position = next[dishes[i]]++;
+                lineIngredient[position] = ingredients[i];
+                lineQuantity[position] = quantities[i];
+            }
+
+            // Índice inverso: ingrediente → platillos que lo usan
+            int[] ingredientStart = new int[maxIngredientId + 2];
+            for (int i = 0; i < size; i++) {
+                ingredientStart[ingredients[i] + 1]++;
+            }
+            for (int g = 1; g < ingredientStart.length; g++) {
+                ingredientStart[g] += ingredientStart[g - 1];
+            }
+            int[] ingredientDishes = new int[size];
+            int[] nextDish = Arrays.copyOf(ingredientStart, ingredientStart.length);
+            for (int d = 1; d <= maxDishId; d++) {
+                for (int line = dishStart[d]; line < dishStart[d + 1]; line++) {
+                    ingredientDishes[nextDish[lineIngredient[line]]++] = d;
+                }
+            }
+            return new RecipeGraph(dishStart, lineIngredient, lineQuantity, ingredientStart, ingredientDishes);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.darkkitchen.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria con búsqueda por prefijo de palabra.
+ * Cada palabra normalizada apunta a un arreglo ordenado de IDs; el mapa ordenado
+ * permite recorrer todas las palabras con un prefijo (como un trie).
+ * Cada palabra se guarda una sola vez y los documentos comparten esa instancia.
+ * Admite altas, cambios y bajas individuales, y lecturas concurrentes.
+ */
+public class SearchIndex<T> {
+
+    // palabra → IDs de los documentos que la contienen
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Integer, Doc<T>> docs = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Agrega o reemplaza un documento
+     * @param text Texto a indexar (por ejemplo, el nombre)
+     */
+    public void put(int id, String text, T value) {
+        String normalized = TextNormalizer.normalize(text);
+        List<String> tokens = TextNormalizer.tokens(normalized);
+
+        lock.writeLock().lock();
+        try {
+            Doc<T> previous = docs.remove(id);
+            if (previous != null) {
+                unlink(previous);
+            }
+            String[] canonical = new String[tokens.size()];
+            for (int i = 0; i < canonical.length; i++) {
+                Postings ids = postings.computeIfAbsent(tokens.get(i), Postings::new);
+                ids.add(id);
+                canonical[i] = ids.token;
+            }
+            docs.put(id, new Doc<>(id, value, normalized, canonical));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un documento del índice
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Doc<T> previous = docs.remove(id);
+            if (previous != null) {
+                unlink(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vacía el índice
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca documentos que contengan todas las palabras de la consulta como
+     * palabra o prefijo de palabra, ordenados por relevancia
+     */
+    public List<T> search(String query, int limit) {
+        String normalizedQuery = TextNormalizer.normalize(query).trim();
+        List<String> terms = TextNormalizer.tokens(normalizedQuery);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Se parte del término con menos candidatos y se verifica el resto en cada documento
+            Collection<Postings> seed = null;
+            int seedSize = Integer.MAX_VALUE;
+            for (String term : terms) {
+                Collection<Postings> matches = prefixMatches(term);
+                int size = 0;
+                for (Postings ids : matches) {
+                    size += ids.size;
+                }
+                if (size < seedSize) {
+                    seed = matches;
+                    seedSize = size;
+                }
+            }
+            if (seedSize == 0) {
+                return Collections.emptyList();
+            }
+
+            List<Hit<T>> hits = new ArrayList<>();
+            Set<Integer> seen = new HashSet<>();
+            for (Postings ids : seed) {
+                for (int i = 0; i < ids.size; i++) {
+                    int id = ids.ids[i];
+                    if (!seen.add(id)) {
+                        continue;
+                    }
+                    Doc<T> doc = docs.get(id);
+                    int score = score(doc, terms, normalizedQuery);
+                    if (score > 0) {
+                        hits.add(new Hit<>(doc, score));
+                    }
+                }
+            }
+
+            hits.sort((a, b) -> {
+                if (a.score != b.score) {
+                    return Integer.compare(b.score, a.score);
+                }
+                int byText = a.doc.text.compareTo(b.doc.text);
+                return byText != 0 ? byText : Integer.compare(a.doc.id, b.doc.id);
+            });
+
+            List<T> result = new ArrayList<>(Math.min(limit, hits.size()));
+            for (int i = 0; i < hits.size() && i < limit; i++) {
+                result.add(hits.get(i).doc.value);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Listas de IDs de todas las palabras que empiezan con el prefijo
+    private Collection<Postings> prefixMatches(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+    }
+
+    // 0 si falta algún término; más puntos por palabra exacta y por coincidir al inicio
+    private static int score(Doc<?> doc, List<String> terms, String normalizedQuery) {
+        int score = 0;
+        for (String term : terms) {
+            int best = 0;
+            for (String token : doc.tokens) {
+                if (token.equals(term)) {
+                    best = 3;
+                    break;
+                }
+                if (token.startsWith(term)) {
+                    best = 2;
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            score += best;
+        }
+        if (doc.text.startsWith(normalizedQuery)) {
+            score += 2;
+        }
+        return score;
+    }
+
+    private void unlink(Doc<T> doc) {
+        for (String token : doc.tokens) {
+            Postings ids = postings.get(token);
+            if (ids != null) {
+                ids.remove(doc.id);
+                if (ids.size == 0) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    // IDs de una palabra en un arreglo ordenado (sin objetos Integer por entrada)
+    private static class Postings {
+        final String token;
+        int[] ids = new int[2];
+        int size = 0;
+
+        Postings(String token) {
+            this.token = token;
+        }
+
+        void add(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+        }
+    }
+
+    // Documento indexado
+    private static class Doc<T> {
+        final int id;
+        final T value;
+        final String text;
+        final String[] tokens;
+
+        Doc(int id, T value, String text, String[] tokens) {
+            this.id = id;
+            this.value = value;
+            this.text = text;
+            this.tokens = tokens;
+        }
+    }
+
+    // Documento encontrado con su puntuación
+    private static class Hit<T> {
+        final Doc<T> doc;
+        final int score;
+
+        Hit(Doc<T> doc, int score) {
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+}
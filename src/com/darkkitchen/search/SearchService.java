@@ -0,0 +1,173 @@
+package com.darkkitchen.search;
+
+import com.darkkitchen.dao.CustomerDAO;
+import com.darkkitchen.dao.DishDAO;
+import com.darkkitchen.dao.MenuCache;
+import com.darkkitchen.model.Customer;
+import com.darkkitchen.model.Dish;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Punto único de búsqueda de clientes y platillos.
+ * En modo DATABASE usa los índices FULLTEXT de MySQL; en modo IN_MEMORY usa
+ * índices invertidos construidos desde los DAOs la primera vez que se necesitan
+ * y actualizados con cada escritura. Ambos modos encuentran lo mismo: cada palabra
+ * del término es prefijo de alguna palabra del nombre (TextNormalizer.matchesWordPrefixes).
+ */
+public class SearchService {
+
+    /**
+     * Dónde se resuelven las búsquedas
+     */
+    public enum Mode {
+        DATABASE,
+        IN_MEMORY
+    }
+
+    private static final int STREAM_FETCH_SIZE = 1_000;
+
+    // Instancia singleton
+    private static class Holder {
+        private static final SearchService INSTANCE = new SearchService();
+    }
+
+    private final CustomerDAO customerDAO = new CustomerDAO();
+    private final DishDAO dishDAO = new DishDAO();
+    private final MenuCache menuCache = MenuCache.getInstance();
+
+    private final SearchIndex<Customer> customerIndex = new SearchIndex<>();
+    private final SearchIndex<Dish> dishIndex = new SearchIndex<>();
+
+    private volatile Mode mode = Mode.DATABASE;
+    private boolean customersIndexed = false;
+    // Carga del menú a partir de la cual se construyó el índice de platillos
+    private long indexedStamp = -1;
+
+    private SearchService() {
+    }
+
+    /**
+     * Obtiene la instancia singleton de SearchService
+     */
+    public static SearchService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Cambia el modo de búsqueda; al volver a DATABASE se libera la memoria de los índices
+     */
+    public synchronized void setMode(Mode mode) {
+        this.mode = mode;
+        if (mode == Mode.DATABASE) {
+            customerIndex.clear();
+            dishIndex.clear();
+            customersIndexed = false;
+            indexedStamp = -1;
+        }
+    }
+
+    /**
+     * Buscar clientes por nombre, ordenados por relevancia
+     */
+    public List<Customer> searchCustomers(String term, int limit) {
+        if (mode == Mode.IN_MEMORY && ensureCustomerIndex()) {
+            return customerIndex.search(term, limit);
+        }
+        return customerDAO.search(term, limit);
+    }
+
+    /**
+     * Buscar platillos activos por nombre, ordenados por relevancia
+     */
+    public List<Dish> searchDishes(String term, int limit) {
+        if (mode == Mode.IN_MEMORY && ensureDishIndex()) {
+            return dishIndex.search(term, limit);
+        }
+        return dishDAO.search(term, limit);
+    }
+
+    /**
+     * Actualiza el índice de clientes tras create/update (si ya está construido)
+     */
+    public synchronized void customerSaved(Customer customer) {
+        if (customersIndexed) {
+            customerIndex.put(customer.getCustomerId(), customer.getFullName(), customer);
+        }
+    }
+
+    /**
+     * Quita un cliente del índice tras delete (si ya está construido)
+     */
+    public synchronized void customerDeleted(int customerId) {
+        if (customersIndexed) {
+            customerIndex.remove(customerId);
+        }
+    }
+
+    /**
+     * true si los resultados de la consulta anterior contienen todos los de la nueva,
+     * de modo que basta con filtrarlos en memoria (el usuario siguió escribiendo)
+     */
+    public boolean canRefine(String previousTerm, String term) {
+        if (previousTerm == null) {
+            return false;
+        }
+        String previous = TextNormalizer.normalize(previousTerm).trim();
+        return !previous.isEmpty() && TextNormalizer.normalize(term).trim().startsWith(previous);
+    }
+
+    /**
+     * Filtra en memoria resultados de una consulta anterior con la misma regla de
+     * coincidencia que las búsquedas de ambos modos; conserva su orden
+     */
+    public <T> List<T> refine(List<T> previousResults, Function<T, String> text, String term) {
+        List<String> terms = TextNormalizer.tokens(term);
+        List<T> refined = new ArrayList<>();
+        for (T item : previousResults) {
+            if (TextNormalizer.matchesWordPrefixes(text.apply(item), terms)) {
+                refined.add(item);
+            }
+        }
+        return refined;
+    }
+
+    // Construye el índice de clientes si hace falta; false si no se pudo leer la BD
+    private synchronized boolean ensureCustomerIndex() {
+        if (customersIndexed) {
+            return true;
+        }
+        long start = System.currentTimeMillis();
+        customerIndex.clear();
+        try (Stream<Customer> customers = customerDAO.streamAll(STREAM_FETCH_SIZE)) {
+            customers.forEach(c -> customerIndex.put(c.getCustomerId(), c.getFullName(), c));
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error al construir el índice de clientes: " + e.getMessage());
+            customerIndex.clear();
+            return false;
+        }
+        customersIndexed = true;
+        System.out.println("✅ Índice de clientes construido: " + customerIndex.size()
+            + " clientes en " + (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    // El menú ya está en MenuCache: se reindexa cuando la caché vuelve a cargarlo
+    private synchronized boolean ensureDishIndex() {
+        long stamp = menuCache.getMenuStamp();
+        if (stamp != indexedStamp) {
+            dishIndex.clear();
+            for (Dish dish : menuCache.getAllDishes()) {
+                dishIndex.put(dish.getDishId(), dish.getName(), dish);
+            }
+            indexedStamp = stamp;
+        }
+        return true;
+    }
+}
@@ -1,22 +1,40 @@
 package com.darkkitchen.ui;
 
+import com.darkkitchen.dao.ChangeBus;
+import com.darkkitchen.dao.ChangeEvent;
 import com.darkkitchen.dao.CustomerDAO;
+import com.darkkitchen.dao.Page;
+import com.darkkitchen.dao.QueryExecutor;
 import com.darkkitchen.model.Customer;
+import com.darkkitchen.search.SearchService;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * Panel para gestionar operaciones CRUD de clientes
  */
 public class CustomerPanel extends JPanel {
     
+    // Máximo de resultados mostrados por búsqueda
+    private static final int SEARCH_LIMIT = 200;
+    // Espera tras la última tecla antes de buscar
+    private static final int SEARCH_DELAY_MS = 200;
+    // Con más cambios en una ráfaga conviene recargar la tabla que parchar fila por fila
+    private static final int MAX_ROW_PATCHES = 50;
+    
     private CustomerDAO customerDAO;
+    private QueryExecutor queryExecutor;
+    private IncrementalSearch<Customer> incrementalSearch;
+    private DebouncedDocumentListener searchDebouncer;
+    // Término cuyos resultados se muestran ("" = todos los clientes)
+    private String shownSearchTerm = "";
     private JTable customerTable;
-    private DefaultTableModel tableModel;
+    private LazyTableModel<Customer> tableModel;
     private JTextField nameField, emailField, phoneField, addressField, searchField;
     private JCheckBox activeCheckBox;
     private JButton addButton, updateButton, deleteButton, clearButton, searchButton;
@@ -24,10 +42,12 @@ public class CustomerPanel extends JPanel {
     
     public CustomerPanel() {
         customerDAO = new CustomerDAO();
+        queryExecutor = QueryExecutor.getInstance();
         initializeComponents();
         setupLayout();
         setupEventListeners();
         refreshData();
+        ChangeBus.getInstance().subscribe(ChangeEvent.Entity.CUSTOMER, this::customersChanged);
     }
     
     private void initializeComponents() {
@@ -51,13 +71,10 @@ public class CustomerPanel extends JPanel {
         deleteButton.setEnabled(false);
         
         // Tabla
-        String[] columnNames = {"ID", "Nombre", "Email", "Teléfono", "Dirección", "Fecha Registro", "Activo"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Hacer tabla de solo lectura
-            }
-        };
+        String[] columnNames = {"ID", "Nombre", "Email", "Teléfono", "Dirección", "Fecha Registro", "Activo", "Nivel"};
+        // Solo lectura; mantiene en memoria una ventana de 10 páginas de 100 clientes
+        tableModel = new LazyTableModel<>("customers", columnNames, this::columnValue, 100, 10);
+        tableModel.setKeyFunction(Customer::getCustomerId);
         
         customerTable = new JTable(tableModel);
         customerTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -72,6 +89,7 @@ public class CustomerPanel extends JPanel {
         customerTable.getColumnModel().getColumn(4).setPreferredWidth(250); // Dirección
         customerTable.getColumnModel().getColumn(5).setPreferredWidth(120); // Fecha
         customerTable.getColumnModel().getColumn(6).setPreferredWidth(60);  // Activo
+        customerTable.getColumnModel().getColumn(7).setPreferredWidth(80);  // Nivel
     }
     
     private void setupLayout() {
@@ -168,23 +186,46 @@ public class CustomerPanel extends JPanel {
         
         // Enter en campo de búsqueda
         searchField.addActionListener(e -> searchCustomers());
+        
+        // Búsqueda mientras se escribe
+        incrementalSearch = new IncrementalSearch<>("customers.search", SEARCH_LIMIT,
+            term -> SearchService.getInstance().searchCustomers(term, SEARCH_LIMIT),
+            Customer::getFullName,
+            customers -> {
+                loadCustomersToTable(customers);
+                clearForm();
+            });
+        searchDebouncer = new DebouncedDocumentListener(SEARCH_DELAY_MS, () -> {
+            if (!searchField.getText().trim().equals(shownSearchTerm)) {
+                searchCustomers();
+            }
+        });
+        searchField.getDocument().addDocumentListener(searchDebouncer);
     }
     
     private void loadCustomerFromTable(int row) {
-        int customerId = (Integer) tableModel.getValueAt(row, 0);
-        selectedCustomer = customerDAO.readById(customerId);
-        
-        if (selectedCustomer != null) {
-            nameField.setText(selectedCustomer.getFullName());
-            emailField.setText(selectedCustomer.getEmail());
-            phoneField.setText(selectedCustomer.getPhone());
-            addressField.setText(selectedCustomer.getDeliveryAddress());
-            activeCheckBox.setSelected(selectedCustomer.isActive());
-            
-            updateButton.setEnabled(true);
-            deleteButton.setEnabled(true);
-            addButton.setEnabled(false);
+        Customer rowCustomer = tableModel.getRow(row);
+        if (rowCustomer == null) {
+            return; // La página aún se está cargando
         }
+        
+        // Solo importa el último cliente seleccionado
+        queryExecutor.latest("customers.select", () -> customerDAO.readById(rowCustomer.getCustomerId()))
+            .whenCompleteAsync((customer, error) -> {
+                if (error != null || customer == null) {
+                    return;
+                }
+                selectedCustomer = customer;
+                nameField.setText(selectedCustomer.getFullName());
+                emailField.setText(selectedCustomer.getEmail());
+                phoneField.setText(selectedCustomer.getPhone());
+                addressField.setText(selectedCustomer.getDeliveryAddress());
+                activeCheckBox.setSelected(selectedCustomer.isActive());
+                
+                updateButton.setEnabled(true);
+                deleteButton.setEnabled(true);
+                addButton.setEnabled(false);
+            }, SwingUtilities::invokeLater);
     }
     
     private void addCustomer() {
@@ -197,15 +238,8 @@ public class CustomerPanel extends JPanel {
             );
             customer.setActive(activeCheckBox.isSelected());
             
-            if (customerDAO.create(customer)) {
-                JOptionPane.showMessageDialog(this, "Cliente agregado exitosamente", 
-                    "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                refreshData();
-                clearForm();
-            } else {
-                JOptionPane.showMessageDialog(this, "Error al agregar cliente", 
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            runWrite(() -> customerDAO.create(customer),
+                "Cliente agregado exitosamente", "Error al agregar cliente");
         }
     }
     
@@ -217,15 +251,9 @@ public class CustomerPanel extends JPanel {
             selectedCustomer.setDeliveryAddress(addressField.getText().trim());
             selectedCustomer.setActive(activeCheckBox.isSelected());
             
-            if (customerDAO.update(selectedCustomer)) {
-                JOptionPane.showMessageDialog(this, "Cliente actualizado exitosamente", 
-                    "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                refreshData();
-                clearForm();
-            } else {
-                JOptionPane.showMessageDialog(this, "Error al actualizar cliente", 
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            Customer customer = selectedCustomer;
+            runWrite(() -> customerDAO.update(customer),
+                "Cliente actualizado exitosamente", "Error al actualizar cliente");
         }
     }
     
@@ -238,17 +266,37 @@ public class CustomerPanel extends JPanel {
                 JOptionPane.WARNING_MESSAGE);
             
             if (option == JOptionPane.YES_OPTION) {
-                if (customerDAO.delete(selectedCustomer.getCustomerId())) {
-                    JOptionPane.showMessageDialog(this, "Cliente eliminado exitosamente", 
+                int customerId = selectedCustomer.getCustomerId();
+                runWrite(() -> customerDAO.delete(customerId),
+                    "Cliente eliminado exitosamente", "Error al eliminar cliente");
+            }
+        }
+    }
+    
+    /**
+     * Ejecuta una escritura en segundo plano y muestra el resultado al terminar
+     */
+    private void runWrite(Callable<Boolean> write, String successMessage, String errorMessage) {
+        setWriteButtonsEnabled(false);
+        queryExecutor.submit(write)
+            .whenCompleteAsync((ok, error) -> {
+                setWriteButtonsEnabled(true);
+                if (error == null && ok) {
+                    JOptionPane.showMessageDialog(this, successMessage, 
                         "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                    refreshData();
+                    // La tabla se actualiza con el aviso de ChangeBus
                     clearForm();
                 } else {
-                    JOptionPane.showMessageDialog(this, "Error al eliminar cliente", 
+                    JOptionPane.showMessageDialog(this, errorMessage, 
                         "Error", JOptionPane.ERROR_MESSAGE);
                 }
-            }
-        }
+            }, SwingUtilities::invokeLater);
+    }
+    
+    private void setWriteButtonsEnabled(boolean enabled) {
+        addButton.setEnabled(enabled && selectedCustomer == null);
+        updateButton.setEnabled(enabled && selectedCustomer != null);
+        deleteButton.setEnabled(enabled && selectedCustomer != null);
     }
     
     private void clearForm() {
@@ -267,41 +315,128 @@ public class CustomerPanel extends JPanel {
     }
     
     private void searchCustomers() {
+        searchDebouncer.cancel();
         String searchTerm = searchField.getText().trim();
-        List<Customer> customers;
+        shownSearchTerm = searchTerm;
         
         if (searchTerm.isEmpty()) {
-            customers = customerDAO.readAll();
-        } else {
-            customers = customerDAO.searchByName(searchTerm);
+            incrementalSearch.reset();
+            tableModel.setSource(allCustomersSource());
+            clearForm();
+            return;
         }
         
-        loadCustomersToTable(customers);
-        clearForm();
+        incrementalSearch.search(searchTerm);
     }
     
     public void refreshData() {
-        List<Customer> customers = customerDAO.readAll();
-        loadCustomersToTable(customers);
+        // Los resultados filtrados en memoria ya no son confiables
+        incrementalSearch.reset();
+        shownSearchTerm = "";
+        tableModel.setSource(allCustomersSource());
         clearForm();
         searchField.setText("");
     }
     
     private void loadCustomersToTable(List<Customer> customers) {
-        tableModel.setRowCount(0); // Limpiar tabla
-        
-        for (Customer customer : customers) {
-            Object[] row = {
-                customer.getCustomerId(),
-                customer.getFullName(),
-                customer.getEmail(),
-                customer.getPhone(),
-                customer.getDeliveryAddress(),
-                customer.getRegistrationDate() != null ? 
-                    customer.getRegistrationDate().toString().substring(0, 19) : "N/A",
-                customer.isActive() ? "Sí" : "No"
-            };
-            tableModel.addRow(row);
+        tableModel.setRows(customers);
+    }
+    
+    /**
+     * Aplica en la tabla una ráfaga de cambios de clientes (hilo de ChangeBus)
+     */
+    private void customersChanged(List<ChangeEvent> events) {
+        SwingUtilities.invokeLater(() -> {
+            boolean searching = tableModel.isShowingRows();
+            if (!searching && events.size() > MAX_ROW_PATCHES) {
+                tableModel.setSource(allCustomersSource());
+                return;
+            }
+            // Cada cliente se lee en segundo plano junto con su posición en el orden de la tabla
+            queryExecutor.submit(() -> readChangedRows(events, searching))
+                .whenCompleteAsync((patches, error) -> {
+                    if (error != null) {
+                        System.err.println("❌ Error al leer clientes modificados: " + error.getMessage());
+                        return;
+                    }
+                    applyRowPatches(patches, searching);
+                }, SwingUtilities::invokeLater);
+        });
+    }
+    
+    // Cliente modificado (null si se eliminó) y su posición; -1 si no se calculó
+    private static final class RowPatch {
+        final int customerId;
+        final Customer customer;
+        final int position;
+        
+        RowPatch(int customerId, Customer customer, int position) {
+            this.customerId = customerId;
+            this.customer = customer;
+            this.position = position;
+        }
+    }
+    
+    private List<RowPatch> readChangedRows(List<ChangeEvent> events, boolean searching) {
+        List<RowPatch> patches = new ArrayList<>(events.size());
+        for (ChangeEvent event : events) {
+            int customerId = event.getEntityId();
+            Customer customer = event.getType() == ChangeEvent.Type.DELETE ? null : customerDAO.readById(customerId);
+            // Los resultados de búsqueda no cambian de orden ni reciben clientes nuevos
+            int position = customer != null && !searching
+                ? customerDAO.countBefore(customer.getFullName(), customerId) : -1;
+            patches.add(new RowPatch(customerId, customer, position));
+        }
+        return patches;
+    }
+    
+    private void applyRowPatches(List<RowPatch> patches, boolean searching) {
+        // El usuario cambió entre búsqueda y lista completa mientras se leían los cambios
+        if (searching != tableModel.isShowingRows()) {
+            return;
+        }
+        // Los eventos por fila conservan la selección y el desplazamiento de la tabla
+        for (RowPatch patch : patches) {
+            if (patch.customer == null) {
+                tableModel.removeRow(patch.customerId);
+            } else {
+                tableModel.upsertRow(patch.customer, patch.position);
+            }
+        }
+    }
+    
+    /**
+     * Origen paginado con todos los clientes; las páginas se piden conforme se desplaza la tabla
+     */
+    private LazyTableModel.RowSource<Customer> allCustomersSource() {
+        return new LazyTableModel.RowSource<Customer>() {
+            @Override
+            public int count() {
+                return customerDAO.countAll();
+            }
+            
+            @Override
+            public Page<Customer> fetch(String pageToken, int offset, int pageSize) {
+                return pageToken != null
+                    ? customerDAO.readPage(pageToken, pageSize)
+                    : customerDAO.readPageAt(offset, pageSize);
+            }
+        };
+    }
+    
+    private Object columnValue(Customer customer, int column) {
+        switch (column) {
+            case 0: return customer.getCustomerId();
+            case 1: return customer.getFullName();
+            case 2: return customer.getEmail();
+            case 3: return customer.getPhone();
+            case 4: return customer.getDeliveryAddress();
+            case 5: return customer.getRegistrationDate() != null ?
+                        customer.getRegistrationDate().toString().substring(0, 19) : "N/A";
+            case 6: return customer.isActive() ? "Sí" : "No";
+            // Viene en la misma fila del cliente: no cuesta otra consulta
+            case 7: return customer.getLoyaltyTier();
+            default: return null;
         }
     }
     
@@ -0,0 +1,155 @@
+package com.darkkitchen.ui;
+
+import com.darkkitchen.io.DataTransfer;
+import com.darkkitchen.io.ExportJob;
+import com.darkkitchen.io.ImportJob;
+import com.darkkitchen.io.TransferProgress;
+import com.darkkitchen.io.TransferReport;
+import java.awt.Component;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+/**
+ * Menú "Importar / Exportar" para el menú y los clientes.
+ * Cada transferencia corre en su propio hilo (no ocupa el QueryExecutor) y muestra
+ * su avance en un ProgressMonitor que permite cancelarla.
+ */
+public class DataTransferActions {
+
+    private final Component parent;
+    private final Runnable onImported;
+    private final DataTransfer dataTransfer = new DataTransfer();
+
+    /**
+     * @param onImported Se ejecuta en el EDT después de una importación (para recargar los datos)
+     */
+    public DataTransferActions(Component parent, Runnable onImported) {
+        this.parent = parent;
+        this.onImported = onImported;
+    }
+
+    public JMenu createMenu() {
+        JMenu menu = new JMenu("Importar / Exportar");
+
+        JMenuItem importDishesItem = new JMenuItem("📥 Importar platillos...");
+        importDishesItem.addActionListener(e -> startImport("Importando platillos", dataTransfer::importDishes));
+
+        JMenuItem importCustomersItem = new JMenuItem("📥 Importar clientes...");
+        importCustomersItem.addActionListener(e -> startImport("Importando clientes", dataTransfer::importCustomers));
+
+        JMenuItem exportDishesItem = new JMenuItem("📤 Exportar platillos...");
+        exportDishesItem.addActionListener(e -> startExport("Exportando platillos", "platillos", dataTransfer::exportDishes));
+
+        JMenuItem exportCustomersItem = new JMenuItem("📤 Exportar clientes...");
+        exportCustomersItem.addActionListener(e -> startExport("Exportando clientes", "clientes", dataTransfer::exportCustomers));
+
+        menu.add(importDishesItem);
+        menu.add(importCustomersItem);
+        menu.addSeparator();
+        menu.add(exportDishesItem);
+        menu.add(exportCustomersItem);
+        return menu;
+    }
+
+    private void startImport(String title, Function<Path, ImportJob<?>> factory) {
+        JFileChooser chooser = createChooser();
+        if (chooser.showOpenDialog(parent) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        ImportJob<?> job;
+        try {
+            job = factory.apply(chooser.getSelectedFile().toPath());
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(parent, "Use un archivo .csv o .json", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        run(title, job::setProgressListener, job::run, job::cancel, true);
+    }
+
+    private void startExport(String title, String defaultName, Function<Path, ExportJob<?>> factory) {
+        JFileChooser chooser = createChooser();
+        chooser.setSelectedFile(new File(defaultName + ".csv"));
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        if (file.exists() && JOptionPane.showConfirmDialog(parent,
+                "El archivo " + file.getName() + " ya existe. ¿Desea reemplazarlo?",
+                "Confirmar", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
+        }
+        ExportJob<?> job;
+        try {
+            job = factory.apply(file.toPath());
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(parent, "Use la extensión .csv o .json", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        run(title, job::setProgressListener, job::run, job::cancel, false);
+    }
+
+    private void run(String title, Consumer<Consumer<TransferProgress>> progressSetter,
+                     Supplier<TransferReport> task, Runnable cancel, boolean isImport) {
+        ProgressMonitor monitor = new ProgressMonitor(parent, title, "Iniciando...", 0, 100);
+        monitor.setMillisToDecideToPopup(200);
+
+        // El botón Cancelar del monitor solo se puede consultar
+        Timer cancelCheck = new Timer(250, e -> {
+            if (monitor.isCanceled()) {
+                cancel.run();
+            }
+        });
+        cancelCheck.start();
+
+        progressSetter.accept(progress -> SwingUtilities.invokeLater(() -> {
+            monitor.setNote(progress.toString());
+            monitor.setProgress(Math.min(99, progress.getPercent()));
+        }));
+
+        Thread thread = new Thread(() -> {
+            TransferReport report = task.get();
+            SwingUtilities.invokeLater(() -> {
+                cancelCheck.stop();
+                monitor.close();
+                showReport(title, report, isImport);
+                if (isImport) {
+                    onImported.run();
+                }
+            });
+        }, "dk-transfer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void showReport(String title, TransferReport report, boolean isImport) {
+        StringBuilder message = new StringBuilder(report.toString());
+        if (report.getSkipped() > 0) {
+            message.append("\nSe reanudó después de ").append(report.getSkipped()).append(" registros ya importados.");
+        }
+        if (report.getErrorFile() != null) {
+            message.append("\nRegistros rechazados en: ").append(report.getErrorFile());
+        }
+        if (report.getFatalError() != null) {
+            message.append("\n\n").append(report.getFatalError());
+        }
+        if (report.isCancelled()) {
+            message.append(isImport
+                ? "\n\nOperación cancelada; puede reanudarse volviendo a elegir el mismo archivo."
+                : "\n\nOperación cancelada; no se modificó el archivo.");
+        }
+        int type = report.isCompleted() && report.getRejected() == 0
+            ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE;
+        JOptionPane.showMessageDialog(parent, message.toString(), title, type);
+    }
+
+    private static JFileChooser createChooser() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV o JSON", "csv", "json", "jsonl"));
+        return chooser;
+    }
+}
@@ -0,0 +1,41 @@
+package com.darkkitchen.ui;
+
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Ejecuta una acción cuando el usuario deja de escribir durante un intervalo.
+ * Cada cambio en el documento reinicia la espera; la acción corre en el EDT.
+ */
+public class DebouncedDocumentListener implements DocumentListener {
+
+    private final Timer timer;
+
+    public DebouncedDocumentListener(int delayMillis, Runnable action) {
+        timer = new Timer(delayMillis, e -> action.run());
+        timer.setRepeats(false);
+    }
+
+    /**
+     * Descarta una ejecución pendiente (por ejemplo, si se buscó con Enter)
+     */
+    public void cancel() {
+        timer.stop();
+    }
+
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+        timer.restart();
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+        timer.restart();
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+        // Cambios de atributos: el texto no cambió
+    }
+}
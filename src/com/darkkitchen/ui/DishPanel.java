@@ -1,24 +1,55 @@
 package com.darkkitchen.ui;
 
 import com.darkkitchen.dao.CategoryDAO;
+import com.darkkitchen.dao.ChangeBus;
+import com.darkkitchen.dao.ChangeEvent;
 import com.darkkitchen.dao.DishDAO;
+import com.darkkitchen.dao.MenuCache;
+import com.darkkitchen.dao.QueryExecutor;
 import com.darkkitchen.model.Category;
 import com.darkkitchen.model.Dish;
+import com.darkkitchen.pricing.ProfitabilityEngine;
+import com.darkkitchen.search.SearchService;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.math.BigDecimal;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
 
 /**
  * Panel para gestionar operaciones CRUD de platillos y categorías
  */
 public class DishPanel extends JPanel {
     
+    // Máximo de resultados mostrados por búsqueda
+    private static final int SEARCH_LIMIT = 200;
+    // Espera tras la última tecla antes de buscar
+    private static final int SEARCH_DELAY_MS = 200;
+    
+    // Mismo orden que el menú (categoría y nombre) para acomodar los platillos que cambian
+    private static final Comparator<Dish> MENU_ORDER;
+    static {
+        Collator collator = Collator.getInstance(new Locale("es", "MX"));
+        collator.setStrength(Collator.PRIMARY);
+        Comparator<String> text = Comparator.nullsFirst(collator::compare);
+        MENU_ORDER = Comparator.comparing(Dish::getCategoryName, text).thenComparing(Dish::getName, text);
+    }
+    
     private DishDAO dishDAO;
     private CategoryDAO categoryDAO;
+    private MenuCache menuCache;
+    private QueryExecutor queryExecutor;
+    private ProfitabilityEngine profitability;
+    private IncrementalSearch<Dish> incrementalSearch;
+    private DebouncedDocumentListener searchDebouncer;
+    // Término cuyos resultados se muestran ("" = menú completo)
+    private String shownSearchTerm = "";
     private JTable dishTable;
-    private DefaultTableModel tableModel;
+    private LazyTableModel<Dish> tableModel;
     private JTextField nameField, descriptionField, priceField, prepTimeField, searchField;
     private JComboBox<Category> categoryComboBox;
     private JCheckBox availableCheckBox, vegetarianCheckBox, spicyCheckBox;
@@ -29,10 +60,18 @@ public class DishPanel extends JPanel {
     public DishPanel() {
         dishDAO = new DishDAO();
         categoryDAO = new CategoryDAO();
+        menuCache = MenuCache.getInstance();
+        queryExecutor = QueryExecutor.getInstance();
+        profitability = ProfitabilityEngine.getInstance();
         initializeComponents();
         setupLayout();
         setupEventListeners();
         refreshData();
+        ChangeBus changes = ChangeBus.getInstance();
+        changes.subscribe(ChangeEvent.Entity.DISH, this::dishesChanged);
+        // Un cambio de categoría afecta al combo y al nombre mostrado en cada platillo
+        changes.subscribe(ChangeEvent.Entity.CATEGORY, events -> SwingUtilities.invokeLater(this::reloadMenu));
+        profitability.addListener(dishIds -> SwingUtilities.invokeLater(() -> marginsChanged(dishIds)));
     }
     
     private void initializeComponents() {
@@ -45,7 +84,6 @@ public class DishPanel extends JPanel {
         
         // ComboBox para categorías
         categoryComboBox = new JComboBox<>();
-        loadCategories();
         
         // CheckBoxes
         availableCheckBox = new JCheckBox("Disponible", true);
@@ -65,14 +103,10 @@ public class DishPanel extends JPanel {
         deleteButton.setEnabled(false);
         
         // Tabla
-        String[] columnNames = {"ID", "Nombre", "Categoría", "Descripción", "Precio", 
+        String[] columnNames = {"ID", "Nombre", "Categoría", "Descripción", "Precio", "Margen",
                                "Tiempo (min)", "Disponible", "Vegetariano", "Picante"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new LazyTableModel<>("dishes", columnNames, this::columnValue, 100, 10);
+        tableModel.setKeyFunction(Dish::getDishId);
         
         dishTable = new JTable(tableModel);
         dishTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -85,10 +119,11 @@ public class DishPanel extends JPanel {
         dishTable.getColumnModel().getColumn(2).setPreferredWidth(120); // Categoría
         dishTable.getColumnModel().getColumn(3).setPreferredWidth(200); // Descripción
         dishTable.getColumnModel().getColumn(4).setPreferredWidth(80);  // Precio
-        dishTable.getColumnModel().getColumn(5).setPreferredWidth(80);  // Tiempo
-        dishTable.getColumnModel().getColumn(6).setPreferredWidth(80);  // Disponible
-        dishTable.getColumnModel().getColumn(7).setPreferredWidth(80);  // Vegetariano
-        dishTable.getColumnModel().getColumn(8).setPreferredWidth(70);  // Picante
+        dishTable.getColumnModel().getColumn(5).setPreferredWidth(70);  // Margen
+        dishTable.getColumnModel().getColumn(6).setPreferredWidth(80);  // Tiempo
+        dishTable.getColumnModel().getColumn(7).setPreferredWidth(80);  // Disponible
+        dishTable.getColumnModel().getColumn(8).setPreferredWidth(80);  // Vegetariano
+        dishTable.getColumnModel().getColumn(9).setPreferredWidth(70);  // Picante
     }
     
     private void setupLayout() {
@@ -203,42 +238,76 @@ public class DishPanel extends JPanel {
         
         // Enter en campo de búsqueda
         searchField.addActionListener(e -> searchDishes());
+        
+        // Búsqueda mientras se escribe
+        incrementalSearch = new IncrementalSearch<>("dishes.search", SEARCH_LIMIT,
+            term -> SearchService.getInstance().searchDishes(term, SEARCH_LIMIT),
+            Dish::getName,
+            dishes -> {
+                loadDishesToTable(dishes);
+                clearForm();
+            });
+        searchDebouncer = new DebouncedDocumentListener(SEARCH_DELAY_MS, () -> {
+            if (!searchField.getText().trim().equals(shownSearchTerm)) {
+                searchDishes();
+            }
+        });
+        searchField.getDocument().addDocumentListener(searchDebouncer);
     }
     
     private void loadCategories() {
+        queryExecutor.coalesce("menu.categories", menuCache::getCategories)
+            .whenCompleteAsync((categories, error) -> {
+                if (error == null) {
+                    fillCategories(categories);
+                }
+            }, SwingUtilities::invokeLater);
+    }
+    
+    private void fillCategories(List<Category> categories) {
         categoryComboBox.removeAllItems();
-        List<Category> categories = categoryDAO.readAll();
         for (Category category : categories) {
             categoryComboBox.addItem(category);
         }
     }
     
     private void loadDishFromTable(int row) {
-        int dishId = (Integer) tableModel.getValueAt(row, 0);
-        selectedDish = dishDAO.readById(dishId);
+        Dish rowDish = tableModel.getRow(row);
+        if (rowDish == null) {
+            return; // La página aún se está cargando
+        }
         
-        if (selectedDish != null) {
-            nameField.setText(selectedDish.getName());
-            descriptionField.setText(selectedDish.getDescription());
-            priceField.setText(selectedDish.getPrice().toString());
-            prepTimeField.setText(String.valueOf(selectedDish.getPreparationTime()));
-            availableCheckBox.setSelected(selectedDish.isAvailable());
-            vegetarianCheckBox.setSelected(selectedDish.isVegetarian());
-            spicyCheckBox.setSelected(selectedDish.isSpicy());
-            
-            // Seleccionar categoría en ComboBox
-            for (int i = 0; i < categoryComboBox.getItemCount(); i++) {
-                Category category = categoryComboBox.getItemAt(i);
-                if (category.getCategoryId() == selectedDish.getCategoryId()) {
-                    categoryComboBox.setSelectedIndex(i);
-                    break;
+        // Solo importa el último platillo seleccionado
+        queryExecutor.latest("dishes.select", () -> menuCache.getDish(rowDish.getDishId()))
+            .whenCompleteAsync((dish, error) -> {
+                if (error == null && dish != null) {
+                    showDish(dish);
                 }
+            }, SwingUtilities::invokeLater);
+    }
+    
+    private void showDish(Dish dish) {
+        selectedDish = dish;
+        nameField.setText(selectedDish.getName());
+        descriptionField.setText(selectedDish.getDescription());
+        priceField.setText(selectedDish.getPrice().toString());
+        prepTimeField.setText(String.valueOf(selectedDish.getPreparationTime()));
+        availableCheckBox.setSelected(selectedDish.isAvailable());
+        vegetarianCheckBox.setSelected(selectedDish.isVegetarian());
+        spicyCheckBox.setSelected(selectedDish.isSpicy());
+        
+        // Seleccionar categoría en ComboBox
+        for (int i = 0; i < categoryComboBox.getItemCount(); i++) {
+            Category category = categoryComboBox.getItemAt(i);
+            if (category.getCategoryId() == selectedDish.getCategoryId()) {
+                categoryComboBox.setSelectedIndex(i);
+                break;
             }
-            
-            updateButton.setEnabled(true);
-            deleteButton.setEnabled(true);
-            addButton.setEnabled(false);
         }
+        
+        updateButton.setEnabled(true);
+        deleteButton.setEnabled(true);
+        addButton.setEnabled(false);
     }
     
     private void addDish() {
@@ -256,15 +325,8 @@ public class DishPanel extends JPanel {
             );
             dish.setAvailable(availableCheckBox.isSelected());
             
-            if (dishDAO.create(dish)) {
-                JOptionPane.showMessageDialog(this, "Platillo agregado exitosamente", 
-                    "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                refreshData();
-                clearForm();
-            } else {
-                JOptionPane.showMessageDialog(this, "Error al agregar platillo", 
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            runWrite(() -> dishDAO.create(dish),
+                "Platillo agregado exitosamente", "Error al agregar platillo");
         }
     }
     
@@ -281,15 +343,9 @@ public class DishPanel extends JPanel {
             selectedDish.setVegetarian(vegetarianCheckBox.isSelected());
             selectedDish.setSpicy(spicyCheckBox.isSelected());
             
-            if (dishDAO.update(selectedDish)) {
-                JOptionPane.showMessageDialog(this, "Platillo actualizado exitosamente", 
-                    "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                refreshData();
-                clearForm();
-            } else {
-                JOptionPane.showMessageDialog(this, "Error al actualizar platillo", 
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            Dish dish = selectedDish;
+            runWrite(() -> dishDAO.update(dish),
+                "Platillo actualizado exitosamente", "Error al actualizar platillo");
         }
     }
     
@@ -302,17 +358,37 @@ public class DishPanel extends JPanel {
                 JOptionPane.WARNING_MESSAGE);
             
             if (option == JOptionPane.YES_OPTION) {
-                if (dishDAO.delete(selectedDish.getDishId())) {
-                    JOptionPane.showMessageDialog(this, "Platillo marcado como no disponible", 
+                int dishId = selectedDish.getDishId();
+                runWrite(() -> dishDAO.delete(dishId),
+                    "Platillo marcado como no disponible", "Error al eliminar platillo");
+            }
+        }
+    }
+    
+    /**
+     * Ejecuta una escritura en segundo plano y muestra el resultado al terminar
+     */
+    private void runWrite(Callable<Boolean> write, String successMessage, String errorMessage) {
+        setWriteButtonsEnabled(false);
+        queryExecutor.submit(write)
+            .whenCompleteAsync((ok, error) -> {
+                setWriteButtonsEnabled(true);
+                if (error == null && ok) {
+                    JOptionPane.showMessageDialog(this, successMessage, 
                         "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                    refreshData();
+                    // La tabla se actualiza con el aviso de ChangeBus
                     clearForm();
                 } else {
-                    JOptionPane.showMessageDialog(this, "Error al eliminar platillo", 
+                    JOptionPane.showMessageDialog(this, errorMessage, 
                         "Error", JOptionPane.ERROR_MESSAGE);
                 }
-            }
-        }
+            }, SwingUtilities::invokeLater);
+    }
+    
+    private void setWriteButtonsEnabled(boolean enabled) {
+        addButton.setEnabled(enabled && selectedDish == null);
+        updateButton.setEnabled(enabled && selectedDish != null);
+        deleteButton.setEnabled(enabled && selectedDish != null);
     }
     
     private void clearForm() {
@@ -337,44 +413,166 @@ public class DishPanel extends JPanel {
     }
     
     private void searchDishes() {
+        searchDebouncer.cancel();
         String searchTerm = searchField.getText().trim();
-        List<Dish> dishes;
+        shownSearchTerm = searchTerm;
         
         if (searchTerm.isEmpty()) {
-            dishes = dishDAO.readAll();
-        } else {
-            dishes = dishDAO.searchByName(searchTerm);
+            incrementalSearch.reset();
+            // El menú completo normalmente ya está en caché
+            queryExecutor.latest("dishes.search", menuCache::getAllDishes)
+                .whenCompleteAsync((dishes, error) -> {
+                    if (error == null) {
+                        loadDishesToTable(dishes);
+                        clearForm();
+                    }
+                }, SwingUtilities::invokeLater);
+            return;
         }
         
-        loadDishesToTable(dishes);
-        clearForm();
+        incrementalSearch.search(searchTerm);
     }
     
     public void refreshData() {
-        loadCategories();
-        List<Dish> dishes = dishDAO.readAll();
-        loadDishesToTable(dishes);
-        clearForm();
+        // Los resultados filtrados en memoria ya no son confiables
+        incrementalSearch.reset();
+        shownSearchTerm = "";
         searchField.setText("");
+        // Recargas repetidas (menú, botón, cambio de pestaña) comparten una sola consulta
+        queryExecutor.coalesce("menu.refresh", () -> new MenuData(menuCache.getCategories(), menuCache.getAllDishes()))
+            .whenCompleteAsync((menu, error) -> {
+                if (error != null) {
+                    System.err.println("❌ Error al cargar el menú: " + error.getMessage());
+                    return;
+                }
+                fillCategories(menu.categories);
+                loadDishesToTable(menu.dishes);
+                clearForm();
+                // Después del menú: los precios se toman de MenuCache
+                loadMargins();
+            }, SwingUtilities::invokeLater);
+    }
+    
+    // Categorías y platillos cargados juntos en segundo plano
+    private static class MenuData {
+        final List<Category> categories;
+        final List<Dish> dishes;
+        
+        MenuData(List<Category> categories, List<Dish> dishes) {
+            this.categories = categories;
+            this.dishes = dishes;
+        }
     }
     
     private void loadDishesToTable(List<Dish> dishes) {
-        tableModel.setRowCount(0);
-        
-        for (Dish dish : dishes) {
-            Object[] row = {
-                dish.getDishId(),
-                dish.getName(),
-                dish.getCategoryName(),
-                dish.getDescription(),
-                "$" + dish.getPrice(),
-                dish.getPreparationTime() + " min",
-                dish.isAvailable() ? "Sí" : "No",
-                dish.isVegetarian() ? "Sí" : "No",
-                dish.isSpicy() ? "Sí" : "No"
-            };
-            tableModel.addRow(row);
+        tableModel.setRows(dishes);
+    }
+    
+    /**
+     * Aplica en la tabla una ráfaga de cambios de platillos (hilo de ChangeBus)
+     */
+    private void dishesChanged(List<ChangeEvent> events) {
+        // MenuCache ya olvidó estos platillos: se leen de nuevo en segundo plano
+        queryExecutor.submit(() -> {
+            List<Dish> changed = new ArrayList<>(events.size());
+            for (ChangeEvent event : events) {
+                Dish dish = menuCache.getDish(event.getEntityId());
+                if (dish == null) {
+                    dish = new Dish();
+                    dish.setDishId(event.getEntityId());
+                }
+                changed.add(dish);
+            }
+            return changed;
+        }).whenCompleteAsync((changed, error) -> {
+            if (error != null) {
+                System.err.println("❌ Error al leer platillos modificados: " + error.getMessage());
+                return;
+            }
+            // Los resultados de búsqueda no reciben platillos nuevos
+            boolean searching = !shownSearchTerm.isEmpty();
+            for (Dish dish : changed) {
+                if (!dish.isAvailable()) {
+                    // El menú solo muestra platillos activos
+                    tableModel.removeRow(dish.getDishId());
+                } else {
+                    tableModel.upsertRow(dish, searching ? -1 : tableModel.positionOf(dish, MENU_ORDER));
+                }
+            }
+        }, SwingUtilities::invokeLater);
+    }
+    
+    // Recarga categorías y platillos sin tocar la búsqueda ni el formulario
+    private void reloadMenu() {
+        queryExecutor.coalesce("menu.refresh", () -> new MenuData(menuCache.getCategories(), menuCache.getAllDishes()))
+            .whenCompleteAsync((menu, error) -> {
+                if (error != null) {
+                    System.err.println("❌ Error al cargar el menú: " + error.getMessage());
+                    return;
+                }
+                Category selected = (Category) categoryComboBox.getSelectedItem();
+                fillCategories(menu.categories);
+                if (selected != null) {
+                    for (int i = 0; i < categoryComboBox.getItemCount(); i++) {
+                        if (categoryComboBox.getItemAt(i).getCategoryId() == selected.getCategoryId()) {
+                            categoryComboBox.setSelectedIndex(i);
+                            break;
+                        }
+                    }
+                }
+                if (shownSearchTerm.isEmpty()) {
+                    loadDishesToTable(menu.dishes);
+                }
+            }, SwingUtilities::invokeLater);
+    }
+    
+    private Object columnValue(Dish dish, int column) {
+        switch (column) {
+            case 0: return dish.getDishId();
+            case 1: return dish.getName();
+            case 2: return dish.getCategoryName();
+            case 3: return dish.getDescription();
+            case 4: return "$" + dish.getPrice();
+            case 5: return formatMargin(profitability.marginBasisPoints(dish.getDishId()));
+            case 6: return dish.getPreparationTime() + " min";
+            case 7: return !dish.isAvailable() ? "No" : dish.isOutOfStock() ? "Agotado" : "Sí";
+            case 8: return dish.isVegetarian() ? "Sí" : "No";
+            case 9: return dish.isSpicy() ? "Sí" : "No";
+            default: return null;
+        }
+    }
+    
+    private static String formatMargin(int basisPoints) {
+        return basisPoints == ProfitabilityEngine.NO_MARGIN ? "—" : String.format("%.1f%%", basisPoints / 100.0);
+    }
+    
+    /**
+     * Repinta la columna de margen de los platillos recalculados (null = todos)
+     */
+    private void marginsChanged(int[] dishIds) {
+        int margin = 5;
+        if (dishIds == null) {
+            for (int row = 0; row < tableModel.getRowCount(); row++) {
+                tableModel.fireTableCellUpdated(row, margin);
+            }
+            return;
         }
+        for (int dishId : dishIds) {
+            int row = tableModel.findRow(dishId);
+            if (row >= 0) {
+                tableModel.fireTableCellUpdated(row, margin);
+            }
+        }
+    }
+    
+    // Costos y recetas en segundo plano; los márgenes aparecen al terminar
+    private void loadMargins() {
+        queryExecutor.coalesce("margins.load", profitability::load)
+            .whenComplete((loaded, error) -> {
+                if (error != null) {
+                    System.err.println("❌ Error al calcular rentabilidad: " + error.getMessage());
+                }
+            });
     }
     
     private boolean validateForm() {
@@ -505,23 +703,31 @@ public class DishPanel extends JPanel {
                     categoryDescField.getText().trim()
                 );
                 
-                if (categoryDAO.create(category)) {
-                    JOptionPane.showMessageDialog(this, "Categoría agregada exitosamente");
-                    refreshCategoryList();
-                    categoryNameField.setText("");
-                    categoryDescField.setText("");
-                } else {
-                    JOptionPane.showMessageDialog(this, "Error al agregar categoría");
-                }
+                queryExecutor.submit(() -> categoryDAO.create(category))
+                    .whenCompleteAsync((ok, error) -> {
+                        if (error == null && ok) {
+                            JOptionPane.showMessageDialog(this, "Categoría agregada exitosamente");
+                            refreshCategoryList();
+                            categoryNameField.setText("");
+                            categoryDescField.setText("");
+                        } else {
+                            JOptionPane.showMessageDialog(this, "Error al agregar categoría");
+                        }
+                    }, SwingUtilities::invokeLater);
             }
         }
         
         private void refreshCategoryList() {
-            listModel.clear();
-            List<Category> categories = categoryDAO.readAll();
-            for (Category category : categories) {
-                listModel.addElement(category);
-            }
+            queryExecutor.coalesce("menu.categories", menuCache::getCategories)
+                .whenCompleteAsync((categories, error) -> {
+                    if (error != null) {
+                        return;
+                    }
+                    listModel.clear();
+                    for (Category category : categories) {
+                        listModel.addElement(category);
+                    }
+                }, SwingUtilities::invokeLater);
         }
     }
 }
\ No newline at end of file
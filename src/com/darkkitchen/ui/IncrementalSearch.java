@@ -0,0 +1,87 @@
+package com.darkkitchen.ui;
+
+import com.darkkitchen.dao.QueryExecutor;
+import com.darkkitchen.search.SearchService;
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Búsqueda mientras se escribe sobre un campo de texto.
+ * Si el término nuevo extiende al de la última consulta (y esa consulta trajo todos
+ * sus resultados), filtra esos resultados en memoria; si no, consulta en segundo
+ * plano cancelando la búsqueda anterior. Se usa desde el EDT.
+ */
+public class IncrementalSearch<T> {
+
+    private final String key;
+    private final int limit;
+    private final Function<String, List<T>> search;
+    private final Function<T, String> text;
+    private final Consumer<List<T>> onResults;
+
+    // Última consulta resuelta por el SearchService (base para filtrar)
+    private String baseTerm;
+    private List<T> baseResults;
+    private SearchService.Mode baseMode;
+    // Descarta resultados de búsquedas reemplazadas
+    private int sequence = 0;
+
+    /**
+     * @param key Clave de la consulta en QueryExecutor
+     * @param search Búsqueda completa (se ejecuta fuera del EDT)
+     * @param text Texto de cada resultado contra el que se filtra
+     * @param onResults Recibe los resultados en el EDT
+     */
+    public IncrementalSearch(String key, int limit, Function<String, List<T>> search,
+                             Function<T, String> text, Consumer<List<T>> onResults) {
+        this.key = key;
+        this.limit = limit;
+        this.search = search;
+        this.text = text;
+        this.onResults = onResults;
+    }
+
+    /**
+     * Busca el término, filtrando en memoria cuando es posible
+     */
+    public void search(String term) {
+        int current = ++sequence;
+        SearchService searchService = SearchService.getInstance();
+
+        if (baseResults != null && baseResults.size() < limit
+                && baseMode == searchService.getMode()
+                && searchService.canRefine(baseTerm, term)) {
+            onResults.accept(searchService.refine(baseResults, text, term));
+            return;
+        }
+
+        SearchService.Mode mode = searchService.getMode();
+        QueryExecutor.getInstance().latest(key, () -> search.apply(term))
+            .whenCompleteAsync((results, error) -> {
+                if (current != sequence || error instanceof CancellationException) {
+                    return;
+                }
+                if (error != null) {
+                    System.err.println("❌ Error al buscar: " + error.getMessage());
+                    return;
+                }
+                baseTerm = term;
+                baseResults = results;
+                baseMode = mode;
+                onResults.accept(results);
+            }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Olvida la última consulta (tras escrituras o al recargar) e ignora búsquedas en curso
+     */
+    public void reset() {
+        sequence++;
+        baseTerm = null;
+        baseResults = null;
+        baseMode = null;
+    }
+}
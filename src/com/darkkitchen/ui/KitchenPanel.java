@@ -0,0 +1,241 @@
+package com.darkkitchen.ui;
+
+import com.darkkitchen.dao.OrderDAO;
+import com.darkkitchen.dao.QueryExecutor;
+import com.darkkitchen.order.KitchenQueue;
+import com.darkkitchen.model.OrderStatus;
+import com.darkkitchen.order.KitchenTicket;
+import com.darkkitchen.order.OrderService;
+import com.darkkitchen.order.OrderStateMachine;
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+
+/**
+ * Pantalla de cocina: renglones de los pedidos abiertos en el orden en que deben empezar
+ * a prepararse para que cada pedido salga completo a su hora. Los cambios llegan de
+ * KitchenQueue conforme ocurren; la base de datos solo se lee al abrir la pantalla o al
+ * recargar a petición.
+ */
+public class KitchenPanel extends JPanel {
+
+    // Cada cuánto se repintan los minutos de margen
+    private static final int CLOCK_REFRESH_MS = 15_000;
+
+    private static final Color LATE_COLOR = new Color(255, 205, 210);
+    private static final Color COOKING_COLOR = new Color(255, 243, 205);
+    private static final Color DONE_COLOR = new Color(212, 237, 218);
+
+    private final KitchenQueue kitchenQueue;
+    private final OrderDAO orderDAO;
+    private final QueryExecutor queryExecutor;
+    private KitchenTableModel tableModel;
+    private JTable ticketTable;
+    private JLabel summaryLabel;
+    private JButton nextButton, startButton, doneButton, cancelButton, reloadButton;
+
+    public KitchenPanel() {
+        kitchenQueue = KitchenQueue.getInstance();
+        orderDAO = new OrderDAO();
+        queryExecutor = QueryExecutor.getInstance();
+        initializeComponents();
+        setupLayout();
+        setupEventListeners();
+
+        // Primero el listener y luego la foto: los avisos intermedios se aplican después sin perderse
+        kitchenQueue.addListener(tableModel);
+        tableModel.load(kitchenQueue.snapshot());
+        OrderService.getInstance().addSavedListener(kitchenQueue::enqueue);
+        reloadOpenOrders();
+
+        Timer clock = new Timer(CLOCK_REFRESH_MS, e -> {
+            tableModel.refreshClock();
+            updateSummary();
+        });
+        clock.start();
+    }
+
+    private void initializeComponents() {
+        tableModel = new KitchenTableModel();
+        ticketTable = new JTable(tableModel);
+        ticketTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        ticketTable.setRowHeight(28);
+        ticketTable.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        ticketTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
+        ticketTable.setDefaultRenderer(Object.class, new TicketRenderer());
+        ticketTable.setDefaultRenderer(Integer.class, new TicketRenderer());
+
+        // Configurar anchos de columnas
+        ticketTable.getColumnModel().getColumn(0).setPreferredWidth(60);  // Iniciar
+        ticketTable.getColumnModel().getColumn(1).setPreferredWidth(60);  // Pedido
+        ticketTable.getColumnModel().getColumn(2).setPreferredWidth(200); // Platillo
+        ticketTable.getColumnModel().getColumn(3).setPreferredWidth(50);  // Cantidad
+        ticketTable.getColumnModel().getColumn(4).setPreferredWidth(70);  // Preparación
+        ticketTable.getColumnModel().getColumn(5).setPreferredWidth(70);  // Listo para
+        ticketTable.getColumnModel().getColumn(6).setPreferredWidth(80);  // Margen
+        ticketTable.getColumnModel().getColumn(7).setPreferredWidth(110); // Estado
+        ticketTable.getColumnModel().getColumn(8).setPreferredWidth(200); // Notas
+
+        summaryLabel = new JLabel(" ");
+        summaryLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
+
+        nextButton = new JButton("⏭ Siguiente");
+        startButton = new JButton("🔥 Iniciar");
+        doneButton = new JButton("✅ Listo");
+        cancelButton = new JButton("🚫 Cancelar pedido");
+        reloadButton = new JButton("🔄 Recargar pedidos abiertos");
+        startButton.setEnabled(false);
+        doneButton.setEnabled(false);
+        cancelButton.setEnabled(false);
+    }
+
+    private void setupLayout() {
+        setLayout(new BorderLayout(10, 10));
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(summaryLabel, BorderLayout.WEST);
+        JPanel reloadPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        reloadPanel.add(reloadButton);
+        topPanel.add(reloadPanel, BorderLayout.EAST);
+
+        JScrollPane scrollPane = new JScrollPane(ticketTable);
+        scrollPane.setBorder(BorderFactory.createTitledBorder("Cola de Preparación"));
+
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.add(nextButton);
+        buttonPanel.add(startButton);
+        buttonPanel.add(doneButton);
+        buttonPanel.add(cancelButton);
+
+        add(topPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private void setupEventListeners() {
+        ticketTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                updateButtons();
+            }
+        });
+        tableModel.addTableModelListener(e -> {
+            updateButtons();
+            updateSummary();
+        });
+
+        nextButton.addActionListener(e -> selectNext());
+        startButton.addActionListener(e -> {
+            KitchenTicket ticket = selectedTicket();
+            if (ticket != null) {
+                kitchenQueue.start(ticket.getTicketId());
+            }
+        });
+        doneButton.addActionListener(e -> {
+            KitchenTicket ticket = selectedTicket();
+            if (ticket != null) {
+                kitchenQueue.complete(ticket.getTicketId());
+            }
+        });
+        cancelButton.addActionListener(e -> cancelSelectedOrder());
+        reloadButton.addActionListener(e -> reloadOpenOrders());
+    }
+
+    // El cambio se valida en memoria; la cola quita el pedido al recibir el aviso de cancelado
+    private void cancelSelectedOrder() {
+        KitchenTicket ticket = selectedTicket();
+        if (ticket == null) {
+            return;
+        }
+        int option = JOptionPane.showConfirmDialog(this,
+            "¿Cancelar el pedido #" + ticket.getOrderId() + "?",
+            "Confirmar cancelación", JOptionPane.YES_NO_OPTION);
+        if (option != JOptionPane.YES_OPTION) {
+            return;
+        }
+        OrderStateMachine.Result result = OrderStateMachine.getInstance()
+            .transition(ticket.getOrderId(), OrderStatus.CANCELLED);
+        if (result != OrderStateMachine.Result.APPLIED) {
+            JOptionPane.showMessageDialog(this,
+                "No se pudo cancelar el pedido #" + ticket.getOrderId() + " (" + result + ")",
+                "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Lee los pedidos abiertos una vez; los que ya están en la cola se ignoran
+    private void reloadOpenOrders() {
+        reloadButton.setEnabled(false);
+        queryExecutor.coalesce("kitchen.load", () -> kitchenQueue.loadOpenOrders(orderDAO))
+            .whenCompleteAsync((added, error) -> {
+                reloadButton.setEnabled(true);
+                if (error != null) {
+                    System.err.println("❌ Error al cargar pedidos de cocina: " + error.getMessage());
+                } else if (added > 0) {
+                    System.out.println("✅ Pedidos agregados a cocina: " + added);
+                }
+            }, SwingUtilities::invokeLater);
+    }
+
+    private void selectNext() {
+        KitchenTicket next = kitchenQueue.next();
+        if (next == null) {
+            return;
+        }
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            if (tableModel.getTicketAt(row).getTicketId() == next.getTicketId()) {
+                ticketTable.setRowSelectionInterval(row, row);
+                ticketTable.scrollRectToVisible(ticketTable.getCellRect(row, 0, true));
+                return;
+            }
+        }
+    }
+
+    private KitchenTicket selectedTicket() {
+        return tableModel.getTicketAt(ticketTable.getSelectedRow());
+    }
+
+    private void updateButtons() {
+        KitchenTicket ticket = selectedTicket();
+        startButton.setEnabled(ticket != null && ticket.getState() == KitchenTicket.State.QUEUED);
+        doneButton.setEnabled(ticket != null && ticket.getState() != KitchenTicket.State.DONE);
+        cancelButton.setEnabled(ticket != null);
+    }
+
+    private void updateSummary() {
+        KitchenTicket next = kitchenQueue.next();
+        String nextText = next == null ? "sin pendientes"
+            : "siguiente: " + next + ", margen " + KitchenTableModel.minutesLeft(next) + " min";
+        summaryLabel.setText(String.format("🍳 %d pedidos | %d platillos en espera | %s",
+            kitchenQueue.getOrderCount(), kitchenQueue.getWaitingCount(), nextText));
+    }
+
+    // Colorea la fila según el estado del renglón y si ya debió empezar
+    private class TicketRenderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            if (!isSelected) {
+                KitchenTicket ticket = tableModel.getTicketAt(row);
+                Color background = table.getBackground();
+                if (ticket != null) {
+                    switch (ticket.getState()) {
+                        case QUEUED:
+                            if (KitchenTableModel.minutesLeft(ticket) < 0) {
+                                background = LATE_COLOR;
+                            }
+                            break;
+                        case COOKING:
+                            background = COOKING_COLOR;
+                            break;
+                        case DONE:
+                            background = DONE_COLOR;
+                            break;
+                    }
+                }
+                c.setBackground(background);
+            }
+            return c;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.darkkitchen.ui;
+
+import com.darkkitchen.order.KitchenQueue;
+import com.darkkitchen.order.KitchenTicket;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Modelo de tabla de la pantalla de cocina. Recibe los cambios de KitchenQueue desde
+ * cualquier hilo, los acumula y los aplica en el EDT con un solo invokeLater por ráfaga;
+ * cada cambio mueve o actualiza solo su fila (sin recargar la tabla completa).
+ */
+public class KitchenTableModel extends AbstractTableModel implements KitchenQueue.Listener {
+
+    private static final String[] COLUMNS = {
+        "Iniciar", "Pedido", "Platillo", "Cant.", "Prep (min)", "Listo para", "Margen (min)", "Estado", "Notas"
+    };
+
+    // Cambio pendiente de aplicar en el EDT
+    private static final class Change {
+        final KitchenTicket ticket;
+        final boolean removed;
+
+        Change(KitchenTicket ticket, boolean removed) {
+            this.ticket = ticket;
+            this.removed = removed;
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Change> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    // Solo se usan en el EDT
+    private final List<KitchenTicket> rows = new ArrayList<>();
+    private final Map<Long, KitchenTicket> current = new HashMap<>();
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm");
+
+    @Override
+    public void ticketChanged(KitchenTicket ticket, boolean removed) {
+        pending.add(new Change(ticket, removed));
+        if (drainScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::drain);
+        }
+    }
+
+    /**
+     * Carga una foto de la cola. Debe llamarse en el EDT después de registrar el modelo como
+     * listener: los avisos pendientes se aplican después y solo cambian lo que sea más nuevo.
+     */
+    public void load(List<KitchenTicket> tickets) {
+        for (KitchenTicket ticket : tickets) {
+            apply(ticket, false);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        Change change;
+        while ((change = pending.poll()) != null) {
+            apply(change.ticket, change.removed);
+        }
+    }
+
+    private void apply(KitchenTicket ticket, boolean removed) {
+        long id = ticket.getTicketId();
+        KitchenTicket old = current.get(id);
+        // Una versión igual o anterior a la mostrada llega si la foto inicial ya la incluía
+        if (!removed && old != null && old.getVersion() >= ticket.getVersion()) {
+            return;
+        }
+
+        if (old != null) {
+            int index = Collections.binarySearch(rows, old, KitchenTicket.PRIORITY);
+            if (index >= 0) {
+                rows.remove(index);
+                fireTableRowsDeleted(index, index);
+            }
+        }
+        if (removed) {
+            current.remove(id);
+            return;
+        }
+
+        current.put(id, ticket);
+        int index = Collections.binarySearch(rows, ticket, KitchenTicket.PRIORITY);
+        int insertAt = index >= 0 ? index : -index - 1;
+        rows.add(insertAt, ticket);
+        fireTableRowsInserted(insertAt, insertAt);
+    }
+
+    public KitchenTicket getTicketAt(int row) {
+        return row >= 0 && row < rows.size() ? rows.get(row) : null;
+    }
+
+    /**
+     * Repinta las columnas que dependen de la hora actual
+     */
+    public void refreshClock() {
+        if (!rows.isEmpty()) {
+            fireTableRowsUpdated(0, rows.size() - 1);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        KitchenTicket ticket = rows.get(rowIndex);
+        switch (columnIndex) {
+            case 0: return timeFormat.format(new Date(ticket.getStartByMillis()));
+            case 1: return "#" + ticket.getOrderId();
+            case 2: return ticket.getDishName();
+            case 3: return ticket.getQuantity();
+            case 4: return ticket.getPreparationMinutes();
+            case 5: return timeFormat.format(new Date(ticket.getReadyByMillis()));
+            case 6: return minutesLeft(ticket);
+            case 7: return stateLabel(ticket.getState());
+            case 8: return ticket.getSpecialRequests() != null ? ticket.getSpecialRequests() : "";
+            default: return null;
+        }
+    }
+
+    /**
+     * Minutos antes de la hora límite para empezar (negativo = atrasado)
+     */
+    static long minutesLeft(KitchenTicket ticket) {
+        return Math.floorDiv(ticket.getStartByMillis() - System.currentTimeMillis(), 60_000L);
+    }
+
+    private static String stateLabel(KitchenTicket.State state) {
+        switch (state) {
+            case QUEUED: return "⏳ En espera";
+            case COOKING: return "🔥 Preparando";
+            case DONE: return "✅ Listo";
+            default: return state.name();
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.darkkitchen.ui;
+
+import com.darkkitchen.dao.Page;
+import com.darkkitchen.dao.QueryExecutor;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Modelo de tabla virtualizado: solo mantiene en memoria una ventana de páginas.
+ * Las páginas se cargan en segundo plano conforme el JTable pide filas,
+ * se precarga la página siguiente en la dirección del desplazamiento y cada
+ * página cargada genera un único evento de actualización.
+ * Con una llave por fila (setKeyFunction) se puede cambiar, insertar o quitar una sola
+ * fila sin recargar el origen completo.
+ */
+public class LazyTableModel<T> extends AbstractTableModel {
+
+    /**
+     * Origen de filas paginado
+     */
+    public interface RowSource<T> {
+        /** Número total de filas */
+        int count();
+
+        /**
+         * Obtiene una página. Si se conoce el token de la página anterior se usa
+         * paginación por llave; si no, la posición absoluta.
+         */
+        Page<T> fetch(String pageToken, int offset, int pageSize);
+
+        /** true si las filas ya están en memoria y pueden leerse en el EDT */
+        default boolean isInMemory() {
+            return false;
+        }
+    }
+
+    /**
+     * Valor de una columna para una fila
+     */
+    @FunctionalInterface
+    public interface ColumnMapper<T> {
+        Object valueAt(T row, int column);
+    }
+
+    private static final String LOADING = "Cargando...";
+
+    private final String name;
+    private final String[] columnNames;
+    private final ColumnMapper<T> columnMapper;
+    private final int pageSize;
+    private final int maxPages;
+
+    private RowSource<T> source;
+    // Filas de setRows (copia propia que se puede modificar); null con un origen paginado
+    private List<T> memoryRows;
+    private ToIntFunction<T> keyFunction;
+    private int rowCount = 0;
+    // Incrementa con cada cambio de origen para descartar cargas viejas
+    private int generation = 0;
+    // Incrementa también cuando se recorren filas, para descartar páginas pedidas antes
+    private int pageGeneration = 0;
+
+    // Ventana de páginas cargadas (LRU)
+    private final LinkedHashMap<Integer, List<T>> pages;
+    // Token de inicio de cada página, conocido a partir de la página anterior
+    private final Map<Integer, String> pageTokens = new HashMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+    private int lastRequestedPage = 0;
+
+    /**
+     * @param name Nombre de la tabla, usado como clave de las consultas en segundo plano
+     */
+    public LazyTableModel(String name, String[] columnNames, ColumnMapper<T> columnMapper, int pageSize, int maxPages) {
+        this.name = name;
+        this.columnNames = columnNames;
+        this.columnMapper = columnMapper;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > LazyTableModel.this.maxPages;
+            }
+        };
+    }
+
+    /**
+     * Cambia el origen de filas; el conteo se obtiene en segundo plano
+     * si el origen no está en memoria
+     */
+    public void setSource(RowSource<T> newSource) {
+        source = newSource;
+        memoryRows = null;
+        generation++;
+        pageGeneration++;
+        pages.clear();
+        pageTokens.clear();
+        pending.clear();
+        lastRequestedPage = 0;
+
+        if (newSource.isInMemory()) {
+            rowCount = newSource.count();
+            fireTableDataChanged();
+            return;
+        }
+
+        rowCount = 0;
+        fireTableDataChanged();
+        final int requestGeneration = generation;
+        // Un nuevo origen reemplaza al conteo anterior si aún no empezaba
+        QueryExecutor.getInstance().latest(name + ".count", newSource::count)
+            .whenCompleteAsync((count, error) -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                if (error != null) {
+                    System.err.println("❌ Error al contar filas: " + error.getMessage());
+                    rowCount = 0;
+                } else {
+                    rowCount = count;
+                }
+                fireTableDataChanged();
+            }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Muestra una lista ya cargada (por ejemplo, resultados de búsqueda)
+     */
+    public void setRows(List<T> rows) {
+        List<T> copy = new ArrayList<>(rows);
+        setSource(listSource(copy));
+        memoryRows = copy;
+    }
+
+    /**
+     * Indica cómo obtener la llave (ID) de una fila; necesaria para cambiar filas sueltas
+     */
+    public void setKeyFunction(ToIntFunction<T> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+
+    /**
+     * true si las filas vienen de setRows (por ejemplo, resultados de búsqueda)
+     */
+    public boolean isShowingRows() {
+        return memoryRows != null;
+    }
+
+    /**
+     * Busca una fila por su llave entre las filas en memoria
+     * @return Posición, o -1 si no está cargada
+     */
+    public int findRow(int key) {
+        if (memoryRows != null) {
+            for (int i = 0; i < memoryRows.size(); i++) {
+                if (keyFunction.applyAsInt(memoryRows.get(i)) == key) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+            List<T> page = entry.getValue();
+            for (int i = 0; i < page.size(); i++) {
+                if (keyFunction.applyAsInt(page.get(i)) == key) {
+                    return entry.getKey() * pageSize + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Posición que le toca a una fila en las filas de setRows según el orden indicado,
+     * sin contar la fila con su misma llave
+     */
+    public int positionOf(T row, Comparator<? super T> order) {
+        if (memoryRows == null) {
+            return -1;
+        }
+        int key = keyFunction.applyAsInt(row);
+        int position = 0;
+        for (T other : memoryRows) {
+            if (keyFunction.applyAsInt(other) != key && order.compare(other, row) < 0) {
+                position++;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Cambia una fila o la inserta si no estaba
+     * @param position Posición de la fila sin contarla a ella misma (por ejemplo, cuántas
+     *                 van antes en el orden del origen); -1 = dejarla donde está y no
+     *                 insertarla si no está cargada
+     */
+    public void upsertRow(T row, int position) {
+        int current = findRow(keyFunction.applyAsInt(row));
+        if (current >= 0 && (position < 0 || position == current)) {
+            replaceAt(current, row);
+            return;
+        }
+        if (current >= 0) {
+            removeAt(current);
+        }
+        if (position >= 0) {
+            insertAt(Math.min(position, rowCount), row);
+        }
+    }
+
+    /**
+     * Quita una fila por su llave. Con un origen paginado, si la fila no está cargada se
+     * descuenta y se vuelven a pedir las páginas visibles.
+     */
+    public void removeRow(int key) {
+        int current = findRow(key);
+        if (current >= 0) {
+            removeAt(current);
+        } else if (memoryRows == null && source != null && rowCount > 0) {
+            rowCount--;
+            discardPagesFrom(0);
+            fireTableDataChanged();
+        }
+    }
+
+    private void replaceAt(int row, T value) {
+        if (memoryRows != null) {
+            // Las páginas son vistas de la lista y ven el cambio
+            memoryRows.set(row, value);
+        } else {
+            int pageIndex = row / pageSize;
+            List<T> page = new ArrayList<>(pages.get(pageIndex));
+            page.set(row % pageSize, value);
+            pages.put(pageIndex, page);
+        }
+        fireTableRowsUpdated(row, row);
+    }
+
+    private void insertAt(int row, T value) {
+        rowCount++;
+        if (memoryRows != null) {
+            memoryRows.add(row, value);
+            pages.clear();
+        } else {
+            int pageIndex = row / pageSize;
+            List<T> page = pages.get(pageIndex);
+            discardPagesFrom(pageIndex);
+            if (page != null) {
+                // La página queda completa: la última fila pasa a la siguiente página
+                List<T> patched = new ArrayList<>(page);
+                patched.add(row % pageSize, value);
+                if (patched.size() > pageSize) {
+                    patched.remove(pageSize);
+                }
+                pages.put(pageIndex, patched);
+            }
+        }
+        fireTableRowsInserted(row, row);
+    }
+
+    private void removeAt(int row) {
+        rowCount--;
+        if (memoryRows != null) {
+            memoryRows.remove(row);
+            pages.clear();
+        } else {
+            int pageIndex = row / pageSize;
+            List<T> page = pages.get(pageIndex);
+            discardPagesFrom(pageIndex);
+            // Solo se conserva si era la última página; si no, le falta la primera fila de la siguiente
+            if ((pageIndex + 1) * pageSize >= rowCount + 1) {
+                List<T> patched = new ArrayList<>(page);
+                patched.remove(row % pageSize);
+                pages.put(pageIndex, patched);
+            }
+        }
+        fireTableRowsDeleted(row, row);
+    }
+
+    // Las filas desde esta página se recorren: se olvidan y se descartan las cargas en curso
+    private void discardPagesFrom(int pageIndex) {
+        pages.keySet().removeIf(index -> index >= pageIndex);
+        pageTokens.keySet().removeIf(index -> index > pageIndex);
+        pageGeneration++;
+        pending.clear();
+    }
+
+    /**
+     * Obtiene el objeto de una fila, o null si su página aún no está cargada
+     */
+    public T getRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            return null;
+        }
+        List<T> page = pages.get(row / pageSize);
+        if (page == null) {
+            return null;
+        }
+        int index = row % pageSize;
+        return index < page.size() ? page.get(index) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int pageIndex = row / pageSize;
+        List<T> page = pages.get(pageIndex);
+
+        if (page == null && source != null && source.isInMemory()) {
+            // Origen en memoria: la página se arma al momento, sin eventos
+            page = source.fetch(null, pageIndex * pageSize, pageSize).getItems();
+            pages.put(pageIndex, page);
+        }
+
+        if (page == null) {
+            requestPage(pageIndex);
+            prefetch(pageIndex);
+            return column == 1 ? LOADING : null;
+        }
+
+        int index = row % pageSize;
+        return index < page.size() ? columnMapper.valueAt(page.get(index), column) : null;
+    }
+
+    // Precarga la página siguiente en la dirección del desplazamiento
+    private void prefetch(int pageIndex) {
+        int direction = Integer.compare(pageIndex, lastRequestedPage);
+        lastRequestedPage = pageIndex;
+        int next = pageIndex + (direction < 0 ? -1 : 1);
+        if (next >= 0 && next * pageSize < rowCount) {
+            requestPage(next);
+        }
+    }
+
+    private void requestPage(int pageIndex) {
+        if (source == null || pages.containsKey(pageIndex) || !pending.add(pageIndex)) {
+            return;
+        }
+
+        final RowSource<T> requestSource = source;
+        final int requestGeneration = pageGeneration;
+        final String token = pageTokens.get(pageIndex);
+        final int offset = pageIndex * pageSize;
+
+        QueryExecutor.getInstance().submit(() -> requestSource.fetch(token, offset, pageSize))
+            .whenCompleteAsync((page, error) -> {
+                if (requestGeneration != pageGeneration) {
+                    return;
+                }
+                pending.remove(pageIndex);
+                if (error != null) {
+                    System.err.println("❌ Error al cargar página " + pageIndex + ": " + error.getMessage());
+                } else {
+                    pageLoaded(pageIndex, page);
+                }
+            }, SwingUtilities::invokeLater);
+    }
+
+    private void pageLoaded(int pageIndex, Page<T> page) {
+        pages.put(pageIndex, page.getItems());
+        if (page.hasNext()) {
+            pageTokens.put(pageIndex + 1, page.getNextToken());
+        }
+
+        int first = pageIndex * pageSize;
+        int last = Math.min(first + pageSize, rowCount) - 1;
+        if (last >= first) {
+            // Un solo evento por página
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    /**
+     * Origen de filas sobre una lista en memoria
+     */
+    public static <T> RowSource<T> listSource(List<T> rows) {
+        return new RowSource<T>() {
+            @Override
+            public int count() {
+                return rows.size();
+            }
+
+            @Override
+            public Page<T> fetch(String pageToken, int offset, int pageSize) {
+                int end = Math.min(offset + pageSize, rows.size());
+                return new Page<>(rows.subList(Math.min(offset, end), end), null);
+            }
+
+            @Override
+            public boolean isInMemory() {
+                return true;
+            }
+        };
+    }
+}
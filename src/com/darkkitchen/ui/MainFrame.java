@@ -1,12 +1,25 @@
 package com.darkkitchen.ui;
 
+import com.darkkitchen.dao.ChangeBus;
+import com.darkkitchen.dao.ChangeLogDAO;
 import com.darkkitchen.dao.DatabaseConnection;
+import com.darkkitchen.dao.QueryExecutor;
+import com.darkkitchen.order.DispatchService;
+import com.darkkitchen.order.EtaService;
+import com.darkkitchen.order.InventoryService;
+import com.darkkitchen.order.LoyaltyRecompute;
+import com.darkkitchen.order.OrderService;
+import com.darkkitchen.order.OrderStateMachine;
+import com.darkkitchen.order.OrderTotalsRecompute;
+import com.darkkitchen.order.TelemetryService;
+import com.darkkitchen.search.SearchService;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.IOException;
 
 /**
  * Ventana principal de la aplicación Dark Kitchen
@@ -16,7 +29,14 @@ public class MainFrame extends JFrame {
     private JTabbedPane tabbedPane;
     private CustomerPanel customerPanel;
     private DishPanel dishPanel;
+    private KitchenPanel kitchenPanel;
     private JLabel statusLabel;
+    private JLabel activityLabel;
+    private JProgressBar activityBar;
+    private boolean inventoryStarted;
+    private boolean dispatchStarted;
+    private boolean telemetryStarted;
+    private boolean etaStarted;
     
     public MainFrame() {
         initializeComponents();
@@ -32,11 +52,13 @@ public class MainFrame extends JFrame {
         tabbedPane = new JTabbedPane();
         customerPanel = new CustomerPanel();
         dishPanel = new DishPanel();
+        kitchenPanel = new KitchenPanel();
         statusLabel = new JLabel("Verificando conexión...");
         
         // Agregar pestañas
         tabbedPane.addTab("Clientes", customerPanel);
         tabbedPane.addTab("Platillos", dishPanel);
+        tabbedPane.addTab("Cocina", kitchenPanel);
         
         // Configurar ícono de pestaña con mejor estilo
         tabbedPane.setTabPlacement(JTabbedPane.TOP);
@@ -81,7 +103,11 @@ public class MainFrame extends JFrame {
         exitItem.setAccelerator(KeyStroke.getKeyStroke("ctrl Q"));
         exitItem.addActionListener(e -> exitApplication());
         
+        // Importación y exportación masiva (CSV/JSON)
+        JMenu transferMenu = new DataTransferActions(this, this::refreshAllData).createMenu();
+        
         fileMenu.add(refreshItem);
+        fileMenu.add(transferMenu);
         fileMenu.addSeparator();
         fileMenu.add(exitItem);
         
@@ -92,7 +118,28 @@ public class MainFrame extends JFrame {
         JMenuItem testConnectionItem = new JMenuItem("🔌 Probar Conexión");
         testConnectionItem.addActionListener(e -> checkDatabaseConnection());
         
+        // Búsqueda con índice en memoria en lugar de FULLTEXT en MySQL
+        JCheckBoxMenuItem inMemorySearchItem = new JCheckBoxMenuItem("Búsqueda en memoria");
+        inMemorySearchItem.addActionListener(e -> {
+            SearchService.Mode mode = inMemorySearchItem.isSelected()
+                ? SearchService.Mode.IN_MEMORY : SearchService.Mode.DATABASE;
+            // Puede esperar a que termine de construirse un índice
+            QueryExecutor.getInstance().submit(() -> {
+                SearchService.getInstance().setMode(mode);
+                return null;
+            });
+        });
+        
+        JMenuItem recomputeTotalsItem = new JMenuItem("🧮 Recalcular totales de pedidos");
+        recomputeTotalsItem.addActionListener(e -> recomputeOrderTotals());
+        
+        JMenuItem recomputeLoyaltyItem = new JMenuItem("🏅 Recalcular niveles de lealtad");
+        recomputeLoyaltyItem.addActionListener(e -> recomputeLoyalty());
+        
         dbMenu.add(testConnectionItem);
+        dbMenu.add(inMemorySearchItem);
+        dbMenu.add(recomputeTotalsItem);
+        dbMenu.add(recomputeLoyaltyItem);
         
         // Menú Ayuda
         JMenu helpMenu = new JMenu("Ayuda");
@@ -120,42 +167,153 @@ public class MainFrame extends JFrame {
         statusLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         statusPanel.add(statusLabel);
         
+        // Indicador de consultas en segundo plano
+        activityBar = new JProgressBar();
+        activityBar.setIndeterminate(true);
+        activityBar.setPreferredSize(new Dimension(80, 12));
+        activityBar.setVisible(false);
+        activityLabel = new JLabel();
+        activityLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        statusPanel.add(activityBar);
+        statusPanel.add(activityLabel);
+        
+        // Se lee el conteo actual en el EDT para no mostrar valores atrasados
+        QueryExecutor.getInstance().addActivityListener(pending ->
+            SwingUtilities.invokeLater(() -> showActivity(QueryExecutor.getInstance().getPendingCount())));
+        
         add(statusPanel, BorderLayout.SOUTH);
     }
     
+    private void showActivity(int pending) {
+        activityBar.setVisible(pending > 0);
+        activityLabel.setText(pending > 0 ? "Consultando base de datos (" + pending + ")..." : "");
+    }
+    
     private void checkDatabaseConnection() {
         SwingUtilities.invokeLater(() -> {
             statusLabel.setText("🔌 Verificando conexión...");
             statusLabel.setForeground(Color.ORANGE);
         });
         
-        // Ejecutar en hilo separado para no bloquear la UI
-        SwingWorker<Boolean, Void> worker = new SwingWorker<Boolean, Void>() {
-            @Override
-            protected Boolean doInBackground() throws Exception {
-                return DatabaseConnection.testConnection();
-            }
-            
-            @Override
-            protected void done() {
-                try {
-                    boolean connected = get();
-                    if (connected) {
-                        statusLabel.setText("Conectado a la base de datos");
-                        statusLabel.setForeground(new Color(0, 128, 0));
-                    } else {
-                        statusLabel.setText("Error de conexión a la base de datos");
-                        statusLabel.setForeground(Color.RED);
-                        showConnectionErrorDialog();
-                    }
-                } catch (Exception e) {
-                    statusLabel.setText("Error de conexión: " + e.getMessage());
+        // Ejecutar en segundo plano para no bloquear la UI
+        QueryExecutor.getInstance().coalesce("db.test", DatabaseConnection::testConnection)
+            .whenCompleteAsync((connected, error) -> {
+                if (error != null) {
+                    statusLabel.setText("Error de conexión: " + error.getMessage());
+                    statusLabel.setForeground(Color.RED);
+                    showConnectionErrorDialog();
+                } else if (connected) {
+                    statusLabel.setText("Conectado a la base de datos");
+                    statusLabel.setForeground(new Color(0, 128, 0));
+                    // Cambios de otras terminales (una sola vez aunque se pruebe de nuevo)
+                    ChangeBus.getInstance().startPolling(new ChangeLogDAO());
+                    startInventory();
+                    startDispatch();
+                    startTelemetry();
+                    startEta();
+                } else {
+                    statusLabel.setText("Error de conexión a la base de datos");
                     statusLabel.setForeground(Color.RED);
                     showConnectionErrorDialog();
                 }
-            }
-        };
-        worker.execute();
+            }, SwingUtilities::invokeLater);
+    }
+    
+    // Existencias en memoria; los avisos de existencia baja se muestran en la barra de estado
+    private void startInventory() {
+        if (inventoryStarted) {
+            return;
+        }
+        inventoryStarted = true;
+        InventoryService inventory = InventoryService.getInstance();
+        inventory.addListener((ingredientId, available, exhaustedDishIds) -> SwingUtilities.invokeLater(() -> {
+            statusLabel.setText(exhaustedDishIds.length > 0
+                ? "⚠️ Ingrediente #" + ingredientId + " agotado para " + exhaustedDishIds.length + " platillos"
+                : "⚠️ Ingrediente #" + ingredientId + " en punto de reorden");
+            statusLabel.setForeground(Color.ORANGE);
+        }));
+        QueryExecutor.getInstance().coalesce("inventory.load", inventory::load)
+            .whenComplete((loaded, error) -> {
+                if (error != null) {
+                    System.err.println("❌ Error al cargar inventario: " + error.getMessage());
+                }
+            });
+    }
+    
+    // Asignación de repartidores a los pedidos listos
+    private void startDispatch() {
+        if (dispatchStarted) {
+            return;
+        }
+        dispatchStarted = true;
+        QueryExecutor.getInstance().coalesce("dispatch.load", DispatchService.getInstance()::load)
+            .whenComplete((loaded, error) -> {
+                if (error != null) {
+                    System.err.println("❌ Error al cargar repartidores: " + error.getMessage());
+                }
+            });
+    }
+    
+    // Posiciones de los repartidores por socket local (-Ddarkkitchen.telemetry.port=<puerto>)
+    private void startTelemetry() {
+        int port = Integer.getInteger("darkkitchen.telemetry.port", 0);
+        if (telemetryStarted || port <= 0) {
+            return;
+        }
+        telemetryStarted = true;
+        try {
+            TelemetryService.getInstance().listen(port);
+        } catch (IOException e) {
+            System.err.println("❌ Error al abrir el puerto de posiciones: " + e.getMessage());
+        }
+    }
+    
+    // Horas estimadas de entrega de los pedidos abiertos
+    private void startEta() {
+        if (etaStarted) {
+            return;
+        }
+        etaStarted = true;
+        QueryExecutor.getInstance().coalesce("eta.load", EtaService.getInstance()::load)
+            .whenComplete((loaded, error) -> {
+                if (error != null) {
+                    System.err.println("❌ Error al cargar tiempos de entrega: " + error.getMessage());
+                }
+            });
+    }
+    
+    private void recomputeOrderTotals() {
+        statusLabel.setText("🧮 Recalculando totales de pedidos...");
+        
+        QueryExecutor.getInstance().coalesce("orders.recompute", () -> new OrderTotalsRecompute().recompute(null))
+            .whenCompleteAsync((changed, error) -> {
+                if (error != null || changed < 0) {
+                    statusLabel.setText("❌ Error al recalcular totales de pedidos");
+                    return;
+                }
+                statusLabel.setText(" Listo");
+                JOptionPane.showMessageDialog(this,
+                    changed == 0 ? "Todos los pedidos tienen totales correctos."
+                                 : "Se corrigieron los totales de " + changed + " pedidos.",
+                    "Totales de Pedidos", JOptionPane.INFORMATION_MESSAGE);
+            }, SwingUtilities::invokeLater);
+    }
+    
+    private void recomputeLoyalty() {
+        statusLabel.setText("🏅 Recalculando niveles de lealtad...");
+        
+        QueryExecutor.getInstance().coalesce("customers.loyalty", () -> new LoyaltyRecompute().recompute(null))
+            .whenCompleteAsync((changed, error) -> {
+                if (error != null || changed < 0) {
+                    statusLabel.setText("❌ Error al recalcular niveles de lealtad");
+                    return;
+                }
+                statusLabel.setText(" Listo");
+                JOptionPane.showMessageDialog(this,
+                    changed == 0 ? "Todos los clientes tienen su nivel de lealtad correcto."
+                                 : "Se corrigió el nivel de lealtad de " + changed + " clientes.",
+                    "Niveles de Lealtad", JOptionPane.INFORMATION_MESSAGE);
+            }, SwingUtilities::invokeLater);
     }
     
     private void showConnectionErrorDialog() {
@@ -178,11 +336,10 @@ public class MainFrame extends JFrame {
     }
     
     private void refreshAllData() {
-        SwingUtilities.invokeLater(() -> {
-            customerPanel.refreshData();
-            dishPanel.refreshData();
-            statusLabel.setText("🔄 Datos actualizados");
-        });
+        // Los paneles recargan en segundo plano; aquí solo se disparan las consultas
+        customerPanel.refreshData();
+        dishPanel.refreshData();
+        statusLabel.setText("🔄 Actualizando datos...");
         
         // Limpiar el mensaje después de 3 segundos
         Timer timer = new Timer(3000, e -> statusLabel.setText(" Listo"));
@@ -200,6 +357,7 @@ public class MainFrame extends JFrame {
             Sistema CRUD para gestión de:
             • Clientes
             • Platillos y Categorías
+            • Cola de preparación en cocina
             
             Tecnologías utilizadas:
             • Java Swing
@@ -225,7 +383,27 @@ public class MainFrame extends JFrame {
         );
         
         if (option == JOptionPane.YES_OPTION) {
-            // Cerrar conexión a la base de datos
+            // Detener consultas pendientes y cerrar conexión a la base de datos
+            ChangeBus.getInstance().stopPolling();
+            // Guarda los pedidos en cola y devuelve los usos de promociones sin usar
+            OrderService.getInstance().shutdown();
+            // Los consumos de ingredientes pendientes se guardan antes de cerrar
+            if (inventoryStarted) {
+                InventoryService.getInstance().shutdown();
+            }
+            // La muestra de posiciones pendiente se guarda antes de cerrar
+            if (telemetryStarted) {
+                TelemetryService.getInstance().shutdown();
+            }
+            if (dispatchStarted) {
+                DispatchService.getInstance().shutdown();
+            }
+            if (etaStarted) {
+                EtaService.getInstance().shutdown();
+            }
+            // Los cambios de estado aceptados justo antes de salir se guardan antes de cerrar
+            OrderStateMachine.getInstance().shutdown();
+            QueryExecutor.getInstance().shutdown();
             DatabaseConnection.closeConnection();
             
             // Salir de la aplicación